@@ -0,0 +1,54 @@
+#!/usr/bin/env bash
+# Runs the same wrk loads against the Spring MVC build and the reactive profile and prints, for each, throughput,
+# latency percentiles and the highest live JVM thread count seen during the run. Two loads are measured: CONNECTIONS
+# clients sending back to back, and SLOW_CONNECTIONS clients pausing THINK_TIME_MS between requests.
+# Needs wrk and the docker-compose Postgres (make docker-up).
+set -euo pipefail
+
+cd "$(dirname "$0")/../.."
+CONNECTIONS="${CONNECTIONS:-400}"
+SLOW_CONNECTIONS="${SLOW_CONNECTIONS:-10000}"
+export THINK_TIME_MS="${THINK_TIME_MS:-1000}"
+DURATION="${DURATION:-60s}"
+THREADS="${THREADS:-8}"
+PORT="${PORT:-8080}"
+
+# every slow client holds a socket on both ends
+ulimit -n $((SLOW_CONNECTIONS * 2 + 1024)) 2>/dev/null || echo "warning: could not raise the open-file limit"
+
+./mvnw -q clean package -DskipTests
+WAR=$(ls target/*.war | head -n 1)
+
+measure() {
+  local label="$1" script="$2" connections="$3"
+  local peak_file="target/bench-$label-threads"
+  echo 0 >"$peak_file"
+  (
+    while sleep 1; do
+      threads=$(curl -sf "http://localhost:$PORT/actuator/metrics/jvm.threads.live" \
+        | sed -E 's/.*"value":([0-9.]+).*/\1/' | cut -d. -f1) || continue
+      [ "$threads" -gt "$(cat "$peak_file")" ] && echo "$threads" >"$peak_file"
+    done
+  ) &
+  local sampler=$!
+  echo "=== $label ($connections connections) ==="
+  wrk -t"$THREADS" -c"$connections" -d"$DURATION" --timeout 10s --latency -s "$script" "http://localhost:$PORT" \
+    | grep -E "Requests/sec|Latency|50%|90%|99%|Non-2xx|Socket errors"
+  kill "$sampler"; wait "$sampler" 2>/dev/null || true
+  echo "Peak live threads: $(cat "$peak_file")"
+}
+
+run() {
+  local label="$1"; shift
+  java "$@" -jar "$WAR" --server.port="$PORT" >"target/bench-$label.log" 2>&1 &
+  local pid=$!
+  until curl -sf "http://localhost:$PORT/actuator/health" >/dev/null; do sleep 1; done
+  # warm-up pass so the JIT and the connection pool are settled before measuring
+  wrk -t"$THREADS" -c"$CONNECTIONS" -d15s -s benchmarks/http/create-deal.lua "http://localhost:$PORT" >/dev/null
+  measure "$label" benchmarks/http/create-deal.lua "$CONNECTIONS"
+  measure "$label-slow-clients" benchmarks/http/slow-client.lua "$SLOW_CONNECTIONS"
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+}
+
+run mvc
+run reactive -Dspring.profiles.active=reactive
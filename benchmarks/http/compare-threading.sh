@@ -0,0 +1,29 @@
+#!/usr/bin/env bash
+# Runs the same wrk load against the platform-thread and the virtual-thread builds and prints throughput and
+# latency percentiles for each. Needs Java 21, wrk and the docker-compose Postgres (make docker-up).
+set -euo pipefail
+
+cd "$(dirname "$0")/../.."
+CONNECTIONS="${CONNECTIONS:-400}"
+DURATION="${DURATION:-60s}"
+THREADS="${THREADS:-8}"
+PORT="${PORT:-8080}"
+
+./mvnw -q -Pjava21 clean package -DskipTests
+WAR=$(ls target/*.war | head -n 1)
+
+run() {
+  local label="$1"; shift
+  java "$@" -jar "$WAR" --server.port="$PORT" >"target/bench-$label.log" 2>&1 &
+  local pid=$!
+  until curl -sf "http://localhost:$PORT/actuator/health" >/dev/null; do sleep 1; done
+  # warm-up pass so the JIT and the connection pool are settled before measuring
+  wrk -t"$THREADS" -c"$CONNECTIONS" -d15s -s benchmarks/http/create-deal.lua "http://localhost:$PORT" >/dev/null
+  echo "=== $label ==="
+  wrk -t"$THREADS" -c"$CONNECTIONS" -d"$DURATION" --latency -s benchmarks/http/create-deal.lua "http://localhost:$PORT" \
+    | grep -E "Requests/sec|Latency|50%|90%|99%|Non-2xx|Socket errors"
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+}
+
+run platform-threads
+run virtual-threads -Dspring.profiles.active=virtual-threads
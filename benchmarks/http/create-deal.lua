@@ -0,0 +1,29 @@
+-- wrk script: POST /api/v1/fx-deals with a fresh random deal id per request
+-- usage: wrk -t8 -c400 -d60s --latency -s benchmarks/http/create-deal.lua http://localhost:8080
+
+local currencies = { "USD", "EUR", "GBP", "JPY", "CHF", "CAD", "AUD", "MAD" }
+
+local function uuid()
+    local template = "xxxxxxxx-xxxx-4xxx-yxxx-xxxxxxxxxxxx"
+    return (string.gsub(template, "[xy]", function(c)
+        local v = (c == "x") and math.random(0, 15) or math.random(8, 11)
+        return string.format("%x", v)
+    end))
+end
+
+function setup(thread)
+    thread:set("seed", math.random(1, 2 ^ 30))
+end
+
+function init(args)
+    math.randomseed(seed or os.time())
+end
+
+request = function()
+    local from = currencies[math.random(#currencies)]
+    local to = currencies[math.random(#currencies)]
+    local body = string.format(
+        '{"dealUniqueId":"%s","orderingCurrencyIsoCode":"%s","toCurrencyIsoCode":"%s","dealAmount":%d.%02d,"dealTimestamp":"2024-01-15T10:30:00"}',
+        uuid(), from, to, math.random(1, 1000000), math.random(0, 99))
+    return wrk.format("POST", "/api/v1/fx-deals", { ["Content-Type"] = "application/json" }, body)
+end
@@ -0,0 +1,11 @@
+-- wrk script: the create-deal load, but every connection pauses THINK_TIME_MS (default 1000) between requests,
+-- so that many mostly idle connections stay open at once
+-- usage: THINK_TIME_MS=1000 wrk -t8 -c10000 -d60s --latency -s benchmarks/http/slow-client.lua http://localhost:8080
+
+dofile("benchmarks/http/create-deal.lua")
+
+local think_time = tonumber(os.getenv("THINK_TIME_MS") or "1000")
+
+delay = function()
+    return think_time
+end
@@ -0,0 +1,38 @@
+package com.datawarehouse.api.clustereddatawarehouse.benchmark;
+
+import com.datawarehouse.api.clustereddatawarehouse.domain.DealAmounts;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Deterministic sample deals shared by the benchmarks.
+ */
+final class BenchmarkDeals {
+
+    private static final String[] CURRENCIES = {"USD", "EUR", "GBP", "JPY", "CHF", "CAD", "AUD", "MAD"};
+
+    private BenchmarkDeals() {
+    }
+
+    static FXDealsRequestDto request(SplittableRandom random) {
+        return FXDealsRequestDto.builder()
+                .dealUniqueId(new UUID(random.nextLong(), random.nextLong()))
+                .orderingCurrencyIsoCode(CURRENCIES[random.nextInt(CURRENCIES.length)])
+                .toCurrencyIsoCode(CURRENCIES[random.nextInt(CURRENCIES.length)])
+                .dealAmount(random.nextInt(1, 1_000_000) * DealAmounts.ONE + random.nextInt(100) * 100L)
+                .dealTimestamp(String.format("2024-%02d-%02dT%02d:%02d:%02d",
+                        random.nextInt(1, 13), random.nextInt(1, 29), random.nextInt(24), random.nextInt(60), random.nextInt(60)))
+                .build();
+    }
+
+    static byte[] json(FXDealsRequestDto deal) {
+        return ("{\"dealUniqueId\":\"" + deal.getDealUniqueId()
+                + "\",\"orderingCurrencyIsoCode\":\"" + deal.getOrderingCurrencyIsoCode()
+                + "\",\"toCurrencyIsoCode\":\"" + deal.getToCurrencyIsoCode()
+                + "\",\"dealAmount\":" + DealAmounts.format(deal.getDealAmount())
+                + ",\"dealTimestamp\":\"" + deal.getDealTimestamp() + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,43 @@
+package com.datawarehouse.api.clustereddatawarehouse.benchmark;
+
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a request body into an {@link FXDealsRequestDto}, using the same Jackson defaults as Spring MVC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DealDeserializationBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    private ObjectReader reader;
+    private byte[][] bodies;
+    private int next;
+
+    @Setup
+    public void setup() {
+        reader = Jackson2ObjectMapperBuilder.json().build().readerFor(FXDealsRequestDto.class);
+        SplittableRandom random = new SplittableRandom(42);
+        bodies = new byte[SAMPLES][];
+        for (int i = 0; i < SAMPLES; i++) {
+            bodies[i] = BenchmarkDeals.json(BenchmarkDeals.request(random));
+        }
+    }
+
+    @Benchmark
+    public FXDealsRequestDto deserialize() throws IOException {
+        return reader.readValue(bodies[next++ & (SAMPLES - 1)]);
+    }
+}
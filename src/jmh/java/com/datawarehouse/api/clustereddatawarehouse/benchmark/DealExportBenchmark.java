@@ -0,0 +1,95 @@
+package com.datawarehouse.api.clustereddatawarehouse.benchmark;
+
+import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import com.datawarehouse.api.clustereddatawarehouse.services.export.ArrowDealWriter;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.FXDealsMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding {@value #DEALS} deals read from the database for a client: as the JSON of {@code GET /api/v1/fx-deals},
+ * mapping each deal to its response DTO with Spring MVC's Jackson defaults, against an Arrow IPC export. Both write
+ * to a stream that only counts bytes; the bytes per deal of both are printed during setup. Scores are per deal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DealExportBenchmark {
+
+    private static final int DEALS = 100_000;
+    private static final int BATCH_SIZE = 32_768;
+
+    private ObjectMapper objectMapper;
+    private FXDealsMapper mapper;
+    private List<FxDeals> deals;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        mapper = Mappers.getMapper(FXDealsMapper.class);
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime createdAt = LocalDateTime.parse("2024-06-01T00:00:00");
+        deals = new ArrayList<>(DEALS);
+        for (int i = 0; i < DEALS; i++) {
+            FxDeals deal = mapper.toEntity(BenchmarkDeals.request(random));
+            deal.setCreatedAt(createdAt);
+            deals.add(deal);
+        }
+        System.out.printf("%nBytes per deal: JSON %.1f, Arrow %.1f%n",
+                (double) json().count / DEALS, (double) arrow().count / DEALS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DEALS)
+    public CountingStream json() throws IOException {
+        CountingStream out = new CountingStream();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            for (FxDeals deal : deals) {
+                generator.writeObject(mapper.toDto(deal));
+            }
+            generator.writeEndArray();
+        }
+        return out;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DEALS)
+    public CountingStream arrow() throws IOException {
+        CountingStream out = new CountingStream();
+        ArrowDealWriter writer = new ArrowDealWriter(out, BATCH_SIZE);
+        for (FxDeals deal : deals) {
+            writer.write(deal);
+        }
+        writer.finish();
+        return out;
+    }
+
+    public static final class CountingStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.datawarehouse.api.clustereddatawarehouse.benchmark;
+
+import com.datawarehouse.api.clustereddatawarehouse.web.binary.FXDealFrames;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.FXDealsMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading {@value #DEALS} deals from JSON against a binary {@link FXDealFrames frame}, per deal. The
+ * {@code ...ToEntities} variants also map each deal to an entity.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DealFrameBenchmark {
+
+    private static final int DEALS = 1000;
+
+    private ObjectReader reader;
+    private FXDealsMapper mapper;
+    private byte[] json;
+    private byte[] frame;
+
+    @Setup
+    public void setup() {
+        reader = Jackson2ObjectMapperBuilder.json().build().readerFor(new TypeReference<List<FXDealsRequestDto>>() {
+        });
+        mapper = Mappers.getMapper(FXDealsMapper.class);
+        SplittableRandom random = new SplittableRandom(42);
+        List<FXDealsRequestDto> deals = new ArrayList<>(DEALS);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write('[');
+        for (int i = 0; i < DEALS; i++) {
+            FXDealsRequestDto deal = BenchmarkDeals.request(random);
+            deals.add(deal);
+            if (i > 0) {
+                body.write(',');
+            }
+            body.writeBytes(BenchmarkDeals.json(deal));
+        }
+        body.write(']');
+        json = body.toByteArray();
+        frame = FXDealFrames.encode(deals);
+        System.out.printf("%nBytes per deal: JSON %.1f, frame %.1f%n",
+                (double) json.length / DEALS, (double) frame.length / DEALS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DEALS)
+    public List<FXDealsRequestDto> json() throws IOException {
+        return reader.readValue(json);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DEALS)
+    public List<FXDealsRequestDto> frame() {
+        return FXDealFrames.decode(frame, DEALS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DEALS)
+    public void jsonToEntities(Blackhole blackhole) throws IOException {
+        List<FXDealsRequestDto> deals = reader.readValue(json);
+        for (FXDealsRequestDto deal : deals) {
+            blackhole.consume(mapper.toEntity(deal));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DEALS)
+    public void frameToEntities(Blackhole blackhole) {
+        for (FXDealsRequestDto deal : FXDealFrames.decode(frame, DEALS)) {
+            blackhole.consume(mapper.toEntity(deal));
+        }
+    }
+}
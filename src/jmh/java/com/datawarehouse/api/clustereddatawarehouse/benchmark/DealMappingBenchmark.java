@@ -0,0 +1,67 @@
+package com.datawarehouse.api.clustereddatawarehouse.benchmark;
+
+import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsResponseDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.FXDealsMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FXDealsMapper} conversions, with {@code parseTimestamp} measured on its own since it dominates
+ * {@code toEntity}. {@code parseTimestampIsoFormatter} is the formatter-only parse the mapper used before its fast
+ * path, kept as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DealMappingBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    private FXDealsMapper mapper;
+    private FXDealsRequestDto[] requests;
+    private FxDeals[] entities;
+    private int next;
+
+    @Setup
+    public void setup() {
+        mapper = Mappers.getMapper(FXDealsMapper.class);
+        SplittableRandom random = new SplittableRandom(42);
+        requests = new FXDealsRequestDto[SAMPLES];
+        entities = new FxDeals[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            requests[i] = BenchmarkDeals.request(random);
+            entities[i] = mapper.toEntity(requests[i]);
+            entities[i].setCreatedAt(LocalDateTime.now());
+        }
+    }
+
+    @Benchmark
+    public FxDeals toEntity() {
+        return mapper.toEntity(requests[next++ & (SAMPLES - 1)]);
+    }
+
+    @Benchmark
+    public FXDealsResponseDto toDto() {
+        return mapper.toDto(entities[next++ & (SAMPLES - 1)]);
+    }
+
+    @Benchmark
+    public LocalDateTime parseTimestamp() {
+        return mapper.parseTimestamp(requests[next++ & (SAMPLES - 1)].getDealTimestamp());
+    }
+
+    @Benchmark
+    public LocalDateTime parseTimestampIsoFormatter() {
+        return LocalDateTime.parse(requests[next++ & (SAMPLES - 1)].getDealTimestamp(), DateTimeFormatter.ISO_DATE_TIME);
+    }
+}
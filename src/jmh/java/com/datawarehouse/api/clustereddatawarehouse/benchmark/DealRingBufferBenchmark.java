@@ -0,0 +1,66 @@
+package com.datawarehouse.api.clustereddatawarehouse.benchmark;
+
+import com.datawarehouse.api.clustereddatawarehouse.services.stream.DealRingBuffer;
+import com.datawarehouse.api.clustereddatawarehouse.services.stream.DealStreamEvent;
+import com.datawarehouse.api.clustereddatawarehouse.services.stream.DealStreamSubscription;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsResponseDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Three committing threads publish while one subscriber drains with a currency filter; {@code publish} is what the
+ * stream adds to a committing thread per deal.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DealRingBufferBenchmark {
+
+    private static final int CAPACITY = 65_536;
+    private static final int POLL_BATCH = 256;
+
+    private DealRingBuffer ring;
+    private DealStreamSubscription subscription;
+    private FXDealsResponseDto deal;
+
+    @Setup
+    public void setup() {
+        ring = new DealRingBuffer(CAPACITY);
+        subscription = new DealStreamSubscription(ring, "USD", null, 0);
+        deal = FXDealsResponseDto.builder()
+                .id(UUID.randomUUID())
+                .orderingCurrencyIsoCode("USD")
+                .toCurrencyIsoCode("EUR")
+                .dealAmount(10_005_000L)
+                .dealTimestamp(LocalDateTime.parse("2024-01-15T10:30:00"))
+                .build();
+    }
+
+    @Benchmark
+    @Group("fanOut")
+    @GroupThreads(3)
+    public long publish() {
+        return ring.publish(deal);
+    }
+
+    @Benchmark
+    @Group("fanOut")
+    @GroupThreads(1)
+    public int poll() {
+        List<DealStreamEvent> matches = new ArrayList<>(POLL_BATCH);
+        int read = subscription.poll(matches, POLL_BATCH);
+        if (read < 0) {
+            // Fell behind the publishers; skip ahead like a reconnecting client.
+            subscription = new DealStreamSubscription(ring, "USD", null, ring.nextSequence());
+        }
+        return read;
+    }
+}
@@ -0,0 +1,97 @@
+package com.datawarehouse.api.clustereddatawarehouse.benchmark;
+
+import com.datawarehouse.api.clustereddatawarehouse.ClusteredDataWarehouseApplication;
+import com.datawarehouse.api.clustereddatawarehouse.services.FXDealsService;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsBatchResponseDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsResponseDto;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end service inserts against a real PostgreSQL: validation, mapping, the duplicate check and the commit.
+ * <p>
+ * Starts an embedded PostgreSQL by default. Pass {@code -Dbench.jdbc-url=jdbc:postgresql://localhost:5433/fx_deals_warehouse}
+ * (plus {@code bench.username}/{@code bench.password}) through {@code jmh.args} to use an existing server instead,
+ * for example the docker-compose one. Embedded PostgreSQL refuses to start as root.
+ * <p>
+ * {@code writePath} runs every benchmark with each {@code fx-deals.persistence.write-path}; compare their time and
+ * {@code gc.alloc.rate.norm} to see what the Hibernate session costs per insert.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dlogging.level.root=WARN")
+public class DealServiceInsertBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"JPA", "JDBC"})
+    public String writePath;
+
+    private EmbeddedPostgres embeddedPostgres;
+    private ConfigurableApplicationContext context;
+    private FXDealsService fxDealsService;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        String jdbcUrl = System.getProperty("bench.jdbc-url");
+        String username = System.getProperty("bench.username", "admin");
+        String password = System.getProperty("bench.password", "admin");
+        if (jdbcUrl == null) {
+            embeddedPostgres = EmbeddedPostgres.builder().start();
+            jdbcUrl = embeddedPostgres.getJdbcUrl("postgres", "postgres");
+            username = "postgres";
+            password = "postgres";
+        }
+        context = new SpringApplicationBuilder(ClusteredDataWarehouseApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + jdbcUrl,
+                        "spring.datasource.username=" + username,
+                        "spring.datasource.password=" + password,
+                        "spring.jpa.show-sql=false",
+                        "fx-deals.persistence.write-path=" + writePath,
+                        "logging.level.root=WARN")
+                .run();
+        fxDealsService = context.getBean(FXDealsService.class);
+        random = new SplittableRandom(System.nanoTime());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (context != null) {
+            context.close();
+        }
+        if (embeddedPostgres != null) {
+            embeddedPostgres.close();
+        }
+    }
+
+    @Benchmark
+    public FXDealsResponseDto createDeal() {
+        return fxDealsService.createDeal(BenchmarkDeals.request(random));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public FXDealsBatchResponseDto createDeals() {
+        List<FXDealsRequestDto> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(BenchmarkDeals.request(random));
+        }
+        return fxDealsService.createDeals(batch);
+    }
+}
@@ -0,0 +1,79 @@
+package com.datawarehouse.api.clustereddatawarehouse.benchmark;
+
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.validation.CurrencyCode;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.constraints.Pattern;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean validation of {@link FXDealsRequestDto}, including the {@code @CurrencyCode} checks on both currency codes.
+ * {@code currencyCode} and {@code currencyPattern} validate just the two codes, with the current constraint and with
+ * the {@code @Pattern} regex the DTO used before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DealValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private FXDealsRequestDto valid;
+    private FXDealsRequestDto invalidCurrency;
+    private Currencies currencies;
+    private PatternCurrencies patternCurrencies;
+
+    @Setup
+    public void setup() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        valid = BenchmarkDeals.request(new SplittableRandom(42));
+        invalidCurrency = BenchmarkDeals.request(new SplittableRandom(42));
+        invalidCurrency.setOrderingCurrencyIsoCode("usd");
+        currencies = new Currencies(valid.getOrderingCurrencyIsoCode(), valid.getToCurrencyIsoCode());
+        patternCurrencies = new PatternCurrencies(valid.getOrderingCurrencyIsoCode(), valid.getToCurrencyIsoCode());
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<FXDealsRequestDto>> validDeal() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<FXDealsRequestDto>> invalidCurrency() {
+        return validator.validate(invalidCurrency);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Currencies>> currencyCode() {
+        return validator.validate(currencies);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<PatternCurrencies>> currencyPattern() {
+        return validator.validate(patternCurrencies);
+    }
+
+    public record Currencies(@CurrencyCode String orderingCurrencyIsoCode, @CurrencyCode String toCurrencyIsoCode) {
+    }
+
+    public record PatternCurrencies(
+            @Pattern(regexp = "^[A-Z]{3}$", message = "Currency ISO Code must be 3 uppercase letters") String orderingCurrencyIsoCode,
+            @Pattern(regexp = "^[A-Z]{3}$", message = "Currency ISO Code must be 3 uppercase letters") String toCurrencyIsoCode) {
+    }
+}
@@ -0,0 +1,66 @@
+package com.datawarehouse.api.clustereddatawarehouse.benchmark;
+
+import com.datawarehouse.api.clustereddatawarehouse.services.ingestion.wal.DealLogRecord;
+import com.datawarehouse.api.clustereddatawarehouse.services.ingestion.wal.DealWriteAheadLog;
+import com.datawarehouse.api.clustereddatawarehouse.services.ingestion.wal.GroupCommitter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Acknowledged deals per second through the write-ahead log for different group-commit sizes, with 64 concurrent
+ * submitters each waiting for their deal to be forced. A group size of 1 forces every deal on its own.
+ * <p>
+ * The log is written under {@code -Dwal.benchmark.dir} (default: the temp directory). Point it at the disk the
+ * service will use: on tmpfs a force is free and every group size looks the same.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(64)
+public class WriteAheadLogBenchmark {
+
+    @Param({"1", "16", "64", "256"})
+    public int groupCommitSize;
+
+    private Path directory;
+    private DealWriteAheadLog wal;
+    private GroupCommitter committer;
+    private byte[] payload;
+
+    @Setup
+    public void setup() throws IOException {
+        Path parent = Path.of(System.getProperty("wal.benchmark.dir", System.getProperty("java.io.tmpdir")));
+        directory = Files.createTempDirectory(parent, "wal-benchmark-");
+        wal = DealWriteAheadLog.open(directory, 64 * 1024 * 1024);
+        committer = new GroupCommitter(wal, 10_000, groupCommitSize, Duration.ZERO);
+        payload = new DealLogRecord(UUID.randomUUID(), BenchmarkDeals.request(new SplittableRandom(42))).encode();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        committer.close();
+        wal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public long acknowledgedDeal() throws Exception {
+        return committer.submit(payload, Duration.ofSeconds(1)).get();
+    }
+}
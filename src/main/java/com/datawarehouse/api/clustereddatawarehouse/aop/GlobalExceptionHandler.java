@@ -1,28 +1,175 @@
 package com.datawarehouse.api.clustereddatawarehouse.aop;
 
+import com.datawarehouse.api.clustereddatawarehouse.metrics.FXDealMetrics;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.IngestionOutcome;
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.ShardRebalanceInProgressException;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BadRequestException;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BatchSizeExceededException;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.ClientQuotaExceededException;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.IngestionOverloadedException;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.IngestionQueueFullException;
 import com.datawarehouse.api.clustereddatawarehouse.web.exception.RequestAlreadyExistException;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.StreamPositionUnavailableException;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.StreamSubscriberLimitException;
 import com.datawarehouse.api.clustereddatawarehouse.web.response.ApiErrorResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Maps exceptions to error bodies for both runtimes: Spring MVC and, in the {@code reactive} profile, WebFlux.
+ */
 @ControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    // About the default fx-deals.sharding.ring-check-interval, after which a completed rebalance is noticed.
+    private static final Duration REBALANCE_RETRY_AFTER = Duration.ofSeconds(10);
+
+    private final FXDealMetrics metrics;
+    private final IngestionMetricsAdvice ingestionMetricsAdvice;
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiErrorResponse> handleValidationExceptions(MethodArgumentNotValidException ex) {
+        return validationFailed(ex.getBindingResult());
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ApiErrorResponse> handleReactiveValidationExceptions(WebExchangeBindException ex) {
+        return validationFailed(ex.getBindingResult());
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ApiErrorResponse> handleUnreadableMessageExceptions(HttpMessageNotReadableException ex) {
+        ingestionMetricsAdvice.recordDeserialize(IngestionOutcome.PARSE_FAILURE);
+        return malformedRequestBody();
+    }
+
+    /**
+     * WebFlux's counterpart of {@link HttpMessageNotReadableException}; it is also raised for unreadable request
+     * parameters, which are answered the same way.
+     */
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ApiErrorResponse> handleReactiveUnreadableMessageExceptions(ServerWebInputException ex) {
+        return malformedRequestBody();
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ApiErrorResponse> handleBadRequestExceptions(BadRequestException ex) {
+        ApiErrorResponse response = ApiErrorResponse.create(
+                HttpStatus.BAD_REQUEST.value(),
+                ex.getMessage(),
+                null
+        );
+
+        // Also raised for requests that asked for text/event-stream, which an error body cannot be written as.
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON).body(response);
+    }
+
+    @ExceptionHandler(RequestAlreadyExistException.class)
+    public ResponseEntity<Map<String, String>> handleRequestDuplicationExceptions(RequestAlreadyExistException ex) {
+        Map<String, String> errors = new HashMap<>();
+        errors.put("error", ex.getMessage());
+        return new ResponseEntity<>(errors, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(BatchSizeExceededException.class)
+    public ResponseEntity<ApiErrorResponse> handleBatchSizeExceededExceptions(BatchSizeExceededException ex) {
+        ApiErrorResponse response = ApiErrorResponse.create(
+                HttpStatus.PAYLOAD_TOO_LARGE.value(),
+                ex.getMessage(),
+                null
+        );
+
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(response);
+    }
+
+    @ExceptionHandler(StreamPositionUnavailableException.class)
+    public ResponseEntity<ApiErrorResponse> handleStreamPositionUnavailableExceptions(StreamPositionUnavailableException ex) {
+        ApiErrorResponse response = ApiErrorResponse.create(
+                HttpStatus.GONE.value(),
+                ex.getMessage(),
+                null
+        );
+
+        return ResponseEntity.status(HttpStatus.GONE).contentType(MediaType.APPLICATION_JSON).body(response);
+    }
+
+    @ExceptionHandler(StreamSubscriberLimitException.class)
+    public ResponseEntity<ApiErrorResponse> handleStreamSubscriberLimitExceptions(StreamSubscriberLimitException ex) {
+        ApiErrorResponse response = ApiErrorResponse.create(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                ex.getMessage(),
+                null
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).contentType(MediaType.APPLICATION_JSON).body(response);
+    }
+
+    @ExceptionHandler(IngestionQueueFullException.class)
+    public ResponseEntity<ApiErrorResponse> handleIngestionQueueFullExceptions(IngestionQueueFullException ex) {
+        ApiErrorResponse response = ApiErrorResponse.create(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                ex.getMessage(),
+                null
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
+    @ExceptionHandler(IngestionOverloadedException.class)
+    public ResponseEntity<ApiErrorResponse> handleIngestionOverloadedExceptions(IngestionOverloadedException ex) {
+        return retryLater(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), ex.getRetryAfter());
+    }
+
+    @ExceptionHandler(ShardRebalanceInProgressException.class)
+    public ResponseEntity<ApiErrorResponse> handleShardRebalanceInProgressExceptions(ShardRebalanceInProgressException ex) {
+        return retryLater(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), REBALANCE_RETRY_AFTER);
+    }
+
+    @ExceptionHandler(ClientQuotaExceededException.class)
+    public ResponseEntity<ApiErrorResponse> handleClientQuotaExceededExceptions(ClientQuotaExceededException ex) {
+        return retryLater(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage(), ex.getRetryAfter());
+    }
+
+    private ResponseEntity<ApiErrorResponse> retryLater(HttpStatus status, String message, Duration retryAfter) {
+        ApiErrorResponse response = ApiErrorResponse.create(
+                status.value(),
+                message,
+                null
+        );
+
+        // Retry-After is in whole seconds; round up so that a client retrying on time is admitted.
+        long seconds = Math.max(1, retryAfter.plusNanos(999_999_999).getSeconds());
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+                .body(response);
+    }
+
+    private ResponseEntity<ApiErrorResponse> validationFailed(BindingResult bindingResult) {
         Map<String, String> validationErrors = new HashMap<>();
-        ex.getBindingResult().getAllErrors().forEach(error -> {
+        bindingResult.getAllErrors().forEach(error -> {
             String fieldName = ((FieldError) error).getField();
             String errorMessage = error.getDefaultMessage();
             validationErrors.put(fieldName, errorMessage);
         });
+        metrics.recordOutcome(IngestionOutcome.VALIDATION_FAILURE);
 
         ApiErrorResponse response = ApiErrorResponse.create(
                 HttpStatus.BAD_REQUEST.value(),
@@ -33,11 +180,15 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
-    @ExceptionHandler(RequestAlreadyExistException.class)
-    public ResponseEntity<Map<String, String>> handleRequestDuplicationExceptions(RequestAlreadyExistException ex) {
-        Map<String, String> errors = new HashMap<>();
-        errors.put("error", ex.getMessage());
-        return new ResponseEntity<>(errors, HttpStatus.CONFLICT);
-    }
+    private ResponseEntity<ApiErrorResponse> malformedRequestBody() {
+        metrics.recordOutcome(IngestionOutcome.PARSE_FAILURE);
+
+        ApiErrorResponse response = ApiErrorResponse.create(
+                HttpStatus.BAD_REQUEST.value(),
+                "Malformed request body",
+                null
+        );
 
-}
\ No newline at end of file
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+}
@@ -0,0 +1,64 @@
+package com.datawarehouse.api.clustereddatawarehouse.aop;
+
+import com.datawarehouse.api.clustereddatawarehouse.metrics.FXDealMetrics;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.IngestionOutcome;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.IngestionStage;
+import com.datawarehouse.api.clustereddatawarehouse.web.rest.FXDealController;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+
+/**
+ * Times JSON deserialization of deal request bodies. The start time is kept as a request attribute so that
+ * {@link GlobalExceptionHandler} can record a parse failure against the same timer when the body is unreadable.
+ */
+@ControllerAdvice(assignableTypes = FXDealController.class)
+@RequiredArgsConstructor
+public class IngestionMetricsAdvice extends RequestBodyAdviceAdapter {
+
+    static final String DESERIALIZE_STARTED_ATTRIBUTE = IngestionMetricsAdvice.class.getName() + ".deserializeStarted";
+
+    private final FXDealMetrics metrics;
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                           Class<? extends HttpMessageConverter<?>> converterType) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(DESERIALIZE_STARTED_ATTRIBUTE, metrics.start(), RequestAttributes.SCOPE_REQUEST);
+        }
+        return inputMessage;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType) {
+        recordDeserialize(IngestionOutcome.SUCCESS);
+        return body;
+    }
+
+    void recordDeserialize(IngestionOutcome outcome) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return;
+        }
+        Object started = attributes.getAttribute(DESERIALIZE_STARTED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (started instanceof Long startNanos) {
+            metrics.recordStage(IngestionStage.DESERIALIZE, outcome, startNanos);
+            attributes.removeAttribute(DESERIALIZE_STARTED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+}
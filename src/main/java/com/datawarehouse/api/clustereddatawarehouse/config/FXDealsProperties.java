@@ -0,0 +1,494 @@
+package com.datawarehouse.api.clustereddatawarehouse.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "fx-deals")
+public class FXDealsProperties {
+
+    private Batch batch = new Batch();
+    private Import importing = new Import();
+    private DedupFilter dedupFilter = new DedupFilter();
+    private Ingestion ingestion = new Ingestion();
+    private Logging logging = new Logging();
+    private Partitioning partitioning = new Partitioning();
+    private Query query = new Query();
+    private Analytics analytics = new Analytics();
+    private Sharding sharding = new Sharding();
+    private Stream stream = new Stream();
+    private Export export = new Export();
+    private Persistence persistence = new Persistence();
+    private Cache cache = new Cache();
+    private Admission admission = new Admission();
+
+    @Getter
+    @Setter
+    public static class Batch {
+        /**
+         * Maximum number of deals accepted by a single batch request.
+         */
+        private int maxSize = 10_000;
+
+        /**
+         * Number of rows sent per multi-row INSERT statement.
+         */
+        private int insertChunkSize = 1_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Import {
+        /**
+         * Number of rows validated and committed together while streaming an import.
+         */
+        private int chunkSize = 1_000;
+
+        /**
+         * Maximum number of rejected rows echoed back in the import report.
+         */
+        private int maxReportedErrors = 100;
+
+        /**
+         * Longest line of an import, in characters; a longer line is rejected as unparseable without being held in
+         * memory.
+         */
+        private int maxLineLength = 4096;
+
+        /**
+         * Number of characters of CSV buffered before each write to a bulk load's COPY stream.
+         */
+        private int copyBufferSize = 64 * 1024;
+    }
+
+    @Getter
+    @Setter
+    public static class DedupFilter {
+        /**
+         * Whether deal ids are tracked in an in-memory Bloom filter to skip the duplicate check for new deals. Off by
+         * default: the gain has not been measured.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Number of deal ids the filter is sized for; the false positive rate degrades beyond it.
+         */
+        private long expectedInsertions = 10_000_000;
+
+        /**
+         * Target false positive rate at the expected number of insertions.
+         */
+        private double falsePositiveRate = 0.01;
+    }
+
+    @Getter
+    @Setter
+    public static class Ingestion {
+        /**
+         * SYNC persists each deal before answering; ASYNC queues it and answers 202 Accepted with a tracking id.
+         * DURABLE also answers 202, but only once the deal is on local disk in the write-ahead log.
+         */
+        private IngestionMode mode = IngestionMode.SYNC;
+
+        /**
+         * Maximum number of accepted deals waiting to be written.
+         */
+        private int queueCapacity = 10_000;
+
+        /**
+         * What to do with a new deal when the queue is full.
+         */
+        private Backpressure backpressure = Backpressure.REJECT;
+
+        /**
+         * How long a request waits for queue space when backpressure is BLOCK.
+         */
+        private Duration blockTimeout = Duration.ofSeconds(1);
+
+        /**
+         * Number of writer threads draining the queue.
+         */
+        private int writerThreads = 2;
+
+        /**
+         * Maximum number of deals a writer persists in one transaction.
+         */
+        private int microBatchSize = 500;
+
+        /**
+         * Number of most recent tracking ids whose status is kept for lookups.
+         */
+        private int trackingCapacity = 100_000;
+
+        /**
+         * How long shutdown waits for the writers to drain the queue.
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+        /**
+         * How many times an ASYNC writer retries a micro-batch that failed because the database was unavailable,
+         * before its deals are marked FAILED and dropped.
+         */
+        private int writeRetries = 5;
+
+        /**
+         * First delay before a writer retries a failed micro-batch; doubled on each further failure.
+         */
+        private Duration writeRetryBackoff = Duration.ofMillis(200);
+
+        /**
+         * Longest delay between two attempts to write a micro-batch.
+         */
+        private Duration writeMaxBackoff = Duration.ofSeconds(5);
+
+        /**
+         * The local write-ahead log used by the DURABLE mode.
+         */
+        private WriteAheadLog wal = new WriteAheadLog();
+    }
+
+    @Getter
+    @Setter
+    public static class WriteAheadLog {
+        /**
+         * Directory holding the log segments and the replay checkpoint. It must survive restarts.
+         */
+        private Path directory = Path.of("data", "wal");
+
+        /**
+         * Size of each memory-mapped segment file; at most 2GB.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Maximum number of deals forced to disk with one fsync.
+         */
+        private int groupCommitSize = 256;
+
+        /**
+         * How long the committer waits for a group to fill up before forcing a smaller one.
+         */
+        private Duration groupCommitLinger = Duration.ZERO;
+
+        /**
+         * How long a request waits for its group to be forced before it is rejected.
+         */
+        private Duration commitTimeout = Duration.ofSeconds(5);
+
+        /**
+         * First delay before the replayer retries after the database failed; doubled on each further failure.
+         */
+        private Duration replayRetryBackoff = Duration.ofMillis(500);
+
+        /**
+         * Longest delay between two replay attempts.
+         */
+        private Duration replayMaxBackoff = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class Logging {
+        /**
+         * Log one in this many per-deal events; 1 logs every deal.
+         */
+        private int sampleRate = 1;
+
+        /**
+         * Whether a periodic summary of ingestion rates is logged.
+         */
+        private boolean summaryEnabled = true;
+
+        /**
+         * How often the ingestion rate summary is logged.
+         */
+        private Duration summaryInterval = Duration.ofSeconds(10);
+    }
+
+    @Getter
+    @Setter
+    public static class Partitioning {
+        /**
+         * Whether fx_deals partitions are created and expired automatically.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Range covered by each new partition. Ranges that overlap an existing partition are skipped, so the
+         * granularity can be changed on a live database.
+         */
+        private PartitionGranularity granularity = PartitionGranularity.MONTHLY;
+
+        /**
+         * Number of partitions kept ready after the current one.
+         */
+        private int premake = 3;
+
+        /**
+         * How long partitions are kept attached; partitions ending before today minus this period are expired.
+         * Zero keeps every partition.
+         */
+        private Period retention = Period.ZERO;
+
+        /**
+         * What happens to an expired partition.
+         */
+        private RetentionAction retentionAction = RetentionAction.ARCHIVE;
+
+        /**
+         * Schema that archived partitions are moved to.
+         */
+        private String archiveSchema = "fx_deals_archive";
+
+        /**
+         * When partition maintenance runs, in addition to application startup.
+         */
+        private String cron = "0 0 1 * * *";
+    }
+
+    @Getter
+    @Setter
+    public static class Query {
+        /**
+         * Number of deals per page when the request does not specify a limit.
+         */
+        private int defaultPageSize = 100;
+
+        /**
+         * Largest page a client may request.
+         */
+        private int maxPageSize = 1_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Analytics {
+        /**
+         * Largest number of time buckets a single volume request may span, per currency pair.
+         */
+        private int maxBuckets = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Sharding {
+        /**
+         * Whether deals are spread over {@code shards} instead of being stored in {@code spring.datasource}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The PostgreSQL nodes deals are distributed over. Shards are identified on the hash ring by name, so
+         * renaming a shard moves its deals while changing its URL does not.
+         */
+        private List<Shard> shards = new ArrayList<>();
+
+        /**
+         * Points each shard owns on the consistent-hash ring; more points give a more even spread.
+         */
+        private int virtualNodes = 128;
+
+        /**
+         * How long a query that fans out to every shard waits for the slowest one.
+         */
+        private Duration fanOutTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Number of deals the rebalancer reads from a shard per round trip.
+         */
+        private int rebalanceBatchSize = 1_000;
+
+        /**
+         * How often each instance checks which ring the shards were last balanced for. Deal writes are refused
+         * while it differs from this instance's ring.
+         */
+        private Duration ringCheckInterval = Duration.ofSeconds(10);
+    }
+
+    @Getter
+    @Setter
+    public static class Stream {
+        /**
+         * Number of most recently committed deals kept for subscribers to read and resume from; rounded up to a
+         * power of two. A subscriber further behind than this is disconnected.
+         */
+        private int capacity = 65_536;
+
+        /**
+         * Largest number of subscribers connected at once; each one has its own thread.
+         */
+        private int maxSubscribers = 64;
+
+        /**
+         * Largest number of deals written to a subscriber per flush.
+         */
+        private int sendBatchSize = 256;
+
+        /**
+         * How long a subscriber may go without being sent anything before it is sent a comment, so that closed
+         * connections are noticed.
+         */
+        private Duration heartbeat = Duration.ofSeconds(15);
+    }
+
+    @Getter
+    @Setter
+    public static class Export {
+        /**
+         * Number of rows the export's database cursor fetches per round trip.
+         */
+        private int fetchSize = 10_000;
+
+        /**
+         * Number of deals per Arrow record batch. Each export holds one batch in memory, 52 bytes per deal.
+         */
+        private int batchSize = 32_768;
+    }
+
+    @Getter
+    @Setter
+    public static class Persistence {
+        /**
+         * Transaction manager that deal inserts run in. JPA wraps every insert in a Hibernate session; JDBC uses a
+         * plain DataSource transaction. The SQL is the same.
+         */
+        private WritePath writePath = WritePath.JPA;
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+        /**
+         * Whether lookups by id go through an in-process cache.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Largest number of ids cached, found or not; the least valuable entries are evicted beyond it.
+         */
+        private long maximumSize = 100_000;
+
+        /**
+         * How long a found deal stays cached after it was loaded or inserted.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /**
+         * How long an id that was not found is remembered as missing. A deal inserted through another instance or a
+         * bulk load stays invisible to lookups by id here for up to this long.
+         */
+        private Duration negativeTtl = Duration.ofSeconds(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Admission {
+        /**
+         * Whether synchronous deal inserts are capped by an adaptive concurrency limit. Excess requests get 503.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Concurrent inserts allowed before the first latencies are observed.
+         */
+        private int initialLimit = 20;
+
+        /**
+         * The limit never drops below this, so that a recovering database is noticed.
+         */
+        private int minLimit = 1;
+
+        private int maxLimit = 200;
+
+        /**
+         * A single-deal insert slower than this counts as a sign of overload and shrinks the limit.
+         */
+        private Duration latencyThreshold = Duration.ofMillis(200);
+
+        /**
+         * Factor the limit is multiplied by on overload; it grows back by one per limit's worth of fast inserts.
+         */
+        private double backoffRatio = 0.9;
+
+        /**
+         * Retry-After sent with 503 when the limit is reached.
+         */
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        /**
+         * Request rate shared by every API key, identified by the {@code X-API-Key} header, that is not listed in
+         * {@code clients}, and by requests without one. Zero means no quota. Excess requests get 429.
+         */
+        private double requestsPerSecond = 0;
+
+        /**
+         * Requests a quota allows at once after being idle.
+         */
+        private int burst = 100;
+
+        /**
+         * Request rates for individual API keys, overriding {@code requests-per-second}.
+         */
+        private Map<String, Double> clients = new HashMap<>();
+    }
+
+    @Getter
+    @Setter
+    public static class Shard {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+
+        /**
+         * Maximum number of pooled connections to this shard.
+         */
+        private int maxPoolSize = 10;
+
+        /**
+         * Takes the shard off the hash ring so that the rebalancer moves all of its deals to the other shards. It is
+         * still read until then.
+         */
+        private boolean draining = false;
+    }
+
+    public enum IngestionMode {
+        SYNC,
+        ASYNC,
+        DURABLE
+    }
+
+    public enum WritePath {
+        JPA,
+        JDBC
+    }
+
+    public enum Backpressure {
+        REJECT,
+        BLOCK
+    }
+
+    public enum PartitionGranularity {
+        DAILY,
+        MONTHLY
+    }
+
+    public enum RetentionAction {
+        /**
+         * Detach the partition and move it to the archive schema, where it can be dumped or queried directly.
+         */
+        ARCHIVE,
+        DROP
+    }
+}
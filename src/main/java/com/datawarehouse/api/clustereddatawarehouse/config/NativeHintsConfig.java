@@ -0,0 +1,50 @@
+package com.datawarehouse.api.clustereddatawarehouse.config;
+
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.*;
+import com.datawarehouse.api.clustereddatawarehouse.web.response.ApiErrorResponse;
+import com.datawarehouse.api.clustereddatawarehouse.web.validation.CurrencyCodeValidator;
+import com.datawarehouse.api.clustereddatawarehouse.web.validation.DealAmountValidator;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Reflection metadata that AOT processing cannot find on its own, recorded at build time for the native image.
+ * <p>
+ * Request and response bodies are bound by Jackson; several handlers return {@code ResponseEntity<?>} or build
+ * bodies in exception handlers, so their types are listed here rather than inferred from the controllers. Hibernate
+ * Validator reads the constraints of {@link FXDealsRequestDto} reflectively and instantiates the custom constraint
+ * validators, none of which are beans.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHintsConfig.ValidationHints.class)
+@RegisterReflectionForBinding({
+        FXDealsRequestDto.class,
+        FXDealsResponseDto.class,
+        FXDealsBatchResponseDto.class,
+        FXDealBatchItemResultDto.class,
+        FXDealIngestionStatusDto.class,
+        FXDealsImportReportDto.class,
+        FXDealsPageDto.class,
+        FXDealVolumeDto.class,
+        FXDealVolumeRebuildDto.class,
+        ApiErrorResponse.class
+})
+public class NativeHintsConfig {
+
+    static class ValidationHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.reflection().registerType(FXDealsRequestDto.class,
+                    MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.reflection().registerType(CurrencyCodeValidator.class,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.reflection().registerType(DealAmountValidator.class,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+    }
+}
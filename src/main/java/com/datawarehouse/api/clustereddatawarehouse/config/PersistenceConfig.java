@@ -0,0 +1,35 @@
+package com.datawarehouse.api.clustereddatawarehouse.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+
+/**
+ * Selects the transaction manager of the ingestion write path with {@code fx-deals.persistence.write-path}. The
+ * deal inserts are plain SQL either way; {@code JDBC} only stops every insert from also opening, flushing and
+ * closing a Hibernate session that never holds an entity.
+ */
+@Configuration
+@Slf4j
+public class PersistenceConfig {
+
+    public static final String DEAL_WRITE_TRANSACTION_MANAGER = "dealWriteTransactionManager";
+
+    /**
+     * Not a default candidate, so that Spring Boot still creates the JPA transaction manager and injection by type
+     * keeps resolving to it; {@code @Transactional} picks this one by name.
+     */
+    @Bean(name = DEAL_WRITE_TRANSACTION_MANAGER, defaultCandidate = false)
+    public PlatformTransactionManager dealWriteTransactionManager(FXDealsProperties properties, DataSource dataSource,
+                                                                  PlatformTransactionManager transactionManager) {
+        if (properties.getPersistence().getWritePath() == FXDealsProperties.WritePath.JPA) {
+            return transactionManager;
+        }
+        log.info("Deal writes run in JDBC transactions, without a Hibernate session");
+        return new JdbcTransactionManager(dataSource);
+    }
+}
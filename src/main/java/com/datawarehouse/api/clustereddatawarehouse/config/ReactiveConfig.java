@@ -0,0 +1,64 @@
+package com.datawarehouse.api.clustereddatawarehouse.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * Beans of the reactive runtime, started with the {@code reactive} Spring profile. Requests are served by WebFlux on
+ * Netty's event loops and deals are read and written over R2DBC; the JDBC datasource is still used for Flyway,
+ * partition maintenance and the actuator endpoints.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig {
+
+    /**
+     * Tomcat is on the classpath for the WAR build and would otherwise be preferred over Netty.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Spring Boot skips the JDBC datasource once an R2DBC connection factory exists, so it is declared here from the
+     * usual {@code spring.datasource} properties.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory, FXDealsProperties properties) {
+        if (properties.getSharding().isEnabled()) {
+            throw new IllegalStateException("The reactive runtime does not support fx-deals.sharding.enabled=true");
+        }
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    /**
+     * The R2DBC transaction manager stays private to the operator. As a bean, it would make the JPA transaction
+     * manager ambiguous for the {@code @Transactional} services that this runtime still creates.
+     */
+    @Bean
+    public TransactionalOperator transactionalOperator(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+}
@@ -0,0 +1,95 @@
+package com.datawarehouse.api.clustereddatawarehouse.config;
+
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.DealShard;
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.DealShardRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds the {@link DealShardRouter} that the deal repositories write through. With {@code fx-deals.sharding}
+ * disabled the application's data source is the only shard. Otherwise every configured shard gets its own
+ * connection pool and transaction manager, and the Flyway migrations of {@code spring.flyway} are applied to it
+ * before the router is handed out.
+ */
+@Configuration
+@Slf4j
+public class ShardingConfig {
+
+    @Bean
+    public DealShardRouter dealShardRouter(FXDealsProperties properties, DataSource dataSource,
+                                           JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                           ObjectProvider<Flyway> flyway) {
+        FXDealsProperties.Sharding settings = properties.getSharding();
+        if (!settings.isEnabled()) {
+            return DealShardRouter.single(new DealShard("primary", dataSource, jdbcTemplate,
+                    new TransactionTemplate(transactionManager)));
+        }
+        if (settings.getShards().isEmpty()) {
+            throw new IllegalStateException("fx-deals.sharding.enabled is set but no fx-deals.sharding.shards are configured");
+        }
+
+        List<DealShard> shards = new ArrayList<>(settings.getShards().size());
+        List<HikariDataSource> pools = new ArrayList<>(settings.getShards().size());
+        Set<String> names = new HashSet<>();
+        Set<String> draining = new HashSet<>();
+        try {
+            for (FXDealsProperties.Shard shard : settings.getShards()) {
+                if (shard.getName() == null || !names.add(shard.getName())) {
+                    throw new IllegalStateException("Every shard needs a unique name, got '" + shard.getName() + "'");
+                }
+                HikariDataSource shardDataSource = new HikariDataSource();
+                pools.add(shardDataSource);
+                shardDataSource.setPoolName("shard-" + shard.getName());
+                shardDataSource.setJdbcUrl(shard.getUrl());
+                shardDataSource.setUsername(shard.getUsername());
+                shardDataSource.setPassword(shard.getPassword());
+                shardDataSource.setMaximumPoolSize(shard.getMaxPoolSize());
+
+                Flyway primaryFlyway = flyway.getIfAvailable();
+                if (primaryFlyway != null) {
+                    Flyway.configure()
+                            .configuration(primaryFlyway.getConfiguration())
+                            .dataSource(shardDataSource)
+                            .load()
+                            .migrate();
+                }
+                shards.add(new DealShard(shard.getName(), shardDataSource, new JdbcTemplate(shardDataSource),
+                        new TransactionTemplate(new DataSourceTransactionManager(shardDataSource))));
+                if (shard.isDraining()) {
+                    draining.add(shard.getName());
+                }
+                log.info("Deal shard {} at {}{}", shard.getName(), shard.getUrl(), shard.isDraining() ? " (draining)" : "");
+            }
+            if (draining.size() == shards.size()) {
+                throw new IllegalStateException("At least one shard must not be draining");
+            }
+            DealShardRouter router = DealShardRouter.distributed(shards, draining, settings.getVirtualNodes(),
+                    settings.getFanOutTimeout());
+            try {
+                router.refreshBalance();
+            } catch (RuntimeException e) {
+                router.close();
+                throw e;
+            }
+            return router;
+        } catch (RuntimeException e) {
+            // The router is not a bean yet, so nothing else would close the pools opened so far.
+            pools.forEach(HikariDataSource::close);
+            throw e;
+        }
+    }
+}
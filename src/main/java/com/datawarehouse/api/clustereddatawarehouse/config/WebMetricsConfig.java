@@ -0,0 +1,86 @@
+package com.datawarehouse.api.clustereddatawarehouse.config;
+
+import com.datawarehouse.api.clustereddatawarehouse.metrics.FXDealMetrics;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.IngestionOutcome;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.IngestionStage;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Wires the ingestion stage timers into Spring MVC: {@code @Valid} checks on deal requests are timed as the
+ * {@code validate} stage, and everything after the handler returns (serialization and write-out) as {@code respond}.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+public class WebMetricsConfig implements WebMvcConfigurer {
+
+    private static final String RESPOND_STARTED_ATTRIBUTE = WebMetricsConfig.class.getName() + ".respondStarted";
+
+    private final FXDealMetrics metrics;
+    private final jakarta.validation.Validator validator;
+
+    @Override
+    public Validator getValidator() {
+        return new TimingValidator(new SpringValidatorAdapter(validator), metrics);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                   ModelAndView modelAndView) {
+                request.setAttribute(RESPOND_STARTED_ATTRIBUTE, metrics.start());
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                        Exception ex) {
+                if (handler instanceof HandlerMethod
+                        && request.getAttribute(RESPOND_STARTED_ATTRIBUTE) instanceof Long started) {
+                    metrics.recordStage(IngestionStage.RESPOND, IngestionOutcome.SUCCESS, started);
+                }
+            }
+        }).addPathPatterns("/api/v1/fx-deals/**");
+    }
+
+    private record TimingValidator(SmartValidator delegate, FXDealMetrics metrics) implements SmartValidator {
+
+        @Override
+        public boolean supports(Class<?> clazz) {
+            return delegate.supports(clazz);
+        }
+
+        @Override
+        public void validate(Object target, Errors errors) {
+            validate(target, errors, new Object[0]);
+        }
+
+        @Override
+        public void validate(Object target, Errors errors, Object... validationHints) {
+            if (!(target instanceof FXDealsRequestDto)) {
+                delegate.validate(target, errors, validationHints);
+                return;
+            }
+            long started = metrics.start();
+            int errorsBefore = errors.getErrorCount();
+            delegate.validate(target, errors, validationHints);
+            metrics.recordStage(IngestionStage.VALIDATE, errors.getErrorCount() > errorsBefore
+                    ? IngestionOutcome.VALIDATION_FAILURE : IngestionOutcome.SUCCESS, started);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.datawarehouse.api.clustereddatawarehouse.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Deal amounts are fixed-point {@code long}s counting ten-thousandths of the ordering currency, so
+ * {@code 1000.5} is {@code 10_005_000}, in memory and in the {@code bigint} amount columns alike.
+ * {@link #MISSING} and {@link #UNREPRESENTABLE} are never valid amounts; they carry input problems to bean validation.
+ */
+public final class DealAmounts {
+
+    public static final int SCALE = 4;
+    public static final long ONE = 10_000;
+
+    public static final long MISSING = Long.MIN_VALUE;
+
+    public static final long UNREPRESENTABLE = Long.MIN_VALUE + 1;
+
+    private static final int MAX_FAST_PATH_DIGITS = 18;
+
+    private static final int MAX_INTEGER_DIGITS = 15;
+
+    private static final int MAX_SLOW_PATH_DIGITS = 64;
+
+    private DealAmounts() {
+    }
+
+    public static long parse(String text) {
+        return parse(text.toCharArray(), 0, text.length());
+    }
+
+    /**
+     * @return the scaled amount, or {@link #UNREPRESENTABLE}
+     * @throws NumberFormatException if the text is not a number
+     */
+    public static long parse(char[] buffer, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+        if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+            negative = buffer[i] == '-';
+            i++;
+        }
+        long units = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (; i < end; i++) {
+            char c = buffer[i];
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9') {
+                if (decimals >= SCALE) {
+                    if (c != '0') {
+                        return UNREPRESENTABLE;
+                    }
+                    continue;
+                }
+                units = units * 10 + (c - '0');
+                digits++;
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else {
+                return parseSlow(new String(buffer, offset, length));
+            }
+        }
+        if (digits == 0 || digits > MAX_FAST_PATH_DIGITS) {
+            return parseSlow(new String(buffer, offset, length));
+        }
+        try {
+            for (int d = Math.max(decimals, 0); d < SCALE; d++) {
+                units = Math.multiplyExact(units, 10);
+            }
+        } catch (ArithmeticException e) {
+            return UNREPRESENTABLE;
+        }
+        return negative ? -units : units;
+    }
+
+    /**
+     * {@code new BigDecimal("1e9999999")} is cheap but scaling it is not, so magnitude and decimals are checked first.
+     */
+    private static long parseSlow(String text) {
+        BigDecimal amount = new BigDecimal(text);
+        if (amount.signum() == 0) {
+            return 0;
+        }
+        int precision = amount.precision();
+        int scale = amount.scale();
+        if (precision > MAX_SLOW_PATH_DIGITS || precision - scale > MAX_INTEGER_DIGITS) {
+            return UNREPRESENTABLE;
+        }
+        // More decimals than SCALE are only acceptable as trailing zeros, which take at least that many digits.
+        if (scale - SCALE >= precision) {
+            return UNREPRESENTABLE;
+        }
+        try {
+            return amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            return UNREPRESENTABLE;
+        }
+    }
+
+    /**
+     * Formats an amount with at least one and at most {@value #SCALE} decimals, e.g. {@code 1000.5} or
+     * {@code 1000.0}.
+     */
+    public static String format(long amount) {
+        StringBuilder text = new StringBuilder(24);
+        if (amount < 0) {
+            text.append('-');
+        }
+        long whole = Math.abs(amount / ONE);
+        int fraction = (int) Math.abs(amount % ONE);
+        text.append(whole).append('.');
+        int width = SCALE;
+        while (width > 1 && fraction % 10 == 0) {
+            fraction /= 10;
+            width--;
+        }
+        String digits = Integer.toString(fraction);
+        for (int pad = digits.length(); pad < width; pad++) {
+            text.append('0');
+        }
+        return text.append(digits).toString();
+    }
+
+    /**
+     * Converts a sum of scaled amounts, which may exceed a {@code long}, to currency units as {@link #format} writes
+     * them.
+     */
+    public static BigDecimal toDecimal(BigDecimal scaledSum) {
+        BigDecimal amount = scaledSum.movePointLeft(SCALE).stripTrailingZeros();
+        return amount.scale() < 1 ? amount.setScale(1) : amount;
+    }
+
+    /**
+     * @return whether {@code amount} is an actual amount rather than one of the stand-ins for bad input
+     */
+    public static boolean isPresent(long amount) {
+        return amount != MISSING && amount != UNREPRESENTABLE;
+    }
+}
@@ -27,8 +27,11 @@ public class FxDeals {
     @Column(nullable = false, length = 3)
     private String toCurrencyIsoCode;
 
+    /**
+     * In ten-thousandths, see {@link DealAmounts}.
+     */
     @Column(nullable = false)
-    private Double dealAmount;
+    private long dealAmount;
 
     @Column(nullable = false)
     private LocalDateTime dealTimestamp;
@@ -0,0 +1,39 @@
+package com.datawarehouse.api.clustereddatawarehouse.domain;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Width of the time buckets in {@code fx_deal_volume_rollups}. Every deal is counted once per granularity.
+ */
+public enum VolumeGranularity {
+    MINUTE("minute", ChronoUnit.MINUTES),
+    HOUR("hour", ChronoUnit.HOURS),
+    DAY("day", ChronoUnit.DAYS);
+
+    private final String dateTruncField;
+    private final ChronoUnit unit;
+
+    VolumeGranularity(String dateTruncField, ChronoUnit unit) {
+        this.dateTruncField = dateTruncField;
+        this.unit = unit;
+    }
+
+    /**
+     * The PostgreSQL {@code date_trunc} field that maps a deal timestamp to its bucket.
+     */
+    public String dateTruncField() {
+        return dateTruncField;
+    }
+
+    public LocalDateTime bucketStart(LocalDateTime timestamp) {
+        return timestamp.truncatedTo(unit);
+    }
+
+    /**
+     * Number of buckets that start in {@code [bucketStart(from), to)}; {@code from} must be before {@code to}.
+     */
+    public long bucketCount(LocalDateTime from, LocalDateTime to) {
+        return unit.between(bucketStart(from), to.minusNanos(1)) + 1;
+    }
+}
@@ -0,0 +1,25 @@
+package com.datawarehouse.api.clustereddatawarehouse.metrics;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which per-deal log lines are written: one in {@code fx-deals.logging.sample-rate} calls.
+ * Aggregate throughput is reported by {@link IngestionRateLogger} instead.
+ */
+@Component
+public class DealLogSampler {
+
+    private final int sampleRate;
+    private final AtomicLong events = new AtomicLong();
+
+    public DealLogSampler(FXDealsProperties properties) {
+        this.sampleRate = Math.max(1, properties.getLogging().getSampleRate());
+    }
+
+    public boolean sample() {
+        return sampleRate == 1 || events.getAndIncrement() % sampleRate == 0;
+    }
+}
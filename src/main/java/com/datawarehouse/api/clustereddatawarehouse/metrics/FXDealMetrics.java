@@ -0,0 +1,68 @@
+package com.datawarehouse.api.clustereddatawarehouse.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers for each stage of a deal's ingestion ({@code fx.deals.stage}) and counters of final outcomes
+ * ({@code fx.deals.ingested}). Meters are created up front so the hot path only does map lookups.
+ */
+@Component
+public class FXDealMetrics {
+
+    public static final String STAGE_TIMER = "fx.deals.stage";
+    public static final String OUTCOME_COUNTER = "fx.deals.ingested";
+
+    private final Map<IngestionStage, Map<IngestionOutcome, Timer>> stageTimers = new EnumMap<>(IngestionStage.class);
+    private final Map<IngestionOutcome, Counter> outcomeCounters = new EnumMap<>(IngestionOutcome.class);
+
+    public FXDealMetrics(MeterRegistry meterRegistry) {
+        for (IngestionStage stage : IngestionStage.values()) {
+            Map<IngestionOutcome, Timer> timers = new EnumMap<>(IngestionOutcome.class);
+            for (IngestionOutcome outcome : IngestionOutcome.values()) {
+                timers.put(outcome, Timer.builder(STAGE_TIMER)
+                        .description("Time spent in one stage of FX deal ingestion")
+                        .tag("stage", stage.tagValue())
+                        .tag("outcome", outcome.tagValue())
+                        .register(meterRegistry));
+            }
+            stageTimers.put(stage, timers);
+        }
+        for (IngestionOutcome outcome : IngestionOutcome.values()) {
+            if (outcome != IngestionOutcome.SUCCESS) {
+                outcomeCounters.put(outcome, Counter.builder(OUTCOME_COUNTER)
+                        .description("FX deals by final ingestion outcome")
+                        .tag("outcome", outcome.tagValue())
+                        .register(meterRegistry));
+            }
+        }
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void recordStage(IngestionStage stage, IngestionOutcome outcome, long startNanos) {
+        stageTimers.get(stage).get(outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordOutcome(IngestionOutcome outcome) {
+        recordOutcome(outcome, 1);
+    }
+
+    public void recordOutcome(IngestionOutcome outcome, long count) {
+        if (count > 0) {
+            outcomeCounters.get(outcome).increment(count);
+        }
+    }
+
+    public double outcomeCount(IngestionOutcome outcome) {
+        return outcomeCounters.get(outcome).count();
+    }
+}
@@ -0,0 +1,18 @@
+package com.datawarehouse.api.clustereddatawarehouse.metrics;
+
+public enum IngestionOutcome {
+    /**
+     * The stage completed and the deal moved on to the next stage.
+     */
+    SUCCESS,
+    CREATED,
+    DUPLICATE,
+    VALIDATION_FAILURE,
+    PARSE_FAILURE;
+
+    private final String tagValue = name().toLowerCase();
+
+    public String tagValue() {
+        return tagValue;
+    }
+}
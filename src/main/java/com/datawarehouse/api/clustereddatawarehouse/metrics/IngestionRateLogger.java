@@ -0,0 +1,52 @@
+package com.datawarehouse.api.clustereddatawarehouse.metrics;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs one line per interval with the created, duplicate and rejected deal rates since the previous line, taken
+ * from the {@link FXDealMetrics} outcome counters. Intervals without any ingestion are not logged.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "fx-deals.logging", name = "summary-enabled", havingValue = "true", matchIfMissing = true)
+public class IngestionRateLogger {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final FXDealMetrics metrics;
+
+    private long lastNanos = System.nanoTime();
+    private double lastCreated;
+    private double lastDuplicates;
+    private double lastRejected;
+
+    @Scheduled(fixedRateString = "${fx-deals.logging.summary-interval:10s}",
+            initialDelayString = "${fx-deals.logging.summary-interval:10s}")
+    public synchronized void logSummary() {
+        long now = System.nanoTime();
+        double created = metrics.outcomeCount(IngestionOutcome.CREATED);
+        double duplicates = metrics.outcomeCount(IngestionOutcome.DUPLICATE);
+        double rejected = metrics.outcomeCount(IngestionOutcome.VALIDATION_FAILURE)
+                + metrics.outcomeCount(IngestionOutcome.PARSE_FAILURE);
+
+        double seconds = (now - lastNanos) / NANOS_PER_SECOND;
+        double createdDelta = created - lastCreated;
+        double duplicatesDelta = duplicates - lastDuplicates;
+        double rejectedDelta = rejected - lastRejected;
+        lastNanos = now;
+        lastCreated = created;
+        lastDuplicates = duplicates;
+        lastRejected = rejected;
+
+        if (seconds <= 0 || createdDelta + duplicatesDelta + rejectedDelta == 0) {
+            return;
+        }
+        log.info(String.format("FX deal ingestion over the last %.1fs: %.1f deals/s, %.1f duplicates/s, %.1f rejects/s",
+                seconds, createdDelta / seconds, duplicatesDelta / seconds, rejectedDelta / seconds));
+    }
+}
@@ -0,0 +1,17 @@
+package com.datawarehouse.api.clustereddatawarehouse.metrics;
+
+public enum IngestionStage {
+    DESERIALIZE,
+    VALIDATE,
+    DUPLICATE_CHECK,
+    MAP,
+    PERSIST,
+    PERSIST_BATCH,
+    RESPOND;
+
+    private final String tagValue = name().toLowerCase();
+
+    public String tagValue() {
+        return tagValue;
+    }
+}
@@ -0,0 +1,16 @@
+package com.datawarehouse.api.clustereddatawarehouse.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One row of {@code fx_deal_volume_rollups}: the number and total amount of the deals of a currency pair whose
+ * timestamp falls in the bucket starting at {@code bucketStart}. The total is in currency units; it can exceed what a
+ * {@link com.datawarehouse.api.clustereddatawarehouse.domain.DealAmounts fixed-point amount} holds.
+ */
+public record FXDealVolumeBucket(LocalDateTime bucketStart,
+                                 String orderingCurrencyIsoCode,
+                                 String toCurrencyIsoCode,
+                                 long dealCount,
+                                 BigDecimal totalAmount) {
+}
@@ -0,0 +1,150 @@
+package com.datawarehouse.api.clustereddatawarehouse.repository;
+
+import com.datawarehouse.api.clustereddatawarehouse.domain.DealAmounts;
+import com.datawarehouse.api.clustereddatawarehouse.domain.VolumeGranularity;
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.DealShard;
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.DealShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Reads and rebuilds {@code fx_deal_volume_rollups}. The rollups are kept current by the statements that insert
+ * deals, which embed {@link #upsertFrom(String)}; nothing here has to run for a new deal to be counted. Each shard
+ * holds the rollups of its own deals, so reads add up the buckets of all shards.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FXDealVolumeRollupRepository {
+
+    private static final String GRANULARITIES = Arrays.stream(VolumeGranularity.values())
+            .map(granularity -> "('" + granularity.name() + "', '" + granularity.dateTruncField() + "')")
+            .collect(Collectors.joining(", ", "(VALUES ", ") AS g (granularity, field)"));
+    private static final String ROLLUP_COLUMNS =
+            "granularity, ordering_currency_iso_code, to_currency_iso_code, bucket_start, deal_count, total_amount";
+    // Upserts are ordered by key so that concurrent writers lock shared rollup rows in the same order and cannot
+    // deadlock on each other.
+    private static final String UPSERT_PREFIX = "INSERT INTO fx_deal_volume_rollups AS r (" + ROLLUP_COLUMNS + ") "
+            + "SELECT g.granularity, d.ordering_currency_iso_code, d.to_currency_iso_code, "
+            + "date_trunc(g.field, d.deal_timestamp), count(*), sum(d.deal_amount) FROM ";
+    private static final String UPSERT_SUFFIX = " GROUP BY 1, 2, 3, 4 ORDER BY 1, 2, 3, 4 "
+            + "ON CONFLICT (granularity, ordering_currency_iso_code, to_currency_iso_code, bucket_start) "
+            + "DO UPDATE SET deal_count = r.deal_count + excluded.deal_count, "
+            + "total_amount = r.total_amount + excluded.total_amount";
+    // Blocks writers until the rebuild commits. A writer that is already waiting has not committed its deals, so
+    // the rebuild does not see them and the writer adds them to the rebuilt rows once it gets the lock.
+    private static final String LOCK_ROLLUPS = "LOCK TABLE fx_deal_volume_rollups IN SHARE ROW EXCLUSIVE MODE";
+    private static final String DELETE_ALL = "DELETE FROM fx_deal_volume_rollups";
+    private static final String DELETE_RANGE = DELETE_ALL + " WHERE bucket_start >= ? AND bucket_start < ?";
+    private static final String REBUILD_ALL = upsertFrom("fx_deals");
+    private static final String REBUILD_RANGE = UPSERT_PREFIX + "fx_deals d CROSS JOIN " + GRANULARITIES
+            + " WHERE d.deal_timestamp >= ? AND d.deal_timestamp < ?" + UPSERT_SUFFIX;
+    private static final String SELECT_BUCKETS = "SELECT bucket_start, ordering_currency_iso_code, "
+            + "to_currency_iso_code, deal_count, total_amount FROM fx_deal_volume_rollups "
+            + "WHERE granularity = ? AND bucket_start >= ? AND bucket_start < ? AND deal_count > 0";
+    private static final String SUBTRACT_PREFIX = "UPDATE fx_deal_volume_rollups r "
+            + "SET deal_count = r.deal_count - x.deal_count, total_amount = r.total_amount - x.total_amount FROM ("
+            + "SELECT g.granularity, d.ordering_currency_iso_code, d.to_currency_iso_code, "
+            + "date_trunc(g.field, d.deal_timestamp) AS bucket_start, count(*) AS deal_count, "
+            + "sum(d.deal_amount) AS total_amount FROM ";
+    private static final String SUBTRACT_SUFFIX = " GROUP BY 1, 2, 3, 4) x "
+            + "WHERE r.granularity = x.granularity AND r.ordering_currency_iso_code = x.ordering_currency_iso_code "
+            + "AND r.to_currency_iso_code = x.to_currency_iso_code AND r.bucket_start = x.bucket_start";
+    private static final RowMapper<FXDealVolumeBucket> BUCKET_ROW = (rs, rowNum) -> new FXDealVolumeBucket(
+            rs.getTimestamp(1).toLocalDateTime(),
+            rs.getString(2),
+            rs.getString(3),
+            rs.getLong(4),
+            DealAmounts.toDecimal(rs.getBigDecimal(5)));
+    private static final Comparator<FXDealVolumeBucket> BUCKET_ORDER = Comparator
+            .comparing(FXDealVolumeBucket::bucketStart)
+            .thenComparing(FXDealVolumeBucket::orderingCurrencyIsoCode)
+            .thenComparing(FXDealVolumeBucket::toCurrencyIsoCode);
+
+    private final DealShardRouter router;
+
+    /**
+     * Returns an INSERT that adds the deals of {@code source} to their minute, hour and day rollups. {@code source}
+     * is a table or CTE name with the columns of {@code fx_deals}. Used as a data-modifying CTE next to the INSERT
+     * INTO fx_deals it counts, so a deal and its rollups are committed together.
+     */
+    public static String upsertFrom(String source) {
+        return UPSERT_PREFIX + source + " d CROSS JOIN " + GRANULARITIES + UPSERT_SUFFIX;
+    }
+
+    /**
+     * Returns an UPDATE that takes the deals of {@code source} back out of their rollups, the counterpart of
+     * {@link #upsertFrom(String)} for deals deleted in the same statement. Emptied buckets stay with a zero count.
+     */
+    public static String subtractFrom(String source) {
+        return SUBTRACT_PREFIX + source + " d CROSS JOIN " + GRANULARITIES + SUBTRACT_SUFFIX;
+    }
+
+    /**
+     * Returns the buckets of one granularity that start in {@code [from, to)}, ordered by bucket start and currency
+     * pair. Either currency code may be {@code null} to include every currency on that side.
+     */
+    public List<FXDealVolumeBucket> findBuckets(VolumeGranularity granularity, String orderingCurrencyIsoCode,
+                                                String toCurrencyIsoCode, LocalDateTime from, LocalDateTime to) {
+        StringBuilder sql = new StringBuilder(SELECT_BUCKETS);
+        List<Object> args = new ArrayList<>(5);
+        args.add(granularity.name());
+        args.add(Timestamp.valueOf(from));
+        args.add(Timestamp.valueOf(to));
+        if (orderingCurrencyIsoCode != null) {
+            sql.append(" AND ordering_currency_iso_code = ?");
+            args.add(orderingCurrencyIsoCode);
+        }
+        if (toCurrencyIsoCode != null) {
+            sql.append(" AND to_currency_iso_code = ?");
+            args.add(toCurrencyIsoCode);
+        }
+        sql.append(" ORDER BY bucket_start, ordering_currency_iso_code, to_currency_iso_code");
+
+        List<List<FXDealVolumeBucket>> perShard =
+                router.fanOut(shard -> shard.jdbcTemplate().query(sql.toString(), BUCKET_ROW, args.toArray()));
+        if (perShard.size() == 1) {
+            return perShard.get(0);
+        }
+        Map<List<Object>, FXDealVolumeBucket> merged = new HashMap<>();
+        perShard.stream().flatMap(List::stream).forEach(bucket -> merged.merge(
+                List.of(bucket.bucketStart(), bucket.orderingCurrencyIsoCode(), bucket.toCurrencyIsoCode()),
+                bucket,
+                (a, b) -> new FXDealVolumeBucket(a.bucketStart(), a.orderingCurrencyIsoCode(), a.toCurrencyIsoCode(),
+                        a.dealCount() + b.dealCount(), a.totalAmount().add(b.totalAmount()))));
+        return merged.values().stream().sorted(BUCKET_ORDER).toList();
+    }
+
+    /**
+     * Recomputes the rollups from the deals in {@code fx_deals} whose timestamp is in {@code [from, to)}, or from
+     * every deal when both bounds are {@code null}. The bounds must be aligned to whole days so that every bucket in
+     * the range is recomputed completely. Deals of detached partitions are no longer in {@code fx_deals}, so
+     * rebuilding their range removes them from the rollups. Each shard is rebuilt in its own transaction, in
+     * parallel; on a single shard the caller's transaction is used.
+     *
+     * @return the number of rollup rows written
+     */
+    public int rebuild(LocalDateTime from, LocalDateTime to) {
+        return router.fanOut(shard -> shard.transactionTemplate().execute(status -> rebuild(shard, from, to)))
+                .stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    private static int rebuild(DealShard shard, LocalDateTime from, LocalDateTime to) {
+        JdbcTemplate jdbcTemplate = shard.jdbcTemplate();
+        jdbcTemplate.execute(LOCK_ROLLUPS);
+        if (from == null && to == null) {
+            jdbcTemplate.update(DELETE_ALL);
+            return jdbcTemplate.update(REBUILD_ALL);
+        }
+        jdbcTemplate.update(DELETE_RANGE, Timestamp.valueOf(from), Timestamp.valueOf(to));
+        return jdbcTemplate.update(REBUILD_RANGE, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+}
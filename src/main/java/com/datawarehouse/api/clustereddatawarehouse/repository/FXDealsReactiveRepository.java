@@ -0,0 +1,129 @@
+package com.datawarehouse.api.clustereddatawarehouse.repository;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The reactive runtime's access to deals. It runs the statements of {@link FXDealsRepositoryCustomImpl} over R2DBC,
+ * so ids are claimed in {@code fx_deal_ids} and the volume rollups are maintained exactly as on the JDBC path.
+ * All deals live in the single database behind {@code spring.r2dbc}; the reactive runtime is not sharded.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class FXDealsReactiveRepository {
+
+    private static final String SELECT_DEAL_BY_ID = bindMarkers(FXDealsRepositoryCustomImpl.SELECT_DEAL_BY_ID);
+
+    private final DatabaseClient databaseClient;
+    private final FXDealsProperties properties;
+
+    /**
+     * @return whether the deal was inserted; {@code false} if its id was already claimed
+     */
+    public Mono<Boolean> insertIfAbsent(FxDeals deal) {
+        if (deal.getCreatedAt() == null) {
+            deal.setCreatedAt(LocalDateTime.now());
+        }
+        return insertChunk(List.of(deal)).hasElements();
+    }
+
+    /**
+     * Inserts the deals in chunks of {@code fx-deals.batch.insert-chunk-size}, one statement at a time, and emits the
+     * ids of those that were not already stored.
+     */
+    public Flux<UUID> insertAllIgnoringDuplicates(List<FxDeals> deals) {
+        LocalDateTime createdAt = LocalDateTime.now();
+        int chunkSize = properties.getBatch().getInsertChunkSize();
+        List<List<FxDeals>> chunks = new ArrayList<>(deals.size() / chunkSize + 1);
+        for (int from = 0; from < deals.size(); from += chunkSize) {
+            List<FxDeals> chunk = deals.subList(from, Math.min(from + chunkSize, deals.size()));
+            chunk.forEach(deal -> {
+                if (deal.getCreatedAt() == null) {
+                    deal.setCreatedAt(createdAt);
+                }
+            });
+            chunks.add(chunk);
+        }
+        return Flux.fromIterable(chunks).concatMap(this::insertChunk);
+    }
+
+    public Mono<FxDeals> findDealById(UUID id) {
+        return databaseClient.sql(SELECT_DEAL_BY_ID)
+                .bind(0, id)
+                .map(FXDealsReactiveRepository::toDeal)
+                .one();
+    }
+
+    /**
+     * Streams one keyset page, with the same query as {@link FXDealsRepositoryCustomImpl#forEachDeal}.
+     */
+    public Flux<FxDeals> findDeals(FXDealsSearchCriteria criteria) {
+        List<Object> args = new ArrayList<>(8);
+        String sql = bindMarkers(FXDealsRepositoryCustomImpl.searchSql(criteria, args));
+        args.replaceAll(arg -> arg instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : arg);
+        return databaseClient.sql(sql)
+                .bindValues(args)
+                .map(FXDealsReactiveRepository::toDeal)
+                .all();
+    }
+
+    private Flux<UUID> insertChunk(List<FxDeals> chunk) {
+        // Bound in one call: each bind() on the immutable spec copies every value bound before it.
+        List<Object> args = new ArrayList<>(chunk.size() * 6);
+        for (FxDeals deal : chunk) {
+            args.add(deal.getId());
+            args.add(deal.getOrderingCurrencyIsoCode());
+            args.add(deal.getToCurrencyIsoCode());
+            args.add(deal.getDealAmount());
+            args.add(deal.getDealTimestamp());
+            args.add(deal.getCreatedAt());
+        }
+        return databaseClient.sql(bindMarkers(FXDealsRepositoryCustomImpl.insertIfAbsentSql(chunk.size())))
+                .bindValues(args)
+                .map(row -> row.get(0, UUID.class))
+                .all();
+    }
+
+    private static FxDeals toDeal(Readable row) {
+        return FxDeals.builder()
+                .id(row.get(0, UUID.class))
+                .orderingCurrencyIsoCode(row.get(1, String.class))
+                .toCurrencyIsoCode(row.get(2, String.class))
+                .dealAmount(row.get(3, Long.class))
+                .dealTimestamp(row.get(4, LocalDateTime.class))
+                .createdAt(row.get(5, LocalDateTime.class))
+                .build();
+    }
+
+    /**
+     * Rewrites JDBC's positional {@code ?} markers into PostgreSQL's native {@code $1, $2, ...}. The statements
+     * shared with the JDBC repository contain no other question marks.
+     */
+    private static String bindMarkers(String sql) {
+        StringBuilder rewritten = new StringBuilder(sql.length() + 64);
+        int marker = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '?') {
+                rewritten.append('$').append(++marker);
+            } else {
+                rewritten.append(c);
+            }
+        }
+        return rewritten.toString();
+    }
+}
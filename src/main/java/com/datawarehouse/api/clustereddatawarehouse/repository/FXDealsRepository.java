@@ -5,5 +5,5 @@ import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.UUID;
 
-public interface FXDealsRepository extends JpaRepository<FxDeals, UUID> {
+public interface FXDealsRepository extends JpaRepository<FxDeals, UUID>, FXDealsRepositoryCustom {
 }
@@ -0,0 +1,78 @@
+package com.datawarehouse.api.clustereddatawarehouse.repository;
+
+import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.DealShard;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+public interface FXDealsRepositoryCustom {
+
+    /**
+     * Claims the deal's id in {@code fx_deal_ids} with ON CONFLICT (id) DO NOTHING and inserts the deal only if
+     * the claim succeeded, in a single statement, so the duplicate check and the write happen atomically in one
+     * round trip across all partitions.
+     *
+     * @return {@code true} if the deal was inserted, {@code false} if a deal with the same id already exists
+     */
+    boolean insertIfAbsent(FxDeals deal);
+
+    /**
+     * Inserts a deal that is known not to exist yet, claiming its id with a plain INSERT that skips the ON CONFLICT
+     * arbiter check.
+     *
+     * @throws org.springframework.dao.DuplicateKeyException if the id turns out to be taken after all
+     */
+    void insertNew(FxDeals deal);
+
+    /**
+     * Looks the deal up on the one shard that owns its id. The deal is not managed by the persistence context.
+     */
+    Optional<FxDeals> findDealById(UUID id);
+
+    /**
+     * Streams every claimed deal id of every shard, including those of detached partitions, using a server-side
+     * cursor. Must be called inside a transaction.
+     */
+    void forEachDealId(Consumer<UUID> consumer);
+
+    /**
+     * Inserts the given deals with multi-row INSERT statements, silently skipping ids that already exist. Ids must
+     * be unique within {@code deals}. Deals that already carry a creation time keep it. With several shards, each
+     * shard's share is inserted in parallel and commits independently of the others.
+     *
+     * @return the ids of the deals that were actually inserted
+     */
+    Set<UUID> insertAllIgnoringDuplicates(List<FxDeals> deals);
+
+    /**
+     * Streams the deals matching {@code criteria} in {@code (dealTimestamp, id)} order, one row at a time. Pages
+     * seek past the previous page's last key instead of skipping rows, so every page costs the same. The deals
+     * passed to {@code consumer} are not managed by the persistence context.
+     */
+    void forEachDeal(FXDealsSearchCriteria criteria, Consumer<FxDeals> consumer);
+
+    /**
+     * Streams every deal matching the filters of {@code criteria} in {@code (dealTimestamp, id)} order through a
+     * server-side cursor that fetches {@code fetchSize} rows per round trip, so memory does not grow with the number
+     * of deals. The cursor and limit of {@code criteria} are ignored. With several shards, the shards are read one
+     * after the other, each in order. The deals passed to {@code consumer} are not managed by the persistence
+     * context.
+     */
+    void forEachDealInRange(FXDealsSearchCriteria criteria, int fetchSize, Consumer<FxDeals> consumer);
+
+    /**
+     * Reads one keyset page of the deals stored on {@code shard}, including deals that another shard owns.
+     */
+    List<FxDeals> findDealsOnShard(DealShard shard, FXDealsSearchCriteria criteria);
+
+    /**
+     * Copies {@code deals} from {@code source} to the shards that own them, skipping copies that are already there,
+     * then deletes them from {@code source} together with their claimed ids and rollup counts. The two steps commit
+     * separately, so an interrupted move leaves the deals on both shards and can simply be repeated.
+     */
+    void moveDeals(DealShard source, List<FxDeals> deals);
+}
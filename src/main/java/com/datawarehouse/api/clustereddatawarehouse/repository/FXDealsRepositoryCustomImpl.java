@@ -0,0 +1,276 @@
+package com.datawarehouse.api.clustereddatawarehouse.repository;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.DealShard;
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.DealShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Writes and reads deals with plain SQL through the {@link DealShardRouter}. Writes and lookups by id go to the shard
+ * owning the id; searches run on every shard and merge the shards' pages.
+ */
+@RequiredArgsConstructor
+public class FXDealsRepositoryCustomImpl implements FXDealsRepositoryCustom {
+
+    private static final String DEAL_COLUMNS =
+            "id, ordering_currency_iso_code, to_currency_iso_code, deal_amount, deal_timestamp, created_at";
+    // fx_deals is partitioned by deal_timestamp, so its primary key cannot enforce unique ids on its own. Each
+    // statement first claims the ids in fx_deal_ids and only inserts the deals whose id it managed to claim, then
+    // adds exactly those deals to the volume rollups.
+    private static final String INSERT_PREFIX = "WITH deals (" + DEAL_COLUMNS + ") AS (VALUES ";
+    private static final String INSERT_ROW = "(?::uuid, ?::varchar, ?::varchar, ?::bigint, ?::timestamp, ?::timestamp)";
+    private static final String CLAIM_IDS = "), claimed AS (INSERT INTO fx_deal_ids (id) SELECT id FROM deals";
+    private static final String SKIP_CLAIMED = " ON CONFLICT (id) DO NOTHING";
+    private static final String INSERT_CLAIMED = " RETURNING id), inserted AS (INSERT INTO fx_deals (" + DEAL_COLUMNS + ") "
+            + "SELECT deals.id, deals.ordering_currency_iso_code, deals.to_currency_iso_code, deals.deal_amount, "
+            + "deals.deal_timestamp, deals.created_at FROM deals JOIN claimed USING (id) RETURNING " + DEAL_COLUMNS + ")";
+    private static final String ROLL_UP_INSERTED = ", rolled_up AS (" + FXDealVolumeRollupRepository.upsertFrom("inserted")
+            + ") SELECT id FROM inserted";
+    private static final String INSERT_IF_ABSENT = INSERT_PREFIX + INSERT_ROW + CLAIM_IDS + SKIP_CLAIMED + INSERT_CLAIMED + ROLL_UP_INSERTED;
+    private static final String INSERT_NEW = INSERT_PREFIX + INSERT_ROW + CLAIM_IDS + INSERT_CLAIMED + ROLL_UP_INSERTED;
+    private static final String SELECT_IDS = "SELECT id FROM fx_deal_ids";
+    private static final int ID_FETCH_SIZE = 10_000;
+    private static final String SELECT_DEALS = "SELECT " + DEAL_COLUMNS + " FROM fx_deals";
+    static final String SELECT_DEAL_BY_ID = SELECT_DEALS + " WHERE id = ?";
+    private static final String REMOVE_DEALS = "WITH removed AS (DELETE FROM fx_deals WHERE id = ANY (?) "
+            + "RETURNING ordering_currency_iso_code, to_currency_iso_code, deal_amount, deal_timestamp), "
+            + "released AS (DELETE FROM fx_deal_ids WHERE id = ANY (?)), "
+            + "unrolled AS (" + FXDealVolumeRollupRepository.subtractFrom("removed") + ") "
+            + "SELECT count(*) FROM removed";
+    // The order of the deals' primary key in PostgreSQL, which compares uuids as unsigned bytes.
+    private static final Comparator<FxDeals> KEY_ORDER = Comparator.comparing(FxDeals::getDealTimestamp)
+            .thenComparing(FxDeals::getId, Comparator
+                    .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+                    .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned));
+    private static final RowMapper<FxDeals> DEAL_ROW = (rs, rowNum) -> FxDeals.builder()
+            .id(rs.getObject(1, UUID.class))
+            .orderingCurrencyIsoCode(rs.getString(2))
+            .toCurrencyIsoCode(rs.getString(3))
+            .dealAmount(rs.getLong(4))
+            // Read as LocalDateTime, which skips the Calendar arithmetic of getTimestamp; the columns have no zone.
+            .dealTimestamp(rs.getObject(5, LocalDateTime.class))
+            .createdAt(rs.getObject(6, LocalDateTime.class))
+            .build();
+
+    private final DealShardRouter router;
+    private final FXDealsProperties properties;
+
+    @Override
+    public boolean insertIfAbsent(FxDeals deal) {
+        router.requireBalanced();
+        List<UUID> inserted = jdbc(deal.getId()).queryForList(INSERT_IF_ABSENT, UUID.class, rowArgs(deal));
+        return !inserted.isEmpty();
+    }
+
+    @Override
+    public void insertNew(FxDeals deal) {
+        router.requireBalanced();
+        jdbc(deal.getId()).queryForList(INSERT_NEW, UUID.class, rowArgs(deal));
+    }
+
+    @Override
+    public Optional<FxDeals> findDealById(UUID id) {
+        return jdbc(id).query(SELECT_DEAL_BY_ID, DEAL_ROW, id).stream().findFirst();
+    }
+
+    @Override
+    public void forEachDealId(Consumer<UUID> consumer) {
+        // The server-side cursor needs a transaction on the shard's own connection; on a single shard this joins
+        // the caller's transaction.
+        for (DealShard shard : router.shards()) {
+            shard.transactionTemplate().executeWithoutResult(status -> shard.jdbcTemplate().query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(SELECT_IDS);
+                statement.setFetchSize(ID_FETCH_SIZE);
+                return statement;
+            }, (RowCallbackHandler) rs -> consumer.accept(rs.getObject(1, UUID.class))));
+        }
+    }
+
+    @Override
+    public void forEachDeal(FXDealsSearchCriteria criteria, Consumer<FxDeals> consumer) {
+        List<Object> args = new ArrayList<>(8);
+        String sql = searchSql(criteria, args);
+
+        if (!router.isDistributed()) {
+            JdbcTemplate jdbcTemplate = router.shards().get(0).jdbcTemplate();
+            jdbcTemplate.query(sql, (RowCallbackHandler) rs -> consumer.accept(DEAL_ROW.mapRow(rs, 0)),
+                    args.toArray());
+            return;
+        }
+        // Each shard returns its own first `limit` deals after the cursor; the page is the first `limit` of their
+        // union.
+        router.fanOut(shard -> shard.jdbcTemplate().query(sql, DEAL_ROW, args.toArray()))
+                .stream()
+                .flatMap(List::stream)
+                .sorted(KEY_ORDER)
+                .limit(criteria.limit())
+                .forEach(consumer);
+    }
+
+    @Override
+    public void forEachDealInRange(FXDealsSearchCriteria criteria, int fetchSize, Consumer<FxDeals> consumer) {
+        List<Object> args = new ArrayList<>(4);
+        String sql = rangeSql(criteria, args);
+        // PostgreSQL only honours the fetch size with autocommit off, which the shard's transaction takes care of.
+        for (DealShard shard : router.shards()) {
+            shard.transactionTemplate().executeWithoutResult(status -> shard.jdbcTemplate().query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql);
+                statement.setFetchSize(fetchSize);
+                for (int i = 0; i < args.size(); i++) {
+                    statement.setObject(i + 1, args.get(i));
+                }
+                return statement;
+            }, (RowCallbackHandler) rs -> consumer.accept(DEAL_ROW.mapRow(rs, 0))));
+        }
+    }
+
+    @Override
+    public List<FxDeals> findDealsOnShard(DealShard shard, FXDealsSearchCriteria criteria) {
+        List<Object> args = new ArrayList<>(8);
+        String sql = searchSql(criteria, args);
+        return shard.jdbcTemplate().query(sql, DEAL_ROW, args.toArray());
+    }
+
+    @Override
+    public void moveDeals(DealShard source, List<FxDeals> deals) {
+        // Routed by id, so every deal lands on its owner; deals already there are skipped.
+        insertOnOwners(deals);
+        UUID[] ids = deals.stream().map(FxDeals::getId).toArray(UUID[]::new);
+        source.jdbcTemplate().queryForObject(REMOVE_DEALS, Long.class, ids, ids);
+    }
+
+    /**
+     * Builds the keyset page query for {@code criteria} and appends its bind values to {@code args}.
+     */
+    static String searchSql(FXDealsSearchCriteria criteria, List<Object> args) {
+        int bound = args.size();
+        StringBuilder sql = filteredSql(criteria, args);
+        String conjunction = args.size() == bound ? " WHERE " : " AND ";
+        if (criteria.afterTimestamp() != null) {
+            // Row comparison, so the seek is a single index range condition on (deal_timestamp, id).
+            sql.append(conjunction).append("(deal_timestamp, id) > (?, ?)");
+            args.add(Timestamp.valueOf(criteria.afterTimestamp()));
+            args.add(criteria.afterId());
+        }
+        sql.append(" ORDER BY deal_timestamp, id LIMIT ?");
+        args.add(criteria.limit());
+        return sql.toString();
+    }
+
+    /**
+     * Builds the unpaged query for every deal matching the filters of {@code criteria} and appends its bind values
+     * to {@code args}.
+     */
+    static String rangeSql(FXDealsSearchCriteria criteria, List<Object> args) {
+        return filteredSql(criteria, args).append(" ORDER BY deal_timestamp, id").toString();
+    }
+
+    private static StringBuilder filteredSql(FXDealsSearchCriteria criteria, List<Object> args) {
+        StringBuilder sql = new StringBuilder(SELECT_DEALS);
+        String conjunction = " WHERE ";
+        if (criteria.orderingCurrencyIsoCode() != null) {
+            sql.append(conjunction).append("ordering_currency_iso_code = ?");
+            args.add(criteria.orderingCurrencyIsoCode());
+            conjunction = " AND ";
+        }
+        if (criteria.toCurrencyIsoCode() != null) {
+            sql.append(conjunction).append("to_currency_iso_code = ?");
+            args.add(criteria.toCurrencyIsoCode());
+            conjunction = " AND ";
+        }
+        if (criteria.from() != null) {
+            sql.append(conjunction).append("deal_timestamp >= ?");
+            args.add(Timestamp.valueOf(criteria.from()));
+            conjunction = " AND ";
+        }
+        if (criteria.to() != null) {
+            sql.append(conjunction).append("deal_timestamp < ?");
+            args.add(Timestamp.valueOf(criteria.to()));
+        }
+        return sql;
+    }
+
+    /**
+     * The claim-and-insert statement for {@code rows} deals, bound with six values per deal in {@link #DEAL_COLUMNS}
+     * order. It returns the ids of the deals it inserted.
+     */
+    static String insertIfAbsentSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_IF_ABSENT.length() + rows * (INSERT_ROW.length() + 2));
+        sql.append(INSERT_PREFIX);
+        for (int row = 0; row < rows; row++) {
+            if (row > 0) {
+                sql.append(", ");
+            }
+            sql.append(INSERT_ROW);
+        }
+        return sql.append(CLAIM_IDS).append(SKIP_CLAIMED).append(INSERT_CLAIMED).append(ROLL_UP_INSERTED).toString();
+    }
+
+    private JdbcTemplate jdbc(UUID dealId) {
+        return router.shardFor(dealId).jdbcTemplate();
+    }
+
+    private static Object[] rowArgs(FxDeals deal) {
+        if (deal.getCreatedAt() == null) {
+            deal.setCreatedAt(LocalDateTime.now());
+        }
+        return new Object[]{
+                deal.getId(),
+                deal.getOrderingCurrencyIsoCode(),
+                deal.getToCurrencyIsoCode(),
+                deal.getDealAmount(),
+                Timestamp.valueOf(deal.getDealTimestamp()),
+                Timestamp.valueOf(deal.getCreatedAt())
+        };
+    }
+
+    @Override
+    public Set<UUID> insertAllIgnoringDuplicates(List<FxDeals> deals) {
+        router.requireBalanced();
+        return insertOnOwners(deals);
+    }
+
+    private Set<UUID> insertOnOwners(List<FxDeals> deals) {
+        Set<UUID> inserted = new HashSet<>(deals.size() * 2);
+        router.fanOut(router.partition(deals, FxDeals::getId), this::insertAll).forEach(inserted::addAll);
+        return inserted;
+    }
+
+    private List<UUID> insertAll(DealShard shard, List<FxDeals> deals) {
+        List<UUID> inserted = new ArrayList<>(deals.size());
+        int chunkSize = properties.getBatch().getInsertChunkSize();
+        for (int from = 0; from < deals.size(); from += chunkSize) {
+            List<FxDeals> chunk = deals.subList(from, Math.min(from + chunkSize, deals.size()));
+            inserted.addAll(insertChunk(shard.jdbcTemplate(), chunk));
+        }
+        return inserted;
+    }
+
+    private List<UUID> insertChunk(JdbcTemplate jdbcTemplate, List<FxDeals> chunk) {
+        Object[] args = new Object[chunk.size() * 6];
+        LocalDateTime createdAt = LocalDateTime.now();
+        int i = 0;
+        for (FxDeals deal : chunk) {
+            if (deal.getCreatedAt() == null) {
+                deal.setCreatedAt(createdAt);
+            }
+            args[i++] = deal.getId();
+            args[i++] = deal.getOrderingCurrencyIsoCode();
+            args[i++] = deal.getToCurrencyIsoCode();
+            args[i++] = deal.getDealAmount();
+            args[i++] = Timestamp.valueOf(deal.getDealTimestamp());
+            args[i++] = Timestamp.valueOf(deal.getCreatedAt());
+        }
+        return jdbcTemplate.queryForList(insertIfAbsentSql(chunk.size()), UUID.class, args);
+    }
+}
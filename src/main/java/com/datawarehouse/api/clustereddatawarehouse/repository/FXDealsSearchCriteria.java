@@ -0,0 +1,24 @@
+package com.datawarehouse.api.clustereddatawarehouse.repository;
+
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Filters and position for one page of deals ordered by {@code (dealTimestamp, id)}. Every filter is optional.
+ *
+ * @param from           inclusive lower bound on the deal timestamp
+ * @param to             exclusive upper bound on the deal timestamp
+ * @param afterTimestamp together with {@code afterId}, the key of the last deal of the previous page
+ * @param limit          maximum number of deals to return
+ */
+@Builder(toBuilder = true)
+public record FXDealsSearchCriteria(String orderingCurrencyIsoCode,
+                                    String toCurrencyIsoCode,
+                                    LocalDateTime from,
+                                    LocalDateTime to,
+                                    LocalDateTime afterTimestamp,
+                                    UUID afterId,
+                                    int limit) {
+}
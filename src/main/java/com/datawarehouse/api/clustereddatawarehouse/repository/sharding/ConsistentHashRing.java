@@ -0,0 +1,71 @@
+package com.datawarehouse.api.clustereddatawarehouse.repository.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Maps deal ids to shard indexes. Each shard owns {@code virtualNodes} points on a 64-bit ring, placed by hashing
+ * the shard's name, and a deal belongs to the shard owning the first point at or after the hash of its id. Adding
+ * a shard only moves the deals that land on its new points, about 1/N of them, and all of them to the new shard.
+ */
+public final class ConsistentHashRing {
+
+    private final long[] points;
+    private final int[] owners;
+
+    public ConsistentHashRing(List<String> shardNames, int virtualNodes) {
+        if (shardNames.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be positive");
+        }
+        int size = shardNames.size() * virtualNodes;
+        long[][] ring = new long[size][];
+        int i = 0;
+        for (int shard = 0; shard < shardNames.size(); shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                byte[] key = (shardNames.get(shard) + "#" + node).getBytes(StandardCharsets.UTF_8);
+                ring[i++] = new long[]{UUID.nameUUIDFromBytes(key).getMostSignificantBits(), shard};
+            }
+        }
+        Arrays.sort(ring, (a, b) -> Long.compare(a[0], b[0]));
+        points = new long[size];
+        owners = new int[size];
+        for (i = 0; i < size; i++) {
+            points[i] = ring[i][0];
+            owners[i] = (int) ring[i][1];
+        }
+    }
+
+    /**
+     * Returns the index, in the list given to the constructor, of the shard that owns {@code id}.
+     */
+    public int shardOf(UUID id) {
+        int index = Arrays.binarySearch(points, hash(id));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * Mixes both halves of the id so that time-ordered UUIDs (v1, v7), whose high bits change slowly, spread as well
+     * as random ones.
+     */
+    static long hash(UUID id) {
+        return mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+    }
+
+    // MurmurHash3 fmix64 finalizer.
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
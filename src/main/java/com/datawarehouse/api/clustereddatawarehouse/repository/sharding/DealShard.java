@@ -0,0 +1,16 @@
+package com.datawarehouse.api.clustereddatawarehouse.repository.sharding;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * One PostgreSQL node holding a slice of the deals, with the complete schema: {@code fx_deals}, {@code fx_deal_ids}
+ * and {@code fx_deal_volume_rollups} for the deals it owns.
+ *
+ * @param transactionTemplate runs work in a transaction on this shard's {@code dataSource}
+ */
+public record DealShard(String name, DataSource dataSource, JdbcTemplate jdbcTemplate,
+                        TransactionTemplate transactionTemplate) {
+}
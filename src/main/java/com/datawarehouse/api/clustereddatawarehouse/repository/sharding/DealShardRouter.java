@@ -0,0 +1,231 @@
+package com.datawarehouse.api.clustereddatawarehouse.repository.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Routes deal reads and writes to the shard that owns the deal's id and runs queries that need every shard in
+ * parallel. Without sharding the router holds the application's own data source as its single shard and runs
+ * everything on the calling thread, so Spring-managed transactions keep applying.
+ * <p>
+ * Ids are only claimed on their owner, so a distributed router refuses deal writes until every shard records, in
+ * {@code fx_deal_shard_ring}, that it was balanced for this router's ring. Otherwise a re-sent deal would be
+ * checked against a new owner that the rebalancer has not moved the original to yet.
+ */
+@Slf4j
+public class DealShardRouter implements AutoCloseable {
+
+    private static final String SELECT_RING = "SELECT signature FROM fx_deal_shard_ring";
+    private static final String RECORD_RING = "INSERT INTO fx_deal_shard_ring (singleton, signature, balanced_at) "
+            + "VALUES (true, ?, localtimestamp) ON CONFLICT (singleton) "
+            + "DO UPDATE SET signature = excluded.signature, balanced_at = excluded.balanced_at";
+
+    private final List<DealShard> shards;
+    private final List<DealShard> owners;
+    private final ConsistentHashRing ring;
+    private final boolean distributed;
+    private final Duration fanOutTimeout;
+    private final ExecutorService fanOutExecutor;
+    private final String ringSignature;
+    private volatile boolean balanced;
+
+    private DealShardRouter(List<DealShard> shards, Set<String> draining, int virtualNodes, boolean distributed,
+                            Duration fanOutTimeout) {
+        this.shards = List.copyOf(shards);
+        this.owners = shards.stream().filter(shard -> !draining.contains(shard.name())).toList();
+        this.ring = new ConsistentHashRing(owners.stream().map(DealShard::name).toList(), virtualNodes);
+        this.distributed = distributed;
+        this.fanOutTimeout = fanOutTimeout;
+        this.fanOutExecutor = shards.size() > 1 ? Executors.newFixedThreadPool(shards.size() * 4, new FanOutThreadFactory()) : null;
+        this.ringSignature = owners.stream().map(DealShard::name).sorted().collect(Collectors.joining(","))
+                + "@" + virtualNodes;
+        this.balanced = !distributed;
+    }
+
+    /**
+     * A router that keeps every deal in {@code shard}.
+     */
+    public static DealShardRouter single(DealShard shard) {
+        return new DealShardRouter(List.of(shard), Set.of(), 1, false, Duration.ZERO);
+    }
+
+    /**
+     * A router that spreads deals over {@code shards} and closes their data sources when it is closed. Shards named
+     * in {@code draining} own no part of the ring: they receive no new deals but are still read until the
+     * rebalancer has emptied them.
+     */
+    public static DealShardRouter distributed(List<DealShard> shards, Set<String> draining, int virtualNodes,
+                                              Duration fanOutTimeout) {
+        return new DealShardRouter(shards, draining, virtualNodes, true, fanOutTimeout);
+    }
+
+    public boolean isDistributed() {
+        return distributed;
+    }
+
+    /**
+     * Every shard, including draining ones.
+     */
+    public List<DealShard> shards() {
+        return shards;
+    }
+
+    public boolean isDraining(DealShard shard) {
+        return !owners.contains(shard);
+    }
+
+    public boolean isBalanced() {
+        return balanced;
+    }
+
+    /**
+     * @throws ShardRebalanceInProgressException if a shard has not been balanced for this router's ring yet
+     */
+    public void requireBalanced() {
+        if (!balanced) {
+            throw new ShardRebalanceInProgressException("Shards are being rebalanced for ring " + ringSignature
+                    + "; deals can be written again once a rebalance pass has completed");
+        }
+    }
+
+    /**
+     * Reads the ring every shard was last balanced for. Shards that have never recorded one are a new cluster, and
+     * are recorded as balanced for this router's ring.
+     */
+    public void refreshBalance() {
+        if (!distributed) {
+            return;
+        }
+        List<String> recorded = fanOut(shard -> shard.jdbcTemplate().queryForList(SELECT_RING, String.class)
+                .stream().findFirst().orElse(""));
+        if (recorded.stream().allMatch(String::isEmpty)) {
+            recordBalanced();
+            return;
+        }
+        boolean nowBalanced = recorded.stream().allMatch(ringSignature::equals);
+        if (nowBalanced != balanced) {
+            log.warn(nowBalanced
+                    ? "Shards are balanced for ring {}; deal writes are accepted"
+                    : "Shards are not balanced for ring {} yet; deal writes are refused until a rebalance pass completes",
+                    ringSignature);
+        }
+        balanced = nowBalanced;
+    }
+
+    /**
+     * Records on every shard that it is balanced for this router's ring, and accepts writes again.
+     */
+    public void recordBalanced() {
+        if (!distributed) {
+            return;
+        }
+        fanOut(shard -> shard.jdbcTemplate().update(RECORD_RING, ringSignature));
+        balanced = true;
+    }
+
+    public DealShard shardFor(UUID dealId) {
+        return owners.get(ring.shardOf(dealId));
+    }
+
+    /**
+     * Groups {@code items} by the shard owning their id, keeping their relative order within each shard.
+     */
+    public <T> Map<DealShard, List<T>> partition(Collection<T> items, Function<T, UUID> idOf) {
+        if (shards.size() == 1) {
+            return Map.of(shards.get(0), items instanceof List<T> list ? list : new ArrayList<>(items));
+        }
+        Map<DealShard, List<T>> byShard = new LinkedHashMap<>();
+        for (T item : items) {
+            byShard.computeIfAbsent(shardFor(idOf.apply(item)), shard -> new ArrayList<>()).add(item);
+        }
+        return byShard;
+    }
+
+    /**
+     * Runs {@code task} on every shard in parallel and returns the results in shard order.
+     */
+    public <R> List<R> fanOut(Function<DealShard, R> task) {
+        Map<DealShard, DealShard> work = new LinkedHashMap<>();
+        shards.forEach(shard -> work.put(shard, shard));
+        return fanOut(work, (shard, ignored) -> task.apply(shard));
+    }
+
+    /**
+     * Runs {@code task} in parallel for each shard of {@code work} with its share of the work, as returned by
+     * {@link #partition}, and returns the results in the order of {@code work}.
+     */
+    public <T, R> List<R> fanOut(Map<DealShard, T> work, BiFunction<DealShard, T, R> task) {
+        if (work.size() <= 1) {
+            List<R> results = new ArrayList<>(1);
+            work.forEach((shard, share) -> results.add(task.apply(shard, share)));
+            return results;
+        }
+        List<DealShard> targets = new ArrayList<>(work.keySet());
+        List<Future<R>> futures = new ArrayList<>(targets.size());
+        work.forEach((shard, share) -> futures.add(fanOutExecutor.submit(() -> task.apply(shard, share))));
+
+        long deadline = System.nanoTime() + fanOutTimeout.toNanos();
+        List<R> results = new ArrayList<>(futures.size());
+        int i = 0;
+        try {
+            for (; i < futures.size(); i++) {
+                results.add(futures.get(i).get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+            }
+            return results;
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("Shard " + targets.get(i).name() + " did not answer within " + fanOutTimeout);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Query on shard " + targets.get(i).name() + " failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shard " + targets.get(i).name(), e);
+        } finally {
+            for (; i < futures.size(); i++) {
+                futures.get(i).cancel(true);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdownNow();
+        }
+        if (!distributed) {
+            return;
+        }
+        for (DealShard shard : shards) {
+            if (shard.dataSource() instanceof Closeable closeable) {
+                try {
+                    closeable.close();
+                } catch (IOException e) {
+                    log.warn("Failed to close connection pool of shard {}", shard.name(), e);
+                }
+            }
+        }
+    }
+
+    private static final class FanOutThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "shard-fan-out-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
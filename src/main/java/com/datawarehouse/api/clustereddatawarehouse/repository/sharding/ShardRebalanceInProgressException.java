@@ -0,0 +1,14 @@
+package com.datawarehouse.api.clustereddatawarehouse.repository.sharding;
+
+import org.springframework.dao.TransientDataAccessResourceException;
+
+/**
+ * Thrown for deal writes while the shards are not yet balanced for the configured ring. Transient, so queued
+ * ingestion retries the write instead of dropping it.
+ */
+public class ShardRebalanceInProgressException extends TransientDataAccessResourceException {
+
+    public ShardRebalanceInProgressException(String message) {
+        super(message);
+    }
+}
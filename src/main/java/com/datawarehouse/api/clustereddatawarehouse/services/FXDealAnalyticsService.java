@@ -0,0 +1,29 @@
+package com.datawarehouse.api.clustereddatawarehouse.services;
+
+import com.datawarehouse.api.clustereddatawarehouse.domain.VolumeGranularity;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealVolumeDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealVolumeRebuildDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BadRequestException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface FXDealAnalyticsService {
+
+    /**
+     * Returns the deal count and total amount per currency pair for each bucket of {@code granularity} starting in
+     * {@code [from, to)}, read from the rollups only. Either currency code may be {@code null}.
+     *
+     * @throws BadRequestException if a parameter is invalid or the range spans too many buckets
+     */
+    List<FXDealVolumeDto> findVolumes(VolumeGranularity granularity, String orderingCurrencyIsoCode,
+                                      String toCurrencyIsoCode, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Recomputes the rollups of the deals in {@code [from, to)} from {@code fx_deals}, widened to whole days, or of
+     * every deal when both bounds are {@code null}. Writers wait until the rebuild has committed.
+     *
+     * @throws BadRequestException if only one bound is given or {@code from} is not before {@code to}
+     */
+    FXDealVolumeRebuildDto rebuildVolumes(LocalDateTime from, LocalDateTime to);
+}
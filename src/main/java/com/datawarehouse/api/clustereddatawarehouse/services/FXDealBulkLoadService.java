@@ -0,0 +1,10 @@
+package com.datawarehouse.api.clustereddatawarehouse.services;
+
+import com.datawarehouse.api.clustereddatawarehouse.services.importing.FXDealImportFormat;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsImportReportDto;
+
+import java.io.InputStream;
+
+public interface FXDealBulkLoadService {
+    FXDealsImportReportDto bulkLoad(InputStream inputStream, FXDealImportFormat format);
+}
@@ -0,0 +1,27 @@
+package com.datawarehouse.api.clustereddatawarehouse.services;
+
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsSearchCriteria;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BadRequestException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+public interface FXDealExportService {
+
+    /**
+     * Validates the request parameters of an export. The currencies may be {@code null}; the time range is required.
+     *
+     * @throws BadRequestException if a parameter is invalid
+     */
+    FXDealsSearchCriteria prepareExport(String orderingCurrencyIsoCode, String toCurrencyIsoCode,
+                                        LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Writes every deal matching {@code criteria} as an Arrow IPC stream, reading the deals through a database
+     * cursor and writing them in fixed-size record batches, so memory stays bounded for any range.
+     *
+     * @return the number of deals written
+     */
+    long exportDeals(FXDealsSearchCriteria criteria, OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,10 @@
+package com.datawarehouse.api.clustereddatawarehouse.services;
+
+import com.datawarehouse.api.clustereddatawarehouse.services.importing.FXDealImportFormat;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsImportReportDto;
+
+import java.io.InputStream;
+
+public interface FXDealImportService {
+    FXDealsImportReportDto importDeals(InputStream inputStream, FXDealImportFormat format);
+}
@@ -0,0 +1,33 @@
+package com.datawarehouse.api.clustereddatawarehouse.services;
+
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsSearchCriteria;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsResponseDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BadRequestException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface FXDealQueryService {
+
+    /**
+     * Looks up a single deal by its unique id.
+     */
+    Optional<FXDealsResponseDto> findDeal(UUID id);
+
+    /**
+     * Validates the request parameters of a deal search; every parameter may be {@code null}.
+     *
+     * @throws BadRequestException if a parameter is invalid
+     */
+    FXDealsSearchCriteria prepareSearch(String orderingCurrencyIsoCode, String toCurrencyIsoCode,
+                                        LocalDateTime from, LocalDateTime to, Integer limit, String cursor);
+
+    /**
+     * Writes one page of deals as {@code {"deals": [...], "nextCursor": "..."}}, streaming each deal as it is read
+     * from the database. {@code nextCursor} is {@code null} on the last page.
+     */
+    void writeDeals(FXDealsSearchCriteria criteria, OutputStream outputStream) throws IOException;
+}
@@ -1,9 +1,14 @@
 package com.datawarehouse.api.clustereddatawarehouse.services;
 
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsBatchResponseDto;
 import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
 import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsResponseDto;
 
+import java.util.List;
+
 public interface FXDealsService {
     FXDealsResponseDto createDeal(FXDealsRequestDto requestDto);
+
+    FXDealsBatchResponseDto createDeals(List<FXDealsRequestDto> requestDtos);
 }
 
@@ -0,0 +1,34 @@
+package com.datawarehouse.api.clustereddatawarehouse.services;
+
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsSearchCriteria;
+import com.datawarehouse.api.clustereddatawarehouse.services.importing.FXDealImportFormat;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The deal operations of the reactive runtime. Results and errors match {@link FXDealsService},
+ * {@link FXDealImportService} and {@link FXDealQueryService}, but nothing blocks the calling thread.
+ */
+public interface ReactiveFXDealsService {
+
+    Mono<FXDealsResponseDto> createDeal(FXDealsRequestDto requestDto);
+
+    Mono<FXDealsBatchResponseDto> createDeals(List<FXDealsRequestDto> requestDtos);
+
+    /**
+     * Imports the lines of an upload chunk by chunk. A chunk is only requested from {@code lines} once the previous
+     * one has committed, so a slow database slows down the upload instead of filling memory.
+     */
+    Mono<FXDealsImportReportDto> importDeals(Flux<String> lines, FXDealImportFormat format);
+
+    /**
+     * Emits the deal, or completes empty if there is none with this id.
+     */
+    Mono<FXDealsResponseDto> findDeal(UUID id);
+
+    Mono<FXDealsPageDto> findDeals(FXDealsSearchCriteria criteria);
+}
@@ -0,0 +1,115 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.dedup;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory filter of every deal id claimed in {@code fx_deal_ids}, used to tell apart deals that are definitely new
+ * from deals that might be duplicates without asking the database.
+ * <p>
+ * The filter is warmed from {@code fx_deal_ids} in the background after startup. Until warm-up completes, and when it
+ * is disabled, every id is reported as a possible duplicate so callers fall back to the database check.
+ */
+@Component
+@Slf4j
+public class DealIdFilter {
+
+    private final FXDealsRepository fxDealsRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final FXDealsProperties.DedupFilter settings;
+    private final DealIdBloomFilter bloomFilter;
+    private final AtomicLong definitelyNew = new AtomicLong();
+    private final AtomicLong possibleDuplicates = new AtomicLong();
+    private volatile boolean ready;
+
+    public DealIdFilter(FXDealsRepository fxDealsRepository, PlatformTransactionManager transactionManager,
+                        FXDealsProperties properties) {
+        this.fxDealsRepository = fxDealsRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.settings = properties.getDedupFilter();
+        this.bloomFilter = settings.isEnabled()
+                ? new DealIdBloomFilter(settings.getExpectedInsertions(), settings.getFalsePositiveRate())
+                : null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpInBackground() {
+        if (bloomFilter == null) {
+            log.info("Deal id filter disabled");
+            return;
+        }
+        Thread warmUp = new Thread(this::warmUp, "deal-id-filter-warm-up");
+        warmUp.setDaemon(true);
+        warmUp.start();
+    }
+
+    public void warmUp() {
+        if (bloomFilter == null) {
+            return;
+        }
+        long started = System.nanoTime();
+        AtomicLong loaded = new AtomicLong();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> fxDealsRepository.forEachDealId(id -> {
+                bloomFilter.put(id);
+                loaded.incrementAndGet();
+            }));
+            ready = true;
+            log.info("Deal id filter warmed with {} ids in {} ms ({} bytes, {} hash functions)",
+                    loaded.get(), (System.nanoTime() - started) / 1_000_000, bloomFilter.memoryBytes(), bloomFilter.hashCount());
+        } catch (RuntimeException e) {
+            log.error("Deal id filter warm-up failed after {} ids, duplicate checks will keep using the database", loaded.get(), e);
+        }
+    }
+
+    /**
+     * @return {@code true} only if the id has certainly never been stored
+     */
+    public boolean isDefinitelyNew(UUID id) {
+        if (!ready) {
+            return false;
+        }
+        if (bloomFilter.mightContain(id)) {
+            possibleDuplicates.incrementAndGet();
+            return false;
+        }
+        definitelyNew.incrementAndGet();
+        return true;
+    }
+
+    public void recordInserted(UUID id) {
+        if (bloomFilter != null) {
+            bloomFilter.put(id);
+        }
+    }
+
+    public boolean isEnabled() {
+        return bloomFilter != null;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public DealIdBloomFilter getBloomFilter() {
+        return bloomFilter;
+    }
+
+    public long getDefinitelyNewCount() {
+        return definitelyNew.get();
+    }
+
+    public long getPossibleDuplicateCount() {
+        return possibleDuplicates.get();
+    }
+}
@@ -0,0 +1,35 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.dedup;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "dealidfilter")
+@RequiredArgsConstructor
+public class DealIdFilterEndpoint {
+
+    private final DealIdFilter dealIdFilter;
+
+    @ReadOperation
+    public Map<String, Object> filter() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("enabled", dealIdFilter.isEnabled());
+        details.put("ready", dealIdFilter.isReady());
+        DealIdBloomFilter bloomFilter = dealIdFilter.getBloomFilter();
+        if (bloomFilter != null) {
+            details.put("approximateSize", bloomFilter.approximateElementCount());
+            details.put("falsePositiveRate", bloomFilter.currentFalsePositiveRate());
+            details.put("memoryBytes", bloomFilter.memoryBytes());
+            details.put("bitSize", bloomFilter.bitSize());
+            details.put("hashFunctions", bloomFilter.hashCount());
+        }
+        details.put("definitelyNew", dealIdFilter.getDefinitelyNewCount());
+        details.put("possibleDuplicates", dealIdFilter.getPossibleDuplicateCount());
+        return details;
+    }
+}
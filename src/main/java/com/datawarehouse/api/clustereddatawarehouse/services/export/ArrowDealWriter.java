@@ -0,0 +1,341 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.export;
+
+import com.datawarehouse.api.clustereddatawarehouse.domain.DealAmounts;
+import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.CurrencyCodes;
+import com.google.flatbuffers.FlatBufferBuilder;
+import org.apache.arrow.flatbuf.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Writes deals in the Apache Arrow IPC streaming format, one record batch per {@code batchSize} deals, so that
+ * memory stays the same however many deals are written. The schema is
+ * <pre>
+ * id                          fixed_size_binary[16]  arrow.uuid extension, most significant byte first
+ * ordering_currency_iso_code  dictionary&lt;int16, utf8&gt;
+ * to_currency_iso_code        dictionary&lt;int16, utf8&gt;
+ * deal_amount                 decimal128(19, 4)
+ * deal_timestamp              timestamp[us], no time zone
+ * created_at                  timestamp[us], no time zone, nullable
+ * </pre>
+ * Each currency column has its own dictionary. It is sent before the first batch and extended with a delta
+ * dictionary batch whenever later batches bring codes it does not hold yet.
+ * <p>
+ * Only the flatbuffers metadata classes of {@code arrow-format} are used; the column buffers are filled directly,
+ * so neither Arrow's allocator nor its {@code --add-opens} requirement is needed on the server.
+ */
+public final class ArrowDealWriter {
+
+    public static final String MEDIA_TYPE = "application/vnd.apache.arrow.stream";
+
+    private static final int CONTINUATION = 0xFFFFFFFF;
+    private static final int ALIGNMENT = 8;
+    private static final int UUID_WIDTH = 16;
+    private static final int DECIMAL_WIDTH = 16;
+    private static final int DECIMAL_PRECISION = 19;
+    private static final byte[] PADDING = new byte[ALIGNMENT];
+
+    private final OutputStream out;
+    private final int batchSize;
+    private final FlatBufferBuilder builder = new FlatBufferBuilder(1024);
+    private final CurrencyDictionary orderingCurrencies = new CurrencyDictionary(0);
+    private final CurrencyDictionary toCurrencies = new CurrencyDictionary(1);
+    private final ByteBuffer ids;
+    private final ByteBuffer orderingCodes;
+    private final ByteBuffer toCodes;
+    private final ByteBuffer amounts;
+    private final ByteBuffer dealTimestamps;
+    private final ByteBuffer createdAts;
+    private final ByteBuffer createdAtValidity;
+    private final ByteBuffer scratch = ByteBuffer.allocate(2 * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private int rows;
+    private int missingCreatedAts;
+    private long written;
+    private boolean started;
+
+    public ArrowDealWriter(OutputStream out, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        this.out = out;
+        this.batchSize = batchSize;
+        this.ids = column(UUID_WIDTH * batchSize).order(ByteOrder.BIG_ENDIAN);
+        this.orderingCodes = column(Short.BYTES * batchSize);
+        this.toCodes = column(Short.BYTES * batchSize);
+        this.amounts = column(DECIMAL_WIDTH * batchSize);
+        this.dealTimestamps = column(Long.BYTES * batchSize);
+        this.createdAts = column(Long.BYTES * batchSize);
+        this.createdAtValidity = column((batchSize + 7) / 8);
+    }
+
+    /**
+     * Adds a deal to the current batch, writing the batch out once it is full.
+     *
+     * @throws IllegalArgumentException if a currency code is not well-formed
+     */
+    public void write(FxDeals deal) throws IOException {
+        if (!started) {
+            writeSchema();
+            started = true;
+        }
+        ids.putLong(deal.getId().getMostSignificantBits()).putLong(deal.getId().getLeastSignificantBits());
+        orderingCodes.putShort(orderingCurrencies.code(deal.getOrderingCurrencyIsoCode()));
+        toCodes.putShort(toCurrencies.code(deal.getToCurrencyIsoCode()));
+        long amount = deal.getDealAmount();
+        // Decimal128 is a two's complement 128-bit integer, low half first.
+        amounts.putLong(amount).putLong(amount < 0 ? -1L : 0L);
+        dealTimestamps.putLong(epochMicros(deal.getDealTimestamp()));
+        if (deal.getCreatedAt() != null) {
+            createdAtValidity.put(rows >>> 3, (byte) (createdAtValidity.get(rows >>> 3) | 1 << (rows & 7)));
+            createdAts.putLong(epochMicros(deal.getCreatedAt()));
+        } else {
+            missingCreatedAts++;
+            createdAts.putLong(0L);
+        }
+        rows++;
+        written++;
+        if (rows == batchSize) {
+            flushBatch();
+        }
+    }
+
+    /**
+     * Writes the last, partial batch and the end-of-stream marker. The output stream is flushed but not closed. An
+     * empty export is a valid stream with the schema and no batches.
+     */
+    public void finish() throws IOException {
+        if (!started) {
+            writeSchema();
+            started = true;
+        }
+        if (rows > 0) {
+            flushBatch();
+        }
+        scratch.clear();
+        scratch.putInt(CONTINUATION).putInt(0);
+        out.write(scratch.array(), 0, scratch.position());
+        out.flush();
+    }
+
+    /**
+     * @return the number of deals written so far
+     */
+    public long written() {
+        return written;
+    }
+
+    private void writeSchema() throws IOException {
+        builder.clear();
+        int uuidExtension = Field.createCustomMetadataVector(builder, new int[]{
+                keyValue("ARROW:extension:name", "arrow.uuid"),
+                keyValue("ARROW:extension:metadata", "")
+        });
+        int[] fields = {
+                field("id", false, Type.FixedSizeBinary, FixedSizeBinary.createFixedSizeBinary(builder, UUID_WIDTH),
+                        0, uuidExtension),
+                field("ordering_currency_iso_code", false, Type.Utf8, utf8(),
+                        orderingCurrencies.encoding(), 0),
+                field("to_currency_iso_code", false, Type.Utf8, utf8(), toCurrencies.encoding(), 0),
+                field("deal_amount", false, Type.Decimal,
+                        Decimal.createDecimal(builder, DECIMAL_PRECISION, DealAmounts.SCALE, 128), 0, 0),
+                field("deal_timestamp", false, Type.Timestamp, microsTimestamp(), 0, 0),
+                field("created_at", true, Type.Timestamp, microsTimestamp(), 0, 0)
+        };
+        int fieldVector = Schema.createFieldsVector(builder, fields);
+        Schema.startSchema(builder);
+        Schema.addEndianness(builder, Endianness.Little);
+        Schema.addFields(builder, fieldVector);
+        writeMessage(MessageHeader.Schema, Schema.endSchema(builder), 0);
+    }
+
+    private void flushBatch() throws IOException {
+        // New dictionary entries must be sent before the first batch that uses them.
+        orderingCurrencies.flush();
+        toCurrencies.flush();
+
+        // The validity bitmap may be left out of a batch without nulls.
+        int validityLength = missingCreatedAts > 0 ? (rows + 7) / 8 : 0;
+        ByteBuffer[] buffers = {
+                empty(), ids,
+                empty(), orderingCodes,
+                empty(), toCodes,
+                empty(), amounts,
+                empty(), dealTimestamps,
+                createdAtValidity.position(validityLength), createdAts
+        };
+        long[] nullCounts = {0, 0, 0, 0, 0, missingCreatedAts};
+        writeRecordBatch(null, rows, nullCounts, buffers);
+
+        for (ByteBuffer column : buffers) {
+            column.clear();
+        }
+        Arrays.fill(createdAtValidity.array(), (byte) 0);
+        rows = 0;
+        missingCreatedAts = 0;
+    }
+
+    /**
+     * Writes a record batch, or the body of a dictionary batch when {@code dictionary} is set, from buffers whose
+     * content ends at their position.
+     */
+    private void writeRecordBatch(CurrencyDictionary dictionary, int length, long[] nullCounts, ByteBuffer[] buffers)
+            throws IOException {
+        builder.clear();
+        RecordBatch.startBuffersVector(builder, buffers.length);
+        long[] offsets = new long[buffers.length];
+        long bodyLength = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            offsets[i] = bodyLength;
+            bodyLength += align(buffers[i].position());
+        }
+        // Flatbuffers vectors of structs are built back to front.
+        for (int i = buffers.length - 1; i >= 0; i--) {
+            Buffer.createBuffer(builder, offsets[i], buffers[i].position());
+        }
+        int bufferVector = builder.endVector();
+        RecordBatch.startNodesVector(builder, nullCounts.length);
+        for (int i = nullCounts.length - 1; i >= 0; i--) {
+            FieldNode.createFieldNode(builder, length, nullCounts[i]);
+        }
+        int nodeVector = builder.endVector();
+        RecordBatch.startRecordBatch(builder);
+        RecordBatch.addLength(builder, length);
+        RecordBatch.addNodes(builder, nodeVector);
+        RecordBatch.addBuffers(builder, bufferVector);
+        int recordBatch = RecordBatch.endRecordBatch(builder);
+
+        if (dictionary == null) {
+            writeMessage(MessageHeader.RecordBatch, recordBatch, bodyLength);
+        } else {
+            int dictionaryBatch = DictionaryBatch.createDictionaryBatch(builder, dictionary.id, recordBatch,
+                    dictionary.sent > 0);
+            writeMessage(MessageHeader.DictionaryBatch, dictionaryBatch, bodyLength);
+        }
+        for (ByteBuffer buffer : buffers) {
+            out.write(buffer.array(), 0, buffer.position());
+            out.write(PADDING, 0, align(buffer.position()) - buffer.position());
+        }
+    }
+
+    /**
+     * Writes the encapsulated message header: the continuation marker, the metadata length and the
+     * {@link Message} flatbuffer, padded so that the body that follows starts 8-byte aligned.
+     */
+    private void writeMessage(byte headerType, int header, long bodyLength) throws IOException {
+        int message = Message.createMessage(builder, MetadataVersion.V5, headerType, header, bodyLength, 0);
+        builder.finish(message);
+        ByteBuffer metadata = builder.dataBuffer();
+        int metadataLength = metadata.remaining();
+        int paddedLength = align(metadataLength + scratch.capacity()) - scratch.capacity();
+        scratch.clear();
+        scratch.putInt(CONTINUATION).putInt(paddedLength);
+        out.write(scratch.array(), 0, scratch.position());
+        out.write(builder.sizedByteArray());
+        out.write(PADDING, 0, paddedLength - metadataLength);
+    }
+
+    private int field(String name, boolean nullable, byte typeType, int type, int dictionary, int customMetadata) {
+        int nameOffset = builder.createString(name);
+        int children = Field.createChildrenVector(builder, new int[0]);
+        Field.startField(builder);
+        Field.addName(builder, nameOffset);
+        Field.addNullable(builder, nullable);
+        Field.addTypeType(builder, typeType);
+        Field.addType(builder, type);
+        if (dictionary != 0) {
+            Field.addDictionary(builder, dictionary);
+        }
+        Field.addChildren(builder, children);
+        if (customMetadata != 0) {
+            Field.addCustomMetadata(builder, customMetadata);
+        }
+        return Field.endField(builder);
+    }
+
+    private int keyValue(String key, String value) {
+        return KeyValue.createKeyValue(builder, builder.createString(key), builder.createString(value));
+    }
+
+    private int utf8() {
+        Utf8.startUtf8(builder);
+        return Utf8.endUtf8(builder);
+    }
+
+    private int microsTimestamp() {
+        return Timestamp.createTimestamp(builder, TimeUnit.MICROSECOND, 0);
+    }
+
+    private static ByteBuffer column(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static ByteBuffer empty() {
+        return ByteBuffer.allocate(0);
+    }
+
+    private static int align(int length) {
+        return (length + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    private static long epochMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+
+    /**
+     * Assigns int16 dictionary indices to currency codes in order of first appearance, and writes the codes
+     * assigned since the last flush as a dictionary batch.
+     */
+    private final class CurrencyDictionary {
+
+        private final long id;
+        // Index + 1 of each code in AAA..ZZZ, 0 while it has none; COUNT is below Short.MAX_VALUE.
+        private final short[] indexOfCode = new short[CurrencyCodes.COUNT];
+        private final short[] codeOfIndex = new short[CurrencyCodes.COUNT];
+        private int size;
+        private int sent;
+
+        private CurrencyDictionary(long id) {
+            this.id = id;
+        }
+
+        private short code(String currency) {
+            int code = CurrencyCodes.index(currency);
+            short index = indexOfCode[code];
+            if (index == 0) {
+                codeOfIndex[size] = (short) code;
+                index = (short) ++size;
+                indexOfCode[code] = index;
+            }
+            return (short) (index - 1);
+        }
+
+        private int encoding() {
+            int indexType = Int.createInt(builder, Short.SIZE, true);
+            return DictionaryEncoding.createDictionaryEncoding(builder, id, indexType, false, DictionaryKind.DenseArray);
+        }
+
+        private void flush() throws IOException {
+            int count = size - sent;
+            if (count == 0) {
+                return;
+            }
+            ByteBuffer offsets = column((count + 1) * Integer.BYTES);
+            ByteBuffer values = column(count * 3);
+            offsets.putInt(0);
+            for (int i = sent; i < size; i++) {
+                values.put(CurrencyCodes.fromIndex(codeOfIndex[i]).getBytes(StandardCharsets.US_ASCII));
+                offsets.putInt(values.position());
+            }
+            writeRecordBatch(this, count, new long[]{0}, new ByteBuffer[]{empty(), offsets, values});
+            sent = size;
+        }
+    }
+}
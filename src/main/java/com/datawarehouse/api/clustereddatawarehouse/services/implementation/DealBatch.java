@@ -0,0 +1,150 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.implementation;
+
+import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.FXDealMetrics;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.IngestionOutcome;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.IngestionStage;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.*;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BadRequestException;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BatchSizeExceededException;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.FXDealsMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.util.*;
+
+/**
+ * One batch write, shared by the blocking and the reactive service. {@link #prepare} validates and maps every deal
+ * and drops ids repeated within the batch; {@link #complete} turns the ids the database inserted into the per-item
+ * results.
+ */
+final class DealBatch {
+
+    private final List<FXDealsRequestDto> requestDtos;
+    private final FXDealBatchItemResultDto[] results;
+    private final List<FxDeals> candidates;
+    private final List<Integer> candidateIndexes;
+
+    private DealBatch(List<FXDealsRequestDto> requestDtos) {
+        this.requestDtos = requestDtos;
+        this.results = new FXDealBatchItemResultDto[requestDtos.size()];
+        this.candidates = new ArrayList<>(requestDtos.size());
+        this.candidateIndexes = new ArrayList<>(requestDtos.size());
+    }
+
+    static DealBatch prepare(List<FXDealsRequestDto> requestDtos, int maxSize, Validator validator,
+                             FXDealsMapper mapper, FXDealMetrics metrics) {
+        if (requestDtos.size() > maxSize) {
+            throw new BatchSizeExceededException("Batch contains " + requestDtos.size() + " deals, the maximum is " + maxSize);
+        }
+        DealBatch batch = new DealBatch(requestDtos);
+        Set<UUID> seenIds = new HashSet<>(requestDtos.size() * 2);
+
+        for (int index = 0; index < requestDtos.size(); index++) {
+            FXDealsRequestDto requestDto = requestDtos.get(index);
+            Map<String, String> errors = validate(validator, metrics, requestDto);
+            if (!errors.isEmpty()) {
+                metrics.recordOutcome(IngestionOutcome.VALIDATION_FAILURE);
+                batch.results[index] = itemResult(index, requestDto, FXDealBatchItemStatus.INVALID, errors);
+                continue;
+            }
+
+            FxDeals entity;
+            try {
+                entity = map(mapper, metrics, requestDto);
+            } catch (BadRequestException e) {
+                batch.results[index] = itemResult(index, requestDto, FXDealBatchItemStatus.INVALID, Map.of("dealTimestamp", e.getMessage()));
+                continue;
+            }
+
+            if (!seenIds.add(entity.getId())) {
+                batch.results[index] = itemResult(index, requestDto, FXDealBatchItemStatus.DUPLICATE, null);
+                continue;
+            }
+            batch.candidates.add(entity);
+            batch.candidateIndexes.add(index);
+        }
+        return batch;
+    }
+
+    /**
+     * @return the valid deals with distinct ids, to be inserted ignoring duplicates
+     */
+    List<FxDeals> candidates() {
+        return candidates;
+    }
+
+    FXDealsBatchResponseDto complete(Set<UUID> insertedIds, FXDealMetrics metrics) {
+        for (int i = 0; i < candidates.size(); i++) {
+            int index = candidateIndexes.get(i);
+            FXDealBatchItemStatus status = insertedIds.contains(candidates.get(i).getId())
+                    ? FXDealBatchItemStatus.CREATED
+                    : FXDealBatchItemStatus.DUPLICATE;
+            results[index] = itemResult(index, requestDtos.get(index), status, null);
+        }
+
+        FXDealsBatchResponseDto response = summarize(Arrays.asList(results));
+        metrics.recordOutcome(IngestionOutcome.CREATED, response.getCreated());
+        metrics.recordOutcome(IngestionOutcome.DUPLICATE, response.getDuplicates());
+        return response;
+    }
+
+    static FxDeals map(FXDealsMapper mapper, FXDealMetrics metrics, FXDealsRequestDto requestDto) {
+        long started = metrics.start();
+        try {
+            FxDeals entity = mapper.toEntity(requestDto);
+            metrics.recordStage(IngestionStage.MAP, IngestionOutcome.SUCCESS, started);
+            return entity;
+        } catch (BadRequestException e) {
+            metrics.recordStage(IngestionStage.MAP, IngestionOutcome.PARSE_FAILURE, started);
+            metrics.recordOutcome(IngestionOutcome.PARSE_FAILURE);
+            throw e;
+        }
+    }
+
+    private static Map<String, String> validate(Validator validator, FXDealMetrics metrics, FXDealsRequestDto requestDto) {
+        if (requestDto == null) {
+            return Map.of("request", "Deal must not be null");
+        }
+        long started = metrics.start();
+        Set<ConstraintViolation<FXDealsRequestDto>> violations = validator.validate(requestDto);
+        metrics.recordStage(IngestionStage.VALIDATE,
+                violations.isEmpty() ? IngestionOutcome.SUCCESS : IngestionOutcome.VALIDATION_FAILURE, started);
+        if (violations.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, String> errors = new HashMap<>();
+        violations.forEach(violation -> errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+        return errors;
+    }
+
+    private static FXDealBatchItemResultDto itemResult(int index, FXDealsRequestDto requestDto,
+                                                       FXDealBatchItemStatus status, Map<String, String> errors) {
+        return FXDealBatchItemResultDto.builder()
+                .index(index)
+                .dealUniqueId(requestDto != null ? requestDto.getDealUniqueId() : null)
+                .status(status)
+                .errors(errors)
+                .build();
+    }
+
+    private static FXDealsBatchResponseDto summarize(List<FXDealBatchItemResultDto> results) {
+        int created = 0;
+        int duplicates = 0;
+        int invalid = 0;
+        for (FXDealBatchItemResultDto result : results) {
+            switch (result.getStatus()) {
+                case CREATED -> created++;
+                case DUPLICATE -> duplicates++;
+                case INVALID -> invalid++;
+            }
+        }
+        return FXDealsBatchResponseDto.builder()
+                .total(results.size())
+                .created(created)
+                .duplicates(duplicates)
+                .invalid(invalid)
+                .results(results)
+                .build();
+    }
+}
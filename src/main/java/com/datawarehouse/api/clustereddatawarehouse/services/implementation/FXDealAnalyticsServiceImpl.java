@@ -0,0 +1,83 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.implementation;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.domain.VolumeGranularity;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealVolumeRollupRepository;
+import com.datawarehouse.api.clustereddatawarehouse.services.FXDealAnalyticsService;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealVolumeDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealVolumeRebuildDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BadRequestException;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.CurrencyCodes;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.FXDealsMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FXDealAnalyticsServiceImpl implements FXDealAnalyticsService {
+    private final FXDealVolumeRollupRepository rollupRepository;
+    private final FXDealsMapper fxDealsMapper;
+    private final FXDealsProperties properties;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<FXDealVolumeDto> findVolumes(final VolumeGranularity granularity, final String orderingCurrencyIsoCode,
+                                             final String toCurrencyIsoCode, final LocalDateTime from,
+                                             final LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("'from' must be before 'to'");
+        }
+        int maxBuckets = properties.getAnalytics().getMaxBuckets();
+        if (granularity.bucketCount(from, to) > maxBuckets) {
+            throw new BadRequestException("Range spans more than " + maxBuckets + " " + granularity + " buckets");
+        }
+        return rollupRepository.findBuckets(granularity, currencyCode(orderingCurrencyIsoCode),
+                        currencyCode(toCurrencyIsoCode), granularity.bucketStart(from), to)
+                .stream()
+                .map(fxDealsMapper::toDto)
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public FXDealVolumeRebuildDto rebuildVolumes(final LocalDateTime from, final LocalDateTime to) {
+        if ((from == null) != (to == null)) {
+            throw new BadRequestException("'from' and 'to' must be given together");
+        }
+        if (from != null && !from.isBefore(to)) {
+            throw new BadRequestException("'from' must be before 'to'");
+        }
+        // Whole days, so that every minute, hour and day bucket touching the range is recomputed completely.
+        LocalDateTime rebuildFrom = from != null ? from.truncatedTo(ChronoUnit.DAYS) : null;
+        LocalDateTime rebuildTo = to != null ? to.minusNanos(1).truncatedTo(ChronoUnit.DAYS).plusDays(1) : null;
+
+        long start = System.nanoTime();
+        int rows = rollupRepository.rebuild(rebuildFrom, rebuildTo);
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Rebuilt {} volume rollup rows for {} in {} ms", rows,
+                rebuildFrom != null ? "[" + rebuildFrom + ", " + rebuildTo + ")" : "all deals", durationMs);
+        return FXDealVolumeRebuildDto.builder()
+                .from(rebuildFrom)
+                .to(rebuildTo)
+                .rollupRows(rows)
+                .durationMs(durationMs)
+                .build();
+    }
+
+    private static String currencyCode(String code) {
+        if (code == null) {
+            return null;
+        }
+        if (!CurrencyCodes.isWellFormed(code)) {
+            throw new BadRequestException("Currency ISO Code must be 3 uppercase letters");
+        }
+        return code;
+    }
+}
@@ -0,0 +1,308 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.implementation;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.FXDealMetrics;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.IngestionOutcome;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealVolumeRollupRepository;
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.DealShard;
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.DealShardRouter;
+import com.datawarehouse.api.clustereddatawarehouse.services.FXDealBulkLoadService;
+import com.datawarehouse.api.clustereddatawarehouse.services.dedup.DealIdFilter;
+import com.datawarehouse.api.clustereddatawarehouse.services.importing.DealRecord;
+import com.datawarehouse.api.clustereddatawarehouse.services.importing.DealRecordReader;
+import com.datawarehouse.api.clustereddatawarehouse.services.importing.FXDealImportFormat;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealBatchItemResultDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealBatchItemStatus;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealImportStatus;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsImportReportDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BadRequestException;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.FXDealsMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads an import file through PostgreSQL's COPY protocol instead of INSERT statements. Valid rows are streamed
+ * into a transaction-scoped staging table, then moved into {@code fx_deals} by a single statement that claims the
+ * new ids in {@code fx_deal_ids}, inserts one row per claimed id and adds the inserted rows to the volume rollups; the
+ * difference between staged and merged rows is the number of duplicates, whether they already existed or were
+ * repeated within the file. The whole file is loaded in one transaction, so a failure leaves {@code fx_deals}
+ * untouched. With sharding, every shard gets its own staging table, COPY stream and transaction, and each row is
+ * streamed to the shard owning its id.
+ */
+@Service
+@Slf4j
+public class FXDealBulkLoadServiceImpl implements FXDealBulkLoadService {
+
+    private static final String CREATE_STAGING_TABLE = "CREATE TEMPORARY TABLE fx_deals_staging ("
+            + "id uuid NOT NULL, "
+            + "ordering_currency_iso_code varchar(3) NOT NULL, "
+            + "to_currency_iso_code varchar(3) NOT NULL, "
+            + "deal_amount bigint NOT NULL, "
+            + "deal_timestamp timestamp NOT NULL"
+            + ") ON COMMIT DROP";
+    private static final String COPY_INTO_STAGING = "COPY fx_deals_staging "
+            + "(id, ordering_currency_iso_code, to_currency_iso_code, deal_amount, deal_timestamp) "
+            + "FROM STDIN (FORMAT csv)";
+    private static final String MERGE_STAGING = "WITH claimed AS ("
+            + "INSERT INTO fx_deal_ids (id) SELECT DISTINCT id FROM fx_deals_staging "
+            + "ON CONFLICT (id) DO NOTHING RETURNING id), "
+            + "inserted AS (INSERT INTO fx_deals "
+            + "(id, ordering_currency_iso_code, to_currency_iso_code, deal_amount, deal_timestamp, created_at) "
+            + "SELECT DISTINCT ON (s.id) s.id, s.ordering_currency_iso_code, s.to_currency_iso_code, s.deal_amount, "
+            + "s.deal_timestamp, localtimestamp "
+            + "FROM fx_deals_staging s JOIN claimed USING (id) "
+            + "RETURNING ordering_currency_iso_code, to_currency_iso_code, deal_amount, deal_timestamp), "
+            + "rolled_up AS (" + FXDealVolumeRollupRepository.upsertFrom("inserted") + ") "
+            + "SELECT count(*) FROM inserted";
+
+    private final DealShardRouter router;
+    private final FXDealsMapper fxDealsMapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final FXDealsProperties properties;
+    private final DealIdFilter dealIdFilter;
+    private final FXDealMetrics metrics;
+
+    public FXDealBulkLoadServiceImpl(DealShardRouter router, FXDealsMapper fxDealsMapper, Validator validator,
+                                     ObjectMapper objectMapper, FXDealsProperties properties, DealIdFilter dealIdFilter,
+                                     FXDealMetrics metrics) {
+        this.router = router;
+        this.fxDealsMapper = fxDealsMapper;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.dealIdFilter = dealIdFilter;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public FXDealsImportReportDto bulkLoad(final InputStream inputStream, final FXDealImportFormat format) {
+        router.requireBalanced();
+        LoadProgress progress = new LoadProgress(properties.getImporting().getMaxReportedErrors());
+
+        log.info("Starting {} bulk load", format);
+        long started = System.nanoTime();
+        try {
+            inShardTransactions(0, () -> load(inputStream, format, progress));
+        } catch (Exception e) {
+            FXDealImportStatus status = ImportFailures.statusOf(e);
+            log.error("Bulk load {} after {} rows, nothing committed", status, progress.rowsRead, e);
+            return progress.toReport(status, 0, 0, e.getMessage());
+        }
+
+        metrics.recordOutcome(IngestionOutcome.CREATED, progress.merged);
+        metrics.recordOutcome(IngestionOutcome.DUPLICATE, progress.staged - progress.merged);
+        log.info("Bulk load completed in {} ms: {} rows, {} created, {} duplicates, {} invalid",
+                (System.nanoTime() - started) / 1_000_000, progress.rowsRead, progress.merged,
+                progress.staged - progress.merged, progress.invalid);
+        return progress.toReport(FXDealImportStatus.COMPLETED, progress.merged, progress.staged - progress.merged, null);
+    }
+
+    /**
+     * Opens a transaction on every shard, nested in shard order, and runs {@code work} inside all of them. Any
+     * failure rolls every shard back. The commits run one shard after the other once {@code work} has returned; a
+     * shard failing to commit at that point cannot undo the commits of the shards before it.
+     */
+    private void inShardTransactions(int index, Runnable work) {
+        List<DealShard> shards = router.shards();
+        if (index == shards.size()) {
+            work.run();
+            return;
+        }
+        shards.get(index).transactionTemplate().executeWithoutResult(status -> inShardTransactions(index + 1, work));
+    }
+
+    private void load(InputStream inputStream, FXDealImportFormat format, LoadProgress progress) {
+        int bufferSize = properties.getImporting().getCopyBufferSize();
+        Map<DealShard, ShardCopy> copies = new LinkedHashMap<>();
+        try {
+            for (DealShard shard : router.shards()) {
+                copies.put(shard, ShardCopy.open(shard, bufferSize));
+            }
+            try (DealRecordReader reader = DealRecordReader.open(inputStream, format, objectMapper,
+                    properties.getImporting().getMaxLineLength())) {
+                DealRecord record;
+                while ((record = reader.next()) != null) {
+                    progress.rowsRead++;
+                    FxDeals deal = toDeal(record, progress);
+                    if (deal == null) {
+                        continue;
+                    }
+                    ShardCopy copy = copies.get(router.shardFor(deal.getId()));
+                    appendCsvRow(copy.buffer, deal);
+                    // Recorded before commit: if the load rolls back these ids only cost false positives.
+                    dealIdFilter.recordInserted(deal.getId());
+                    if (copy.buffer.length() >= bufferSize) {
+                        writeToCopy(copy.copyIn, copy.buffer);
+                    }
+                }
+            }
+            for (ShardCopy copy : copies.values()) {
+                writeToCopy(copy.copyIn, copy.buffer);
+                progress.staged += copy.copyIn.endCopy();
+            }
+            for (ShardCopy copy : copies.values()) {
+                try (Statement statement = copy.connection.createStatement();
+                     ResultSet merged = statement.executeQuery(MERGE_STAGING)) {
+                    merged.next();
+                    progress.merged += merged.getLong(1);
+                }
+            }
+        } catch (Exception e) {
+            copies.values().forEach(copy -> cancel(copy.copyIn));
+            throw e instanceof RuntimeException runtimeException ? runtimeException : new IllegalStateException(e.getMessage(), e);
+        } finally {
+            copies.values().forEach(ShardCopy::release);
+        }
+    }
+
+    private FxDeals toDeal(DealRecord record, LoadProgress progress) {
+        if (!record.isParsed()) {
+            progress.reject(record, record.parseErrors());
+            metrics.recordOutcome(IngestionOutcome.PARSE_FAILURE);
+            return null;
+        }
+        Set<ConstraintViolation<FXDealsRequestDto>> violations = validator.validate(record.deal());
+        if (!violations.isEmpty()) {
+            Map<String, String> errors = new HashMap<>();
+            violations.forEach(violation -> errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+            progress.reject(record, errors);
+            metrics.recordOutcome(IngestionOutcome.VALIDATION_FAILURE);
+            return null;
+        }
+        try {
+            return fxDealsMapper.toEntity(record.deal());
+        } catch (BadRequestException e) {
+            progress.reject(record, Map.of("dealTimestamp", e.getMessage()));
+            metrics.recordOutcome(IngestionOutcome.PARSE_FAILURE);
+            return null;
+        }
+    }
+
+    /**
+     * Every value is a UUID, a validated three-letter code, a number or an ISO timestamp, so none of them needs
+     * CSV quoting.
+     */
+    private static void appendCsvRow(StringBuilder buffer, FxDeals deal) {
+        buffer.append(deal.getId()).append(',')
+                .append(deal.getOrderingCurrencyIsoCode()).append(',')
+                .append(deal.getToCurrencyIsoCode()).append(',')
+                .append(deal.getDealAmount()).append(',')
+                .append(deal.getDealTimestamp()).append('\n');
+    }
+
+    private static void writeToCopy(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.US_ASCII);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    private static void cancel(CopyIn copyIn) {
+        if (copyIn != null && copyIn.isActive()) {
+            try {
+                copyIn.cancelCopy();
+            } catch (SQLException e) {
+                log.warn("Failed to cancel COPY", e);
+            }
+        }
+    }
+
+    /**
+     * The COPY into one shard's staging table, on the connection of that shard's transaction.
+     */
+    private static final class ShardCopy {
+        private final DealShard shard;
+        private final Connection connection;
+        private final StringBuilder buffer;
+        private CopyIn copyIn;
+
+        private ShardCopy(DealShard shard, Connection connection, int bufferSize) {
+            this.shard = shard;
+            this.connection = connection;
+            this.buffer = new StringBuilder(bufferSize + 128);
+        }
+
+        private static ShardCopy open(DealShard shard, int bufferSize) throws SQLException {
+            ShardCopy copy = new ShardCopy(shard, DataSourceUtils.getConnection(shard.dataSource()), bufferSize);
+            try (Statement statement = copy.connection.createStatement()) {
+                statement.execute(CREATE_STAGING_TABLE);
+                copy.copyIn = copy.connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_INTO_STAGING);
+                return copy;
+            } catch (SQLException | RuntimeException e) {
+                copy.release();
+                throw e;
+            }
+        }
+
+        private void release() {
+            DataSourceUtils.releaseConnection(connection, shard.dataSource());
+        }
+    }
+
+    private static final class LoadProgress {
+        private final int maxReportedErrors;
+        private final List<FXDealBatchItemResultDto> errors = new ArrayList<>();
+        private boolean errorsTruncated;
+        private long rowsRead;
+        private long invalid;
+        private long staged;
+        private long merged;
+
+        private LoadProgress(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        private void reject(DealRecord record, Map<String, String> reasons) {
+            invalid++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(FXDealBatchItemResultDto.builder()
+                        .index(record.rowNumber())
+                        .dealUniqueId(record.deal() != null ? record.deal().getDealUniqueId() : null)
+                        .status(FXDealBatchItemStatus.INVALID)
+                        .errors(reasons)
+                        .build());
+            } else {
+                errorsTruncated = true;
+            }
+        }
+
+        private FXDealsImportReportDto toReport(FXDealImportStatus status, long created, long duplicates,
+                                                String failureMessage) {
+            return FXDealsImportReportDto.builder()
+                    .status(status)
+                    .rowsRead(rowsRead)
+                    .rowsCommitted(status == FXDealImportStatus.COMPLETED ? rowsRead : 0)
+                    .created(created)
+                    .duplicates(duplicates)
+                    .invalid(invalid)
+                    .errors(errors)
+                    .errorsTruncated(errorsTruncated)
+                    .failureMessage(failureMessage)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.implementation;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsRepository;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsSearchCriteria;
+import com.datawarehouse.api.clustereddatawarehouse.services.FXDealExportService;
+import com.datawarehouse.api.clustereddatawarehouse.services.export.ArrowDealWriter;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BadRequestException;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.CurrencyCodes;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FXDealExportServiceImpl implements FXDealExportService {
+    private final FXDealsRepository fxDealsRepository;
+    private final FXDealsProperties properties;
+
+    @Override
+    public FXDealsSearchCriteria prepareExport(final String orderingCurrencyIsoCode, final String toCurrencyIsoCode,
+                                               final LocalDateTime from, final LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new BadRequestException("'from' and 'to' are required");
+        }
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("'from' must be before 'to'");
+        }
+        return FXDealsSearchCriteria.builder()
+                .orderingCurrencyIsoCode(currencyCode(orderingCurrencyIsoCode))
+                .toCurrencyIsoCode(currencyCode(toCurrencyIsoCode))
+                .from(from)
+                .to(to)
+                .build();
+    }
+
+    @Override
+    public long exportDeals(final FXDealsSearchCriteria criteria, final OutputStream outputStream) throws IOException {
+        long started = System.nanoTime();
+        ArrowDealWriter writer = new ArrowDealWriter(outputStream, properties.getExport().getBatchSize());
+        try {
+            fxDealsRepository.forEachDealInRange(criteria, properties.getExport().getFetchSize(), deal -> {
+                try {
+                    writer.write(deal);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+        log.info("Exported {} deals from {} to {} in {} ms", writer.written(), criteria.from(), criteria.to(),
+                (System.nanoTime() - started) / 1_000_000);
+        return writer.written();
+    }
+
+    private static String currencyCode(String code) {
+        if (code == null) {
+            return null;
+        }
+        if (!CurrencyCodes.isWellFormed(code)) {
+            throw new BadRequestException("Currency ISO Code must be 3 uppercase letters");
+        }
+        return code;
+    }
+}
@@ -0,0 +1,80 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.implementation;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.services.FXDealImportService;
+import com.datawarehouse.api.clustereddatawarehouse.services.FXDealsService;
+import com.datawarehouse.api.clustereddatawarehouse.services.importing.DealRecord;
+import com.datawarehouse.api.clustereddatawarehouse.services.importing.DealRecordReader;
+import com.datawarehouse.api.clustereddatawarehouse.services.importing.FXDealImportFormat;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams an import row by row and hands fixed-size chunks to {@link FXDealsService#createDeals}, which commits
+ * each chunk in its own transaction. Memory use is bounded by the chunk size, not by the size of the upload.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FXDealImportServiceImpl implements FXDealImportService {
+    private final FXDealsService fxDealsService;
+    private final FXDealsProperties properties;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public FXDealsImportReportDto importDeals(final InputStream inputStream, final FXDealImportFormat format) {
+        ImportProgress progress = new ImportProgress(properties.getImporting().getMaxReportedErrors());
+        int chunkSize = properties.getImporting().getChunkSize();
+        List<FXDealsRequestDto> chunk = new ArrayList<>(chunkSize);
+        List<DealRecord> parseErrors = new ArrayList<>();
+        long chunkFirstRow = 1;
+
+        log.info("Starting {} import", format);
+        try (DealRecordReader reader = DealRecordReader.open(inputStream, format, objectMapper,
+                properties.getImporting().getMaxLineLength())) {
+            DealRecord record;
+            while ((record = reader.next()) != null) {
+                progress.rowsRead++;
+                if (chunk.isEmpty()) {
+                    chunkFirstRow = record.rowNumber();
+                }
+                if (record.isParsed()) {
+                    chunk.add(record.deal());
+                } else {
+                    // Keep the slot so that row numbers inside the chunk stay aligned with the stream.
+                    chunk.add(null);
+                    parseErrors.add(record);
+                }
+                if (chunk.size() == chunkSize) {
+                    flush(chunk, chunkFirstRow, parseErrors, progress);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                flush(chunk, chunkFirstRow, parseErrors, progress);
+            }
+        } catch (Exception e) {
+            FXDealImportStatus status = ImportFailures.statusOf(e);
+            log.error("Import {} after {} committed rows", status, progress.rowsCommitted, e);
+            return progress.toReport(status, e.getMessage());
+        }
+
+        log.info("Import completed: {} rows, {} created, {} duplicates, {} invalid",
+                progress.rowsRead, progress.created, progress.duplicates, progress.invalid);
+        return progress.toReport(FXDealImportStatus.COMPLETED, null);
+    }
+
+    private void flush(List<FXDealsRequestDto> chunk, long chunkFirstRow, List<DealRecord> parseErrors,
+                       ImportProgress progress) {
+        FXDealsBatchResponseDto result = fxDealsService.createDeals(chunk);
+        progress.record(result, chunkFirstRow, parseErrors);
+        chunk.clear();
+        parseErrors.clear();
+    }
+}
@@ -0,0 +1,119 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.implementation;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsRepository;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsSearchCriteria;
+import com.datawarehouse.api.clustereddatawarehouse.services.FXDealQueryService;
+import com.datawarehouse.api.clustereddatawarehouse.services.query.DealPageCursor;
+import com.datawarehouse.api.clustereddatawarehouse.services.query.FXDealCache;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsResponseDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BadRequestException;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.CurrencyCodes;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.FXDealsMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class FXDealQueryServiceImpl implements FXDealQueryService {
+    private final FXDealsRepository fxDealsRepository;
+    private final FXDealsMapper fxDealsMapper;
+    private final FXDealsProperties properties;
+    private final ObjectMapper objectMapper;
+    private final FXDealCache dealCache;
+
+    @Override
+    public Optional<FXDealsResponseDto> findDeal(final UUID id) {
+        return dealCache.find(id, fxDealsRepository::findDealById).map(fxDealsMapper::toDto);
+    }
+
+    @Override
+    public FXDealsSearchCriteria prepareSearch(final String orderingCurrencyIsoCode, final String toCurrencyIsoCode,
+                                               final LocalDateTime from, final LocalDateTime to,
+                                               final Integer limit, final String cursor) {
+        int maxPageSize = properties.getQuery().getMaxPageSize();
+        if (limit != null && (limit < 1 || limit > maxPageSize)) {
+            throw new BadRequestException("Limit must be between 1 and " + maxPageSize);
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new BadRequestException("'from' must be before 'to'");
+        }
+        DealPageCursor after = cursor != null ? DealPageCursor.decode(cursor) : null;
+        return FXDealsSearchCriteria.builder()
+                .orderingCurrencyIsoCode(currencyCode(orderingCurrencyIsoCode))
+                .toCurrencyIsoCode(currencyCode(toCurrencyIsoCode))
+                .from(from)
+                .to(to)
+                .afterTimestamp(after != null ? after.dealTimestamp() : null)
+                .afterId(after != null ? after.id() : null)
+                .limit(limit != null ? limit : properties.getQuery().getDefaultPageSize())
+                .build();
+    }
+
+    @Override
+    public void writeDeals(final FXDealsSearchCriteria criteria, final OutputStream outputStream) throws IOException {
+        int limit = criteria.limit();
+        // One extra row tells whether another page follows without a separate count query.
+        FXDealsSearchCriteria lookahead = criteria.toBuilder().limit(limit + 1).build();
+        PageWriter page = new PageWriter(objectMapper.getFactory().createGenerator(outputStream), limit);
+
+        page.generator.writeStartObject();
+        page.generator.writeArrayFieldStart("deals");
+        try {
+            fxDealsRepository.forEachDeal(lookahead, page::write);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        page.generator.writeEndArray();
+        page.generator.writeStringField("nextCursor", page.hasMore ? page.last.encode() : null);
+        page.generator.writeEndObject();
+        page.generator.close();
+    }
+
+    private static String currencyCode(String code) {
+        if (code == null) {
+            return null;
+        }
+        if (!CurrencyCodes.isWellFormed(code)) {
+            throw new BadRequestException("Currency ISO Code must be 3 uppercase letters");
+        }
+        return code;
+    }
+
+    private final class PageWriter {
+        private final JsonGenerator generator;
+        private final int limit;
+        private int written;
+        private DealPageCursor last;
+        private boolean hasMore;
+
+        private PageWriter(JsonGenerator generator, int limit) {
+            this.generator = generator;
+            this.limit = limit;
+        }
+
+        private void write(FxDeals deal) {
+            if (written == limit) {
+                hasMore = true;
+                return;
+            }
+            try {
+                generator.writeObject(fxDealsMapper.toDto(deal));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            written++;
+            last = new DealPageCursor(deal.getDealTimestamp(), deal.getId());
+        }
+    }
+}
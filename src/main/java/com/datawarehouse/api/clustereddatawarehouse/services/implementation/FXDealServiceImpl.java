@@ -1,40 +1,121 @@
 package com.datawarehouse.api.clustereddatawarehouse.services.implementation;
 
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.config.PersistenceConfig;
 import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.DealLogSampler;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.FXDealMetrics;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.IngestionOutcome;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.IngestionStage;
 import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsRepository;
 import com.datawarehouse.api.clustereddatawarehouse.services.FXDealsService;
-import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
-import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsResponseDto;
+import com.datawarehouse.api.clustereddatawarehouse.services.dedup.DealIdFilter;
+import com.datawarehouse.api.clustereddatawarehouse.services.stream.FXDealsInsertedEvent;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.*;
 import com.datawarehouse.api.clustereddatawarehouse.web.exception.RequestAlreadyExistException;
 import com.datawarehouse.api.clustereddatawarehouse.web.mapper.FXDealsMapper;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.*;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class FXDealServiceImpl implements FXDealsService {
     private final FXDealsRepository fxDealsRepository;
     private final FXDealsMapper fxDealsMapper;
+    private final Validator validator;
+    private final FXDealsProperties properties;
+    private final DealIdFilter dealIdFilter;
+    private final FXDealMetrics metrics;
+    private final DealLogSampler logSampler;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
-    @Transactional
+    @Transactional(transactionManager = PersistenceConfig.DEAL_WRITE_TRANSACTION_MANAGER)
     public FXDealsResponseDto createDeal(final FXDealsRequestDto requestDto) {
-        log.debug("Creating FX Deal with ID: {}", requestDto.getDealUniqueId());
+        boolean logDeal = logSampler.sample();
+        if (logDeal) {
+            log.debug("Creating FX Deal with ID: {}", requestDto.getDealUniqueId());
+        }
 
-        if (fxDealsRepository.existsById(requestDto.getDealUniqueId())) {
-            log.warn("Duplicate FX Deal detected with ID: {}", requestDto.getDealUniqueId());
+        FxDeals entity = map(requestDto);
+
+        if (!insert(entity)) {
+            metrics.recordOutcome(IngestionOutcome.DUPLICATE);
+            if (logDeal) {
+                log.warn("Duplicate FX Deal detected with ID: {}", requestDto.getDealUniqueId());
+            }
             throw new RequestAlreadyExistException("Deal with ID " + requestDto.getDealUniqueId() + " already exists");
         }
+        dealIdFilter.recordInserted(entity.getId());
+        metrics.recordOutcome(IngestionOutcome.CREATED);
+        eventPublisher.publishEvent(new FXDealsInsertedEvent(List.of(entity)));
+
+        if (logDeal) {
+            log.info("FX Deal created successfully with ID: {}", entity.getId());
+        }
+
+        return fxDealsMapper.toDto(entity);
+    }
 
-        FxDeals entity = fxDealsMapper.toEntity(requestDto);
+    @Override
+    @Transactional(transactionManager = PersistenceConfig.DEAL_WRITE_TRANSACTION_MANAGER)
+    public FXDealsBatchResponseDto createDeals(final List<FXDealsRequestDto> requestDtos) {
+        DealBatch batch = DealBatch.prepare(requestDtos, properties.getBatch().getMaxSize(), validator, fxDealsMapper, metrics);
+        log.debug("Creating batch of {} FX Deals", requestDtos.size());
 
-        FxDeals savedEntity = fxDealsRepository.save(entity);
+        long persistStarted = metrics.start();
+        Set<UUID> insertedIds = batch.candidates().isEmpty()
+                ? Set.of()
+                : fxDealsRepository.insertAllIgnoringDuplicates(batch.candidates());
+        metrics.recordStage(IngestionStage.PERSIST_BATCH, IngestionOutcome.SUCCESS, persistStarted);
 
-        log.info("FX Deal created successfully with ID: {}", savedEntity.getId());
+        insertedIds.forEach(dealIdFilter::recordInserted);
+        if (!insertedIds.isEmpty()) {
+            eventPublisher.publishEvent(new FXDealsInsertedEvent(insertedIds.size() == batch.candidates().size()
+                    ? batch.candidates()
+                    : batch.candidates().stream().filter(deal -> insertedIds.contains(deal.getId())).toList()));
+        }
+
+        FXDealsBatchResponseDto response = batch.complete(insertedIds, metrics);
+        log.info("FX Deal batch processed: {} created, {} duplicates, {} invalid",
+                response.getCreated(), response.getDuplicates(), response.getInvalid());
+        return response;
+    }
+
+    /**
+     * Deals the id filter has never seen skip the ON CONFLICT arbiter probe; only possible duplicates pay for it.
+     */
+    private boolean insert(FxDeals entity) {
+        long started = metrics.start();
+        boolean definitelyNew = dealIdFilter.isDefinitelyNew(entity.getId());
+        metrics.recordStage(IngestionStage.DUPLICATE_CHECK, IngestionOutcome.SUCCESS, started);
+
+        started = metrics.start();
+        boolean inserted;
+        if (definitelyNew) {
+            try {
+                fxDealsRepository.insertNew(entity);
+                inserted = true;
+            } catch (DuplicateKeyException e) {
+                // A concurrent request inserted the same id after the filter was consulted.
+                inserted = false;
+            }
+        } else {
+            inserted = fxDealsRepository.insertIfAbsent(entity);
+        }
+        metrics.recordStage(IngestionStage.PERSIST, inserted ? IngestionOutcome.CREATED : IngestionOutcome.DUPLICATE, started);
+        return inserted;
+    }
 
-        return fxDealsMapper.toDto(savedEntity);
+    private FxDeals map(FXDealsRequestDto requestDto) {
+        return DealBatch.map(fxDealsMapper, metrics, requestDto);
     }
 }
@@ -0,0 +1,35 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.implementation;
+
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealImportStatus;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BadRequestException;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.dao.DataAccessException;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Tells an import stopped by its upload from one stopped by the server, for the status of its report.
+ */
+final class ImportFailures {
+
+    private ImportFailures() {
+    }
+
+    /**
+     * @return {@link FXDealImportStatus#REJECTED} if the body could not be read or was refused as a whole, otherwise
+     * {@link FXDealImportStatus#ABORTED}
+     */
+    static FXDealImportStatus statusOf(Throwable failure) {
+        for (Throwable e = failure; e != null; e = e.getCause()) {
+            // Checked first: the driver wraps a lost database connection's IOException in these.
+            if (e instanceof SQLException || e instanceof DataAccessException) {
+                return FXDealImportStatus.ABORTED;
+            }
+            if (e instanceof IOException || e instanceof BadRequestException || e instanceof DataBufferLimitException) {
+                return FXDealImportStatus.REJECTED;
+            }
+        }
+        return FXDealImportStatus.ABORTED;
+    }
+}
@@ -0,0 +1,77 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.implementation;
+
+import com.datawarehouse.api.clustereddatawarehouse.services.importing.DealRecord;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Running totals of one import, updated with each chunk's results as the chunk commits.
+ */
+final class ImportProgress {
+    private final int maxReportedErrors;
+    private final List<FXDealBatchItemResultDto> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+    long rowsRead;
+    long rowsCommitted;
+    long created;
+    long duplicates;
+    long invalid;
+
+    ImportProgress(int maxReportedErrors) {
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * @param parseErrors the chunk's unparseable rows, in row order; they were passed to the service as {@code null}
+     */
+    void record(FXDealsBatchResponseDto result, long chunkFirstRow, List<DealRecord> parseErrors) {
+        int parseErrorIndex = 0;
+        for (FXDealBatchItemResultDto item : result.getResults()) {
+            long rowNumber = chunkFirstRow + item.getIndex();
+            switch (item.getStatus()) {
+                case CREATED -> created++;
+                case DUPLICATE -> duplicates++;
+                case INVALID -> {
+                    invalid++;
+                    DealRecord parseError = parseErrorIndex < parseErrors.size()
+                            && parseErrors.get(parseErrorIndex).rowNumber() == rowNumber
+                            ? parseErrors.get(parseErrorIndex++)
+                            : null;
+                    reportError(FXDealBatchItemResultDto.builder()
+                            .index(rowNumber)
+                            .dealUniqueId(parseError != null && parseError.deal() != null
+                                    ? parseError.deal().getDealUniqueId()
+                                    : item.getDealUniqueId())
+                            .status(FXDealBatchItemStatus.INVALID)
+                            .errors(parseError != null ? parseError.parseErrors() : item.getErrors())
+                            .build());
+                }
+            }
+        }
+        rowsCommitted += result.getTotal();
+    }
+
+    private void reportError(FXDealBatchItemResultDto error) {
+        if (errors.size() < maxReportedErrors) {
+            errors.add(error);
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    FXDealsImportReportDto toReport(FXDealImportStatus status, String failureMessage) {
+        return FXDealsImportReportDto.builder()
+                .status(status)
+                .rowsRead(rowsRead)
+                .rowsCommitted(rowsCommitted)
+                .created(created)
+                .duplicates(duplicates)
+                .invalid(invalid)
+                .errors(errors)
+                .errorsTruncated(errorsTruncated)
+                .failureMessage(failureMessage)
+                .build();
+    }
+}
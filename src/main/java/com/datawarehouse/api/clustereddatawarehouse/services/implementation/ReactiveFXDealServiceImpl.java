@@ -0,0 +1,160 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.implementation;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.DealLogSampler;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.FXDealMetrics;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.IngestionOutcome;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.IngestionStage;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsReactiveRepository;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsSearchCriteria;
+import com.datawarehouse.api.clustereddatawarehouse.services.ReactiveFXDealsService;
+import com.datawarehouse.api.clustereddatawarehouse.services.dedup.DealIdFilter;
+import com.datawarehouse.api.clustereddatawarehouse.services.importing.DealLineParser;
+import com.datawarehouse.api.clustereddatawarehouse.services.importing.DealRecord;
+import com.datawarehouse.api.clustereddatawarehouse.services.importing.FXDealImportFormat;
+import com.datawarehouse.api.clustereddatawarehouse.services.query.DealPageCursor;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.*;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.RequestAlreadyExistException;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.FXDealsMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveFXDealServiceImpl implements ReactiveFXDealsService {
+    private final FXDealsReactiveRepository fxDealsRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final FXDealsMapper fxDealsMapper;
+    private final Validator validator;
+    private final FXDealsProperties properties;
+    private final DealIdFilter dealIdFilter;
+    private final FXDealMetrics metrics;
+    private final DealLogSampler logSampler;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Mono<FXDealsResponseDto> createDeal(final FXDealsRequestDto requestDto) {
+        boolean logDeal = logSampler.sample();
+        return Mono.fromCallable(() -> DealBatch.map(fxDealsMapper, metrics, requestDto))
+                .flatMap(entity -> {
+                    long started = metrics.start();
+                    return fxDealsRepository.insertIfAbsent(entity).map(inserted -> {
+                        metrics.recordStage(IngestionStage.PERSIST,
+                                inserted ? IngestionOutcome.CREATED : IngestionOutcome.DUPLICATE, started);
+                        if (!inserted) {
+                            metrics.recordOutcome(IngestionOutcome.DUPLICATE);
+                            if (logDeal) {
+                                log.warn("Duplicate FX Deal detected with ID: {}", requestDto.getDealUniqueId());
+                            }
+                            throw new RequestAlreadyExistException("Deal with ID " + requestDto.getDealUniqueId() + " already exists");
+                        }
+                        dealIdFilter.recordInserted(entity.getId());
+                        metrics.recordOutcome(IngestionOutcome.CREATED);
+                        return fxDealsMapper.toDto(entity);
+                    });
+                });
+    }
+
+    @Override
+    public Mono<FXDealsBatchResponseDto> createDeals(final List<FXDealsRequestDto> requestDtos) {
+        return Mono.fromCallable(() -> DealBatch.prepare(requestDtos, properties.getBatch().getMaxSize(), validator,
+                        fxDealsMapper, metrics))
+                .flatMap(batch -> {
+                    if (batch.candidates().isEmpty()) {
+                        return Mono.just(batch.complete(Set.of(), metrics));
+                    }
+                    long persistStarted = metrics.start();
+                    // All chunks of one batch commit together, as in the blocking service.
+                    return transactionalOperator.transactional(fxDealsRepository.insertAllIgnoringDuplicates(batch.candidates()))
+                            .collect(Collectors.toSet())
+                            .map(insertedIds -> {
+                                metrics.recordStage(IngestionStage.PERSIST_BATCH, IngestionOutcome.SUCCESS, persistStarted);
+                                insertedIds.forEach(dealIdFilter::recordInserted);
+                                return batch.complete(insertedIds, metrics);
+                            });
+                })
+                .doOnNext(response -> log.info("FX Deal batch processed: {} created, {} duplicates, {} invalid",
+                        response.getCreated(), response.getDuplicates(), response.getInvalid()));
+    }
+
+    @Override
+    public Mono<FXDealsImportReportDto> importDeals(final Flux<String> lines, final FXDealImportFormat format) {
+        ImportProgress progress = new ImportProgress(properties.getImporting().getMaxReportedErrors());
+        DealLineParser parser = DealLineParser.create(format, objectMapper);
+        int maxLineLength = properties.getImporting().getMaxLineLength();
+
+        log.info("Starting {} import", format);
+        return lines.mapNotNull(line -> line.length() > maxLineLength
+                        ? parser.oversized(maxLineLength)
+                        : parser.parse(line))
+                .buffer(properties.getImporting().getChunkSize())
+                // Prefetch of one: while a chunk is written, at most the next one is parsed and waiting.
+                .concatMap(records -> importChunk(records, progress), 1)
+                .then(Mono.fromSupplier(() -> {
+                    log.info("Import completed: {} rows, {} created, {} duplicates, {} invalid",
+                            progress.rowsRead, progress.created, progress.duplicates, progress.invalid);
+                    return progress.toReport(FXDealImportStatus.COMPLETED, null);
+                }))
+                .onErrorResume(e -> {
+                    FXDealImportStatus status = ImportFailures.statusOf(e);
+                    log.error("Import {} after {} committed rows", status, progress.rowsCommitted, e);
+                    return Mono.just(progress.toReport(status, e.getMessage()));
+                });
+    }
+
+    private Mono<FXDealsBatchResponseDto> importChunk(List<DealRecord> records, ImportProgress progress) {
+        List<FXDealsRequestDto> chunk = new ArrayList<>(records.size());
+        List<DealRecord> parseErrors = new ArrayList<>();
+        for (DealRecord record : records) {
+            if (record.isParsed()) {
+                chunk.add(record.deal());
+            } else {
+                // Keep the slot so that row numbers inside the chunk stay aligned with the stream.
+                chunk.add(null);
+                parseErrors.add(record);
+            }
+        }
+        return createDeals(chunk).doOnNext(result -> {
+            progress.rowsRead += records.size();
+            progress.record(result, records.get(0).rowNumber(), parseErrors);
+        });
+    }
+
+    @Override
+    public Mono<FXDealsResponseDto> findDeal(final UUID id) {
+        return fxDealsRepository.findDealById(id).map(fxDealsMapper::toDto);
+    }
+
+    @Override
+    public Mono<FXDealsPageDto> findDeals(final FXDealsSearchCriteria criteria) {
+        int limit = criteria.limit();
+        // One extra row tells whether another page follows without a separate count query.
+        return fxDealsRepository.findDeals(criteria.toBuilder().limit(limit + 1).build())
+                .collectList()
+                .map(deals -> {
+                    boolean hasMore = deals.size() > limit;
+                    List<FxDeals> page = hasMore ? deals.subList(0, limit) : deals;
+                    FxDeals last = page.isEmpty() ? null : page.get(page.size() - 1);
+                    return FXDealsPageDto.builder()
+                            .deals(page.stream().map(fxDealsMapper::toDto).toList())
+                            .nextCursor(hasMore ? new DealPageCursor(last.getDealTimestamp(), last.getId()).encode() : null)
+                            .build();
+                });
+    }
+}
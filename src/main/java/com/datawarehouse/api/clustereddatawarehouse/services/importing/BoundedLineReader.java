@@ -0,0 +1,95 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.importing;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Splits a character stream into lines the way {@link java.io.BufferedReader#readLine()} does, but holds at most
+ * {@code maxLength} characters of a line, so that a stream without line breaks cannot exhaust the heap. The rest of a
+ * longer line is read and discarded, and {@link #truncated()} reports it.
+ */
+final class BoundedLineReader implements Closeable {
+
+    private final Reader reader;
+    private final int maxLength;
+    private final char[] buffer;
+    private final StringBuilder line = new StringBuilder();
+    private int position;
+    private int limit;
+    private boolean skipLineFeed;
+    private boolean truncated;
+
+    BoundedLineReader(Reader reader, int maxLength, int bufferSize) {
+        this.reader = reader;
+        this.maxLength = maxLength;
+        this.buffer = new char[bufferSize];
+    }
+
+    /**
+     * @return the next line without its terminator, cut to {@code maxLength} characters, or {@code null} once the
+     * stream is exhausted
+     */
+    String readLine() throws IOException {
+        line.setLength(0);
+        truncated = false;
+        boolean started = false;
+        while (true) {
+            if (position == limit && !fill()) {
+                return started ? line.toString() : null;
+            }
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (buffer[position] == '\n') {
+                    position++;
+                    continue;
+                }
+            }
+            started = true;
+            int start = position;
+            while (position < limit && buffer[position] != '\n' && buffer[position] != '\r') {
+                position++;
+            }
+            int end = position;
+            if (end < limit) {
+                skipLineFeed = buffer[position++] == '\r';
+                if (line.isEmpty() && end - start <= maxLength) {
+                    // The whole line is in the buffer, as almost every line is.
+                    return new String(buffer, start, end - start);
+                }
+                append(start, end);
+                return line.toString();
+            }
+            append(start, end);
+        }
+    }
+
+    /**
+     * @return whether the line last returned by {@link #readLine()} was longer than {@code maxLength}
+     */
+    boolean truncated() {
+        return truncated;
+    }
+
+    private void append(int start, int end) {
+        int room = maxLength - line.length();
+        if (end - start > room) {
+            truncated = true;
+            line.append(buffer, start, room);
+        } else {
+            line.append(buffer, start, end - start);
+        }
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,150 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.importing;
+
+import com.datawarehouse.api.clustereddatawarehouse.domain.DealAmounts;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.CurrencyCodes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads comma-separated rows in the column order
+ * {@code dealUniqueId,orderingCurrencyIsoCode,toCurrencyIsoCode,dealAmount,dealTimestamp}.
+ * A leading header row with those names is skipped.
+ * <p>
+ * Fields may be quoted as in RFC 4180, with {@code ""} for a quote inside a quoted field, and are trimmed of the
+ * spaces around them. Unlike RFC 4180, a quoted field cannot span lines: the stream is split into rows at every line
+ * break before the row is parsed.
+ */
+public class CsvDealLineParser implements DealLineParser {
+
+    static final String HEADER = "dealUniqueId,orderingCurrencyIsoCode,toCurrencyIsoCode,dealAmount,dealTimestamp";
+    private static final int COLUMN_COUNT = 5;
+
+    private long rowNumber;
+    private boolean firstLine = true;
+
+    @Override
+    public DealRecord parse(String line) {
+        if (firstLine) {
+            firstLine = false;
+            if (line.replace(" ", "").equalsIgnoreCase(HEADER)) {
+                return null;
+            }
+        }
+        if (line.isBlank()) {
+            return null;
+        }
+
+        rowNumber++;
+        List<String> columns = new ArrayList<>(COLUMN_COUNT);
+        String malformed = split(line, columns);
+        if (malformed != null) {
+            return DealRecord.unparseable(rowNumber, null, Map.of("row", malformed));
+        }
+        if (columns.size() != COLUMN_COUNT) {
+            return DealRecord.unparseable(rowNumber, null,
+                    Map.of("row", "Expected " + COLUMN_COUNT + " columns but found " + columns.size()));
+        }
+
+        Map<String, String> errors = new HashMap<>();
+        FXDealsRequestDto deal = FXDealsRequestDto.builder()
+                .dealUniqueId(parseUuid(columns.get(0), errors))
+                .orderingCurrencyIsoCode(CurrencyCodes.canonical(columns.get(1)))
+                .toCurrencyIsoCode(CurrencyCodes.canonical(columns.get(2)))
+                .dealAmount(parseAmount(columns.get(3), errors))
+                .dealTimestamp(columns.get(4))
+                .build();
+        return errors.isEmpty()
+                ? DealRecord.parsed(rowNumber, deal)
+                : DealRecord.unparseable(rowNumber, deal, errors);
+    }
+
+    @Override
+    public DealRecord oversized(int maxLength) {
+        firstLine = false;
+        rowNumber++;
+        return DealRecord.unparseable(rowNumber, null,
+                Map.of("row", "Line is longer than " + maxLength + " characters"));
+    }
+
+    /**
+     * Adds the fields of {@code line} to {@code columns}, an empty field as {@code null}.
+     *
+     * @return why the line is not valid CSV, or {@code null} if it is
+     */
+    private static String split(String line, List<String> columns) {
+        StringBuilder field = new StringBuilder();
+        int position = 0;
+        while (true) {
+            while (position < line.length() && line.charAt(position) == ' ') {
+                position++;
+            }
+            field.setLength(0);
+            if (position < line.length() && line.charAt(position) == '"') {
+                position++;
+                while (true) {
+                    int quote = line.indexOf('"', position);
+                    if (quote < 0) {
+                        return "Column " + (columns.size() + 1) + " has an unterminated quote";
+                    }
+                    field.append(line, position, quote);
+                    position = quote + 1;
+                    if (position < line.length() && line.charAt(position) == '"') {
+                        field.append('"');
+                        position++;
+                    } else {
+                        break;
+                    }
+                }
+                while (position < line.length() && line.charAt(position) == ' ') {
+                    position++;
+                }
+                if (position < line.length() && line.charAt(position) != ',') {
+                    return "Column " + (columns.size() + 1) + " has text after its closing quote";
+                }
+                columns.add(field.isEmpty() ? null : field.toString());
+            } else {
+                int comma = line.indexOf(',', position);
+                int end = comma < 0 ? line.length() : comma;
+                String value = line.substring(position, end).trim();
+                if (value.indexOf('"') >= 0) {
+                    return "Column " + (columns.size() + 1) + " has a quote inside an unquoted field";
+                }
+                columns.add(value.isEmpty() ? null : value);
+                position = end;
+            }
+            if (position >= line.length()) {
+                return null;
+            }
+            position++;
+        }
+    }
+
+    private static UUID parseUuid(String value, Map<String, String> errors) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            errors.put("dealUniqueId", "Deal Unique Id must be a valid UUID");
+            return null;
+        }
+    }
+
+    private static long parseAmount(String value, Map<String, String> errors) {
+        if (value == null) {
+            return DealAmounts.MISSING;
+        }
+        try {
+            return DealAmounts.parse(value);
+        } catch (NumberFormatException e) {
+            errors.put("dealAmount", "Deal Amount must be a number");
+            return DealAmounts.MISSING;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.importing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Turns the lines of an import stream into rows. A parser numbers the rows it has seen, so each stream needs its own
+ * instance.
+ */
+public interface DealLineParser {
+
+    /**
+     * @param line one line of the stream, without its line terminator
+     * @return the row held by the line, or {@code null} for a line that holds none (a blank line or a header)
+     */
+    DealRecord parse(String line);
+
+    /**
+     * @return an unparseable row standing for a line longer than {@code maxLength} characters, which is not read
+     */
+    DealRecord oversized(int maxLength);
+
+    static DealLineParser create(FXDealImportFormat format, ObjectMapper objectMapper) {
+        return switch (format) {
+            case NDJSON -> new NdjsonDealLineParser(objectMapper);
+            case CSV -> new CsvDealLineParser();
+        };
+    }
+}
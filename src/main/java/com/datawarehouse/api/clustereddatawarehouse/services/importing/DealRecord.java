@@ -0,0 +1,25 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.importing;
+
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
+
+import java.util.Map;
+
+/**
+ * One row read from an import stream: either a parsed deal or the reasons it could not be parsed.
+ *
+ * @param rowNumber 1-based position of the row in the stream, header excluded
+ */
+public record DealRecord(long rowNumber, FXDealsRequestDto deal, Map<String, String> parseErrors) {
+
+    public static DealRecord parsed(long rowNumber, FXDealsRequestDto deal) {
+        return new DealRecord(rowNumber, deal, Map.of());
+    }
+
+    public static DealRecord unparseable(long rowNumber, FXDealsRequestDto partialDeal, Map<String, String> parseErrors) {
+        return new DealRecord(rowNumber, partialDeal, parseErrors);
+    }
+
+    public boolean isParsed() {
+        return parseErrors.isEmpty();
+    }
+}
@@ -0,0 +1,46 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.importing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pulls deals one row at a time from an import stream so that only the current row is held in memory. A line longer
+ * than the limit is not held either; it is reported as an unparseable row.
+ */
+public interface DealRecordReader extends Closeable {
+
+    /**
+     * @return the next row, or {@code null} once the stream is exhausted
+     */
+    DealRecord next() throws IOException;
+
+    static DealRecordReader open(InputStream inputStream, FXDealImportFormat format, ObjectMapper objectMapper,
+                                 int maxLineLength) {
+        BoundedLineReader reader = new BoundedLineReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8),
+                maxLineLength, 64 * 1024);
+        DealLineParser parser = DealLineParser.create(format, objectMapper);
+        return new DealRecordReader() {
+            @Override
+            public DealRecord next() throws IOException {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    DealRecord record = reader.truncated() ? parser.oversized(maxLineLength) : parser.parse(line);
+                    if (record != null) {
+                        return record;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+    }
+}
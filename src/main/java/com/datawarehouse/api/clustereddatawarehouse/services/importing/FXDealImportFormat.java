@@ -0,0 +1,29 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.importing;
+
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BadRequestException;
+import org.springframework.http.MediaType;
+
+public enum FXDealImportFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    CSV(new MediaType("text", "csv"));
+
+    private final MediaType mediaType;
+
+    FXDealImportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public static FXDealImportFormat fromContentType(String contentType) {
+        MediaType requested = MediaType.parseMediaType(contentType);
+        for (FXDealImportFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(requested)) {
+                return format;
+            }
+        }
+        throw new BadRequestException("Unsupported import content type: " + contentType);
+    }
+}
@@ -0,0 +1,42 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.importing;
+
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.util.Map;
+
+/**
+ * Reads one JSON object per line. Lines are parsed independently, so a malformed line only invalidates itself.
+ */
+public class NdjsonDealLineParser implements DealLineParser {
+
+    private final ObjectReader dealReader;
+    private long rowNumber;
+
+    public NdjsonDealLineParser(ObjectMapper objectMapper) {
+        this.dealReader = objectMapper.readerFor(FXDealsRequestDto.class);
+    }
+
+    @Override
+    public DealRecord parse(String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+
+        rowNumber++;
+        try {
+            return DealRecord.parsed(rowNumber, dealReader.readValue(line));
+        } catch (JsonProcessingException e) {
+            return DealRecord.unparseable(rowNumber, null, Map.of("row", "Malformed JSON: " + e.getOriginalMessage()));
+        }
+    }
+
+    @Override
+    public DealRecord oversized(int maxLength) {
+        rowNumber++;
+        return DealRecord.unparseable(rowNumber, null,
+                Map.of("row", "Line is longer than " + maxLength + " characters"));
+    }
+}
@@ -0,0 +1,423 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.ingestion;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.services.FXDealsService;
+import com.datawarehouse.api.clustereddatawarehouse.services.ingestion.wal.DealLogEntry;
+import com.datawarehouse.api.clustereddatawarehouse.services.ingestion.wal.DealLogRecord;
+import com.datawarehouse.api.clustereddatawarehouse.services.ingestion.wal.DealWriteAheadLog;
+import com.datawarehouse.api.clustereddatawarehouse.services.ingestion.wal.GroupCommitter;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.*;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.IngestionQueueFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Write-behind ingestion: accepted deals are placed on a bounded in-process queue and a pool of writers persists
+ * them in micro-batches through {@link FXDealsService#createDeals}, decoupling HTTP latency from commit latency.
+ * <p>
+ * Only active when {@code fx-deals.ingestion.mode} is ASYNC or DURABLE. On shutdown it stops accepting deals and
+ * drains whatever is still queued before the datasource is closed.
+ * <p>
+ * In ASYNC mode the deals have already been answered 202 when a writer persists them, so a micro-batch that fails
+ * because the database is unavailable is retried with a bounded backoff. Once the retries are used up, or on any
+ * other failure, its deals are marked FAILED, counted in {@value #DROPPED_COUNTER} and their ids logged.
+ * <p>
+ * In DURABLE mode the queue is a {@link DealWriteAheadLog}: a deal is acknowledged once it is forced to disk, and
+ * a single replayer applies the log in order. Replay is idempotent by deal id, so deals applied after the last
+ * checkpoint come back as duplicates after a crash.
+ */
+@Component
+@Slf4j
+public class FXDealIngestionQueue implements SmartLifecycle {
+
+    public static final String DROPPED_COUNTER = "fx.deals.ingestion.dropped";
+    public static final String CORRUPT_COUNTER = "fx.deals.ingestion.wal.corrupt";
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final FXDealsService fxDealsService;
+    private final FXDealsProperties.Ingestion settings;
+    private final BlockingQueue<QueuedDeal> queue;
+    private final IngestionTracker tracker;
+    private final boolean virtualThreads;
+    private final Counter droppedDeals;
+    private final Counter corruptRecords;
+    private final Semaphore replaySignal = new Semaphore(0);
+    private ExecutorService writers;
+    private DealWriteAheadLog wal;
+    private GroupCommitter committer;
+    private volatile boolean accepting;
+    private volatile boolean running;
+
+    public FXDealIngestionQueue(FXDealsService fxDealsService, FXDealsProperties properties, Environment environment,
+                                MeterRegistry meterRegistry) {
+        this.fxDealsService = fxDealsService;
+        this.virtualThreads = Threading.VIRTUAL.isActive(environment);
+        this.settings = properties.getIngestion();
+        this.queue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+        this.tracker = new IngestionTracker(settings.getTrackingCapacity());
+        this.droppedDeals = Counter.builder(DROPPED_COUNTER)
+                .description("Accepted deals that were marked FAILED because their micro-batch could not be written")
+                .register(meterRegistry);
+        this.corruptRecords = Counter.builder(CORRUPT_COUNTER)
+                .description("Unreadable write-ahead log records that were skipped during replay")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return settings.getMode() != FXDealsProperties.IngestionMode.SYNC;
+    }
+
+    private boolean isDurable() {
+        return settings.getMode() == FXDealsProperties.IngestionMode.DURABLE;
+    }
+
+    /**
+     * Queues a validated deal for persistence. In DURABLE mode this returns once the deal is on disk.
+     *
+     * @return the status to report to the client, carrying the tracking id
+     * @throws IngestionQueueFullException if the queue has no room within the configured backpressure policy
+     */
+    public FXDealIngestionStatusDto submit(FXDealsRequestDto requestDto) {
+        if (!accepting) {
+            throw new IngestionQueueFullException("Ingestion queue is not accepting deals");
+        }
+        UUID trackingId = UUID.randomUUID();
+        FXDealIngestionStatusDto accepted = tracker.queued(trackingId, requestDto.getDealUniqueId());
+        QueuedDeal deal = new QueuedDeal(trackingId, requestDto);
+        if (!(isDurable() ? append(deal) : enqueue(deal))) {
+            tracker.forget(trackingId);
+            throw new IngestionQueueFullException("Ingestion queue is full (" + settings.getQueueCapacity() + " deals)");
+        }
+        return accepted;
+    }
+
+    public Optional<FXDealIngestionStatusDto> findStatus(UUID trackingId) {
+        return tracker.find(trackingId);
+    }
+
+    public int queuedCount() {
+        return queue.size();
+    }
+
+    private boolean enqueue(QueuedDeal deal) {
+        if (settings.getBackpressure() == FXDealsProperties.Backpressure.REJECT) {
+            return queue.offer(deal);
+        }
+        try {
+            return queue.offer(deal, settings.getBlockTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean append(QueuedDeal deal) {
+        byte[] payload = new DealLogRecord(deal.trackingId(), deal.requestDto()).encode();
+        Duration wait = settings.getBackpressure() == FXDealsProperties.Backpressure.REJECT
+                ? Duration.ZERO
+                : settings.getBlockTimeout();
+        try {
+            CompletableFuture<Long> durable = committer.submit(payload, wait);
+            if (durable == null) {
+                return false;
+            }
+            durable.get(settings.getWal().getCommitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            // A timed out deal may still be committed and replayed later; resending it is reported as a duplicate.
+            tracker.forget(deal.trackingId());
+            throw new IngestionQueueFullException("Write-ahead log could not persist the deal in time");
+        }
+        replaySignal.release();
+        return true;
+    }
+
+    @Override
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        if (isDurable()) {
+            openWriteAheadLog();
+        }
+        running = true;
+        ThreadFactory threadFactory = virtualThreads
+                ? new VirtualThreadTaskExecutor("fx-deal-writer-").getVirtualThreadFactory()
+                : new CustomizableThreadFactory("fx-deal-writer-");
+        // The log must be applied in order, so it has a single replayer.
+        int threads = isDurable() ? 1 : settings.getWriterThreads();
+        writers = Executors.newFixedThreadPool(threads, threadFactory);
+        for (int i = 0; i < threads; i++) {
+            writers.execute(isDurable() ? this::replayLoop : this::drainLoop);
+        }
+        accepting = true;
+        if (isDurable()) {
+            log.info("Durable ingestion started with a write-ahead log in {}, group commits of up to {} deals",
+                    settings.getWal().getDirectory(), settings.getWal().getGroupCommitSize());
+        } else {
+            log.info("Asynchronous ingestion started with {} {} writers and capacity {}",
+                    threads, virtualThreads ? "virtual" : "platform", settings.getQueueCapacity());
+        }
+    }
+
+    private void openWriteAheadLog() {
+        FXDealsProperties.WriteAheadLog walSettings = settings.getWal();
+        try {
+            wal = DealWriteAheadLog.open(walSettings.getDirectory(), Math.toIntExact(walSettings.getSegmentSize().toBytes()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the write-ahead log in " + walSettings.getDirectory(), e);
+        }
+        committer = new GroupCommitter(wal, settings.getQueueCapacity(), walSettings.getGroupCommitSize(),
+                walSettings.getGroupCommitLinger());
+    }
+
+    @Override
+    public void stop() {
+        if (writers == null) {
+            return;
+        }
+        accepting = false;
+        if (committer != null) {
+            try {
+                committer.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        running = false;
+        writers.shutdown();
+        try {
+            if (!writers.awaitTermination(settings.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Ingestion writers did not finish within {}", settings.getShutdownTimeout());
+                writers.shutdownNow();
+                writers.awaitTermination(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writers.shutdownNow();
+        }
+        if (wal != null) {
+            log.info("Durable ingestion stopped, {} bytes of the write-ahead log left to replay",
+                    wal.endOffset() - wal.checkpoint());
+            // Unmapping segments under a replayer that ignored the interrupt would crash the JVM.
+            if (writers.isTerminated()) {
+                wal.close();
+            }
+            return;
+        }
+        // Deals that raced with the shutdown flag are written by the stopping thread.
+        List<QueuedDeal> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+        log.info("Asynchronous ingestion stopped, queue drained");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops after the web server has stopped taking requests, and before the datasource is closed.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void drainLoop() {
+        List<QueuedDeal> batch = new ArrayList<>(settings.getMicroBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                QueuedDeal first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, settings.getMicroBatchSize() - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * On shutdown, keeps going until the log is applied or the shutdown timeout interrupts it.
+     */
+    private void replayLoop() {
+        FXDealsProperties.WriteAheadLog walSettings = settings.getWal();
+        long backoffMillis = walSettings.getReplayRetryBackoff().toMillis();
+        try {
+            while (true) {
+                int replayed = replay();
+                if (replayed < 0) {
+                    Thread.sleep(backoffMillis);
+                    backoffMillis = Math.min(backoffMillis * 2, walSettings.getReplayMaxBackoff().toMillis());
+                    continue;
+                }
+                backoffMillis = walSettings.getReplayRetryBackoff().toMillis();
+                if (replayed == 0) {
+                    if (!running) {
+                        return;
+                    }
+                    if (replaySignal.tryAcquire(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        replaySignal.drainPermits();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Unreadable records and batches the database rejects are skipped, so that they cannot stall the log.
+     *
+     * @return the number of log records consumed, or -1 if the batch should be retried after a backoff
+     */
+    private int replay() {
+        List<DealLogEntry> entries;
+        while (true) {
+            long fromOffset = wal.checkpoint();
+            try {
+                entries = wal.read(fromOffset, settings.getMicroBatchSize());
+                break;
+            } catch (IllegalStateException e) {
+                long resumeAt = wal.skipCorrupt(fromOffset);
+                corruptRecords.increment();
+                log.error("Skipping unreadable write-ahead log bytes [{}, {})", fromOffset, resumeAt, e);
+                if (!checkpoint(resumeAt)) {
+                    return -1;
+                }
+            }
+        }
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        List<QueuedDeal> batch = new ArrayList<>(entries.size());
+        for (DealLogEntry entry : entries) {
+            try {
+                DealLogRecord record = DealLogRecord.decode(entry.payload());
+                batch.add(new QueuedDeal(record.trackingId(), record.deal()));
+            } catch (RuntimeException e) {
+                corruptRecords.increment();
+                log.error("Skipping undecodable write-ahead log record at offset {}", entry.offset(), e);
+            }
+        }
+        long nextOffset = entries.get(entries.size() - 1).nextOffset();
+        if (!batch.isEmpty()) {
+            try {
+                FXDealsBatchResponseDto result = fxDealsService.createDeals(
+                        batch.stream().map(QueuedDeal::requestDto).toList());
+                for (FXDealBatchItemResultDto item : result.getResults()) {
+                    tracker.update(batch.get(Math.toIntExact(item.getIndex())).trackingId(),
+                            toState(item.getStatus()), item.getErrors());
+                }
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    log.warn("Failed to replay {} deals from the write-ahead log, will retry: {}", batch.size(),
+                            e.getMessage());
+                    return -1;
+                }
+                drop(batch, 1, e);
+            }
+        }
+        return checkpoint(nextOffset) ? entries.size() : -1;
+    }
+
+    private boolean checkpoint(long offset) {
+        try {
+            wal.checkpoint(offset);
+            return true;
+        } catch (IOException e) {
+            log.error("Failed to checkpoint the write-ahead log at offset {}", offset, e);
+            return false;
+        }
+    }
+
+    /**
+     * Retries while the database is unavailable, until the writer is interrupted.
+     */
+    private void write(List<QueuedDeal> batch) {
+        List<FXDealsRequestDto> requestDtos = new ArrayList<>(batch.size());
+        batch.forEach(deal -> requestDtos.add(deal.requestDto()));
+        long backoffMillis = settings.getWriteRetryBackoff().toMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                FXDealsBatchResponseDto result = fxDealsService.createDeals(requestDtos);
+                for (FXDealBatchItemResultDto item : result.getResults()) {
+                    tracker.update(batch.get(Math.toIntExact(item.getIndex())).trackingId(), toState(item.getStatus()),
+                            item.getErrors());
+                }
+                return;
+            } catch (RuntimeException e) {
+                if (!isTransient(e) || attempt > settings.getWriteRetries()) {
+                    drop(batch, attempt, e);
+                    return;
+                }
+                log.warn("Failed to persist micro-batch of {} queued deals (attempt {}), retrying in {} ms: {}",
+                        batch.size(), attempt, backoffMillis, e.getMessage());
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    drop(batch, attempt, e);
+                    return;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, settings.getWriteMaxBackoff().toMillis());
+            }
+        }
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private void drop(List<QueuedDeal> batch, int attempts, RuntimeException e) {
+        droppedDeals.increment(batch.size());
+        log.error("Dropped micro-batch of {} queued deals after {} attempts, deal ids {}", batch.size(), attempts,
+                batch.stream().map(deal -> deal.requestDto().getDealUniqueId()).toList(), e);
+        Map<String, String> errors = Map.of("error", String.valueOf(e.getMessage()));
+        batch.forEach(deal -> tracker.update(deal.trackingId(), FXDealIngestionState.FAILED, errors));
+    }
+
+    private static FXDealIngestionState toState(FXDealBatchItemStatus status) {
+        return switch (status) {
+            case CREATED -> FXDealIngestionState.CREATED;
+            case DUPLICATE -> FXDealIngestionState.DUPLICATE;
+            case INVALID -> FXDealIngestionState.INVALID;
+        };
+    }
+
+    private record QueuedDeal(UUID trackingId, FXDealsRequestDto requestDto) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.ingestion;
+
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealIngestionState;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealIngestionStatusDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Remembers the status of recent tracking ids, bounded by {@code capacity}. Eviction is Caffeine's size-based policy,
+ * so it favours recently queued and recently polled ids rather than strictly dropping the oldest.
+ */
+class IngestionTracker {
+
+    private final Cache<UUID, FXDealIngestionStatusDto> statuses;
+
+    IngestionTracker(int capacity) {
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(capacity)
+                .build();
+    }
+
+    FXDealIngestionStatusDto queued(UUID trackingId, UUID dealUniqueId) {
+        FXDealIngestionStatusDto status = FXDealIngestionStatusDto.builder()
+                .trackingId(trackingId)
+                .dealUniqueId(dealUniqueId)
+                .status(FXDealIngestionState.QUEUED)
+                .updatedAt(Instant.now())
+                .build();
+        statuses.put(trackingId, status);
+        return status;
+    }
+
+    void update(UUID trackingId, FXDealIngestionState state, Map<String, String> errors) {
+        statuses.asMap().computeIfPresent(trackingId, (id, current) -> current.toBuilder()
+                .status(state)
+                .errors(errors)
+                .updatedAt(Instant.now())
+                .build());
+    }
+
+    void forget(UUID trackingId) {
+        statuses.invalidate(trackingId);
+    }
+
+    Optional<FXDealIngestionStatusDto> find(UUID trackingId) {
+        return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+}
@@ -0,0 +1,69 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.ingestion.limit;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets for the API keys listed in {@code clients}. Every other key shares one bucket at
+ * {@code requests-per-second}, so that a fresh key per request earns no extra quota.
+ */
+public class ClientQuotas {
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final LongSupplier nanoClock;
+    private final Map<String, TokenBucket> clientBuckets = new HashMap<>();
+    private final TokenBucket defaultBucket;
+
+    public ClientQuotas(FXDealsProperties.Admission settings, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        long now = nanoClock.getAsLong();
+        settings.getClients().forEach((client, rate) -> clientBuckets.put(client, bucket(rate, settings.getBurst(), now)));
+        this.defaultBucket = bucket(settings.getRequestsPerSecond(), settings.getBurst(), now);
+    }
+
+    /**
+     * @param client the API key, or {@code ""} for requests without one
+     * @return 0 if the request is within the client's quota, otherwise the nanoseconds until it would be
+     */
+    public long tryAcquire(String client) {
+        TokenBucket bucket = clientBuckets.containsKey(client) ? clientBuckets.get(client) : defaultBucket;
+        return bucket != null ? bucket.tryAcquire(nanoClock.getAsLong()) : 0;
+    }
+
+    /**
+     * @return a bucket, or {@code null} for a rate of zero, which means no quota
+     */
+    private static TokenBucket bucket(double rate, int burst, long now) {
+        return rate > 0 ? new TokenBucket(rate, burst, now) : null;
+    }
+
+    private static final class TokenBucket {
+
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long refilledAt;
+
+        private TokenBucket(double rate, int burst, long now) {
+            this.tokensPerNano = rate / NANOS_PER_SECOND;
+            this.capacity = Math.max(1, burst);
+            this.tokens = capacity;
+            this.refilledAt = now;
+        }
+
+        private synchronized long tryAcquire(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / tokensPerNano));
+        }
+    }
+}
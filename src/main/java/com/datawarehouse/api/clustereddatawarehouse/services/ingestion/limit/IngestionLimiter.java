@@ -0,0 +1,117 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.ingestion.limit;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.ClientQuotaExceededException;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.IngestionOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Rejects synchronous inserts over an {@link AdaptiveConcurrencyLimit} at once instead of letting them wait for a
+ * connection, and enforces per-client {@link ClientQuotas}. Only single-deal inserts feed the limit their latency;
+ * a batch's latency grows with its size.
+ */
+@Component
+public class IngestionLimiter {
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+    public static final String LIMIT_GAUGE = "fx.deals.admission.limit";
+    public static final String IN_FLIGHT_GAUGE = "fx.deals.admission.in.flight";
+    public static final String REJECTED_COUNTER = "fx.deals.admission.rejected";
+
+    private final FXDealsProperties.Admission settings;
+    private final AdaptiveConcurrencyLimit limit;
+    private final ClientQuotas quotas;
+    private final Counter overloadRejections;
+    private final Counter quotaRejections;
+
+    public IngestionLimiter(FXDealsProperties properties, MeterRegistry meterRegistry) {
+        this.settings = properties.getAdmission();
+        this.limit = settings.isEnabled()
+                ? new AdaptiveConcurrencyLimit(settings.getInitialLimit(), settings.getMinLimit(),
+                        settings.getMaxLimit(), settings.getLatencyThreshold().toNanos(), settings.getBackoffRatio())
+                : null;
+        this.quotas = new ClientQuotas(settings, System::nanoTime);
+        if (limit != null) {
+            Gauge.builder(LIMIT_GAUGE, limit, AdaptiveConcurrencyLimit::limit)
+                    .description("Concurrent synchronous deal inserts currently allowed")
+                    .register(meterRegistry);
+            Gauge.builder(IN_FLIGHT_GAUGE, limit, AdaptiveConcurrencyLimit::inFlight)
+                    .description("Synchronous deal inserts in progress")
+                    .register(meterRegistry);
+        }
+        this.overloadRejections = Counter.builder(REJECTED_COUNTER)
+                .description("Ingestion requests rejected before reaching the database")
+                .tag("reason", "overload")
+                .register(meterRegistry);
+        this.quotaRejections = Counter.builder(REJECTED_COUNTER)
+                .description("Ingestion requests rejected before reaching the database")
+                .tag("reason", "quota")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param apiKey the client's {@value #API_KEY_HEADER} header, or {@code null}
+     * @throws ClientQuotaExceededException if the client has used up its request rate
+     */
+    public void checkQuota(String apiKey) {
+        long waitNanos = quotas.tryAcquire(apiKey != null ? apiKey : "");
+        if (waitNanos > 0) {
+            quotaRejections.increment();
+            throw new ClientQuotaExceededException("Request rate for this API key exceeded",
+                    Duration.ofNanos(waitNanos));
+        }
+    }
+
+    /**
+     * @throws IngestionOverloadedException if the limit is reached
+     */
+    public <T> T insert(Supplier<T> insert) {
+        if (limit == null) {
+            return insert.get();
+        }
+        acquire();
+        long started = System.nanoTime();
+        boolean overloaded = false;
+        try {
+            return insert.get();
+        } catch (TransientDataAccessException | DataAccessResourceFailureException
+                 | CannotCreateTransactionException e) {
+            overloaded = true;
+            throw e;
+        } finally {
+            limit.release(started, System.nanoTime(), overloaded);
+        }
+    }
+
+    /**
+     * @throws IngestionOverloadedException if the limit is reached
+     */
+    public <T> T insertBatch(Supplier<T> insert) {
+        if (limit == null) {
+            return insert.get();
+        }
+        acquire();
+        try {
+            return insert.get();
+        } finally {
+            limit.releaseIgnored();
+        }
+    }
+
+    private void acquire() {
+        if (!limit.tryAcquire()) {
+            overloadRejections.increment();
+            throw new IngestionOverloadedException("Too many deal inserts in progress (" + limit.limit() + ")",
+                    settings.getRetryAfter());
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.ingestion.wal;
+
+/**
+ * A record read back from the {@link DealWriteAheadLog}.
+ *
+ * @param offset     where the record starts
+ * @param nextOffset where the record after it starts; checkpointing this offset marks the record as applied
+ */
+public record DealLogEntry(long offset, long nextOffset, byte[] payload) {
+}
@@ -0,0 +1,76 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.ingestion.wal;
+
+import com.datawarehouse.api.clustereddatawarehouse.domain.DealAmounts;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * An accepted deal as stored in the write-ahead log, together with the tracking id its client was given.
+ * <p>
+ * Encoded as a format version byte, both UUIDs as two longs each, the currency codes, the amount and the timestamp;
+ * strings are written as an unsigned short length followed by their UTF-8 bytes. The amount is a
+ * {@link DealAmounts fixed-point} long.
+ */
+public record DealLogRecord(UUID trackingId, FXDealsRequestDto deal) {
+
+    private static final byte VERSION = 1;
+
+    public byte[] encode() {
+        byte[] ordering = deal.getOrderingCurrencyIsoCode().getBytes(StandardCharsets.UTF_8);
+        byte[] to = deal.getToCurrencyIsoCode().getBytes(StandardCharsets.UTF_8);
+        byte[] timestamp = deal.getDealTimestamp().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 5 * Long.BYTES
+                + 3 * Short.BYTES + ordering.length + to.length + timestamp.length);
+        buffer.put(VERSION);
+        putUuid(buffer, trackingId);
+        putUuid(buffer, deal.getDealUniqueId());
+        putString(buffer, ordering);
+        putString(buffer, to);
+        buffer.putLong(deal.getDealAmount());
+        putString(buffer, timestamp);
+        return buffer.array();
+    }
+
+    public static DealLogRecord decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported write-ahead log record version " + version);
+        }
+        UUID trackingId = getUuid(buffer);
+        FXDealsRequestDto deal = FXDealsRequestDto.builder()
+                .dealUniqueId(getUuid(buffer))
+                .orderingCurrencyIsoCode(getString(buffer))
+                .toCurrencyIsoCode(getString(buffer))
+                .dealAmount(buffer.getLong())
+                .dealTimestamp(getString(buffer))
+                .build();
+        return new DealLogRecord(trackingId, deal);
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Field of " + bytes.length + " bytes is too long for the write-ahead log");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,226 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.ingestion.wal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * One fixed-size, memory-mapped file of the write-ahead log, covering the log offsets
+ * {@code [baseOffset, baseOffset + size)}.
+ * <p>
+ * The file starts with {@code [int magic][int size]}, so that a segment is always mapped with the size it was written
+ * with. Records follow back to back as {@code [int length][int crc32c][payload]}. A zero length marks the end of the
+ * written part; files are created zero-filled, so an unused tail needs no explicit terminator. Records never span
+ * two segments. All buffer access is absolute, so the replayer can read while the committer thread appends.
+ * <p>
+ * {@link #delete()} and {@link #close()} unmap the file, after which touching the buffer crashes the JVM: the log
+ * only does so for segments no thread can still be reading or appending to.
+ */
+@Slf4j
+final class DealLogSegment {
+
+    static final int FILE_HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 8;
+
+    private static final int MAGIC = 0x46584457;
+    private static final MethodHandle UNMAPPER = findUnmapper();
+
+    private final Path path;
+    private final long baseOffset;
+    private final MappedByteBuffer buffer;
+
+    private DealLogSegment(Path path, long baseOffset, MappedByteBuffer buffer) {
+        this.path = path;
+        this.baseOffset = baseOffset;
+        this.buffer = buffer;
+    }
+
+    static Path fileName(Path directory, long baseOffset) {
+        return directory.resolve(String.format("%020d.log", baseOffset));
+    }
+
+    static long baseOffsetOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - ".log".length()));
+    }
+
+    static DealLogSegment create(Path directory, long baseOffset, int size) throws IOException {
+        Path path = fileName(directory, baseOffset);
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed.
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, size);
+            buffer.force(0, FILE_HEADER_SIZE);
+            return new DealLogSegment(path, baseOffset, buffer);
+        }
+    }
+
+    /**
+     * Maps an existing segment with the size recorded in its header.
+     *
+     * @return the segment, or {@code null} if a crash cut its creation short before its header was forced, in which
+     * case it never held a record
+     * @throws IOException if the header is not one this log wrote, or disagrees with the file
+     */
+    static DealLogSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Bytes past the end of a short file are left zero.
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+            channel.read(header, 0);
+            int magic = header.getInt(0);
+            int size = header.getInt(4);
+            if (magic == 0 && size == 0) {
+                return null;
+            }
+            if (magic != MAGIC || size != channel.size() || size <= FILE_HEADER_SIZE + RECORD_HEADER_SIZE) {
+                throw new IOException("Write-ahead log segment " + path + " has an invalid header: magic "
+                        + Integer.toHexString(magic) + ", size " + size + ", file length " + channel.size());
+            }
+            return new DealLogSegment(path, baseOffsetOf(path), channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    long baseOffset() {
+        return baseOffset;
+    }
+
+    long endOffset() {
+        return baseOffset + buffer.capacity();
+    }
+
+    boolean fits(int position, int payloadLength) {
+        return (long) position + RECORD_HEADER_SIZE + payloadLength <= buffer.capacity();
+    }
+
+    /**
+     * @return the position just after the record, which is not forced to disk yet
+     */
+    int write(int position, byte[] payload) {
+        buffer.put(position + RECORD_HEADER_SIZE, payload);
+        buffer.putInt(position + 4, checksum(payload));
+        buffer.putInt(position, payload.length);
+        return position + RECORD_HEADER_SIZE + payload.length;
+    }
+
+    void force(int from, int to) {
+        if (to > from) {
+            buffer.force(from, to - from);
+        }
+    }
+
+    /**
+     * @return the length of the record at {@code position}, or 0 if the written part of the segment ends there
+     */
+    int lengthAt(int position) {
+        return position + RECORD_HEADER_SIZE > buffer.capacity() ? 0 : buffer.getInt(position);
+    }
+
+    /**
+     * @return the payload of the record at {@code position}, or {@code null} if its checksum does not match
+     */
+    byte[] read(int position) {
+        int length = lengthAt(position);
+        if (length <= 0 || !fits(position, length)) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(position + RECORD_HEADER_SIZE, payload);
+        return checksum(payload) == buffer.getInt(position + 4) ? payload : null;
+    }
+
+    /**
+     * @return the first position in {@code [from, to)} holding a record that passes its checksum and ends before
+     * {@code to}, or -1 if there is none
+     */
+    int nextIntact(int from, int to) {
+        for (int position = Math.max(from, FILE_HEADER_SIZE); position + RECORD_HEADER_SIZE < to; position++) {
+            int length = lengthAt(position);
+            if (length > 0 && (long) position + RECORD_HEADER_SIZE + length <= to && read(position) != null) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the end of the last intact record, and zero-fills anything after it. What follows the last intact
+     * record is a write that was torn by a crash before it was forced, and was therefore never acknowledged.
+     *
+     * @return the position just after the last intact record
+     */
+    int recover() {
+        int position = FILE_HEADER_SIZE;
+        byte[] payload;
+        while ((payload = read(position)) != null) {
+            position += RECORD_HEADER_SIZE + payload.length;
+        }
+        // Pages are not necessarily written back in order, so torn bytes may sit anywhere after the last record.
+        int end = buffer.capacity();
+        int dirty = position;
+        while (dirty + Long.BYTES <= end && buffer.getLong(dirty) == 0) {
+            dirty += Long.BYTES;
+        }
+        while (dirty < end && buffer.get(dirty) == 0) {
+            dirty++;
+        }
+        if (dirty < end) {
+            for (int i = position; i < end; i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.force(position, end - position);
+        }
+        return position;
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * Unmaps the file now rather than when the buffer is collected, which may be long after it was deleted.
+     */
+    void close() {
+        if (UNMAPPER == null) {
+            return;
+        }
+        try {
+            UNMAPPER.invokeExact((ByteBuffer) buffer);
+        } catch (Throwable e) {
+            log.warn("Could not unmap write-ahead log segment {}", path, e);
+        }
+    }
+
+    private static MethodHandle findUnmapper() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Write-ahead log segments cannot be unmapped explicitly; they are unmapped when collected", e);
+            return null;
+        }
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
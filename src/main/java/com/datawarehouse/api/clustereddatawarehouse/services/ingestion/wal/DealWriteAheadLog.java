@@ -0,0 +1,283 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.ingestion.wal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of accepted deals on local disk, split into memory-mapped segments of a fixed size.
+ * <p>
+ * Positions in the log are byte offsets that only grow: segment files are named after the offset of their first
+ * byte, and a record that does not fit in the rest of a segment starts the next one. {@link #append} returns once
+ * its records are forced to disk; {@link #read} only ever sees forced records. The consumer reports how far it has
+ * applied the log with {@link #checkpoint(long)}, which is written atomically and lets segments that are fully
+ * applied be deleted.
+ * <p>
+ * One thread appends and one thread reads and checkpoints; they may run concurrently. Checkpointing only deletes
+ * segments behind the reader that the appender has moved past, and {@link #close()} must wait for both threads.
+ */
+@Slf4j
+public final class DealWriteAheadLog implements AutoCloseable {
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String CHECKPOINT_TEMP_FILE = "checkpoint.tmp";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ConcurrentNavigableMap<Long, DealLogSegment> segments = new ConcurrentSkipListMap<>();
+    private volatile DealLogSegment current;
+    private volatile long endOffset;
+    private volatile long checkpoint;
+
+    private DealWriteAheadLog(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Opens the log in {@code directory}, creating it if needed. Anything after the last intact record, left by a
+     * crash in the middle of a write, is discarded; records from the checkpoint on are available to {@link #read}.
+     */
+    public static DealWriteAheadLog open(Path directory, int segmentSize) throws IOException {
+        int minimumSize = DealLogSegment.FILE_HEADER_SIZE + DealLogSegment.RECORD_HEADER_SIZE;
+        if (segmentSize <= minimumSize) {
+            throw new IllegalArgumentException("Segment size must be larger than " + minimumSize + " bytes");
+        }
+        Files.createDirectories(directory);
+        DealWriteAheadLog wal = new DealWriteAheadLog(directory, segmentSize);
+        wal.recover();
+        return wal;
+    }
+
+    private void recover() throws IOException {
+        checkpoint = readCheckpoint();
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(file -> file.getFileName().toString().endsWith(".log"))
+                    .sorted(Comparator.comparingLong(DealLogSegment::baseOffsetOf))
+                    .toList();
+        }
+        try {
+            for (Path file : files) {
+                DealLogSegment segment = DealLogSegment.open(file);
+                if (segment == null) {
+                    // Only the newest segment can have been cut short; a later one would not have been created.
+                    if (file != files.get(files.size() - 1)) {
+                        throw new IOException("Write-ahead log segment " + file + " has no header");
+                    }
+                    log.warn("Deleting write-ahead log segment {}, whose creation was cut short", file);
+                    Files.deleteIfExists(file);
+                } else if (segment.endOffset() <= checkpoint) {
+                    segment.delete();
+                } else {
+                    Map.Entry<Long, DealLogSegment> previous = segments.lastEntry();
+                    if (previous != null && previous.getValue().endOffset() > segment.baseOffset()) {
+                        segment.close();
+                        throw new IOException("Write-ahead log segment " + file + " overlaps the one before it");
+                    }
+                    segments.put(segment.baseOffset(), segment);
+                }
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        if (segments.isEmpty()) {
+            current = createSegment(checkpoint);
+            endOffset = checkpoint + DealLogSegment.FILE_HEADER_SIZE;
+        } else {
+            current = segments.lastEntry().getValue();
+            endOffset = current.baseOffset() + current.recover();
+        }
+        if (checkpoint < segments.firstKey() || checkpoint > endOffset) {
+            log.warn("Write-ahead log checkpoint {} is outside the log [{}, {}), replaying from {}",
+                    checkpoint, segments.firstKey(), endOffset, segments.firstKey());
+            checkpoint = segments.firstKey();
+        }
+        log.info("Opened write-ahead log in {} with {} bytes to replay", directory, endOffset - checkpoint);
+    }
+
+    /**
+     * @return the offset just after the last written record
+     * @throws IOException if the records could not be forced; none of them are then visible to readers
+     */
+    public long append(List<byte[]> payloads) throws IOException {
+        long offset = endOffset;
+        DealLogSegment segment = segmentAt(offset);
+        int position = Math.max((int) (offset - segment.baseOffset()), DealLogSegment.FILE_HEADER_SIZE);
+        int forcedUpTo = position;
+        for (byte[] payload : payloads) {
+            if (payload.length == 0
+                    || payload.length > segmentSize - DealLogSegment.FILE_HEADER_SIZE - DealLogSegment.RECORD_HEADER_SIZE) {
+                throw new IllegalArgumentException("Record of " + payload.length + " bytes does not fit in a segment");
+            }
+            if (!segment.fits(position, payload.length)) {
+                segment.force(forcedUpTo, position);
+                segment = segmentAt(segment.endOffset());
+                position = DealLogSegment.FILE_HEADER_SIZE;
+                forcedUpTo = position;
+            }
+            position = segment.write(position, payload);
+        }
+        segment.force(forcedUpTo, position);
+        current = segment;
+        endOffset = segment.baseOffset() + position;
+        return endOffset;
+    }
+
+    /**
+     * Reads up to {@code maxRecords} forced records, starting at {@code fromOffset}. A record that fails its checksum
+     * ends the batch early; {@link #skipCorrupt} finds where to resume after it.
+     *
+     * @throws IllegalStateException if the record at {@code fromOffset} cannot be read
+     */
+    public List<DealLogEntry> read(long fromOffset, int maxRecords) {
+        List<DealLogEntry> entries = new ArrayList<>();
+        long end = endOffset;
+        long offset = fromOffset;
+        while (offset < end && entries.size() < maxRecords) {
+            Map.Entry<Long, DealLogSegment> containing = segments.floorEntry(offset);
+            if (containing == null) {
+                throw new IllegalStateException("No write-ahead log segment holds offset " + offset);
+            }
+            DealLogSegment segment = containing.getValue();
+            int position = (int) (offset - segment.baseOffset());
+            if (position < DealLogSegment.FILE_HEADER_SIZE) {
+                offset = segment.baseOffset() + DealLogSegment.FILE_HEADER_SIZE;
+                continue;
+            }
+            if (segment.lengthAt(position) == 0) {
+                offset = segment.endOffset();
+                continue;
+            }
+            byte[] payload = segment.read(position);
+            if (payload == null) {
+                if (entries.isEmpty()) {
+                    throw new IllegalStateException("Corrupt write-ahead log record at offset " + offset);
+                }
+                break;
+            }
+            long next = offset + DealLogSegment.RECORD_HEADER_SIZE + payload.length;
+            entries.add(new DealLogEntry(offset, next, payload));
+            offset = next;
+        }
+        return entries;
+    }
+
+    /**
+     * @return the offset of the first record after {@code offset} that passes its checksum, or the start of the next
+     * segment if the rest of this one is unreadable
+     */
+    public long skipCorrupt(long offset) {
+        long end = endOffset;
+        Map.Entry<Long, DealLogSegment> containing = segments.floorEntry(offset);
+        if (containing == null || offset >= containing.getValue().endOffset()) {
+            Long next = segments.higherKey(offset);
+            return next == null ? end : Math.min(next, end);
+        }
+        DealLogSegment segment = containing.getValue();
+        long segmentEnd = Math.min(segment.endOffset(), end);
+        int position = segment.nextIntact((int) (offset - segment.baseOffset()) + 1,
+                (int) (segmentEnd - segment.baseOffset()));
+        return position < 0 ? segmentEnd : segment.baseOffset() + position;
+    }
+
+    public long checkpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Records that everything before {@code offset} has been applied, then deletes the segments that lie entirely
+     * before it.
+     */
+    public void checkpoint(long offset) throws IOException {
+        if (offset < checkpoint || offset > endOffset) {
+            throw new IllegalArgumentException("Checkpoint " + offset + " is outside [" + checkpoint + ", " + endOffset + "]");
+        }
+        writeCheckpoint(offset);
+        checkpoint = offset;
+        while (true) {
+            Map.Entry<Long, DealLogSegment> oldest = segments.firstEntry();
+            if (oldest == null || oldest.getValue().endOffset() > offset || oldest.getValue() == current) {
+                break;
+            }
+            segments.remove(oldest.getKey());
+            oldest.getValue().delete();
+        }
+    }
+
+    public long endOffset() {
+        return endOffset;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() {
+        segments.values().forEach(DealLogSegment::close);
+        segments.clear();
+    }
+
+    private DealLogSegment segmentAt(long baseOffset) throws IOException {
+        DealLogSegment segment = segments.get(baseOffset);
+        if (segment == null) {
+            Map.Entry<Long, DealLogSegment> containing = segments.floorEntry(baseOffset);
+            if (containing != null && baseOffset < containing.getValue().endOffset()) {
+                return containing.getValue();
+            }
+            segment = createSegment(baseOffset);
+        }
+        return segment;
+    }
+
+    private DealLogSegment createSegment(long baseOffset) throws IOException {
+        DealLogSegment segment = DealLogSegment.create(directory, baseOffset, segmentSize);
+        syncDirectory();
+        segments.put(baseOffset, segment);
+        return segment;
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        return Long.parseLong(Files.readString(file).trim());
+    }
+
+    private void writeCheckpoint(long offset) throws IOException {
+        Path temp = directory.resolve(CHECKPOINT_TEMP_FILE);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(Long.toString(offset).getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+    }
+
+    /**
+     * Makes created and renamed files survive a crash. Not every platform can open a directory for this, in which
+     * case the file system's own ordering is relied upon.
+     */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("Could not sync directory {}", directory, e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.ingestion.wal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Appends records to a {@link DealWriteAheadLog} from many request threads with one fsync per group of up to
+ * {@code groupSize} records. Records that arrive while a group is being forced form the next group, so groups grow
+ * with the load even without a linger.
+ * <p>
+ * Submitters queue under the read lock and {@link #close()} sets {@code closed} under the write lock, so once the
+ * committer sees {@code closed} nothing more can be queued, and draining the queue commits every accepted record.
+ */
+@Slf4j
+public final class GroupCommitter implements AutoCloseable {
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final DealWriteAheadLog wal;
+    private final BlockingQueue<PendingRecord> pending;
+    private final int groupSize;
+    private final long lingerNanos;
+    private final Thread committer;
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private volatile boolean closed;
+
+    public GroupCommitter(DealWriteAheadLog wal, int queueCapacity, int groupSize, Duration linger) {
+        this.wal = wal;
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        this.groupSize = groupSize;
+        this.lingerNanos = linger.toNanos();
+        this.committer = new Thread(this::commitLoop, "fx-deal-wal-committer");
+        this.committer.start();
+    }
+
+    /**
+     * @return a future completed with the log offset after the record once it is on disk, or {@code null} if the
+     * queue had no room within {@code wait}
+     */
+    public CompletableFuture<Long> submit(byte[] payload, Duration wait) throws InterruptedException {
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                return null;
+            }
+            PendingRecord record = new PendingRecord(payload, new CompletableFuture<>());
+            boolean queued = wait.isZero()
+                    ? pending.offer(record)
+                    : pending.offer(record, wait.toNanos(), TimeUnit.NANOSECONDS);
+            return queued ? record.durable() : null;
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Commits the records already queued; those left when the committer is interrupted are failed.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        committer.join();
+        failPending(new IllegalStateException("Write-ahead log committer is closed"));
+    }
+
+    private void commitLoop() {
+        List<PendingRecord> group = new ArrayList<>(groupSize);
+        while (!closed || !pending.isEmpty()) {
+            try {
+                PendingRecord first = pending.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                pending.drainTo(group, groupSize - 1);
+                linger(group);
+                commit(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                group.forEach(record -> record.durable().completeExceptionally(e));
+                failPending(e);
+                return;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void linger(List<PendingRecord> group) throws InterruptedException {
+        long deadline = System.nanoTime() + lingerNanos;
+        long remaining = lingerNanos;
+        while (group.size() < groupSize && remaining > 0) {
+            PendingRecord next = pending.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            group.add(next);
+            pending.drainTo(group, groupSize - group.size());
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    private void commit(List<PendingRecord> group) {
+        List<byte[]> payloads = new ArrayList<>(group.size());
+        group.forEach(record -> payloads.add(record.payload()));
+        try {
+            long endOffset = wal.append(payloads);
+            group.forEach(record -> record.durable().complete(endOffset));
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to commit {} records to the write-ahead log", group.size(), e);
+            group.forEach(record -> record.durable().completeExceptionally(e));
+        }
+    }
+
+    private void failPending(Exception e) {
+        List<PendingRecord> abandoned = new ArrayList<>();
+        pending.drainTo(abandoned);
+        abandoned.forEach(record -> record.durable().completeExceptionally(e));
+    }
+
+    private record PendingRecord(byte[] payload, CompletableFuture<Long> durable) {
+    }
+}
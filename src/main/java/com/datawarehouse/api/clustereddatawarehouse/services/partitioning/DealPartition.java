@@ -0,0 +1,13 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.partitioning;
+
+import java.time.LocalDateTime;
+
+/**
+ * An attached range partition of {@code fx_deals}, covering {@code deal_timestamp} values in {@code [from, to)}.
+ */
+record DealPartition(String name, LocalDateTime from, LocalDateTime to) {
+
+    boolean overlaps(LocalDateTime otherFrom, LocalDateTime otherTo) {
+        return from.isBefore(otherTo) && otherFrom.isBefore(to);
+    }
+}
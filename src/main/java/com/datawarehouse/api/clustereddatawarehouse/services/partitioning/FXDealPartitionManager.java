@@ -0,0 +1,172 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.partitioning;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties.PartitionGranularity;
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.DealShard;
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.DealShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the range partitions of {@code fx_deals} ahead of incoming deals and expires old ones. Runs once the
+ * application is ready and then on {@code fx-deals.partitioning.cron}.
+ * <p>
+ * Each run creates the current partition and {@code premake} following ones, skipping any range already covered
+ * by an existing partition. With a non-zero retention, partitions that end before today minus the retention period
+ * are detached and either moved to the archive schema or dropped. Their ids stay in {@code fx_deal_ids}, so
+ * re-sent deals are still rejected as duplicates after their partition has gone. With sharding, every shard is
+ * maintained the same way.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "fx-deals.partitioning", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class FXDealPartitionManager {
+
+    private static final String LIST_PARTITIONS = "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) "
+            + "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+            + "WHERE i.inhparent = 'fx_deals'::regclass";
+    private static final Pattern RANGE_BOUND = Pattern.compile("FOR VALUES FROM \\('([^']+)'\\) TO \\('([^']+)'\\)");
+    private static final DateTimeFormatter BOUND_FORMAT = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd HH:mm:ss")
+            .optionalStart()
+            .appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true)
+            .optionalEnd()
+            .toFormatter();
+    private static final DateTimeFormatter DAILY_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter MONTHLY_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final DealShardRouter router;
+    private final FXDealsProperties.Partitioning settings;
+
+    public FXDealPartitionManager(DealShardRouter router, FXDealsProperties properties) {
+        this.router = router;
+        this.settings = properties.getPartitioning();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${fx-deals.partitioning.cron:0 0 1 * * *}")
+    public void maintain() {
+        LocalDate today = LocalDate.now();
+        for (DealShard shard : router.shards()) {
+            try {
+                maintain(shard.jdbcTemplate(), today);
+            } catch (DataAccessException e) {
+                log.error("fx_deals partition maintenance failed on shard {}", shard.name(), e);
+            }
+        }
+    }
+
+    /**
+     * Runs one maintenance pass as of {@code today} on every shard.
+     */
+    public void maintain(LocalDate today) {
+        for (DealShard shard : router.shards()) {
+            maintain(shard.jdbcTemplate(), today);
+        }
+    }
+
+    private synchronized void maintain(JdbcTemplate jdbcTemplate, LocalDate today) {
+        List<DealPartition> partitions = listPartitions(jdbcTemplate);
+        createUpcoming(jdbcTemplate, today, partitions);
+        expire(jdbcTemplate, today, partitions);
+    }
+
+    private List<DealPartition> listPartitions(JdbcTemplate jdbcTemplate) {
+        List<DealPartition> partitions = new ArrayList<>();
+        jdbcTemplate.query(LIST_PARTITIONS, rs -> {
+            Matcher bound = RANGE_BOUND.matcher(rs.getString(2));
+            // The default partition and ranges bounded by MINVALUE/MAXVALUE are left alone.
+            if (bound.matches()) {
+                partitions.add(new DealPartition(rs.getString(1), parseBound(bound.group(1)), parseBound(bound.group(2))));
+            }
+        });
+        return partitions;
+    }
+
+    private void createUpcoming(JdbcTemplate jdbcTemplate, LocalDate today, List<DealPartition> partitions) {
+        PartitionGranularity granularity = settings.getGranularity();
+        LocalDate start = startOf(granularity, today);
+        for (int i = 0; i <= settings.getPremake(); i++) {
+            LocalDate end = next(granularity, start);
+            LocalDateTime from = start.atStartOfDay();
+            LocalDateTime to = end.atStartOfDay();
+            if (partitions.stream().noneMatch(partition -> partition.overlaps(from, to))) {
+                String name = "fx_deals_p" + (granularity == PartitionGranularity.DAILY ? DAILY_SUFFIX : MONTHLY_SUFFIX).format(start);
+                try {
+                    jdbcTemplate.execute("CREATE TABLE " + quote(name) + " PARTITION OF fx_deals FOR VALUES FROM ('"
+                            + BOUND_FORMAT.format(from) + "') TO ('" + BOUND_FORMAT.format(to) + "')");
+                    partitions.add(new DealPartition(name, from, to));
+                    log.info("Created fx_deals partition {} for [{}, {})", name, from, to);
+                } catch (DataAccessException e) {
+                    // Typically rows for this range already sit in the default partition; they must be moved by hand.
+                    log.warn("Could not create fx_deals partition {} for [{}, {}): {}", name, from, to, e.getMessage());
+                }
+            }
+            start = end;
+        }
+    }
+
+    private void expire(JdbcTemplate jdbcTemplate, LocalDate today, List<DealPartition> partitions) {
+        Period retention = settings.getRetention();
+        if (retention.isZero() || retention.isNegative()) {
+            return;
+        }
+        LocalDateTime cutoff = startOf(settings.getGranularity(), today.minus(retention)).atStartOfDay();
+        for (DealPartition partition : partitions) {
+            if (partition.to().isAfter(cutoff)) {
+                continue;
+            }
+            String name = quote(partition.name());
+            jdbcTemplate.execute("ALTER TABLE fx_deals DETACH PARTITION " + name);
+            switch (settings.getRetentionAction()) {
+                case ARCHIVE -> {
+                    String schema = quote(settings.getArchiveSchema());
+                    jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + schema);
+                    jdbcTemplate.execute("ALTER TABLE " + name + " SET SCHEMA " + schema);
+                    log.info("Archived fx_deals partition {} to schema {}", partition.name(), settings.getArchiveSchema());
+                }
+                case DROP -> {
+                    jdbcTemplate.execute("DROP TABLE " + name);
+                    log.info("Dropped fx_deals partition {}", partition.name());
+                }
+            }
+        }
+    }
+
+    private static LocalDate startOf(PartitionGranularity granularity, LocalDate date) {
+        return granularity == PartitionGranularity.DAILY ? date : date.withDayOfMonth(1);
+    }
+
+    private static LocalDate next(PartitionGranularity granularity, LocalDate start) {
+        return granularity == PartitionGranularity.DAILY ? start.plusDays(1) : start.plusMonths(1);
+    }
+
+    private static LocalDateTime parseBound(String value) {
+        return LocalDateTime.parse(value, BOUND_FORMAT);
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,35 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.query;
+
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BadRequestException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque continuation token for deal pages: the {@code (dealTimestamp, id)} key of the last deal returned,
+ * base64url-encoded so that clients treat it as a string and pass it back unchanged.
+ */
+public record DealPageCursor(LocalDateTime dealTimestamp, UUID id) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String key = dealTimestamp.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @throws BadRequestException if {@code cursor} was not produced by {@link #encode()}
+     */
+    public static DealPageCursor decode(String cursor) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = key.indexOf(SEPARATOR);
+            return new DealPageCursor(LocalDateTime.parse(key.substring(0, separator)),
+                    UUID.fromString(key.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid page cursor");
+        }
+    }
+}
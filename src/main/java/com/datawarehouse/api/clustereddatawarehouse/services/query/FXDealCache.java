@@ -0,0 +1,74 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.query;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import com.datawarehouse.api.clustereddatawarehouse.services.stream.FXDealsInsertedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of deals by id, bounded by {@code fx-deals.cache.maximum-size}. Deals are never updated, so a
+ * cached deal only expires to make room and to let deals removed by partition retention drop out after
+ * {@code ttl}. Ids that were not found are cached too, for the much shorter {@code negative-ttl}.
+ * <p>
+ * Deals committed through {@link com.datawarehouse.api.clustereddatawarehouse.services.FXDealsService} are put into
+ * the cache once their transaction commits, which also replaces a cached "not found" for their id. Deals written
+ * any other way, such as bulk loads or another instance, are seen once a negative entry for them expires.
+ * <p>
+ * Hits, misses, evictions and the size are published as the {@value #NAME} cache's {@code cache.*} meters.
+ */
+@Component
+public class FXDealCache {
+
+    public static final String NAME = "fx.deals";
+
+    private final Cache<UUID, Optional<FxDeals>> cache;
+
+    public FXDealCache(FXDealsProperties properties, MeterRegistry meterRegistry) {
+        FXDealsProperties.Cache settings = properties.getCache();
+        if (!settings.isEnabled()) {
+            this.cache = null;
+            return;
+        }
+        Duration ttl = settings.getTtl();
+        Duration negativeTtl = settings.getNegativeTtl();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfter(Expiry.<UUID, Optional<FxDeals>>writing(
+                        (id, deal) -> deal.isPresent() ? ttl : negativeTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    }
+
+    /**
+     * @param loader reads the deal from the database on a miss; concurrent lookups of the same id share one load
+     */
+    public Optional<FxDeals> find(UUID id, Function<UUID, Optional<FxDeals>> loader) {
+        if (cache == null) {
+            return loader.apply(id);
+        }
+        return cache.get(id, loader);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onDealsInserted(FXDealsInsertedEvent event) {
+        if (cache == null) {
+            return;
+        }
+        for (FxDeals deal : event.deals()) {
+            cache.put(deal.getId(), Optional.of(deal));
+        }
+    }
+}
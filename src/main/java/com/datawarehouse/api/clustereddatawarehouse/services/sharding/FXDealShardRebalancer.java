@@ -0,0 +1,107 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.sharding;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsRepository;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsSearchCriteria;
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.DealShard;
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.DealShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves deals to the shard that owns them under the current shard list, after shards were added or removed.
+ * <p>
+ * Each shard is scanned in {@code (deal_timestamp, id)} order, one batch at a time. Misplaced deals are first
+ * inserted on their owner, keeping their creation time and updating its rollups, and then deleted from the source
+ * together with their claimed id and rollup counts. A pass interrupted between those two steps leaves copies on both
+ * shards, which the next pass resolves, so passes can simply be repeated.
+ * <p>
+ * Only deals in attached partitions are moved; the ids of archived deals stay claimed on their old shard. Until a
+ * pass completes, the {@link DealShardRouter} refuses deal writes, since duplicates of misplaced deals are only
+ * detected once they have been moved.
+ */
+@Component
+@Slf4j
+public class FXDealShardRebalancer {
+
+    private final DealShardRouter router;
+    private final FXDealsRepository fxDealsRepository;
+    private final int batchSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public FXDealShardRebalancer(DealShardRouter router, FXDealsRepository fxDealsRepository,
+                                 FXDealsProperties properties) {
+        this.router = router;
+        this.fxDealsRepository = fxDealsRepository;
+        this.batchSize = properties.getSharding().getRebalanceBatchSize();
+    }
+
+    /**
+     * Runs one pass over every shard.
+     *
+     * @throws IllegalStateException if a pass is already running
+     */
+    public ShardRebalanceReport rebalance() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A shard rebalance is already running");
+        }
+        try {
+            if (!router.isDistributed()) {
+                return new ShardRebalanceReport(0, 0, Map.of());
+            }
+            long scanned = 0;
+            long moved = 0;
+            Map<String, Map<String, Long>> moves = new LinkedHashMap<>();
+            for (DealShard source : router.shards()) {
+                Map<String, Long> movedFrom = new LinkedHashMap<>();
+                scanned += rebalance(source, movedFrom);
+                moved += movedFrom.values().stream().mapToLong(Long::longValue).sum();
+                moves.put(source.name(), movedFrom);
+            }
+            router.recordBalanced();
+            log.info("Shard rebalance scanned {} deals and moved {}: {}", scanned, moved, moves);
+            return new ShardRebalanceReport(scanned, moved, moves);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Picks up a ring recorded by a rebalance pass on another instance, or a shard list changed under this one.
+     */
+    @Scheduled(fixedDelayString = "${fx-deals.sharding.ring-check-interval:10s}")
+    public void refreshBalance() {
+        if (!running.get()) {
+            router.refreshBalance();
+        }
+    }
+
+    private long rebalance(DealShard source, Map<String, Long> movedFrom) {
+        long scanned = 0;
+        FXDealsSearchCriteria page = FXDealsSearchCriteria.builder().limit(batchSize).build();
+        List<FxDeals> batch = fxDealsRepository.findDealsOnShard(source, page);
+        while (!batch.isEmpty()) {
+            scanned += batch.size();
+            List<FxDeals> misplaced = new ArrayList<>();
+            for (FxDeals deal : batch) {
+                DealShard owner = router.shardFor(deal.getId());
+                if (owner != source) {
+                    misplaced.add(deal);
+                    movedFrom.merge(owner.name(), 1L, Long::sum);
+                }
+            }
+            if (!misplaced.isEmpty()) {
+                fxDealsRepository.moveDeals(source, misplaced);
+            }
+            FxDeals last = batch.get(batch.size() - 1);
+            page = page.toBuilder().afterTimestamp(last.getDealTimestamp()).afterId(last.getId()).build();
+            batch = fxDealsRepository.findDealsOnShard(source, page);
+        }
+        return scanned;
+    }
+}
@@ -0,0 +1,13 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.sharding;
+
+import java.util.Map;
+
+/**
+ * Outcome of one rebalancing pass.
+ *
+ * @param scanned deals read from all shards
+ * @param moved   deals moved to their owning shard
+ * @param moves   number of deals moved, by source shard and then by target shard
+ */
+public record ShardRebalanceReport(long scanned, long moved, Map<String, Map<String, Long>> moves) {
+}
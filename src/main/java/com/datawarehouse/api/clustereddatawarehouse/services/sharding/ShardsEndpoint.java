@@ -0,0 +1,49 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.sharding;
+
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.DealShard;
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.DealShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "shards")
+@RequiredArgsConstructor
+public class ShardsEndpoint {
+
+    // Statistics counters rather than count(*), so the endpoint stays cheap on large shards.
+    private static final String ESTIMATED_DEAL_IDS = "SELECT coalesce(sum(n_live_tup), 0) FROM pg_stat_user_tables "
+            + "WHERE relid = 'fx_deal_ids'::regclass";
+
+    private final DealShardRouter router;
+    private final FXDealShardRebalancer rebalancer;
+
+    @ReadOperation
+    public Map<String, Object> shards() {
+        List<Map<String, Object>> shards = new ArrayList<>();
+        for (DealShard shard : router.shards()) {
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("name", shard.name());
+            details.put("draining", router.isDraining(shard));
+            details.put("estimatedDeals", shard.jdbcTemplate().queryForObject(ESTIMATED_DEAL_IDS, Long.class));
+            shards.add(details);
+        }
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("distributed", router.isDistributed());
+        details.put("balanced", router.isBalanced());
+        details.put("shards", shards);
+        return details;
+    }
+
+    @WriteOperation
+    public ShardRebalanceReport rebalance() {
+        return rebalancer.rebalance();
+    }
+}
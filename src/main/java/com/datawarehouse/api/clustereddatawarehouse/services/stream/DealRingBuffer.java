@@ -0,0 +1,69 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.stream;
+
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsResponseDto;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The most recent committed deals, numbered from 0 in commit order. Any number of threads publish and read without
+ * locks: a publisher claims the next sequence with one atomic increment and then stores the event in slot
+ * {@code sequence & mask}, overwriting the event {@code capacity} sequences older. Publishers never wait for readers,
+ * so a slow reader can only fall behind, which it notices because the slot it wants holds a newer sequence.
+ */
+public final class DealRingBuffer {
+
+    private final AtomicReferenceArray<DealStreamEvent> slots;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public DealRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Ring buffer capacity must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * @return the sequence given to {@code deal}
+     */
+    public long publish(FXDealsResponseDto deal) {
+        long sequence = nextSequence.getAndIncrement();
+        slots.set((int) (sequence & mask), new DealStreamEvent(sequence, deal));
+        return sequence;
+    }
+
+    /**
+     * @return the event in {@code sequence}'s slot: the event itself, {@code null} or an older event if it has not
+     * been published yet, or a newer event if it has already been overwritten
+     */
+    public DealStreamEvent get(long sequence) {
+        return slots.get((int) (sequence & mask));
+    }
+
+    /**
+     * @return the sequence the next published deal will get
+     */
+    public long nextSequence() {
+        return nextSequence.get();
+    }
+
+    /**
+     * @return the oldest sequence that has not been overwritten yet
+     */
+    public long oldestSequence() {
+        return Math.max(0, nextSequence.get() - capacity());
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
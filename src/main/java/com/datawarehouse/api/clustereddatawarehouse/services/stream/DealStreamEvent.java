@@ -0,0 +1,9 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.stream;
+
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsResponseDto;
+
+/**
+ * A committed deal at its position in the {@link DealRingBuffer}.
+ */
+public record DealStreamEvent(long sequence, FXDealsResponseDto deal) {
+}
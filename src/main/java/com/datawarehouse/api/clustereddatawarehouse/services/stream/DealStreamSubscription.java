@@ -0,0 +1,72 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.stream;
+
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsResponseDto;
+
+import java.util.List;
+
+/**
+ * One subscriber's read position in a {@link DealRingBuffer}, with its currency pair filter. A {@code null} currency
+ * matches every deal. Only the subscriber's own thread calls {@link #poll}.
+ */
+public final class DealStreamSubscription {
+
+    private final DealRingBuffer ring;
+    private final String orderingCurrencyIsoCode;
+    private final String toCurrencyIsoCode;
+    private volatile long position;
+
+    public DealStreamSubscription(DealRingBuffer ring, String orderingCurrencyIsoCode, String toCurrencyIsoCode,
+                                  long position) {
+        this.ring = ring;
+        this.orderingCurrencyIsoCode = orderingCurrencyIsoCode;
+        this.toCurrencyIsoCode = toCurrencyIsoCode;
+        this.position = position;
+    }
+
+    /**
+     * Reads up to {@code max} events in order, stopping at the first unpublished one, and adds matching ones to
+     * {@code matches}.
+     *
+     * @return the number of events read, or -1 if the subscriber fell so far behind that the next event was
+     * overwritten
+     */
+    public int poll(List<DealStreamEvent> matches, int max) {
+        long next = position;
+        int read = 0;
+        while (read < max) {
+            DealStreamEvent event = ring.get(next);
+            if (event == null || event.sequence() < next) {
+                break;
+            }
+            if (event.sequence() > next) {
+                return -1;
+            }
+            if (matches(event.deal())) {
+                matches.add(event);
+            }
+            next++;
+            read++;
+        }
+        position = next;
+        return read;
+    }
+
+    /**
+     * @return the next sequence this subscriber will read
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * @return the number of published deals this subscriber has not read yet
+     */
+    public long lag() {
+        return Math.max(0, ring.nextSequence() - position);
+    }
+
+    private boolean matches(FXDealsResponseDto deal) {
+        return (orderingCurrencyIsoCode == null || orderingCurrencyIsoCode.equals(deal.getOrderingCurrencyIsoCode()))
+                && (toCurrencyIsoCode == null || toCurrencyIsoCode.equals(deal.getToCurrencyIsoCode()));
+    }
+}
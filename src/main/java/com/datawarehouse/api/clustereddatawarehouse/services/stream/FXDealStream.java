@@ -0,0 +1,275 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.stream;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BadRequestException;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.StreamPositionUnavailableException;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.StreamSubscriberLimitException;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.CurrencyCodes;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.FXDealsMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pushes committed deals to Server-Sent Events subscribers. The committing thread only publishes to the
+ * {@link DealRingBuffer} and unparks subscribers; each subscriber's own thread writes to its connection. A subscriber
+ * more than the ring's capacity behind is sent a {@code lagged} event and disconnected.
+ * <p>
+ * Event ids are {@code epoch:sequence}; the epoch identifies this instance's ring for {@code Last-Event-ID}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Slf4j
+public class FXDealStream implements SmartLifecycle {
+
+    public static final String SUBSCRIBERS_GAUGE = "fx.deals.stream.subscribers";
+    public static final String LAG_GAUGE = "fx.deals.stream.lag.max";
+    public static final String PUBLISHED_COUNTER = "fx.deals.stream.published";
+    public static final String LAGGED_COUNTER = "fx.deals.stream.lagged";
+
+    private final FXDealsMapper fxDealsMapper;
+    private final FXDealsProperties.Stream settings;
+    private final DealRingBuffer ring;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Semaphore subscriberPermits;
+    private final ThreadFactory threadFactory;
+    private final Counter laggedCounter;
+    private volatile boolean running;
+
+    public FXDealStream(FXDealsMapper fxDealsMapper, FXDealsProperties properties, MeterRegistry meterRegistry,
+                        Environment environment) {
+        this.fxDealsMapper = fxDealsMapper;
+        this.settings = properties.getStream();
+        this.ring = new DealRingBuffer(settings.getCapacity());
+        this.subscriberPermits = new Semaphore(settings.getMaxSubscribers());
+        if (Threading.VIRTUAL.isActive(environment)) {
+            this.threadFactory = new VirtualThreadTaskExecutor("fx-deal-stream-").getVirtualThreadFactory();
+        } else {
+            CustomizableThreadFactory platformThreads = new CustomizableThreadFactory("fx-deal-stream-");
+            platformThreads.setDaemon(true);
+            this.threadFactory = platformThreads;
+        }
+        Gauge.builder(SUBSCRIBERS_GAUGE, subscribers, Set::size)
+                .description("Connected deal stream subscribers")
+                .register(meterRegistry);
+        Gauge.builder(LAG_GAUGE, this, FXDealStream::maxLag)
+                .description("Committed deals the furthest behind deal stream subscriber has not been sent yet")
+                .register(meterRegistry);
+        FunctionCounter.builder(PUBLISHED_COUNTER, ring, DealRingBuffer::nextSequence)
+                .description("Deals published to the deal stream")
+                .register(meterRegistry);
+        this.laggedCounter = Counter.builder(LAGGED_COUNTER)
+                .description("Deal stream subscribers disconnected for falling behind the retained window")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onDealsInserted(FXDealsInsertedEvent event) {
+        for (FxDeals deal : event.deals()) {
+            ring.publish(fxDealsMapper.toDto(deal));
+        }
+        for (Subscriber subscriber : subscribers) {
+            LockSupport.unpark(subscriber.thread);
+        }
+    }
+
+    /**
+     * @param lastEventId the id of the last event the client received, to resume after it, or {@code null} to
+     *                    receive deals committed from now on
+     * @throws BadRequestException            if a currency code or {@code lastEventId} is malformed
+     * @throws StreamPositionUnavailableException if the deals after {@code lastEventId} are no longer retained
+     * @throws StreamSubscriberLimitException     if {@code fx-deals.stream.max-subscribers} are already connected
+     */
+    public SseEmitter subscribe(String orderingCurrencyIsoCode, String toCurrencyIsoCode, String lastEventId) {
+        String orderingFilter = currencyFilter("orderingCurrencyIsoCode", orderingCurrencyIsoCode);
+        String toFilter = currencyFilter("toCurrencyIsoCode", toCurrencyIsoCode);
+        long position = resumePosition(lastEventId);
+        if (!running || !subscriberPermits.tryAcquire()) {
+            throw new StreamSubscriberLimitException("Deal stream already has " + settings.getMaxSubscribers()
+                    + " subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(new DealStreamSubscription(ring, orderingFilter, toFilter, position),
+                emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+        subscriber.thread.start();
+        return emitter;
+    }
+
+    public long maxLag() {
+        long lag = 0;
+        for (Subscriber subscriber : subscribers) {
+            lag = Math.max(lag, subscriber.subscription.lag());
+        }
+        return lag;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+            subscriber.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private static String currencyFilter(String name, String code) {
+        if (code == null || code.isBlank()) {
+            return null;
+        }
+        if (!CurrencyCodes.isWellFormed(code)) {
+            throw new BadRequestException(name + " must be 3 uppercase letters");
+        }
+        return CurrencyCodes.canonical(code);
+    }
+
+    private long resumePosition(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return ring.nextSequence();
+        }
+        int separator = lastEventId.indexOf(':');
+        long sequence;
+        try {
+            sequence = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Malformed Last-Event-ID " + lastEventId);
+        }
+        if (separator < 0 || !epoch.equals(lastEventId.substring(0, separator))) {
+            throw new StreamPositionUnavailableException("Event " + lastEventId
+                    + " is from another instance or before a restart; read the missed deals from /api/v1/fx-deals");
+        }
+        long position = sequence + 1;
+        if (position < ring.oldestSequence() || position > ring.nextSequence()) {
+            throw new StreamPositionUnavailableException("Deals after event " + lastEventId
+                    + " are no longer retained; read the missed deals from /api/v1/fx-deals");
+        }
+        return position;
+    }
+
+    private String eventId(long sequence) {
+        return epoch + ':' + sequence;
+    }
+
+    private final class Subscriber {
+
+        private final DealStreamSubscription subscription;
+        private final SseEmitter emitter;
+        private final Thread thread;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(DealStreamSubscription subscription, SseEmitter emitter) {
+            this.subscription = subscription;
+            this.emitter = emitter;
+            this.thread = threadFactory.newThread(this::run);
+        }
+
+        private void run() {
+            int batchSize = settings.getSendBatchSize();
+            long heartbeatNanos = settings.getHeartbeat().toNanos();
+            List<DealStreamEvent> batch = new ArrayList<>(batchSize);
+            try {
+                // Lets the client see the connection open before the first deal arrives.
+                emitter.send(SseEmitter.event().comment("position " + subscription.position()));
+                long lastSent = System.nanoTime();
+                while (running && !closed.get()) {
+                    batch.clear();
+                    int read = subscription.poll(batch, batchSize);
+                    if (read < 0) {
+                        disconnectLagged();
+                        return;
+                    }
+                    if (!batch.isEmpty()) {
+                        send(batch);
+                        lastSent = System.nanoTime();
+                    }
+                    if (read == batchSize) {
+                        continue;
+                    }
+                    long idle = System.nanoTime() - lastSent;
+                    if (idle >= heartbeatNanos) {
+                        // Writing is the only way to find out that an idle client has gone away.
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                        lastSent = System.nanoTime();
+                    } else {
+                        LockSupport.parkNanos(this, heartbeatNanos - idle);
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client disconnected or the emitter was completed; the container reports it through onError.
+                log.debug("Deal stream subscriber at {} stopped: {}", subscription.position(), e.toString());
+            } finally {
+                close();
+            }
+        }
+
+        private void send(List<DealStreamEvent> events) throws IOException {
+            Set<ResponseBodyEmitter.DataWithMediaType> items = new LinkedHashSet<>(events.size() * 8);
+            for (DealStreamEvent event : events) {
+                items.addAll(SseEmitter.event()
+                        .id(eventId(event.sequence()))
+                        .name("deal")
+                        .data(event.deal(), MediaType.APPLICATION_JSON)
+                        .build());
+            }
+            emitter.send(items);
+        }
+
+        private void disconnectLagged() throws IOException {
+            laggedCounter.increment();
+            log.warn("Disconnecting deal stream subscriber at {}, the oldest retained deal is {}",
+                    subscription.position(), ring.oldestSequence());
+            emitter.send(SseEmitter.event().name("lagged")
+                    .data("Fell behind the retained deals; read the missed deals from /api/v1/fx-deals"));
+            emitter.complete();
+        }
+
+        private void close() {
+            if (closed.compareAndSet(false, true)) {
+                subscribers.remove(this);
+                subscriberPermits.release();
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.datawarehouse.api.clustereddatawarehouse.services.stream;
+
+import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+
+import java.util.List;
+
+/**
+ * Published inside the transaction that inserted {@code deals}; {@link FXDealStream} only sees it once that
+ * transaction has committed.
+ */
+public record FXDealsInsertedEvent(List<FxDeals> deals) {
+}
@@ -0,0 +1,138 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.binary;
+
+import com.datawarehouse.api.clustereddatawarehouse.domain.DealAmounts;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BadRequestException;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BatchSizeExceededException;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.CurrencyCodes;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Fixed-layout binary encoding of a batch of deals. All integers are big-endian.
+ * <pre>
+ * frame  := 'F' 'X' 'D' version(1) count(uint32) deal{count}
+ * deal   := id(16: most then least significant 64 bits)
+ *           orderingCurrency(uint16) toCurrency(uint16)
+ *           amount(int64, ten-thousandths as in {@link DealAmounts})
+ *           timestamp(int64, microseconds since 1970-01-01T00:00:00, taken as UTC)
+ * </pre>
+ * A currency is sent as its {@link CurrencyCodes#index index}, {@code ((c0 - 'A') * 26 + (c1 - 'A')) * 26 + (c2 - 'A')},
+ * so every well-formed code fits in two bytes without a shared table.
+ */
+public final class FXDealFrames {
+
+    public static final String MEDIA_TYPE = "application/vnd.fx-deals.frame";
+
+    public static final int HEADER_SIZE = 8;
+    public static final int DEAL_SIZE = 36;
+
+    private static final byte VERSION = 1;
+
+    private FXDealFrames() {
+    }
+
+    public static long frameSize(long deals) {
+        return HEADER_SIZE + deals * DEAL_SIZE;
+    }
+
+    /**
+     * @throws BadRequestException        if the frame is malformed or a currency index is out of range
+     * @throws BatchSizeExceededException if the header announces more than {@code maxDeals} deals
+     */
+    public static List<FXDealsRequestDto> decode(byte[] frame, int maxDeals) {
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        if (frame.length < HEADER_SIZE || buffer.get() != 'F' || buffer.get() != 'X' || buffer.get() != 'D') {
+            throw new BadRequestException("Malformed deal frame: missing FXD header");
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new BadRequestException("Unsupported deal frame version " + version);
+        }
+        long count = Integer.toUnsignedLong(buffer.getInt());
+        if (count > maxDeals) {
+            throw new BatchSizeExceededException("Batch contains " + count + " deals, the maximum is " + maxDeals);
+        }
+        if (frame.length != frameSize(count)) {
+            throw new BadRequestException("Malformed deal frame: " + count + " deals need "
+                    + frameSize(count) + " bytes, got " + frame.length);
+        }
+        List<FXDealsRequestDto> deals = new ArrayList<>((int) count);
+        for (int i = 0; i < count; i++) {
+            UUID id = new UUID(buffer.getLong(), buffer.getLong());
+            String orderingCurrency = currency(buffer.getShort(), i);
+            String toCurrency = currency(buffer.getShort(), i);
+            long amount = buffer.getLong();
+            long timestamp = buffer.getLong();
+            deals.add(new FXDealsRequestDto(id, orderingCurrency, toCurrency, amount, formatTimestamp(timestamp)));
+        }
+        return deals;
+    }
+
+    /**
+     * Expects every field to be present and well-formed; timestamps are truncated to microseconds.
+     */
+    public static byte[] encode(List<FXDealsRequestDto> deals) {
+        ByteBuffer buffer = ByteBuffer.allocate((int) frameSize(deals.size()));
+        buffer.put((byte) 'F').put((byte) 'X').put((byte) 'D').put(VERSION).putInt(deals.size());
+        for (FXDealsRequestDto deal : deals) {
+            LocalDateTime timestamp = LocalDateTime.parse(deal.getDealTimestamp());
+            buffer.putLong(deal.getDealUniqueId().getMostSignificantBits())
+                    .putLong(deal.getDealUniqueId().getLeastSignificantBits())
+                    .putShort((short) CurrencyCodes.index(deal.getOrderingCurrencyIsoCode()))
+                    .putShort((short) CurrencyCodes.index(deal.getToCurrencyIsoCode()))
+                    .putLong(deal.getDealAmount())
+                    .putLong(ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), timestamp));
+        }
+        return buffer.array();
+    }
+
+    private static String currency(short index, int deal) {
+        String code = CurrencyCodes.fromIndex(Short.toUnsignedInt(index));
+        if (code == null) {
+            throw new BadRequestException("Malformed deal frame: deal " + deal + " has currency index "
+                    + Short.toUnsignedInt(index) + " outside AAA..ZZZ");
+        }
+        return code;
+    }
+
+    /**
+     * Formats as {@code yyyy-MM-ddTHH:mm:ss.SSSSSS}, the shape the mapper parses on its fast path.
+     */
+    static String formatTimestamp(long epochMicros) {
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(Math.floorDiv(epochMicros, 1_000_000L),
+                (int) Math.floorMod(epochMicros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+        int year = timestamp.getYear();
+        if (year < 0 || year > 9999) {
+            return timestamp.toString();
+        }
+        char[] text = new char[26];
+        digits(text, 0, year, 4);
+        text[4] = '-';
+        digits(text, 5, timestamp.getMonthValue(), 2);
+        text[7] = '-';
+        digits(text, 8, timestamp.getDayOfMonth(), 2);
+        text[10] = 'T';
+        digits(text, 11, timestamp.getHour(), 2);
+        text[13] = ':';
+        digits(text, 14, timestamp.getMinute(), 2);
+        text[16] = ':';
+        digits(text, 17, timestamp.getSecond(), 2);
+        text[19] = '.';
+        digits(text, 20, timestamp.getNano() / 1_000, 6);
+        return new String(text);
+    }
+
+    private static void digits(char[] text, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            text[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.Map;
+import java.util.UUID;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FXDealBatchItemResultDto {
+    private long index;
+    private UUID dealUniqueId;
+    private FXDealBatchItemStatus status;
+    private Map<String, String> errors;
+}
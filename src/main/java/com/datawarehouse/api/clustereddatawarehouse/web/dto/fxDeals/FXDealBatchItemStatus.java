@@ -0,0 +1,7 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals;
+
+public enum FXDealBatchItemStatus {
+    CREATED,
+    DUPLICATE,
+    INVALID
+}
@@ -0,0 +1,28 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals;
+
+import org.springframework.http.HttpStatus;
+
+public enum FXDealImportStatus {
+    COMPLETED(HttpStatus.OK),
+    /**
+     * Stopped by the upload itself, such as a body that could not be read to the end.
+     */
+    REJECTED(HttpStatus.BAD_REQUEST),
+    /**
+     * Stopped by a failure on the server side, such as the database.
+     */
+    ABORTED(HttpStatus.INTERNAL_SERVER_ERROR);
+
+    private final HttpStatus httpStatus;
+
+    FXDealImportStatus(HttpStatus httpStatus) {
+        this.httpStatus = httpStatus;
+    }
+
+    /**
+     * @return the status the import endpoints answer with
+     */
+    public HttpStatus httpStatus() {
+        return httpStatus;
+    }
+}
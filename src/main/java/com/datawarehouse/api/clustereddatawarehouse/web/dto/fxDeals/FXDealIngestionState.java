@@ -0,0 +1,9 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals;
+
+public enum FXDealIngestionState {
+    QUEUED,
+    CREATED,
+    DUPLICATE,
+    INVALID,
+    FAILED
+}
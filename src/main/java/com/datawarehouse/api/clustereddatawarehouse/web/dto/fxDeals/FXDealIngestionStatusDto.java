@@ -0,0 +1,22 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FXDealIngestionStatusDto {
+    private UUID trackingId;
+    private UUID dealUniqueId;
+    private FXDealIngestionState status;
+    private Map<String, String> errors;
+    private Instant updatedAt;
+}
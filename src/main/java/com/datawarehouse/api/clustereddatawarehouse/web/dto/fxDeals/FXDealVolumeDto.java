@@ -0,0 +1,19 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FXDealVolumeDto {
+    private LocalDateTime bucketStart;
+    private String orderingCurrencyIsoCode;
+    private String toCurrencyIsoCode;
+    private long dealCount;
+    private BigDecimal totalAmount;
+}
@@ -0,0 +1,17 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FXDealVolumeRebuildDto {
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private int rollupRows;
+    private long durationMs;
+}
@@ -0,0 +1,18 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FXDealsBatchResponseDto {
+    private int total;
+    private int created;
+    private int duplicates;
+    private int invalid;
+    private List<FXDealBatchItemResultDto> results;
+}
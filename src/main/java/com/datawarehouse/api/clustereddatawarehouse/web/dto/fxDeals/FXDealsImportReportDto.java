@@ -0,0 +1,24 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FXDealsImportReportDto {
+    private FXDealImportStatus status;
+    private long rowsRead;
+    private long rowsCommitted;
+    private long created;
+    private long duplicates;
+    private long invalid;
+    private List<FXDealBatchItemResultDto> errors;
+    private boolean errorsTruncated;
+    private String failureMessage;
+}
@@ -0,0 +1,15 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FXDealsPageDto {
+    private List<FXDealsResponseDto> deals;
+    private String nextCursor;
+}
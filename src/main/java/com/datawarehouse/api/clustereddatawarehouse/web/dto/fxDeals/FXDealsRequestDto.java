@@ -1,5 +1,13 @@
 package com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals;
 
+import com.datawarehouse.api.clustereddatawarehouse.domain.DealAmounts;
+import com.datawarehouse.api.clustereddatawarehouse.web.json.CurrencyCodeDeserializer;
+import com.datawarehouse.api.clustereddatawarehouse.web.json.DealAmountDeserializer;
+import com.datawarehouse.api.clustereddatawarehouse.web.json.DealAmountSerializer;
+import com.datawarehouse.api.clustereddatawarehouse.web.validation.CurrencyCode;
+import com.datawarehouse.api.clustereddatawarehouse.web.validation.DealAmount;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.validation.constraints.*;
 import lombok.*;
 
@@ -16,17 +24,24 @@ public class FXDealsRequestDto {
 
     @NotBlank(message = "Ordering Currency ISO Code is required")
     @Size(min = 3, max = 3, message = "Currency ISO Code must be exactly 3 characters")
-    @Pattern(regexp = "^[A-Z]{3}$", message = "Currency ISO Code must be 3 uppercase letters")
+    @CurrencyCode
+    @JsonDeserialize(using = CurrencyCodeDeserializer.class)
     private String orderingCurrencyIsoCode;
 
     @NotBlank(message = "To Currency ISO Code is required")
     @Size(min = 3, max = 3, message = "Currency ISO Code must be exactly 3 characters")
-    @Pattern(regexp = "^[A-Z]{3}$", message = "Currency ISO Code must be 3 uppercase letters")
+    @CurrencyCode
+    @JsonDeserialize(using = CurrencyCodeDeserializer.class)
     private String toCurrencyIsoCode;
 
-    @NotNull(message = "Deal Amount is required")
-    @Positive(message = "Deal Amount must be positive")
-    private Double dealAmount;
+    /**
+     * In ten-thousandths, see {@link DealAmounts}.
+     */
+    @Builder.Default
+    @DealAmount
+    @JsonDeserialize(using = DealAmountDeserializer.class)
+    @JsonSerialize(using = DealAmountSerializer.class)
+    private long dealAmount = DealAmounts.MISSING;
 
     @NotBlank(message = "Deal Timestamp is required")
     private String dealTimestamp;
@@ -1,5 +1,7 @@
 package com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals;
 
+import com.datawarehouse.api.clustereddatawarehouse.web.json.DealAmountSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.*;
 
 import java.time.LocalDateTime;
@@ -14,7 +16,8 @@ public class FXDealsResponseDto {
     private UUID id;
     private String orderingCurrencyIsoCode;
     private String toCurrencyIsoCode;
-    private Double dealAmount;
+    @JsonSerialize(using = DealAmountSerializer.class)
+    private long dealAmount;
     private LocalDateTime dealTimestamp;
     private LocalDateTime createdAt;
 }
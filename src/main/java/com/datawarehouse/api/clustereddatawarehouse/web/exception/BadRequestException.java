@@ -0,0 +1,11 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.exception;
+
+/**
+ * A request parameter, header or body that the client got wrong; answered with 400 and the message. Other
+ * {@link IllegalArgumentException}s are bugs and are not echoed to clients.
+ */
+public class BadRequestException extends IllegalArgumentException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.exception;
+
+public class BatchSizeExceededException extends RuntimeException {
+    public BatchSizeExceededException(String message) {
+        super(message);
+    }
+}
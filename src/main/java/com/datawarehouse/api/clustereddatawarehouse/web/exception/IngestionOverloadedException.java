@@ -0,0 +1,16 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class IngestionOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public IngestionOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,7 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.exception;
+
+public class IngestionQueueFullException extends RuntimeException {
+    public IngestionQueueFullException(String message) {
+        super(message);
+    }
+}
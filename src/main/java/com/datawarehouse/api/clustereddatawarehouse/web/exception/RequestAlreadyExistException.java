@@ -0,0 +1,7 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.exception;
+
+public class RequestAlreadyExistException extends RuntimeException {
+    public RequestAlreadyExistException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.exception;
+
+public class StreamPositionUnavailableException extends RuntimeException {
+    public StreamPositionUnavailableException(String message) {
+        super(message);
+    }
+}
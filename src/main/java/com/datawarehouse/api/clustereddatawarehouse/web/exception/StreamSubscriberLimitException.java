@@ -0,0 +1,7 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.exception;
+
+public class StreamSubscriberLimitException extends RuntimeException {
+    public StreamSubscriberLimitException(String message) {
+        super(message);
+    }
+}
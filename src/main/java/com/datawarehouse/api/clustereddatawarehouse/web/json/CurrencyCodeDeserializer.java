@@ -0,0 +1,32 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.json;
+
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.CurrencyCodes;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads a currency code into its {@link CurrencyCodes canonical} instance directly from the parser's character
+ * buffer. Anything that is not a well-formed code is read as a plain string and left for bean validation to
+ * reject with the usual message.
+ */
+public class CurrencyCodeDeserializer extends StdScalarDeserializer<String> {
+
+    public CurrencyCodeDeserializer() {
+        super(String.class);
+    }
+
+    @Override
+    public String deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (parser.hasToken(JsonToken.VALUE_STRING)) {
+            String code = CurrencyCodes.canonical(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            if (code != null) {
+                return code;
+            }
+        }
+        return context.readValue(parser, String.class);
+    }
+}
@@ -0,0 +1,38 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.json;
+
+import com.datawarehouse.api.clustereddatawarehouse.domain.DealAmounts;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads a JSON number, or a string holding one, into a {@link DealAmounts fixed-point amount} from the digits as
+ * written, never through a {@code double}.
+ */
+public class DealAmountDeserializer extends StdScalarDeserializer<Long> {
+
+    public DealAmountDeserializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public Long deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_STRING) {
+            try {
+                return DealAmounts.parse(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            } catch (NumberFormatException e) {
+                return (Long) context.handleWeirdStringValue(Long.class, parser.getText(), "not a decimal amount");
+            }
+        }
+        return (Long) context.handleUnexpectedToken(Long.class, parser);
+    }
+
+    @Override
+    public Long getNullValue(DeserializationContext context) {
+        return DealAmounts.MISSING;
+    }
+}
@@ -0,0 +1,23 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.json;
+
+import com.datawarehouse.api.clustereddatawarehouse.domain.DealAmounts;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link DealAmounts fixed-point amount} as a plain JSON number such as {@code 1000.5}.
+ */
+public class DealAmountSerializer extends StdSerializer<Long> {
+
+    public DealAmountSerializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public void serialize(Long amount, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeNumber(DealAmounts.format(amount));
+    }
+}
@@ -0,0 +1,62 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.json;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BatchSizeExceededException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a JSON array of deals one element at a time, so that a batch over {@code fx-deals.batch.max-size} is refused
+ * when its first extra deal is reached instead of after the whole array has been bound.
+ */
+@Component
+public class DealBatchReader {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader dealReader;
+    private final FXDealsProperties properties;
+
+    public DealBatchReader(ObjectMapper objectMapper, FXDealsProperties properties) {
+        this.objectMapper = objectMapper;
+        this.dealReader = objectMapper.readerFor(FXDealsRequestDto.class);
+        this.properties = properties;
+    }
+
+    /**
+     * @throws HttpMessageNotReadableException if the body is not a JSON array of deals
+     * @throws BatchSizeExceededException      if the array holds more than {@code fx-deals.batch.max-size} deals
+     */
+    public List<FXDealsRequestDto> read(HttpInputMessage message) throws IOException {
+        int maxSize = properties.getBatch().getMaxSize();
+        List<FXDealsRequestDto> deals = new ArrayList<>();
+        try (JsonParser parser = objectMapper.createParser(message.getBody())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new HttpMessageNotReadableException("Expected a JSON array of deals", message);
+            }
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                if (token == null) {
+                    throw new HttpMessageNotReadableException("Unexpected end of the JSON array of deals", message);
+                }
+                if (deals.size() == maxSize) {
+                    throw new BatchSizeExceededException("Batch contains more than " + maxSize + " deals, the maximum is "
+                            + maxSize);
+                }
+                deals.add(dealReader.readValue(parser));
+            }
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + e.getOriginalMessage(), e, message);
+        }
+        return deals;
+    }
+}
@@ -0,0 +1,97 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.mapper;
+
+/**
+ * Canonical instances of three-letter currency codes. Every well-formed code ({@code AAA}..{@code ZZZ}) maps to a
+ * single shared {@link String}, so the thousands of deals held by a batch or the write-behind queue reference a
+ * handful of strings instead of carrying two fresh copies each. Slots are filled on first use; a racing thread may
+ * create a duplicate instance once, which is harmless because strings are immutable.
+ */
+public final class CurrencyCodes {
+
+    private static final int LETTERS = 26;
+    public static final int COUNT = LETTERS * LETTERS * LETTERS;
+
+    private static final String[] CANONICAL = new String[COUNT];
+
+    private CurrencyCodes() {
+    }
+
+    /**
+     * @return whether {@code code} is exactly three ASCII uppercase letters
+     */
+    public static boolean isWellFormed(CharSequence code) {
+        return code != null && code.length() == 3
+                && isUpper(code.charAt(0)) && isUpper(code.charAt(1)) && isUpper(code.charAt(2));
+    }
+
+    /**
+     * @return the shared instance for a well-formed code, or {@code code} itself otherwise so that validation
+     * still sees (and reports on) the original value
+     */
+    public static String canonical(String code) {
+        if (!isWellFormed(code)) {
+            return code;
+        }
+        return canonical(code.charAt(0), code.charAt(1), code.charAt(2));
+    }
+
+    /**
+     * Looks up a code straight from a character buffer, without creating an intermediate {@link String} for codes
+     * that have been seen before.
+     *
+     * @return the shared instance, or {@code null} if the three characters are not uppercase ASCII letters
+     */
+    public static String canonical(char[] buffer, int offset, int length) {
+        if (length != 3) {
+            return null;
+        }
+        char first = buffer[offset];
+        char second = buffer[offset + 1];
+        char third = buffer[offset + 2];
+        if (!isUpper(first) || !isUpper(second) || !isUpper(third)) {
+            return null;
+        }
+        return canonical(first, second, third);
+    }
+
+    /**
+     * @return the code's position in {@code AAA..ZZZ}, below {@value #COUNT}
+     * @throws IllegalArgumentException if the code is not well-formed
+     */
+    public static int index(CharSequence code) {
+        if (!isWellFormed(code)) {
+            throw new IllegalArgumentException("Not a currency code: " + code);
+        }
+        return slot(code.charAt(0), code.charAt(1), code.charAt(2));
+    }
+
+    /**
+     * @return the shared instance at {@code index} in {@code AAA..ZZZ}, or {@code null} if it is out of range
+     */
+    public static String fromIndex(int index) {
+        if (index < 0 || index >= COUNT) {
+            return null;
+        }
+        return canonical((char) ('A' + index / (LETTERS * LETTERS)),
+                (char) ('A' + index / LETTERS % LETTERS),
+                (char) ('A' + index % LETTERS));
+    }
+
+    private static String canonical(char first, char second, char third) {
+        int slot = slot(first, second, third);
+        String code = CANONICAL[slot];
+        if (code == null) {
+            code = new String(new char[]{first, second, third});
+            CANONICAL[slot] = code;
+        }
+        return code;
+    }
+
+    private static int slot(char first, char second, char third) {
+        return ((first - 'A') * LETTERS + (second - 'A')) * LETTERS + (third - 'A');
+    }
+
+    private static boolean isUpper(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+}
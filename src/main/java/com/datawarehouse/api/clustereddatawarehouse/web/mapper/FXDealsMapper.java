@@ -1,8 +1,11 @@
 package com.datawarehouse.api.clustereddatawarehouse.web.mapper;
 
 import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealVolumeBucket;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealVolumeDto;
 import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
 import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsResponseDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BadRequestException;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -19,11 +22,14 @@ public interface FXDealsMapper {
 
     FXDealsResponseDto toDto(FxDeals entity);
 
+    FXDealVolumeDto toDto(FXDealVolumeBucket bucket);
+
     default LocalDateTime parseTimestamp(String timestamp) {
         try {
-            return LocalDateTime.parse(timestamp, DateTimeFormatter.ISO_DATE_TIME);
+            LocalDateTime parsed = IsoTimestampParser.parse(timestamp);
+            return parsed != null ? parsed : LocalDateTime.parse(timestamp, DateTimeFormatter.ISO_DATE_TIME);
         } catch (Exception e) {
-            throw new IllegalArgumentException("Invalid timestamp format. Expected ISO format (e.g., 2024-01-15T10:30:00)");
+            throw new BadRequestException("Invalid timestamp format. Expected ISO format (e.g., 2024-01-15T10:30:00)");
         }
     }
 }
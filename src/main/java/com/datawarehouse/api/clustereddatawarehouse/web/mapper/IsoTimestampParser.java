@@ -0,0 +1,76 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.mapper;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+
+/**
+ * Parser for the {@code yyyy-MM-ddTHH:mm:ss[.S...]} shape nearly every deal timestamp arrives in. It reads the
+ * digits in place instead of going through {@link java.time.format.DateTimeFormatter}'s parsed-field maps and
+ * signals "not this shape" with {@code null} rather than an exception, so callers can fall back to the formatter
+ * for offsets, zone ids and the other forms {@code ISO_DATE_TIME} accepts.
+ */
+final class IsoTimestampParser {
+
+    private static final int BASE_LENGTH = 19;
+    private static final int MAX_FRACTION_DIGITS = 9;
+
+    private IsoTimestampParser() {
+    }
+
+    /**
+     * @return the parsed timestamp, or {@code null} if {@code text} is not in the fast-path shape
+     * @throws DateTimeException if the shape matches but a field is out of range (e.g. February 30th)
+     */
+    static LocalDateTime parse(String text) {
+        int length = text.length();
+        if (length != BASE_LENGTH && (length < BASE_LENGTH + 2 || length > BASE_LENGTH + 1 + MAX_FRACTION_DIGITS)) {
+            return null;
+        }
+        if (text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T'
+                || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            return null;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+        if ((year | month | day | hour | minute | second) < 0) {
+            return null;
+        }
+
+        int nanos = 0;
+        if (length > BASE_LENGTH) {
+            if (text.charAt(BASE_LENGTH) != '.') {
+                return null;
+            }
+            int fractionDigits = length - BASE_LENGTH - 1;
+            int fraction = digits(text, BASE_LENGTH + 1, fractionDigits);
+            if (fraction < 0) {
+                return null;
+            }
+            nanos = fraction;
+            for (int i = fractionDigits; i < MAX_FRACTION_DIGITS; i++) {
+                nanos *= 10;
+            }
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+    }
+
+    /**
+     * @return the non-negative value of {@code count} decimal digits starting at {@code offset}, or -1 if any
+     * character is not an ASCII digit
+     */
+    private static int digits(String text, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,44 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.rest;
+
+import com.datawarehouse.api.clustereddatawarehouse.domain.VolumeGranularity;
+import com.datawarehouse.api.clustereddatawarehouse.services.FXDealAnalyticsService;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealVolumeDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealVolumeRebuildDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/v1/fx-deals/analytics")
+@RequiredArgsConstructor
+@Slf4j
+public class FXDealAnalyticsController {
+
+    private final FXDealAnalyticsService fxDealAnalyticsService;
+
+    @GetMapping("/volume")
+    public ResponseEntity<List<FXDealVolumeDto>> getVolume(
+            @RequestParam VolumeGranularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String orderingCurrencyIsoCode,
+            @RequestParam(required = false) String toCurrencyIsoCode) {
+        return ResponseEntity.ok(fxDealAnalyticsService.findVolumes(
+                granularity, orderingCurrencyIsoCode, toCurrencyIsoCode, from, to));
+    }
+
+    @PostMapping("/volume/rebuild")
+    public ResponseEntity<FXDealVolumeRebuildDto> rebuildVolume(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Received request to rebuild volume rollups for [{}, {})", from, to);
+        return ResponseEntity.ok(fxDealAnalyticsService.rebuildVolumes(from, to));
+    }
+}
@@ -1,30 +1,203 @@
 package com.datawarehouse.api.clustereddatawarehouse.web.rest;
 
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.DealLogSampler;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsSearchCriteria;
+import com.datawarehouse.api.clustereddatawarehouse.services.FXDealBulkLoadService;
+import com.datawarehouse.api.clustereddatawarehouse.services.FXDealExportService;
+import com.datawarehouse.api.clustereddatawarehouse.services.FXDealImportService;
+import com.datawarehouse.api.clustereddatawarehouse.services.FXDealQueryService;
 import com.datawarehouse.api.clustereddatawarehouse.services.FXDealsService;
-import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
-import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsResponseDto;
+import com.datawarehouse.api.clustereddatawarehouse.services.export.ArrowDealWriter;
+import com.datawarehouse.api.clustereddatawarehouse.services.importing.FXDealImportFormat;
+import com.datawarehouse.api.clustereddatawarehouse.services.ingestion.FXDealIngestionQueue;
+import com.datawarehouse.api.clustereddatawarehouse.services.ingestion.limit.IngestionLimiter;
+import com.datawarehouse.api.clustereddatawarehouse.services.stream.FXDealStream;
+import com.datawarehouse.api.clustereddatawarehouse.web.binary.FXDealFrames;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.*;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BatchSizeExceededException;
+import com.datawarehouse.api.clustereddatawarehouse.web.json.DealBatchReader;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/v1/fx-deals")
 @RequiredArgsConstructor
 @Slf4j
 public class FXDealController {
 
     private final FXDealsService fxDealsService;
+    private final FXDealImportService fxDealImportService;
+    private final FXDealBulkLoadService fxDealBulkLoadService;
+    private final FXDealQueryService fxDealQueryService;
+    private final FXDealExportService fxDealExportService;
+    private final FXDealIngestionQueue fxDealIngestionQueue;
+    private final FXDealStream fxDealStream;
+    private final IngestionLimiter ingestionLimiter;
+    private final DealLogSampler logSampler;
+    private final FXDealsProperties properties;
+    private final DealBatchReader dealBatchReader;
 
     @PostMapping
-    public ResponseEntity<FXDealsResponseDto> createDeal(@Valid @RequestBody FXDealsRequestDto requestDto) {
-        log.info("Received request to create FX Deal with ID: {}", requestDto.getDealUniqueId());
-        FXDealsResponseDto response = fxDealsService.createDeal(requestDto);
+    public ResponseEntity<?> createDeal(
+            @Valid @RequestBody FXDealsRequestDto requestDto,
+            @RequestHeader(name = IngestionLimiter.API_KEY_HEADER, required = false) String apiKey) {
+        if (logSampler.sample()) {
+            log.info("Received request to create FX Deal with ID: {}", requestDto.getDealUniqueId());
+        }
+        ingestionLimiter.checkQuota(apiKey);
+        if (fxDealIngestionQueue.isEnabled()) {
+            FXDealIngestionStatusDto accepted = fxDealIngestionQueue.submit(requestDto);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/v1/fx-deals/ingestion/" + accepted.getTrackingId()))
+                    .body(accepted);
+        }
+        FXDealsResponseDto response = ingestionLimiter.insert(() -> fxDealsService.createDeal(requestDto));
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
-}
\ No newline at end of file
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> findDeals(
+            @RequestParam(required = false) String orderingCurrencyIsoCode,
+            @RequestParam(required = false) String toCurrencyIsoCode,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        FXDealsSearchCriteria criteria = fxDealQueryService.prepareSearch(
+                orderingCurrencyIsoCode, toCurrencyIsoCode, from, to, limit, cursor);
+        StreamingResponseBody body = outputStream -> fxDealQueryService.writeDeals(criteria, outputStream);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Every deal in {@code [from, to)}, optionally for one currency pair, as an Arrow IPC stream. The body is written
+     * on the request thread rather than as a {@link StreamingResponseBody}, so that long exports are not cut off by
+     * the async request timeout.
+     */
+    @GetMapping("/export")
+    public void exportDeals(
+            @RequestParam(required = false) String orderingCurrencyIsoCode,
+            @RequestParam(required = false) String toCurrencyIsoCode,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletResponse response) throws IOException {
+        FXDealsSearchCriteria criteria = fxDealExportService.prepareExport(
+                orderingCurrencyIsoCode, toCurrencyIsoCode, from, to);
+        response.setContentType(ArrowDealWriter.MEDIA_TYPE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("fx-deals.arrows")
+                .build()
+                .toString());
+        fxDealExportService.exportDeals(criteria, response.getOutputStream());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<FXDealsResponseDto> getDeal(@PathVariable UUID id) {
+        return ResponseEntity.of(fxDealQueryService.findDeal(id));
+    }
+
+    @GetMapping("/ingestion/{trackingId}")
+    public ResponseEntity<FXDealIngestionStatusDto> getIngestionStatus(@PathVariable UUID trackingId) {
+        return ResponseEntity.of(fxDealIngestionQueue.findStatus(trackingId));
+    }
+
+    /**
+     * Server-Sent Events of deals as they are committed, optionally for one currency pair. Browsers' EventSource
+     * resends the last event id on reconnect; other clients may pass it as {@code lastEventId} instead.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDeals(
+            @RequestParam(required = false) String orderingCurrencyIsoCode,
+            @RequestParam(required = false) String toCurrencyIsoCode,
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(name = "lastEventId", required = false) String lastEventId) {
+        return fxDealStream.subscribe(orderingCurrencyIsoCode, toCurrencyIsoCode,
+                lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+
+    /**
+     * The body is bound one deal at a time by {@link DealBatchReader}, which stops at the first deal over the batch
+     * limit.
+     */
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<FXDealsBatchResponseDto> createDeals(
+            HttpServletRequest request,
+            @RequestHeader(name = IngestionLimiter.API_KEY_HEADER, required = false) String apiKey) throws IOException {
+        ingestionLimiter.checkQuota(apiKey);
+        List<FXDealsRequestDto> requestDtos = dealBatchReader.read(new ServletServerHttpRequest(request));
+        log.info("Received request to create batch of {} FX Deals", requestDtos.size());
+        FXDealsBatchResponseDto response = ingestionLimiter.insertBatch(() -> fxDealsService.createDeals(requestDtos));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * The batch endpoint for bodies sent as a binary {@link FXDealFrames frame} instead of a JSON array. A frame's
+     * size follows from its deal count, so an oversized batch is refused from its Content-Length, and a chunked body
+     * is read no further than the largest frame allowed.
+     */
+    @PostMapping(path = "/batch", consumes = FXDealFrames.MEDIA_TYPE)
+    public ResponseEntity<FXDealsBatchResponseDto> createDealsFromFrame(
+            InputStream body,
+            @RequestHeader(name = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+            @RequestHeader(name = IngestionLimiter.API_KEY_HEADER, required = false) String apiKey) throws IOException {
+        ingestionLimiter.checkQuota(apiKey);
+        int maxSize = properties.getBatch().getMaxSize();
+        long maxFrameSize = FXDealFrames.frameSize(maxSize);
+        if (contentLength != null && contentLength > maxFrameSize) {
+            throw frameTooLarge(maxFrameSize);
+        }
+        byte[] frame = body.readNBytes((int) Math.min(maxFrameSize + 1, Integer.MAX_VALUE - 8));
+        if (frame.length > maxFrameSize) {
+            throw frameTooLarge(maxFrameSize);
+        }
+        List<FXDealsRequestDto> requestDtos = FXDealFrames.decode(frame, maxSize);
+        log.info("Received request to create binary batch of {} FX Deals", requestDtos.size());
+        FXDealsBatchResponseDto response = ingestionLimiter.insertBatch(() -> fxDealsService.createDeals(requestDtos));
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping(path = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<FXDealsImportReportDto> importDeals(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                              InputStream body) {
+        FXDealImportFormat format = FXDealImportFormat.fromContentType(contentType);
+        log.info("Received {} import request", format);
+        FXDealsImportReportDto report = fxDealImportService.importDeals(body, format);
+        return ResponseEntity.status(report.getStatus().httpStatus()).body(report);
+    }
+
+    @PostMapping(path = "/import/bulk", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<FXDealsImportReportDto> bulkLoadDeals(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                                InputStream body) {
+        FXDealImportFormat format = FXDealImportFormat.fromContentType(contentType);
+        log.info("Received {} bulk load request", format);
+        FXDealsImportReportDto report = fxDealBulkLoadService.bulkLoad(body, format);
+        return ResponseEntity.status(report.getStatus().httpStatus()).body(report);
+    }
+
+    private static BatchSizeExceededException frameTooLarge(long maxFrameSize) {
+        return new BatchSizeExceededException("Deal frame exceeds the maximum of " + maxFrameSize + " bytes");
+    }
+}
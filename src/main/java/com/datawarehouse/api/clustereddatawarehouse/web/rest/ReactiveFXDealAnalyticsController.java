@@ -0,0 +1,51 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.rest;
+
+import com.datawarehouse.api.clustereddatawarehouse.domain.VolumeGranularity;
+import com.datawarehouse.api.clustereddatawarehouse.services.FXDealAnalyticsService;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealVolumeDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealVolumeRebuildDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * {@link FXDealAnalyticsController} for the {@code reactive} profile. Rollup reads are rare and small, so they keep
+ * using the JDBC service, on the bounded elastic scheduler instead of an event loop.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/v1/fx-deals/analytics")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveFXDealAnalyticsController {
+
+    private final FXDealAnalyticsService fxDealAnalyticsService;
+
+    @GetMapping("/volume")
+    public Mono<List<FXDealVolumeDto>> getVolume(
+            @RequestParam VolumeGranularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String orderingCurrencyIsoCode,
+            @RequestParam(required = false) String toCurrencyIsoCode) {
+        return Mono.fromCallable(() -> fxDealAnalyticsService.findVolumes(
+                        granularity, orderingCurrencyIsoCode, toCurrencyIsoCode, from, to))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PostMapping("/volume/rebuild")
+    public Mono<FXDealVolumeRebuildDto> rebuildVolume(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Received request to rebuild volume rollups for [{}, {})", from, to);
+        return Mono.fromCallable(() -> fxDealAnalyticsService.rebuildVolumes(from, to))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
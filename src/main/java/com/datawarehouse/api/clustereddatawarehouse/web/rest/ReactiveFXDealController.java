@@ -0,0 +1,123 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.rest;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.DealLogSampler;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsSearchCriteria;
+import com.datawarehouse.api.clustereddatawarehouse.services.FXDealQueryService;
+import com.datawarehouse.api.clustereddatawarehouse.services.ReactiveFXDealsService;
+import com.datawarehouse.api.clustereddatawarehouse.services.importing.FXDealImportFormat;
+import com.datawarehouse.api.clustereddatawarehouse.web.binary.FXDealFrames;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.*;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BatchSizeExceededException;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The {@code /api/v1/fx-deals} contract of {@link FXDealController}, served by WebFlux in the {@code reactive}
+ * profile. Queued ingestion and {@code /import/bulk} are only available on the servlet runtime.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/v1/fx-deals")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveFXDealController {
+
+    private final ReactiveFXDealsService fxDealsService;
+    private final FXDealQueryService fxDealQueryService;
+    private final DealLogSampler logSampler;
+    private final FXDealsProperties properties;
+
+    @PostMapping
+    public Mono<ResponseEntity<FXDealsResponseDto>> createDeal(@Valid @RequestBody FXDealsRequestDto requestDto) {
+        if (logSampler.sample()) {
+            log.info("Received request to create FX Deal with ID: {}", requestDto.getDealUniqueId());
+        }
+        return fxDealsService.createDeal(requestDto)
+                .map(response -> ResponseEntity.status(HttpStatus.CREATED).body(response));
+    }
+
+    @GetMapping
+    public Mono<FXDealsPageDto> findDeals(
+            @RequestParam(required = false) String orderingCurrencyIsoCode,
+            @RequestParam(required = false) String toCurrencyIsoCode,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        FXDealsSearchCriteria criteria = fxDealQueryService.prepareSearch(
+                orderingCurrencyIsoCode, toCurrencyIsoCode, from, to, limit, cursor);
+        return fxDealsService.findDeals(criteria);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<FXDealsResponseDto>> getDeal(@PathVariable UUID id) {
+        return fxDealsService.findDeal(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * The array is decoded one deal at a time, and decoding stops at the first deal over the batch limit.
+     */
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<FXDealsBatchResponseDto> createDeals(@RequestBody Flux<FXDealsRequestDto> deals) {
+        int maxSize = properties.getBatch().getMaxSize();
+        return deals.take(maxSize + 1L)
+                .collectList()
+                .flatMap(requestDtos -> {
+                    if (requestDtos.size() > maxSize) {
+                        return Mono.error(new BatchSizeExceededException("Batch contains more than " + maxSize
+                                + " deals, the maximum is " + maxSize));
+                    }
+                    log.info("Received request to create batch of {} FX Deals", requestDtos.size());
+                    return fxDealsService.createDeals(requestDtos);
+                });
+    }
+
+    /**
+     * The batch endpoint for bodies sent as a binary {@link FXDealFrames frame} instead of a JSON array. An oversized
+     * batch is refused from its Content-Length before the body is read.
+     */
+    @PostMapping(path = "/batch", consumes = FXDealFrames.MEDIA_TYPE)
+    public Mono<FXDealsBatchResponseDto> createDealsFromFrame(
+            @RequestBody Mono<byte[]> frame,
+            @RequestHeader(name = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength) {
+        int maxSize = properties.getBatch().getMaxSize();
+        long maxFrameSize = FXDealFrames.frameSize(maxSize);
+        if (contentLength != null && contentLength > maxFrameSize) {
+            return Mono.error(new BatchSizeExceededException("Deal frame exceeds the maximum of " + maxFrameSize + " bytes"));
+        }
+        return frame.map(bytes -> FXDealFrames.decode(bytes, maxSize))
+                .flatMap(requestDtos -> {
+                    log.info("Received request to create binary batch of {} FX Deals", requestDtos.size());
+                    return fxDealsService.createDeals(requestDtos);
+                });
+    }
+
+    /**
+     * The body is decoded into lines as it arrives and is only read as fast as the chunks commit.
+     */
+    @PostMapping(path = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public Mono<ResponseEntity<FXDealsImportReportDto>> importDeals(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                                    @RequestBody Flux<String> lines) {
+        FXDealImportFormat format = FXDealImportFormat.fromContentType(contentType);
+        log.info("Received {} import request", format);
+        return fxDealsService.importDeals(lines, format)
+                .map(report -> ResponseEntity.status(report.getStatus().httpStatus()).body(report));
+    }
+}
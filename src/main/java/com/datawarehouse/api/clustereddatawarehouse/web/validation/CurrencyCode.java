@@ -0,0 +1,29 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.PARAMETER;
+
+/**
+ * The annotated string must be three ASCII uppercase letters. Equivalent to {@code @Pattern(regexp = "^[A-Z]{3}$")}
+ * without running a regex matcher per value. {@code null} is valid; combine with {@code @NotBlank}.
+ */
+@Documented
+@Constraint(validatedBy = CurrencyCodeValidator.class)
+@Target({FIELD, PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrencyCode {
+
+    String message() default "Currency ISO Code must be 3 uppercase letters";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
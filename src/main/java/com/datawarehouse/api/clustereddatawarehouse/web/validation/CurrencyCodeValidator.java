@@ -0,0 +1,13 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.validation;
+
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.CurrencyCodes;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class CurrencyCodeValidator implements ConstraintValidator<CurrencyCode, CharSequence> {
+
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        return value == null || CurrencyCodes.isWellFormed(value);
+    }
+}
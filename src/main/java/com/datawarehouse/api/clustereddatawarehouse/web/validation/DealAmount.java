@@ -0,0 +1,29 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.PARAMETER;
+
+/**
+ * The annotated {@link com.datawarehouse.api.clustereddatawarehouse.domain.DealAmounts fixed-point amount} must be
+ * present, representable and positive.
+ */
+@Documented
+@Constraint(validatedBy = DealAmountValidator.class)
+@Target({FIELD, PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DealAmount {
+
+    String message() default "Deal Amount must be positive";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,25 @@
+package com.datawarehouse.api.clustereddatawarehouse.web.validation;
+
+import com.datawarehouse.api.clustereddatawarehouse.domain.DealAmounts;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class DealAmountValidator implements ConstraintValidator<DealAmount, Long> {
+
+    @Override
+    public boolean isValid(Long value, ConstraintValidatorContext context) {
+        if (value == null || value == DealAmounts.MISSING) {
+            return reject(context, "Deal Amount is required");
+        }
+        if (value == DealAmounts.UNREPRESENTABLE) {
+            return reject(context, "Deal Amount must have at most " + DealAmounts.SCALE + " decimal places");
+        }
+        return value > 0;
+    }
+
+    private static boolean reject(ConstraintValidatorContext context, String message) {
+        context.disableDefaultConstraintViolation();
+        context.buildConstraintViolationWithTemplate(message).addConstraintViolation();
+        return false;
+    }
+}
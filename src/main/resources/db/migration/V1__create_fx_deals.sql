@@ -0,0 +1,11 @@
+-- Baseline: the table as Hibernate's ddl-auto=update created it before migrations were introduced.
+-- Existing databases already have it; Flyway baselines them at version 0 and this statement is a no-op.
+CREATE TABLE IF NOT EXISTS fx_deals
+(
+    id                         uuid             NOT NULL PRIMARY KEY,
+    ordering_currency_iso_code varchar(3)       NOT NULL,
+    to_currency_iso_code       varchar(3)       NOT NULL,
+    deal_amount                double precision NOT NULL,
+    deal_timestamp             timestamp(6)     NOT NULL,
+    created_at                 timestamp(6)
+);
@@ -0,0 +1,65 @@
+-- Range-partition fx_deals by deal_timestamp, one partition per month.
+--
+-- A primary key on a partitioned table must include the partition key, so (id, deal_timestamp) no longer stops the
+-- same id from being stored twice. fx_deal_ids keeps one row per deal id across all partitions, including detached
+-- ones, and every insert claims the id there first.
+--
+-- Existing rows are copied into monthly partitions covering their range (and at least the current month).
+-- FXDealPartitionManager creates the partitions ahead of that at runtime.
+
+ALTER TABLE fx_deals RENAME TO fx_deals_legacy;
+ALTER INDEX IF EXISTS fx_deals_pkey RENAME TO fx_deals_legacy_pkey;
+
+CREATE TABLE fx_deal_ids
+(
+    id uuid NOT NULL PRIMARY KEY
+);
+
+CREATE TABLE fx_deals
+(
+    id                         uuid             NOT NULL,
+    ordering_currency_iso_code varchar(3)       NOT NULL,
+    to_currency_iso_code       varchar(3)       NOT NULL,
+    deal_amount                double precision NOT NULL,
+    deal_timestamp             timestamp(6)     NOT NULL,
+    created_at                 timestamp(6),
+    PRIMARY KEY (id, deal_timestamp)
+) PARTITION BY RANGE (deal_timestamp);
+
+-- Catches deals outside every managed range (e.g. far in the past) instead of rejecting them.
+CREATE TABLE fx_deals_default PARTITION OF fx_deals DEFAULT;
+
+DO
+$$
+    DECLARE
+        current_month date := date_trunc('month', localtimestamp)::date;
+        first_month   date;
+        last_month    date;
+    BEGIN
+        SELECT date_trunc('month', min(deal_timestamp))::date, date_trunc('month', max(deal_timestamp))::date
+        INTO first_month, last_month
+        FROM fx_deals_legacy;
+
+        first_month := least(coalesce(first_month, current_month), current_month);
+        last_month := greatest(coalesce(last_month, current_month), current_month);
+
+        WHILE first_month <= last_month
+            LOOP
+                EXECUTE format('CREATE TABLE %I PARTITION OF fx_deals FOR VALUES FROM (%L) TO (%L)',
+                               'fx_deals_p' || to_char(first_month, 'YYYYMM'),
+                               first_month::timestamp,
+                               (first_month + interval '1 month')::timestamp);
+                first_month := first_month + interval '1 month';
+            END LOOP;
+    END
+$$;
+
+INSERT INTO fx_deal_ids (id)
+SELECT id
+FROM fx_deals_legacy;
+
+INSERT INTO fx_deals (id, ordering_currency_iso_code, to_currency_iso_code, deal_amount, deal_timestamp, created_at)
+SELECT id, ordering_currency_iso_code, to_currency_iso_code, deal_amount, deal_timestamp, created_at
+FROM fx_deals_legacy;
+
+DROP TABLE fx_deals_legacy;
@@ -0,0 +1,13 @@
+-- Indexes for GET /api/v1/fx-deals, which seeks on (deal_timestamp, id) instead of using OFFSET.
+-- Both carry the remaining columns so that a page can be served by an index-only scan, and both are created on
+-- every partition, existing and future.
+
+-- Unfiltered and timestamp-range reads.
+CREATE INDEX fx_deals_timestamp_id_idx
+    ON fx_deals (deal_timestamp, id)
+    INCLUDE (ordering_currency_iso_code, to_currency_iso_code, deal_amount, created_at);
+
+-- Reads for one currency pair, optionally within a timestamp range.
+CREATE INDEX fx_deals_pair_timestamp_id_idx
+    ON fx_deals (ordering_currency_iso_code, to_currency_iso_code, deal_timestamp, id)
+    INCLUDE (deal_amount, created_at);
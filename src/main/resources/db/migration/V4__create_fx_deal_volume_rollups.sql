@@ -0,0 +1,32 @@
+-- Pre-aggregated deal count and total amount per currency pair and minute, hour and day bucket.
+--
+-- Every statement that inserts into fx_deals also upserts the rollup rows of the deals it inserted, in the same
+-- statement, so the rollups are exactly as current as the committed deals. Analytics reads only touch this table.
+-- Existing deals are rolled up here; POST /api/v1/fx-deals/analytics/volume/rebuild recomputes a range later on.
+
+CREATE TABLE fx_deal_volume_rollups
+(
+    granularity                varchar(6)       NOT NULL,
+    ordering_currency_iso_code varchar(3)       NOT NULL,
+    to_currency_iso_code       varchar(3)       NOT NULL,
+    bucket_start               timestamp(6)     NOT NULL,
+    deal_count                 bigint           NOT NULL,
+    total_amount               double precision NOT NULL,
+    PRIMARY KEY (granularity, ordering_currency_iso_code, to_currency_iso_code, bucket_start)
+);
+
+-- Reads across all currency pairs for a time range; the primary key serves reads for a single pair.
+CREATE INDEX fx_deal_volume_rollups_bucket_idx
+    ON fx_deal_volume_rollups (granularity, bucket_start);
+
+INSERT INTO fx_deal_volume_rollups
+    (granularity, ordering_currency_iso_code, to_currency_iso_code, bucket_start, deal_count, total_amount)
+SELECT g.granularity,
+       d.ordering_currency_iso_code,
+       d.to_currency_iso_code,
+       date_trunc(g.field, d.deal_timestamp),
+       count(*),
+       sum(d.deal_amount)
+FROM fx_deals d
+         CROSS JOIN (VALUES ('MINUTE', 'minute'), ('HOUR', 'hour'), ('DAY', 'day')) AS g (granularity, field)
+GROUP BY 1, 2, 3, 4;
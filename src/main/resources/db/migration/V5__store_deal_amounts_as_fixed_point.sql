@@ -0,0 +1,53 @@
+-- Store deal amounts as fixed-point bigint counting ten-thousandths of the ordering currency (1000.5 is 10005000),
+-- see DealAmounts. Sums over bigint are exact, unlike sums over double precision.
+--
+-- Existing amounts are rounded to four decimals, which every amount accepted so far already had up to binary
+-- floating-point error. Altering fx_deals also rewrites its attached partitions; partitions detached into the archive
+-- schema are converted separately so that they can still be attached again or copied back.
+
+ALTER TABLE fx_deals
+    ALTER COLUMN deal_amount TYPE bigint USING round(deal_amount::numeric * 10000)::bigint;
+
+DO
+$$
+    DECLARE
+        detached record;
+    BEGIN
+        FOR detached IN
+            SELECT c.table_schema, c.table_name
+            FROM information_schema.columns c
+                     JOIN information_schema.tables t
+                          ON t.table_schema = c.table_schema AND t.table_name = c.table_name
+            WHERE c.column_name = 'deal_amount'
+              AND c.data_type = 'double precision'
+              AND t.table_type = 'BASE TABLE'
+              AND c.table_name LIKE 'fx\_deals\_%'
+            LOOP
+                EXECUTE format(
+                        'ALTER TABLE %I.%I ALTER COLUMN deal_amount TYPE bigint USING round(deal_amount::numeric * 10000)::bigint',
+                        detached.table_schema, detached.table_name);
+            END LOOP;
+    END
+$$;
+
+-- The old totals carried the floating-point error of every addition, so they are recomputed from the converted
+-- amounts rather than converted themselves.
+ALTER TABLE fx_deal_volume_rollups
+    ALTER COLUMN total_amount TYPE bigint USING 0;
+
+TRUNCATE fx_deal_volume_rollups;
+
+INSERT INTO fx_deal_volume_rollups
+    (granularity, ordering_currency_iso_code, to_currency_iso_code, bucket_start, deal_count, total_amount)
+SELECT g.granularity,
+       d.ordering_currency_iso_code,
+       d.to_currency_iso_code,
+       date_trunc(g.field, d.deal_timestamp),
+       count(*),
+       sum(d.deal_amount)
+FROM fx_deals d
+         CROSS JOIN (VALUES ('MINUTE', 'minute'), ('HOUR', 'hour'), ('DAY', 'day')) AS g (granularity, field)
+GROUP BY 1, 2, 3, 4;
+
+COMMENT ON COLUMN fx_deals.deal_amount IS 'Ten-thousandths of the ordering currency';
+COMMENT ON COLUMN fx_deal_volume_rollups.total_amount IS 'Sum of deal_amount, in ten-thousandths';
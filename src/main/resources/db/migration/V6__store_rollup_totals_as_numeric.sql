@@ -0,0 +1,7 @@
+-- A rollup total sums every deal of a currency pair in its bucket. As bigint ten-thousandths it overflows at about
+-- 9.2e14 currency units, which a handful of large deals in a high-denomination currency reach in one day, and the
+-- overflow would fail the deal insert that carries the rollup upsert. sum(bigint) is already numeric, so the totals
+-- are kept as numeric, still counting ten-thousandths.
+
+ALTER TABLE fx_deal_volume_rollups
+    ALTER COLUMN total_amount TYPE numeric;
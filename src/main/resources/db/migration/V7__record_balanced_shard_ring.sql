@@ -0,0 +1,11 @@
+-- The shard ring this node's deals were last balanced for, as owner names and virtual nodes. Ids are only claimed on
+-- the shard that owns them, so after a ring change a re-sent deal would be checked against a new owner that has not
+-- received the original yet. Writes are refused while any shard records a different ring than the application's,
+-- and a completed rebalance pass records the new one. Unused without sharding.
+
+CREATE TABLE fx_deal_shard_ring
+(
+    singleton   boolean PRIMARY KEY DEFAULT true CHECK (singleton),
+    signature   text         NOT NULL,
+    balanced_at timestamp(6) NOT NULL
+);
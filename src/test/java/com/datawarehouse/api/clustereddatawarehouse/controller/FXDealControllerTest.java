@@ -1,26 +1,60 @@
 package com.datawarehouse.api.clustereddatawarehouse.controller;
 
+import com.datawarehouse.api.clustereddatawarehouse.aop.GlobalExceptionHandler;
+import com.datawarehouse.api.clustereddatawarehouse.aop.IngestionMetricsAdvice;
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.DealLogSampler;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.FXDealMetrics;
+import com.datawarehouse.api.clustereddatawarehouse.services.FXDealBulkLoadService;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsSearchCriteria;
+import com.datawarehouse.api.clustereddatawarehouse.services.FXDealImportService;
+import com.datawarehouse.api.clustereddatawarehouse.services.FXDealExportService;
+import com.datawarehouse.api.clustereddatawarehouse.services.FXDealQueryService;
 import com.datawarehouse.api.clustereddatawarehouse.services.FXDealsService;
-import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
-import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsResponseDto;
+import com.datawarehouse.api.clustereddatawarehouse.services.importing.FXDealImportFormat;
+import com.datawarehouse.api.clustereddatawarehouse.services.ingestion.FXDealIngestionQueue;
+import com.datawarehouse.api.clustereddatawarehouse.services.ingestion.limit.IngestionLimiter;
+import com.datawarehouse.api.clustereddatawarehouse.services.stream.FXDealStream;
+import com.datawarehouse.api.clustereddatawarehouse.web.binary.FXDealFrames;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.*;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BadRequestException;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.ClientQuotaExceededException;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.IngestionOverloadedException;
+import com.datawarehouse.api.clustereddatawarehouse.web.json.DealBatchReader;
 import com.datawarehouse.api.clustereddatawarehouse.web.rest.FXDealController;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import jakarta.servlet.ServletException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.OutputStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -31,6 +65,36 @@ public class FXDealControllerTest {
     @Mock
     private FXDealsService fxDealsService;
 
+    @Mock
+    private FXDealImportService fxDealImportService;
+
+    @Mock
+    private FXDealBulkLoadService fxDealBulkLoadService;
+
+    @Mock
+    private FXDealQueryService fxDealQueryService;
+
+    @Mock
+    private FXDealExportService fxDealExportService;
+
+    @Mock
+    private FXDealIngestionQueue fxDealIngestionQueue;
+
+    @Mock
+    private FXDealStream fxDealStream;
+
+    @Mock
+    private DealLogSampler logSampler;
+
+    @Spy
+    private FXDealsProperties properties = new FXDealsProperties();
+
+    @Spy
+    private DealBatchReader dealBatchReader = new DealBatchReader(new ObjectMapper(), properties);
+
+    @Spy
+    private IngestionLimiter ingestionLimiter = new IngestionLimiter(new FXDealsProperties(), new SimpleMeterRegistry());
+
     @InjectMocks
     private FXDealController fxDealController;
 
@@ -51,7 +115,7 @@ public class FXDealControllerTest {
                 .dealUniqueId(dealId)
                 .orderingCurrencyIsoCode("USD")
                 .toCurrencyIsoCode("EUR")
-                .dealAmount(1000.50)
+                .dealAmount(10_005_000L)
                 .dealTimestamp("2024-01-15T10:30:00")
                 .build();
 
@@ -59,7 +123,7 @@ public class FXDealControllerTest {
                 .id(dealId)
                 .orderingCurrencyIsoCode("USD")
                 .toCurrencyIsoCode("EUR")
-                .dealAmount(1000.50)
+                .dealAmount(10_005_000L)
                 .dealTimestamp(LocalDateTime.parse("2024-01-15T10:30:00"))
                 .createdAt(LocalDateTime.now())
                 .build();
@@ -150,6 +214,29 @@ public class FXDealControllerTest {
         verify(fxDealsService, never()).createDeal(any(FXDealsRequestDto.class));
     }
 
+    @Test
+    public void createDeal_shouldReturnBadRequest_whenAmountHasTooManyDecimals() throws Exception {
+        // Arrange
+        UUID dealId = UUID.randomUUID();
+        String invalidRequest = String.format("""
+                {
+                    "dealUniqueId": "%s",
+                    "orderingCurrencyIsoCode": "USD",
+                    "toCurrencyIsoCode": "EUR",
+                    "dealAmount": 1000.00005,
+                    "dealTimestamp": "2024-01-15T10:30:00"
+                }
+                """, dealId);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/fx-deals")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(invalidRequest))
+                .andExpect(status().isBadRequest());
+
+        verify(fxDealsService, never()).createDeal(any(FXDealsRequestDto.class));
+    }
+
     @Test
     public void createDeal_shouldReturnBadRequest_whenMissingTimestamp() throws Exception {
         // Arrange
@@ -180,7 +267,7 @@ public class FXDealControllerTest {
                 .dealUniqueId(dealId)
                 .orderingCurrencyIsoCode("GBP")
                 .toCurrencyIsoCode("JPY")
-                .dealAmount(5000.75)
+                .dealAmount(50_007_500L)
                 .dealTimestamp("2024-01-20T14:25:00")
                 .build();
 
@@ -188,7 +275,7 @@ public class FXDealControllerTest {
                 .id(dealId)
                 .orderingCurrencyIsoCode("GBP")
                 .toCurrencyIsoCode("JPY")
-                .dealAmount(5000.75)
+                .dealAmount(50_007_500L)
                 .dealTimestamp(LocalDateTime.parse("2024-01-20T14:25:00"))
                 .createdAt(LocalDateTime.now())
                 .build();
@@ -229,4 +316,418 @@ public class FXDealControllerTest {
 
         verify(fxDealsService, never()).createDeal(any(FXDealsRequestDto.class));
     }
+
+    @Test
+    public void createDeals_shouldReturnPerItemResults() throws Exception {
+        // Arrange
+        UUID dealId = UUID.randomUUID();
+        String batchRequest = String.format("""
+                [
+                    {
+                        "dealUniqueId": "%s",
+                        "orderingCurrencyIsoCode": "USD",
+                        "toCurrencyIsoCode": "EUR",
+                        "dealAmount": 1000.50,
+                        "dealTimestamp": "2024-01-15T10:30:00"
+                    },
+                    {
+                        "orderingCurrencyIsoCode": "USD",
+                        "toCurrencyIsoCode": "EUR",
+                        "dealAmount": 1000.50,
+                        "dealTimestamp": "2024-01-15T10:30:00"
+                    }
+                ]
+                """, dealId);
+
+        FXDealsBatchResponseDto responseDto = FXDealsBatchResponseDto.builder()
+                .total(2)
+                .created(1)
+                .invalid(1)
+                .results(List.of(
+                        FXDealBatchItemResultDto.builder().index(0).dealUniqueId(dealId).status(FXDealBatchItemStatus.CREATED).build(),
+                        FXDealBatchItemResultDto.builder().index(1).status(FXDealBatchItemStatus.INVALID)
+                                .errors(Map.of("dealUniqueId", "Deal Unique Id is required")).build()))
+                .build();
+
+        when(fxDealsService.createDeals(anyList())).thenReturn(responseDto);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/fx-deals/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchRequest))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(2)))
+                .andExpect(jsonPath("$.created", is(1)))
+                .andExpect(jsonPath("$.invalid", is(1)))
+                .andExpect(jsonPath("$.results[0].status", is("CREATED")))
+                .andExpect(jsonPath("$.results[1].status", is("INVALID")))
+                .andExpect(jsonPath("$.results[1].errors.dealUniqueId", is("Deal Unique Id is required")));
+
+        verify(fxDealsService, times(1)).createDeals(argThat(deals -> deals.size() == 2));
+    }
+
+    @Test
+    public void createDealsFromFrame_shouldDecodeBinaryBatch() throws Exception {
+        // Arrange
+        UUID dealId = UUID.randomUUID();
+        byte[] frame = FXDealFrames.encode(List.of(FXDealsRequestDto.builder()
+                .dealUniqueId(dealId)
+                .orderingCurrencyIsoCode("USD")
+                .toCurrencyIsoCode("EUR")
+                .dealAmount(10_005_000L)
+                .dealTimestamp("2024-01-15T10:30:00")
+                .build()));
+        FXDealsBatchResponseDto responseDto = FXDealsBatchResponseDto.builder()
+                .total(1)
+                .created(1)
+                .results(List.of(FXDealBatchItemResultDto.builder().index(0).dealUniqueId(dealId)
+                        .status(FXDealBatchItemStatus.CREATED).build()))
+                .build();
+
+        when(fxDealsService.createDeals(anyList())).thenReturn(responseDto);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/fx-deals/batch")
+                        .contentType(FXDealFrames.MEDIA_TYPE)
+                        .content(frame))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(1)))
+                .andExpect(jsonPath("$.results[0].status", is("CREATED")));
+
+        verify(fxDealsService, times(1)).createDeals(argThat(deals -> deals.size() == 1
+                && deals.get(0).getDealUniqueId().equals(dealId)
+                && deals.get(0).getOrderingCurrencyIsoCode().equals("USD")
+                && deals.get(0).getDealAmount() == 10_005_000L));
+    }
+
+    @Test
+    public void createDeals_shouldStopReadingAtTheFirstDealOverTheMaximumBatch() throws Exception {
+        // Arrange
+        properties.getBatch().setMaxSize(1);
+        FXDealsRequestDto deal = FXDealsRequestDto.builder()
+                .dealUniqueId(UUID.randomUUID())
+                .orderingCurrencyIsoCode("USD")
+                .toCurrencyIsoCode("EUR")
+                .dealAmount(10_005_000L)
+                .dealTimestamp("2024-01-15T10:30:00")
+                .build();
+        // Everything after the second deal is malformed, so the request only gets 413 if reading stops there.
+        String body = "[" + objectMapper.writeValueAsString(deal) + "," + objectMapper.writeValueAsString(deal) + ",{";
+
+        // Act & Assert
+        mockMvcWithExceptionHandler().perform(post("/api/v1/fx-deals/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.message", is("Batch contains more than 1 deals, the maximum is 1")));
+
+        verify(fxDealsService, never()).createDeals(anyList());
+    }
+
+    @Test
+    public void createDeals_shouldReturnBadRequest_whenBodyIsNotAnArray() throws Exception {
+        // Act & Assert
+        mockMvcWithExceptionHandler().perform(post("/api/v1/fx-deals/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"dealUniqueId\": null}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("Malformed request body")));
+
+        verify(fxDealsService, never()).createDeals(anyList());
+    }
+
+    @Test
+    public void createDealsFromFrame_shouldReturnPayloadTooLarge_whenContentLengthExceedsTheMaximumBatch() throws Exception {
+        // Arrange
+        properties.getBatch().setMaxSize(1);
+        FXDealsRequestDto deal = FXDealsRequestDto.builder()
+                .dealUniqueId(UUID.randomUUID())
+                .orderingCurrencyIsoCode("USD")
+                .toCurrencyIsoCode("EUR")
+                .dealAmount(10_005_000L)
+                .dealTimestamp("2024-01-15T10:30:00")
+                .build();
+        byte[] frame = FXDealFrames.encode(List.of(deal, deal));
+
+        // Act & Assert
+        mockMvcWithExceptionHandler().perform(post("/api/v1/fx-deals/batch")
+                        .contentType(FXDealFrames.MEDIA_TYPE)
+                        .header("Content-Length", frame.length)
+                        .content(frame))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.message", is("Deal frame exceeds the maximum of 44 bytes")));
+
+        verify(fxDealsService, never()).createDeals(anyList());
+    }
+
+    @Test
+    public void createDealsFromFrame_shouldCheckTheQuotaBeforeReadingTheFrame() throws Exception {
+        // Arrange
+        doThrow(new ClientQuotaExceededException("Request rate for this API key exceeded", Duration.ofMillis(1_500)))
+                .when(ingestionLimiter).checkQuota("client-a");
+
+        // Act & Assert
+        mockMvcWithExceptionHandler().perform(post("/api/v1/fx-deals/batch")
+                        .header(IngestionLimiter.API_KEY_HEADER, "client-a")
+                        .contentType(FXDealFrames.MEDIA_TYPE)
+                        .content(new byte[3]))
+                .andExpect(status().isTooManyRequests());
+
+        verify(fxDealsService, never()).createDeals(anyList());
+    }
+
+    @Test
+    public void importDeals_shouldStreamCsvBodyToImportService() throws Exception {
+        // Arrange
+        FXDealsImportReportDto report = FXDealsImportReportDto.builder()
+                .status(FXDealImportStatus.COMPLETED)
+                .rowsRead(1)
+                .rowsCommitted(1)
+                .created(1)
+                .build();
+
+        when(fxDealImportService.importDeals(any(), eq(FXDealImportFormat.CSV))).thenReturn(report);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/fx-deals/import")
+                        .contentType("text/csv")
+                        .content(UUID.randomUUID() + ",USD,EUR,1000.50,2024-01-15T10:30:00\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("COMPLETED")))
+                .andExpect(jsonPath("$.created", is(1)));
+
+        verify(fxDealImportService, times(1)).importDeals(any(), eq(FXDealImportFormat.CSV));
+    }
+
+    @Test
+    public void bulkLoadDeals_shouldReturnServerError_whenBulkLoadAborted() throws Exception {
+        // Arrange
+        FXDealsImportReportDto report = FXDealsImportReportDto.builder()
+                .status(FXDealImportStatus.ABORTED)
+                .rowsRead(1)
+                .failureMessage("connection reset")
+                .build();
+
+        when(fxDealBulkLoadService.bulkLoad(any(), eq(FXDealImportFormat.NDJSON))).thenReturn(report);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/fx-deals/import/bulk")
+                        .contentType("application/x-ndjson")
+                        .content("{}\n"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.status", is("ABORTED")))
+                .andExpect(jsonPath("$.rowsCommitted", is(0)));
+
+        verify(fxDealBulkLoadService, times(1)).bulkLoad(any(), eq(FXDealImportFormat.NDJSON));
+        verify(fxDealImportService, never()).importDeals(any(), any());
+    }
+
+    @Test
+    public void importDeals_shouldReturnBadRequest_whenImportRejected() throws Exception {
+        // Arrange
+        FXDealsImportReportDto report = FXDealsImportReportDto.builder()
+                .status(FXDealImportStatus.REJECTED)
+                .rowsRead(1)
+                .rowsCommitted(1)
+                .failureMessage("Unexpected EOF read on the socket")
+                .build();
+
+        when(fxDealImportService.importDeals(any(), eq(FXDealImportFormat.NDJSON))).thenReturn(report);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/fx-deals/import")
+                        .contentType("application/x-ndjson")
+                        .content("{}\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status", is("REJECTED")));
+    }
+
+    @Test
+    public void findDeals_shouldStreamPageFromQueryService() throws Exception {
+        // Arrange
+        FXDealsSearchCriteria criteria = FXDealsSearchCriteria.builder()
+                .orderingCurrencyIsoCode("USD")
+                .toCurrencyIsoCode("EUR")
+                .limit(50)
+                .build();
+        when(fxDealQueryService.prepareSearch("USD", "EUR", LocalDateTime.of(2024, 1, 1, 0, 0), null, 50, null))
+                .thenReturn(criteria);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write("{\"deals\":[],\"nextCursor\":null}".getBytes());
+            return null;
+        }).when(fxDealQueryService).writeDeals(eq(criteria), any());
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/v1/fx-deals")
+                        .param("orderingCurrencyIsoCode", "USD")
+                        .param("toCurrencyIsoCode", "EUR")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("limit", "50"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deals.length()", is(0)));
+        verify(fxDealQueryService, times(1)).writeDeals(eq(criteria), any());
+    }
+
+    @Test
+    public void createDeal_shouldReturnAcceptedWithTrackingId_whenAsyncIngestionEnabled() throws Exception {
+        // Arrange
+        UUID dealId = UUID.randomUUID();
+        UUID trackingId = UUID.randomUUID();
+        FXDealsRequestDto requestDto = FXDealsRequestDto.builder()
+                .dealUniqueId(dealId)
+                .orderingCurrencyIsoCode("USD")
+                .toCurrencyIsoCode("EUR")
+                .dealAmount(10_005_000L)
+                .dealTimestamp("2024-01-15T10:30:00")
+                .build();
+
+        when(fxDealIngestionQueue.isEnabled()).thenReturn(true);
+        when(fxDealIngestionQueue.submit(any(FXDealsRequestDto.class))).thenReturn(FXDealIngestionStatusDto.builder()
+                .trackingId(trackingId)
+                .dealUniqueId(dealId)
+                .status(FXDealIngestionState.QUEUED)
+                .build());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/fx-deals")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/v1/fx-deals/ingestion/" + trackingId))
+                .andExpect(jsonPath("$.trackingId", is(trackingId.toString())))
+                .andExpect(jsonPath("$.status", is("QUEUED")));
+
+        verify(fxDealsService, never()).createDeal(any(FXDealsRequestDto.class));
+    }
+
+    @Test
+    public void createDeal_shouldReturnTooManyRequestsWithRetryAfter_whenApiKeyOverQuota() throws Exception {
+        // Arrange
+        FXDealsRequestDto requestDto = FXDealsRequestDto.builder()
+                .dealUniqueId(UUID.randomUUID())
+                .orderingCurrencyIsoCode("USD")
+                .toCurrencyIsoCode("EUR")
+                .dealAmount(10_005_000L)
+                .dealTimestamp("2024-01-15T10:30:00")
+                .build();
+
+        doThrow(new ClientQuotaExceededException("Request rate for this API key exceeded", Duration.ofMillis(1_500)))
+                .when(ingestionLimiter).checkQuota("client-a");
+
+        // Act & Assert
+        mockMvcWithExceptionHandler().perform(post("/api/v1/fx-deals")
+                        .header(IngestionLimiter.API_KEY_HEADER, "client-a")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"));
+
+        verify(fxDealsService, never()).createDeal(any(FXDealsRequestDto.class));
+    }
+
+    @Test
+    public void createDeals_shouldReturnServiceUnavailableWithRetryAfter_whenConcurrencyLimitReached() throws Exception {
+        // Arrange
+        FXDealsRequestDto requestDto = FXDealsRequestDto.builder()
+                .dealUniqueId(UUID.randomUUID())
+                .orderingCurrencyIsoCode("USD")
+                .toCurrencyIsoCode("EUR")
+                .dealAmount(10_005_000L)
+                .dealTimestamp("2024-01-15T10:30:00")
+                .build();
+
+        doThrow(new IngestionOverloadedException("Too many deal inserts in progress (20)", Duration.ofSeconds(1)))
+                .when(ingestionLimiter).insertBatch(any());
+
+        // Act & Assert
+        mockMvcWithExceptionHandler().perform(post("/api/v1/fx-deals/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(requestDto))))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+
+        verify(fxDealsService, never()).createDeals(anyList());
+    }
+
+    @Test
+    public void getIngestionStatus_shouldReturnNotFound_whenTrackingIdUnknown() throws Exception {
+        // Arrange
+        when(fxDealIngestionQueue.findStatus(any(UUID.class))).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/fx-deals/ingestion/" + UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void exportDeals_shouldWriteArrowStreamFromExportService() throws Exception {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+        FXDealsSearchCriteria criteria = FXDealsSearchCriteria.builder().from(from).to(to).build();
+        when(fxDealExportService.prepareExport(null, "EUR", from, to)).thenReturn(criteria);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write(new byte[]{1, 2, 3});
+            return 0L;
+        }).when(fxDealExportService).exportDeals(eq(criteria), any());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/fx-deals/export")
+                        .param("toCurrencyIsoCode", "EUR")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-02-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/vnd.apache.arrow.stream"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"fx-deals.arrows\""))
+                .andExpect(content().bytes(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    public void streamDeals_shouldSubscribeWithPairAndLastEventId() throws Exception {
+        // Arrange
+        when(fxDealStream.subscribe("USD", "EUR", "abc:41")).thenReturn(new SseEmitter());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/fx-deals/stream")
+                        .param("orderingCurrencyIsoCode", "USD")
+                        .param("toCurrencyIsoCode", "EUR")
+                        .header("Last-Event-ID", "abc:41")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(fxDealStream).subscribe("USD", "EUR", "abc:41");
+    }
+
+    @Test
+    public void findDeals_shouldReturnBadRequestWithMessage_whenServiceRejectsInput() throws Exception {
+        // Arrange
+        when(fxDealQueryService.prepareSearch(null, null, null, null, null, "garbage"))
+                .thenThrow(new BadRequestException("Invalid page cursor"));
+
+        // Act & Assert
+        mockMvcWithExceptionHandler().perform(get("/api/v1/fx-deals").param("cursor", "garbage"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("Invalid page cursor")));
+    }
+
+    @Test
+    public void findDeals_shouldNotEchoInternalIllegalArgumentException() {
+        // Arrange
+        when(fxDealQueryService.prepareSearch(null, null, null, null, null, null))
+                .thenThrow(new IllegalArgumentException("Parameter index out of range"));
+
+        // Act & Assert
+        assertThrows(ServletException.class, () -> mockMvcWithExceptionHandler().perform(get("/api/v1/fx-deals")));
+    }
+
+    private MockMvc mockMvcWithExceptionHandler() {
+        return MockMvcBuilders.standaloneSetup(fxDealController)
+                .setControllerAdvice(new GlobalExceptionHandler(mock(FXDealMetrics.class), mock(IngestionMetricsAdvice.class)))
+                .build();
+    }
 }
@@ -0,0 +1,94 @@
+package com.datawarehouse.api.clustereddatawarehouse.mapper;
+
+import com.datawarehouse.api.clustereddatawarehouse.web.binary.FXDealFrames;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BadRequestException;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BatchSizeExceededException;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.CurrencyCodes;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FXDealFramesTest {
+
+    @Test
+    public void decode_shouldReturnEncodedDeals() {
+        // Arrange
+        List<FXDealsRequestDto> deals = List.of(
+                deal(UUID.randomUUID(), "USD", "EUR", 10_005_000L, "2024-01-15T10:30:00"),
+                deal(UUID.randomUUID(), "ZZZ", "AAA", 1L, "1999-12-31T23:59:59.123456"));
+
+        // Act
+        byte[] frame = FXDealFrames.encode(deals);
+        List<FXDealsRequestDto> decoded = FXDealFrames.decode(frame, 10);
+
+        // Assert
+        assertEquals(FXDealFrames.HEADER_SIZE + 2 * FXDealFrames.DEAL_SIZE, frame.length);
+        assertEquals(2, decoded.size());
+        assertEquals(deals.get(0).getDealUniqueId(), decoded.get(0).getDealUniqueId());
+        assertSame(CurrencyCodes.canonical("USD"), decoded.get(0).getOrderingCurrencyIsoCode());
+        assertEquals("EUR", decoded.get(0).getToCurrencyIsoCode());
+        assertEquals(10_005_000L, decoded.get(0).getDealAmount());
+        assertEquals("2024-01-15T10:30:00.000000", decoded.get(0).getDealTimestamp());
+        assertEquals("ZZZ", decoded.get(1).getOrderingCurrencyIsoCode());
+        assertEquals("AAA", decoded.get(1).getToCurrencyIsoCode());
+        assertEquals(1L, decoded.get(1).getDealAmount());
+        assertEquals("1999-12-31T23:59:59.123456", decoded.get(1).getDealTimestamp());
+    }
+
+    @Test
+    public void decode_shouldKeepNonPositiveAmountsForValidation() {
+        // Arrange
+        byte[] frame = FXDealFrames.encode(List.of(deal(UUID.randomUUID(), "USD", "EUR", -50_000L, "2024-01-15T10:30:00")));
+
+        // Act
+        List<FXDealsRequestDto> decoded = FXDealFrames.decode(frame, 10);
+
+        // Assert
+        assertEquals(-50_000L, decoded.get(0).getDealAmount());
+    }
+
+    @Test
+    public void decode_shouldRejectMalformedFrames() {
+        // Arrange
+        byte[] frame = FXDealFrames.encode(List.of(deal(UUID.randomUUID(), "USD", "EUR", 10_000L, "2024-01-15T10:30:00")));
+        byte[] truncated = Arrays.copyOf(frame, frame.length - 1);
+        byte[] badHeader = frame.clone();
+        badHeader[0] = '{';
+        byte[] badCurrency = frame.clone();
+        ByteBuffer.wrap(badCurrency).putShort(FXDealFrames.HEADER_SIZE + 16, (short) CurrencyCodes.COUNT);
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> FXDealFrames.decode(truncated, 10));
+        assertThrows(BadRequestException.class, () -> FXDealFrames.decode(badHeader, 10));
+        assertThrows(BadRequestException.class, () -> FXDealFrames.decode(badCurrency, 10));
+        assertThrows(BadRequestException.class, () -> FXDealFrames.decode(new byte[3], 10));
+    }
+
+    @Test
+    public void decode_shouldRejectFramesAnnouncingTooManyDeals_beforeCheckingTheirLength() {
+        // Arrange
+        byte[] header = FXDealFrames.encode(List.of());
+        ByteBuffer.wrap(header).putInt(4, -1);
+
+        // Act & Assert
+        BatchSizeExceededException exception = assertThrows(BatchSizeExceededException.class,
+                () -> FXDealFrames.decode(header, 10));
+        assertEquals("Batch contains 4294967295 deals, the maximum is 10", exception.getMessage());
+    }
+
+    private static FXDealsRequestDto deal(UUID id, String ordering, String to, long amount, String timestamp) {
+        return FXDealsRequestDto.builder()
+                .dealUniqueId(id)
+                .orderingCurrencyIsoCode(ordering)
+                .toCurrencyIsoCode(to)
+                .dealAmount(amount)
+                .dealTimestamp(timestamp)
+                .build();
+    }
+}
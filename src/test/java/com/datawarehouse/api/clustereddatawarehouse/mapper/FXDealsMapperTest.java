@@ -0,0 +1,136 @@
+package com.datawarehouse.api.clustereddatawarehouse.mapper;
+
+import com.datawarehouse.api.clustereddatawarehouse.domain.DealAmounts;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BadRequestException;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.FXDealsMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FXDealsMapperTest {
+
+    private static final String INVALID_TIMESTAMP_MESSAGE =
+            "Invalid timestamp format. Expected ISO format (e.g., 2024-01-15T10:30:00)";
+
+    private final FXDealsMapper mapper = Mappers.getMapper(FXDealsMapper.class);
+
+    @Test
+    public void parseTimestamp_shouldMatchIsoFormatter_forLocalTimestamps() {
+        // Arrange
+        List<String> timestamps = List.of(
+                "2024-01-15T10:30:00",
+                "2024-02-29T23:59:59",
+                "1999-12-31T00:00:00.5",
+                "2024-01-15T10:30:00.123",
+                "2024-01-15T10:30:00.123456789"
+        );
+
+        // Act & Assert
+        for (String timestamp : timestamps) {
+            assertEquals(LocalDateTime.parse(timestamp, DateTimeFormatter.ISO_DATE_TIME), mapper.parseTimestamp(timestamp));
+        }
+    }
+
+    @Test
+    public void parseTimestamp_shouldFallBackToIsoFormatter_forOtherShapes() {
+        // Act & Assert
+        assertEquals(LocalDateTime.of(2024, 1, 15, 10, 30), mapper.parseTimestamp("2024-01-15T10:30"));
+        assertEquals(LocalDateTime.of(2024, 1, 15, 10, 30), mapper.parseTimestamp("2024-01-15T10:30:00Z"));
+        assertEquals(LocalDateTime.of(2024, 1, 15, 10, 30), mapper.parseTimestamp("2024-01-15T10:30:00+01:00"));
+    }
+
+    @Test
+    public void parseTimestamp_shouldKeepErrorMessage_forInvalidTimestamps() {
+        // Arrange
+        List<String> timestamps = List.of(
+                "not-a-timestamp",
+                "2024-02-30T10:30:00",
+                "2024-01-15T24:00:00",
+                "2024-01-15 10:30:00",
+                "2024-01-15T10:3a:00"
+        );
+
+        // Act & Assert
+        for (String timestamp : timestamps) {
+            BadRequestException exception = assertThrows(BadRequestException.class,
+                    () -> mapper.parseTimestamp(timestamp), timestamp);
+            assertEquals(INVALID_TIMESTAMP_MESSAGE, exception.getMessage());
+        }
+    }
+
+    @Test
+    public void deserialize_shouldShareCurrencyCodeInstances() throws Exception {
+        // Arrange
+        ObjectMapper objectMapper = new ObjectMapper();
+        String json = "{\"orderingCurrencyIsoCode\":\"USD\",\"toCurrencyIsoCode\":\"eur\"}";
+
+        // Act
+        FXDealsRequestDto first = objectMapper.readValue(json, FXDealsRequestDto.class);
+        FXDealsRequestDto second = objectMapper.readValue(json, FXDealsRequestDto.class);
+
+        // Assert
+        assertEquals("USD", first.getOrderingCurrencyIsoCode());
+        assertSame(first.getOrderingCurrencyIsoCode(), second.getOrderingCurrencyIsoCode());
+        assertEquals("eur", first.getToCurrencyIsoCode());
+    }
+
+    @Test
+    public void deserialize_shouldReadAmountsAsFixedPoint() throws Exception {
+        // Arrange
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        // Act & Assert
+        assertEquals(10_005_000L, amountOf(objectMapper, "1000.50"));
+        assertEquals(10_005_000L, amountOf(objectMapper, "\"1000.50\""));
+        assertEquals(10_000_000L, amountOf(objectMapper, "1E+3"));
+        assertEquals(1L, amountOf(objectMapper, "0.000100"));
+        assertEquals(-50_000L, amountOf(objectMapper, "-5"));
+        assertEquals(DealAmounts.UNREPRESENTABLE, amountOf(objectMapper, "0.00001"));
+        assertEquals(DealAmounts.UNREPRESENTABLE, amountOf(objectMapper, "99999999999999999999"));
+        assertEquals(DealAmounts.MISSING, amountOf(objectMapper, "null"));
+        assertEquals(DealAmounts.MISSING, objectMapper.readValue("{}", FXDealsRequestDto.class).getDealAmount());
+    }
+
+    @Test
+    public void parse_shouldRejectHugeExponents_withoutExpandingThem() {
+        // Act
+        long started = System.nanoTime();
+        long huge = DealAmounts.parse("1e99999999");
+        long hugeNegative = DealAmounts.parse("-9.5E+2147483647");
+        long tiny = DealAmounts.parse("1e-99999999");
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        // Assert
+        assertEquals(DealAmounts.UNREPRESENTABLE, huge);
+        assertEquals(DealAmounts.UNREPRESENTABLE, hugeNegative);
+        assertEquals(DealAmounts.UNREPRESENTABLE, tiny);
+        assertEquals(DealAmounts.UNREPRESENTABLE, DealAmounts.parse("1e15"));
+        assertEquals(DealAmounts.UNREPRESENTABLE, DealAmounts.parse("1.00001E-0"));
+        assertEquals(0L, DealAmounts.parse("0e99999999"));
+        assertEquals(9_223_372_036_854_775_807L, DealAmounts.parse("922337203685477.5807e0"));
+        assertEquals(1L, DealAmounts.parse("1.000E-4"));
+        assertEquals(10_000_000_000_000_000L, DealAmounts.parse("1e12"));
+        assertTrue(elapsedMillis < 1_000, "took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    public void format_shouldWriteShortestDecimal() {
+        // Act & Assert
+        assertEquals("1000.5", DealAmounts.format(10_005_000L));
+        assertEquals("1000.0", DealAmounts.format(10_000_000L));
+        assertEquals("0.0001", DealAmounts.format(1L));
+        assertEquals("-0.05", DealAmounts.format(-500L));
+        assertEquals(10_005_000L, DealAmounts.parse(DealAmounts.format(10_005_000L)));
+    }
+
+    private static long amountOf(ObjectMapper objectMapper, String amount) throws Exception {
+        return objectMapper.readValue("{\"dealAmount\":" + amount + "}", FXDealsRequestDto.class).getDealAmount();
+    }
+}
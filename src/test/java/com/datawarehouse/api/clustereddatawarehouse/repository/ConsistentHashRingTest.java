@@ -0,0 +1,71 @@
+package com.datawarehouse.api.clustereddatawarehouse.repository;
+
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.ConsistentHashRing;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConsistentHashRingTest {
+
+    private static final int KEYS = 100_000;
+
+    @Test
+    public void shardOf_shouldSpreadIdsEvenly() {
+        // Arrange
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c"), 128);
+        int[] counts = new int[3];
+
+        // Act
+        for (UUID id : ids()) {
+            counts[ring.shardOf(id)]++;
+        }
+
+        // Assert
+        for (int count : counts) {
+            assertTrue(Math.abs(count - KEYS / 3) < KEYS / 3 * 0.15, "Uneven spread: " + count);
+        }
+    }
+
+    @Test
+    public void shardOf_shouldOnlyMoveIdsToNewShard_whenShardIsAdded() {
+        // Arrange
+        ConsistentHashRing before = new ConsistentHashRing(List.of("a", "b", "c"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("a", "b", "c", "d"), 128);
+        int moved = 0;
+
+        // Act & Assert
+        for (UUID id : ids()) {
+            int owner = after.shardOf(id);
+            if (owner != before.shardOf(id)) {
+                assertEquals(3, owner);
+                moved++;
+            }
+        }
+        assertTrue(Math.abs(moved - KEYS / 4) < KEYS / 4 * 0.2, "Moved " + moved + " of " + KEYS);
+    }
+
+    @Test
+    public void shardOf_shouldSpreadTimeOrderedIds() {
+        // Arrange
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b"), 128);
+        int[] counts = new int[2];
+        long millis = 1_700_000_000_000L;
+
+        // Act: UUIDv7-like ids whose high bits are a millisecond timestamp.
+        for (int i = 0; i < KEYS; i++) {
+            counts[ring.shardOf(new UUID((millis + i) << 16 | 0x7000, 0x8000_0000_0000_0000L | i))]++;
+        }
+
+        // Assert
+        assertTrue(Math.abs(counts[0] - KEYS / 2) < KEYS / 2 * 0.15, "Uneven spread: " + counts[0]);
+    }
+
+    private static List<UUID> ids() {
+        Random random = new Random(42);
+        return random.longs(KEYS).mapToObj(msb -> new UUID(msb, random.nextLong())).toList();
+    }
+}
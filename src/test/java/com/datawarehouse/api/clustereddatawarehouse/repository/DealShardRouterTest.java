@@ -0,0 +1,91 @@
+package com.datawarehouse.api.clustereddatawarehouse.repository;
+
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.DealShard;
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.DealShardRouter;
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.ShardRebalanceInProgressException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class DealShardRouterTest {
+
+    private final List<JdbcTemplate> jdbcTemplates = new ArrayList<>();
+    private DealShardRouter router;
+
+    @AfterEach
+    public void afterEach() {
+        router.close();
+    }
+
+    @Test
+    public void requireBalanced_shouldRefuseWrites_whenAShardWasBalancedForAnotherRing() {
+        // Arrange
+        router = router("a", "b", "c");
+        recordedRing(0, "a,b@128");
+        recordedRing(1, "a,b@128");
+        recordedRing(2, null);
+
+        // Act
+        router.refreshBalance();
+
+        // Assert
+        assertFalse(router.isBalanced());
+        assertThrows(ShardRebalanceInProgressException.class, router::requireBalanced);
+    }
+
+    @Test
+    public void refreshBalance_shouldRecordTheRing_whenNoShardHasRecordedOne() {
+        // Arrange
+        router = router("a", "b");
+        recordedRing(0, null);
+        recordedRing(1, null);
+
+        // Act
+        router.refreshBalance();
+
+        // Assert
+        assertDoesNotThrow(router::requireBalanced);
+        jdbcTemplates.forEach(jdbcTemplate -> verify(jdbcTemplate).update(anyString(), eq("a,b@128")));
+    }
+
+    @Test
+    public void recordBalanced_shouldAcceptWritesAgain() {
+        // Arrange
+        router = router("a", "b");
+        recordedRing(0, "a@128");
+        recordedRing(1, "a@128");
+        router.refreshBalance();
+
+        // Act
+        router.recordBalanced();
+
+        // Assert
+        assertTrue(router.isBalanced());
+        jdbcTemplates.forEach(jdbcTemplate -> verify(jdbcTemplate).update(anyString(), eq("a,b@128")));
+    }
+
+    private DealShardRouter router(String... names) {
+        List<DealShard> shards = new ArrayList<>();
+        for (String name : names) {
+            JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+            jdbcTemplates.add(jdbcTemplate);
+            shards.add(new DealShard(name, null, jdbcTemplate, null));
+        }
+        return DealShardRouter.distributed(shards, Set.of(), 128, Duration.ofSeconds(5));
+    }
+
+    private void recordedRing(int shard, String signature) {
+        when(jdbcTemplates.get(shard).queryForList(anyString(), eq(String.class)))
+                .thenReturn(signature == null ? List.of() : List.of(signature));
+    }
+}
@@ -0,0 +1,59 @@
+package com.datawarehouse.api.clustereddatawarehouse.repository;
+
+import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import com.datawarehouse.api.clustereddatawarehouse.domain.VolumeGranularity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the configured database; each test rolls back.
+ */
+@SpringBootTest
+@Transactional
+public class FXDealVolumeRollupRepositoryTest {
+
+    // 6e14 currency units in ten-thousandths; two of them exceed Long.MAX_VALUE.
+    private static final long LARGE_AMOUNT = 6_000_000_000_000_000_000L;
+
+    @Autowired
+    private FXDealsRepository fxDealsRepository;
+
+    @Autowired
+    private FXDealVolumeRollupRepository rollupRepository;
+
+    @Test
+    public void findBuckets_shouldSumPastLongRange_withoutFailingTheInsert() {
+        // Arrange
+        LocalDateTime timestamp = LocalDateTime.of(1999, 1, 15, 10, 30);
+        List<FxDeals> deals = List.of(deal(timestamp), deal(timestamp), deal(timestamp));
+
+        // Act
+        fxDealsRepository.insertAllIgnoringDuplicates(deals);
+        List<FXDealVolumeBucket> buckets = rollupRepository.findBuckets(VolumeGranularity.DAY, "IDR", "USD",
+                timestamp.toLocalDate().atStartOfDay(), timestamp.toLocalDate().plusDays(1).atStartOfDay());
+
+        // Assert
+        assertEquals(1, buckets.size());
+        assertEquals(3, buckets.get(0).dealCount());
+        assertEquals(new BigDecimal("1800000000000000.0"), buckets.get(0).totalAmount());
+    }
+
+    private static FxDeals deal(LocalDateTime timestamp) {
+        return FxDeals.builder()
+                .id(UUID.randomUUID())
+                .orderingCurrencyIsoCode("IDR")
+                .toCurrencyIsoCode("USD")
+                .dealAmount(LARGE_AMOUNT)
+                .dealTimestamp(timestamp)
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.datawarehouse.api.clustereddatawarehouse.repository;
+
+import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the configured database; each test rolls back.
+ */
+@SpringBootTest
+@Transactional
+public class FXDealsRepositoryCustomImplTest {
+
+    // 2^53 + 1, the first long a double cannot hold exactly.
+    private static final long BEYOND_DOUBLE_PRECISION = (1L << 53) + 1;
+
+    @Autowired
+    private FXDealsRepository fxDealsRepository;
+
+    @Test
+    public void insertIfAbsent_shouldStoreAmountExactly_beyondDoublePrecision() {
+        // Arrange
+        FxDeals deal = deal(BEYOND_DOUBLE_PRECISION);
+
+        // Act
+        boolean inserted = fxDealsRepository.insertIfAbsent(deal);
+
+        // Assert
+        assertTrue(inserted);
+        assertEquals(BEYOND_DOUBLE_PRECISION, fxDealsRepository.findDealById(deal.getId()).orElseThrow().getDealAmount());
+    }
+
+    @Test
+    public void insertAllIgnoringDuplicates_shouldStoreAmountsExactly_beyondDoublePrecision() {
+        // Arrange
+        FxDeals first = deal(BEYOND_DOUBLE_PRECISION);
+        FxDeals second = deal(BEYOND_DOUBLE_PRECISION + 2);
+
+        // Act
+        Set<UUID> inserted = fxDealsRepository.insertAllIgnoringDuplicates(List.of(first, second));
+
+        // Assert
+        assertEquals(Set.of(first.getId(), second.getId()), inserted);
+        assertEquals(BEYOND_DOUBLE_PRECISION, fxDealsRepository.findDealById(first.getId()).orElseThrow().getDealAmount());
+        assertEquals(BEYOND_DOUBLE_PRECISION + 2, fxDealsRepository.findDealById(second.getId()).orElseThrow().getDealAmount());
+    }
+
+    private static FxDeals deal(long amount) {
+        return FxDeals.builder()
+                .id(UUID.randomUUID())
+                .orderingCurrencyIsoCode("USD")
+                .toCurrencyIsoCode("EUR")
+                .dealAmount(amount)
+                .dealTimestamp(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS))
+                .build();
+    }
+}
@@ -0,0 +1,109 @@
+package com.datawarehouse.api.clustereddatawarehouse.services;
+
+import com.datawarehouse.api.clustereddatawarehouse.services.ingestion.limit.AdaptiveConcurrencyLimit;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    public void tryAcquire_shouldRejectBeyondLimit_untilReleased() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, THRESHOLD, 0.5);
+
+        // Act
+        boolean first = limit.tryAcquire();
+        boolean second = limit.tryAcquire();
+        boolean third = limit.tryAcquire();
+        limit.releaseIgnored();
+        boolean afterRelease = limit.tryAcquire();
+
+        // Assert
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        assertTrue(afterRelease);
+        assertEquals(2, limit.inFlight());
+    }
+
+    @Test
+    public void release_shouldGrowLimitByAboutOnePerLimitOfFastCompletions_whenBusy() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 10, THRESHOLD, 0.5);
+
+        // Act
+        long now = 0;
+        // 1/4 + 1/4.25 + ... reaches one after five completions.
+        for (int i = 0; i < 5; i++) {
+            fill(limit);
+            limit.release(now, now + FAST, false);
+            now += FAST;
+            drain(limit);
+        }
+
+        // Assert
+        assertEquals(5, limit.limit());
+    }
+
+    @Test
+    public void release_shouldNotGrowLimit_whenMostlyIdle() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 10, THRESHOLD, 0.5);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.release(i * FAST, (i + 1) * FAST, false);
+        }
+
+        // Assert
+        assertEquals(4, limit.limit());
+    }
+
+    @Test
+    public void release_shouldShrinkOncePerSlowPeriod_andNotBelowMinimum() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 3, 10, THRESHOLD, 0.5);
+        fill(limit);
+
+        // Act
+        for (int i = 0; i < 8; i++) {
+            // All eight started together and were caught in the same slow period.
+            limit.release(0, SLOW + i, false);
+        }
+        int afterFirstPeriod = limit.limit();
+        limit.tryAcquire();
+        limit.release(SLOW + 10, 2 * SLOW + 10, false);
+        limit.tryAcquire();
+        limit.release(2 * SLOW + 20, 3 * SLOW + 20, true);
+
+        // Assert
+        assertEquals(4, afterFirstPeriod);
+        assertEquals(3, limit.limit());
+    }
+
+    @Test
+    public void constructor_shouldRejectInconsistentLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(20, 1, 10, THRESHOLD, 0.9));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(5, 1, 10, THRESHOLD, 1.0));
+    }
+
+    private static void fill(AdaptiveConcurrencyLimit limit) {
+        while (limit.tryAcquire()) {
+            // Take every slot, so that completions count as busy.
+        }
+    }
+
+    private static void drain(AdaptiveConcurrencyLimit limit) {
+        while (limit.inFlight() > 0) {
+            limit.releaseIgnored();
+        }
+    }
+}
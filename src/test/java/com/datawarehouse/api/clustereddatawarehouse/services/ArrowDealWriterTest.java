@@ -0,0 +1,124 @@
+package com.datawarehouse.api.clustereddatawarehouse.services;
+
+import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import com.datawarehouse.api.clustereddatawarehouse.services.export.ArrowDealWriter;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.FixedSizeBinaryVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryEncoder;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArrowDealWriterTest {
+
+    @Test
+    public void write_shouldProduceStreamReadableByArrow() throws IOException {
+        // Arrange
+        List<FxDeals> deals = List.of(
+                deal("USD", "EUR", 10_005_000L, "2024-01-15T10:30:00.123456", LocalDateTime.parse("2024-01-15T10:30:01")),
+                deal("USD", "JPY", 1L, "2024-01-15T10:31:00", null),
+                // Only appears in the second batch, so it arrives as a delta dictionary.
+                deal("GBP", "EUR", -25_000L, "2024-01-15T10:32:00", LocalDateTime.parse("2024-01-15T10:32:01")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        ArrowDealWriter writer = new ArrowDealWriter(out, 2);
+        for (FxDeals deal : deals) {
+            writer.write(deal);
+        }
+        writer.finish();
+
+        // Assert
+        assertEquals(3, writer.written());
+        List<List<Object>> rows = read(out.toByteArray());
+        assertEquals(3, rows.size());
+        for (int i = 0; i < deals.size(); i++) {
+            FxDeals deal = deals.get(i);
+            assertEquals(List.of(deal.getId(), deal.getOrderingCurrencyIsoCode(), deal.getToCurrencyIsoCode(),
+                    BigDecimal.valueOf(deal.getDealAmount(), 4), deal.getDealTimestamp(),
+                    String.valueOf(deal.getCreatedAt())), rows.get(i));
+        }
+    }
+
+    @Test
+    public void finish_shouldWriteSchemaOnly_whenThereAreNoDeals() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        new ArrowDealWriter(out, 16).finish();
+
+        // Assert
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            List<String> names = reader.getVectorSchemaRoot().getSchema().getFields().stream()
+                    .map(Field::getName)
+                    .toList();
+            assertEquals(List.of("id", "ordering_currency_iso_code", "to_currency_iso_code", "deal_amount",
+                    "deal_timestamp", "created_at"), names);
+            assertFalse(reader.loadNextBatch());
+        }
+    }
+
+    private static List<List<Object>> read(byte[] stream) throws IOException {
+        List<List<Object>> rows = new ArrayList<>();
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(stream), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            while (reader.loadNextBatch()) {
+                FixedSizeBinaryVector ids = (FixedSizeBinaryVector) root.getVector("id");
+                DecimalVector amounts = (DecimalVector) root.getVector("deal_amount");
+                TimeStampMicroVector timestamps = (TimeStampMicroVector) root.getVector("deal_timestamp");
+                TimeStampMicroVector createdAts = (TimeStampMicroVector) root.getVector("created_at");
+                try (VarCharVector ordering = decode(reader, root.getVector("ordering_currency_iso_code"));
+                     VarCharVector to = decode(reader, root.getVector("to_currency_iso_code"))) {
+                    for (int i = 0; i < root.getRowCount(); i++) {
+                        ByteBuffer id = ByteBuffer.wrap(ids.get(i));
+                        rows.add(List.of(new UUID(id.getLong(), id.getLong()),
+                                ordering.getObject(i).toString(),
+                                to.getObject(i).toString(),
+                                amounts.getObject(i),
+                                timestamps.getObject(i),
+                                String.valueOf(createdAts.getObject(i))));
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static VarCharVector decode(ArrowStreamReader reader, FieldVector indices) throws IOException {
+        Dictionary dictionary = reader.getDictionaryVectors().get(indices.getField().getDictionary().getId());
+        return (VarCharVector) DictionaryEncoder.decode(indices, dictionary);
+    }
+
+    private static FxDeals deal(String ordering, String to, long amount, String timestamp, LocalDateTime createdAt) {
+        return FxDeals.builder()
+                .id(UUID.randomUUID())
+                .orderingCurrencyIsoCode(ordering)
+                .toCurrencyIsoCode(to)
+                .dealAmount(amount)
+                .dealTimestamp(LocalDateTime.parse(timestamp))
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.datawarehouse.api.clustereddatawarehouse.services;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.services.ingestion.limit.ClientQuotas;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClientQuotasTest {
+
+    private FXDealsProperties.Admission settings;
+    private AtomicLong clock;
+
+    @BeforeEach
+    public void beforeEach() {
+        settings = new FXDealsProperties.Admission();
+        settings.setRequestsPerSecond(10);
+        settings.setBurst(2);
+        clock = new AtomicLong();
+    }
+
+    @Test
+    public void tryAcquire_shouldAllowBurst_thenReportWaitUntilNextToken() {
+        // Arrange
+        ClientQuotas quotas = new ClientQuotas(settings, clock::get);
+
+        // Act
+        long first = quotas.tryAcquire("key-a");
+        long second = quotas.tryAcquire("key-a");
+        long third = quotas.tryAcquire("key-a");
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        long afterRefill = quotas.tryAcquire("key-a");
+
+        // Assert
+        assertEquals(0, first);
+        assertEquals(0, second);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), third);
+        assertEquals(0, afterRefill);
+    }
+
+    @Test
+    public void tryAcquire_shouldKeepSeparateBucketsForConfiguredKeys() {
+        // Arrange
+        settings.setClients(Map.of("key-a", 10.0, "key-b", 10.0));
+        ClientQuotas quotas = new ClientQuotas(settings, clock::get);
+        quotas.tryAcquire("key-a");
+        quotas.tryAcquire("key-a");
+
+        // Act
+        long otherKey = quotas.tryAcquire("key-b");
+        long anonymous = quotas.tryAcquire("");
+
+        // Assert
+        assertTrue(quotas.tryAcquire("key-a") > 0);
+        assertEquals(0, otherKey);
+        assertEquals(0, anonymous);
+    }
+
+    @Test
+    public void tryAcquire_shouldShareOneBucketBetweenUnknownKeys() {
+        // Arrange
+        settings.setClients(Map.of("key-a", 10.0));
+        ClientQuotas quotas = new ClientQuotas(settings, clock::get);
+
+        // Act
+        long first = quotas.tryAcquire("unknown-1");
+        long second = quotas.tryAcquire("unknown-2");
+        long third = quotas.tryAcquire("");
+        long configured = quotas.tryAcquire("key-a");
+
+        // Assert
+        assertEquals(0, first);
+        assertEquals(0, second);
+        assertTrue(third > 0);
+        assertEquals(0, configured);
+    }
+
+    @Test
+    public void tryAcquire_shouldApplyPerKeyRates_whereZeroMeansUnlimited() {
+        // Arrange
+        settings.setRequestsPerSecond(0);
+        settings.setClients(Map.of("limited", 1.0));
+        ClientQuotas quotas = new ClientQuotas(settings, clock::get);
+
+        // Act
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(0, quotas.tryAcquire("anyone"));
+        }
+        quotas.tryAcquire("limited");
+        quotas.tryAcquire("limited");
+        long limited = quotas.tryAcquire("limited");
+
+        // Assert
+        assertEquals(TimeUnit.SECONDS.toNanos(1), limited);
+    }
+}
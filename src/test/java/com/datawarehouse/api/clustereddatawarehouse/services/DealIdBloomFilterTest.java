@@ -0,0 +1,70 @@
+package com.datawarehouse.api.clustereddatawarehouse.services;
+
+import com.datawarehouse.api.clustereddatawarehouse.services.dedup.DealIdBloomFilter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DealIdBloomFilterTest {
+
+    @Test
+    public void mightContain_shouldNeverReturnFalseForAddedIds() {
+        // Arrange
+        DealIdBloomFilter filter = new DealIdBloomFilter(10_000, 0.01);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            filter.put(id);
+        }
+
+        // Act & Assert
+        ids.forEach(id -> assertTrue(filter.mightContain(id)));
+    }
+
+    @Test
+    public void mightContain_shouldStayCloseToConfiguredFalsePositiveRate() {
+        // Arrange
+        DealIdBloomFilter filter = new DealIdBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(UUID.randomUUID());
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+
+        // Assert
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+        assertEquals(10_000, filter.approximateElementCount(), 300);
+        assertTrue(filter.currentFalsePositiveRate() < 0.02);
+    }
+
+    @Test
+    public void mightContain_shouldSpreadSequentialTimeBasedIds() {
+        // Arrange
+        DealIdBloomFilter filter = new DealIdBloomFilter(10_000, 0.01);
+        for (long i = 0; i < 10_000; i++) {
+            filter.put(new UUID(0x11EE000000001000L | (i << 32), 0x8000000000000000L));
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (long i = 10_000; i < 20_000; i++) {
+            if (filter.mightContain(new UUID(0x11EE000000001000L | (i << 32), 0x8000000000000000L))) {
+                falsePositives++;
+            }
+        }
+
+        // Assert
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,317 @@
+package com.datawarehouse.api.clustereddatawarehouse.services;
+
+import com.datawarehouse.api.clustereddatawarehouse.services.ingestion.wal.DealLogEntry;
+import com.datawarehouse.api.clustereddatawarehouse.services.ingestion.wal.DealLogRecord;
+import com.datawarehouse.api.clustereddatawarehouse.services.ingestion.wal.DealWriteAheadLog;
+import com.datawarehouse.api.clustereddatawarehouse.services.ingestion.wal.GroupCommitter;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DealWriteAheadLogTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void open_shouldReturnEveryAppendedRecord_afterRestart() throws IOException {
+        // Arrange
+        try (DealWriteAheadLog wal = DealWriteAheadLog.open(directory, SEGMENT_SIZE)) {
+            wal.append(List.of(payload("a"), payload("b")));
+            wal.append(List.of(payload("c")));
+        }
+
+        // Act
+        try (DealWriteAheadLog reopened = DealWriteAheadLog.open(directory, SEGMENT_SIZE)) {
+            List<DealLogEntry> entries = reopened.read(reopened.checkpoint(), 10);
+
+            // Assert
+            assertEquals(List.of("a", "b", "c"), texts(entries));
+            assertEquals(reopened.endOffset(), entries.get(2).nextOffset());
+        }
+    }
+
+    @Test
+    public void open_shouldDiscardTornRecordAtTheTail() throws IOException {
+        // Arrange
+        long tornOffset;
+        try (DealWriteAheadLog wal = DealWriteAheadLog.open(directory, SEGMENT_SIZE)) {
+            tornOffset = wal.append(List.of(payload("a"), payload("b")));
+            wal.append(List.of(payload("torn")));
+        }
+        // A crash while the last record was being written: its payload never reached the disk.
+        overwrite(segmentFile(0), (int) tornOffset + 8, new byte[4]);
+
+        // Act
+        try (DealWriteAheadLog reopened = DealWriteAheadLog.open(directory, SEGMENT_SIZE)) {
+            long endAfterRecovery = reopened.endOffset();
+            reopened.append(List.of(payload("c")));
+
+            // Assert
+            assertEquals(tornOffset, endAfterRecovery);
+            assertEquals(List.of("a", "b", "c"), texts(reopened.read(0, 10)));
+        }
+    }
+
+    @Test
+    public void open_shouldNotResurrectBytesWrittenPastTheTornRecord() throws IOException {
+        // Arrange
+        long end;
+        try (DealWriteAheadLog wal = DealWriteAheadLog.open(directory, SEGMENT_SIZE)) {
+            end = wal.append(List.of(payload("a")));
+        }
+        // A later page reached the disk before the page holding the header of the record in front of it.
+        byte[] stray = recordBytes(payload("stray"));
+        overwrite(segmentFile(0), (int) end + 64, stray);
+
+        // Act
+        try (DealWriteAheadLog reopened = DealWriteAheadLog.open(directory, SEGMENT_SIZE)) {
+            reopened.append(List.of(new byte[56]));
+        }
+        try (DealWriteAheadLog reopened = DealWriteAheadLog.open(directory, SEGMENT_SIZE)) {
+            List<DealLogEntry> entries = reopened.read(0, 10);
+
+            // Assert
+            assertEquals(2, entries.size());
+            assertEquals("a", text(entries.get(0)));
+        }
+    }
+
+    @Test
+    public void open_shouldResumeFromTheCheckpoint() throws IOException {
+        // Arrange
+        try (DealWriteAheadLog wal = DealWriteAheadLog.open(directory, SEGMENT_SIZE)) {
+            wal.append(List.of(payload("a"), payload("b"), payload("c")));
+            List<DealLogEntry> applied = wal.read(0, 2);
+            wal.checkpoint(applied.get(1).nextOffset());
+        }
+
+        // Act
+        try (DealWriteAheadLog reopened = DealWriteAheadLog.open(directory, SEGMENT_SIZE)) {
+            // Assert
+            assertEquals(List.of("c"), texts(reopened.read(reopened.checkpoint(), 10)));
+        }
+    }
+
+    @Test
+    public void open_shouldKeepTheSizeOfExistingSegments_whenTheConfiguredSizeChanges() throws IOException {
+        // Arrange
+        try (DealWriteAheadLog wal = DealWriteAheadLog.open(directory, SEGMENT_SIZE)) {
+            wal.append(List.of(payload("a"), payload("b")));
+        }
+
+        // Act
+        try (DealWriteAheadLog reopened = DealWriteAheadLog.open(directory, 64)) {
+            reopened.append(List.of(payload("c")));
+
+            // Assert
+            assertEquals(List.of("a", "b", "c"), texts(reopened.read(0, 10)));
+            assertEquals(SEGMENT_SIZE, Files.size(segmentFile(0)));
+        }
+    }
+
+    @Test
+    public void open_shouldFail_whenASegmentHeaderDisagreesWithTheFile() throws IOException {
+        // Arrange
+        try (DealWriteAheadLog wal = DealWriteAheadLog.open(directory, SEGMENT_SIZE)) {
+            wal.append(List.of(payload("a")));
+        }
+        overwrite(segmentFile(0), 4, ByteBuffer.allocate(Integer.BYTES).putInt(SEGMENT_SIZE * 2).array());
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> DealWriteAheadLog.open(directory, SEGMENT_SIZE));
+    }
+
+    @Test
+    public void skipCorrupt_shouldResumeAtTheNextIntactRecord() throws IOException {
+        // Arrange
+        try (DealWriteAheadLog wal = DealWriteAheadLog.open(directory, SEGMENT_SIZE)) {
+            wal.append(List.of(payload("a"), payload("b"), payload("c")));
+            List<DealLogEntry> entries = wal.read(0, 10);
+            overwrite(segmentFile(0), (int) entries.get(1).offset() + 8, payload("x"));
+
+            // Act
+            List<DealLogEntry> beforeCorruption = wal.read(0, 10);
+            long resumeAt = wal.skipCorrupt(entries.get(1).offset());
+
+            // Assert
+            assertEquals(List.of("a"), texts(beforeCorruption));
+            assertThrows(IllegalStateException.class, () -> wal.read(entries.get(1).offset(), 10));
+            assertEquals(entries.get(2).offset(), resumeAt);
+            assertEquals(List.of("c"), texts(wal.read(resumeAt, 10)));
+        }
+    }
+
+    @Test
+    public void append_shouldRotateSegments_andCheckpointShouldDeleteAppliedOnes() throws IOException {
+        // Arrange
+        List<String> written = new ArrayList<>();
+        try (DealWriteAheadLog wal = DealWriteAheadLog.open(directory, 256)) {
+            for (int i = 0; i < 40; i++) {
+                written.add("deal-" + i);
+                wal.append(List.of(payload("deal-" + i)));
+            }
+            int segmentsBeforeCheckpoint = wal.segmentCount();
+
+            // Act
+            List<DealLogEntry> entries = wal.read(0, 100);
+            wal.checkpoint(entries.get(entries.size() - 1).nextOffset());
+
+            // Assert
+            assertTrue(segmentsBeforeCheckpoint > 1);
+            assertEquals(written, texts(entries));
+            assertEquals(1, wal.segmentCount());
+            assertEquals(1, countSegmentFiles());
+            assertTrue(wal.read(wal.checkpoint(), 10).isEmpty());
+        }
+    }
+
+    @Test
+    public void groupCommitter_shouldMakeConcurrentRecordsDurable() throws Exception {
+        // Arrange
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<Long>> durable = new ArrayList<>();
+        try (DealWriteAheadLog wal = DealWriteAheadLog.open(directory, 64 * 1024)) {
+            try (GroupCommitter committer = new GroupCommitter(wal, 1_000, 16, Duration.ofMillis(1))) {
+
+                // Act
+                List<Future<CompletableFuture<Long>>> submitted = new ArrayList<>();
+                for (int i = 0; i < 200; i++) {
+                    String text = "deal-" + i;
+                    submitted.add(clients.submit(() -> committer.submit(payload(text), Duration.ofSeconds(1))));
+                }
+                for (var future : submitted) {
+                    durable.add(future.get(5, TimeUnit.SECONDS));
+                }
+                CompletableFuture.allOf(durable.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+            }
+
+            // Assert
+            assertEquals(200, wal.read(0, 1_000).size());
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    @Test
+    public void groupCommitter_shouldCommitEveryAcceptedRecord_whenClosedWhileSubmitting() throws Exception {
+        // Arrange
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        List<Future<List<CompletableFuture<Long>>>> submitted = new ArrayList<>();
+        try (DealWriteAheadLog wal = DealWriteAheadLog.open(directory, 64 * 1024)) {
+            GroupCommitter committer = new GroupCommitter(wal, 1_000, 16, Duration.ZERO);
+            for (int i = 0; i < 4; i++) {
+                submitted.add(clients.submit(() -> {
+                    List<CompletableFuture<Long>> accepted = new ArrayList<>();
+                    CompletableFuture<Long> durable;
+                    while ((durable = committer.submit(payload("deal"), Duration.ZERO)) != null) {
+                        accepted.add(durable);
+                    }
+                    return accepted;
+                }));
+            }
+
+            // Act
+            Thread.sleep(50);
+            committer.close();
+
+            // Assert
+            int accepted = 0;
+            for (var future : submitted) {
+                for (CompletableFuture<Long> durable : future.get(5, TimeUnit.SECONDS)) {
+                    assertTrue(durable.isDone());
+                    assertFalse(durable.isCompletedExceptionally());
+                    accepted++;
+                }
+            }
+            assertEquals(accepted, wal.read(0, Integer.MAX_VALUE).size());
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    @Test
+    public void dealLogRecord_shouldRoundTrip() {
+        // Arrange
+        UUID trackingId = UUID.randomUUID();
+        FXDealsRequestDto deal = FXDealsRequestDto.builder()
+                .dealUniqueId(UUID.randomUUID())
+                .orderingCurrencyIsoCode("USD")
+                .toCurrencyIsoCode("EUR")
+                .dealAmount(10_005_000L)
+                .dealTimestamp("2024-01-15T10:30:00")
+                .build();
+
+        // Act
+        DealLogRecord decoded = DealLogRecord.decode(new DealLogRecord(trackingId, deal).encode());
+
+        // Assert
+        assertEquals(trackingId, decoded.trackingId());
+        assertEquals(deal.getDealUniqueId(), decoded.deal().getDealUniqueId());
+        assertEquals("USD", decoded.deal().getOrderingCurrencyIsoCode());
+        assertEquals("EUR", decoded.deal().getToCurrencyIsoCode());
+        assertEquals(10_005_000L, decoded.deal().getDealAmount());
+        assertEquals("2024-01-15T10:30:00", decoded.deal().getDealTimestamp());
+    }
+
+    private Path segmentFile(long baseOffset) {
+        return directory.resolve(String.format("%020d.log", baseOffset));
+    }
+
+    private long countSegmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".log")).count();
+        }
+    }
+
+    private static void overwrite(Path file, int position, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), position);
+        }
+    }
+
+    private static byte[] recordBytes(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return ByteBuffer.allocate(8 + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .array();
+    }
+
+    private static byte[] payload(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(DealLogEntry entry) {
+        return new String(entry.payload(), StandardCharsets.UTF_8);
+    }
+
+    private static List<String> texts(List<DealLogEntry> entries) {
+        return entries.stream().map(DealWriteAheadLogTest::text).toList();
+    }
+}
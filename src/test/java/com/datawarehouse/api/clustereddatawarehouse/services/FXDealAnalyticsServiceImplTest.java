@@ -0,0 +1,93 @@
+package com.datawarehouse.api.clustereddatawarehouse.services;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.domain.VolumeGranularity;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealVolumeBucket;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealVolumeRollupRepository;
+import com.datawarehouse.api.clustereddatawarehouse.services.implementation.FXDealAnalyticsServiceImpl;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealVolumeDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealVolumeRebuildDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BadRequestException;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.FXDealsMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class FXDealAnalyticsServiceImplTest {
+
+    private FXDealVolumeRollupRepository rollupRepository;
+    private FXDealsProperties properties;
+    private FXDealAnalyticsServiceImpl analyticsService;
+
+    @BeforeEach
+    public void beforeEach() {
+        rollupRepository = mock(FXDealVolumeRollupRepository.class);
+        properties = new FXDealsProperties();
+        analyticsService = new FXDealAnalyticsServiceImpl(rollupRepository, Mappers.getMapper(FXDealsMapper.class),
+                properties);
+    }
+
+    @Test
+    public void findVolumes_shouldReadRollupsFromStartOfFirstBucket() {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2024, 1, 15, 10, 30);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 15, 12, 0);
+        LocalDateTime bucketStart = LocalDateTime.of(2024, 1, 15, 10, 0);
+        when(rollupRepository.findBuckets(VolumeGranularity.HOUR, "USD", null, bucketStart, to))
+                .thenReturn(List.of(new FXDealVolumeBucket(bucketStart, "USD", "EUR", 3, new BigDecimal("1500.5"))));
+
+        // Act
+        List<FXDealVolumeDto> volumes = analyticsService.findVolumes(VolumeGranularity.HOUR, "USD", null, from, to);
+
+        // Assert
+        assertEquals(1, volumes.size());
+        assertEquals(bucketStart, volumes.get(0).getBucketStart());
+        assertEquals("EUR", volumes.get(0).getToCurrencyIsoCode());
+        assertEquals(3, volumes.get(0).getDealCount());
+        assertEquals(new BigDecimal("1500.5"), volumes.get(0).getTotalAmount());
+    }
+
+    @Test
+    public void findVolumes_shouldRejectRange_whenItSpansTooManyBuckets() {
+        // Arrange
+        properties.getAnalytics().setMaxBuckets(60);
+        LocalDateTime from = LocalDateTime.of(2024, 1, 15, 10, 0);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> analyticsService.findVolumes(VolumeGranularity.MINUTE, null, null, from, from.plusHours(1)));
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> analyticsService.findVolumes(VolumeGranularity.MINUTE, null, null, from, from.plusMinutes(60).plusSeconds(1)));
+        assertEquals("Range spans more than 60 MINUTE buckets", exception.getMessage());
+    }
+
+    @Test
+    public void rebuildVolumes_shouldWidenRangeToWholeDays() {
+        // Arrange
+        when(rollupRepository.rebuild(any(), any())).thenReturn(42);
+
+        // Act
+        FXDealVolumeRebuildDto report = analyticsService.rebuildVolumes(
+                LocalDateTime.of(2024, 1, 15, 10, 30), LocalDateTime.of(2024, 1, 17, 0, 0));
+
+        // Assert
+        verify(rollupRepository).rebuild(LocalDateTime.of(2024, 1, 15, 0, 0), LocalDateTime.of(2024, 1, 17, 0, 0));
+        assertEquals(LocalDateTime.of(2024, 1, 15, 0, 0), report.getFrom());
+        assertEquals(42, report.getRollupRows());
+    }
+
+    @Test
+    public void rebuildVolumes_shouldRejectSingleBound() {
+        // Act & Assert
+        assertThrows(BadRequestException.class,
+                () -> analyticsService.rebuildVolumes(LocalDateTime.of(2024, 1, 15, 0, 0), null));
+        verifyNoInteractions(rollupRepository);
+    }
+}
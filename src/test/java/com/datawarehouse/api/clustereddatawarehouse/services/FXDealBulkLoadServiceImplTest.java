@@ -0,0 +1,149 @@
+package com.datawarehouse.api.clustereddatawarehouse.services;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.FXDealMetrics;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.IngestionOutcome;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsRepository;
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.DealShard;
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.DealShardRouter;
+import com.datawarehouse.api.clustereddatawarehouse.services.dedup.DealIdFilter;
+import com.datawarehouse.api.clustereddatawarehouse.services.implementation.FXDealBulkLoadServiceImpl;
+import com.datawarehouse.api.clustereddatawarehouse.services.importing.FXDealImportFormat;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealImportStatus;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsImportReportDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.FXDealsMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class FXDealBulkLoadServiceImplTest {
+
+    private static final String HEADER = "dealUniqueId,orderingCurrencyIsoCode,toCurrencyIsoCode,dealAmount,dealTimestamp\n";
+
+    private Statement statement;
+    private CopyIn copyIn;
+    private PlatformTransactionManager transactionManager;
+    private FXDealMetrics metrics;
+    private FXDealBulkLoadServiceImpl bulkLoadService;
+    private final ByteArrayOutputStream copied = new ByteArrayOutputStream();
+
+    @BeforeEach
+    public void beforeEach() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PGConnection pgConnection = mock(PGConnection.class);
+        CopyManager copyManager = mock(CopyManager.class);
+        statement = mock(Statement.class);
+        copyIn = mock(CopyIn.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        when(copyManager.copyIn(anyString())).thenReturn(copyIn);
+        doAnswer(invocation -> {
+            copied.write(invocation.<byte[]>getArgument(0), invocation.getArgument(1), invocation.getArgument(2));
+            return null;
+        }).when(copyIn).writeToCopy(any(byte[].class), anyInt(), anyInt());
+
+        FXDealsProperties properties = new FXDealsProperties();
+        properties.getImporting().setCopyBufferSize(64);
+        properties.getDedupFilter().setExpectedInsertions(1_000);
+        metrics = new FXDealMetrics(new SimpleMeterRegistry());
+        DealIdFilter dealIdFilter = new DealIdFilter(mock(FXDealsRepository.class), transactionManager, properties);
+        DealShardRouter router = DealShardRouter.single(
+                new DealShard("primary", dataSource, null, new TransactionTemplate(transactionManager)));
+        bulkLoadService = new FXDealBulkLoadServiceImpl(router, Mappers.getMapper(FXDealsMapper.class), Validation.buildDefaultValidatorFactory().getValidator(),
+                new ObjectMapper(), properties, dealIdFilter, metrics);
+    }
+
+    @Test
+    public void bulkLoad_shouldCopyValidRowsAndCountDuplicatesFromMerge() throws Exception {
+        // Arrange
+        UUID repeatedId = UUID.randomUUID();
+        UUID otherId = UUID.randomUUID();
+        String csv = HEADER
+                + repeatedId + ",USD,EUR,1000.5,2024-01-15T10:30:00\n"
+                + otherId + ",GBP,JPY,20,2024-01-15T10:31:00\n"
+                + UUID.randomUUID() + ",usd,EUR,10,2024-01-15T10:32:00\n"
+                + repeatedId + ",USD,EUR,1000.5,2024-01-15T10:30:00\n";
+        when(copyIn.endCopy()).thenReturn(3L);
+        ResultSet merged = mock(ResultSet.class);
+        when(merged.next()).thenReturn(true);
+        when(merged.getLong(1)).thenReturn(2L);
+        when(statement.executeQuery(anyString())).thenReturn(merged);
+
+        // Act
+        FXDealsImportReportDto report = bulkLoadService.bulkLoad(stream(csv), FXDealImportFormat.CSV);
+
+        // Assert
+        assertEquals(FXDealImportStatus.COMPLETED, report.getStatus());
+        assertEquals(4, report.getRowsRead());
+        assertEquals(2, report.getCreated());
+        assertEquals(1, report.getDuplicates());
+        assertEquals(1, report.getInvalid());
+        assertEquals(3, report.getErrors().get(0).getIndex());
+        assertEquals("Currency ISO Code must be 3 uppercase letters",
+                report.getErrors().get(0).getErrors().get("orderingCurrencyIsoCode"));
+
+        String[] rows = copied.toString(StandardCharsets.US_ASCII).split("\n");
+        assertEquals(3, rows.length);
+        assertEquals(repeatedId + ",USD,EUR,10005000,2024-01-15T10:30", rows[0]);
+        assertEquals(otherId + ",GBP,JPY,200000,2024-01-15T10:31", rows[1]);
+
+        verify(statement, times(1)).execute(startsWith("CREATE TEMPORARY TABLE fx_deals_staging"));
+        verify(statement, times(1)).executeQuery(contains("ON CONFLICT (id) DO NOTHING"));
+        verify(statement, times(1)).executeQuery(contains("INSERT INTO fx_deal_volume_rollups"));
+        verify(transactionManager, times(1)).commit(any());
+        assertEquals(2.0, metrics.outcomeCount(IngestionOutcome.CREATED));
+        assertEquals(1.0, metrics.outcomeCount(IngestionOutcome.DUPLICATE));
+    }
+
+    @Test
+    public void bulkLoad_shouldRollBackAndReportAbort_whenCopyFails() throws Exception {
+        // Arrange
+        String ndjson = "{\"dealUniqueId\":\"" + UUID.randomUUID() + "\",\"orderingCurrencyIsoCode\":\"USD\","
+                + "\"toCurrencyIsoCode\":\"EUR\",\"dealAmount\":10,\"dealTimestamp\":\"2024-01-15T10:30:00\"}\n";
+        when(copyIn.isActive()).thenReturn(true);
+        when(copyIn.endCopy()).thenThrow(new SQLException("connection reset"));
+
+        // Act
+        FXDealsImportReportDto report = bulkLoadService.bulkLoad(stream(ndjson), FXDealImportFormat.NDJSON);
+
+        // Assert
+        assertEquals(FXDealImportStatus.ABORTED, report.getStatus());
+        assertEquals(1, report.getRowsRead());
+        assertEquals(0, report.getRowsCommitted());
+        assertEquals("connection reset", report.getFailureMessage());
+        verify(copyIn, times(1)).cancelCopy();
+        verify(statement, never()).executeUpdate(anyString());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,122 @@
+package com.datawarehouse.api.clustereddatawarehouse.services;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import com.datawarehouse.api.clustereddatawarehouse.services.query.FXDealCache;
+import com.datawarehouse.api.clustereddatawarehouse.services.stream.FXDealsInsertedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FXDealCacheTest {
+
+    private FXDealsProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    public void beforeEach() {
+        properties = new FXDealsProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void find_shouldLoadEachDealOnce_andRecordHitsAndMisses() {
+        // Arrange
+        FXDealCache cache = new FXDealCache(properties, meterRegistry);
+        FxDeals deal = deal();
+
+        // Act
+        Optional<FxDeals> first = cache.find(deal.getId(), loader(Optional.of(deal)));
+        Optional<FxDeals> second = cache.find(deal.getId(), loader(Optional.of(deal)));
+
+        // Assert
+        assertSame(deal, first.orElseThrow());
+        assertSame(deal, second.orElseThrow());
+        assertEquals(1, loads.get());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", FXDealCache.NAME).tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", FXDealCache.NAME).tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    public void find_shouldForgetMissingIds_afterNegativeTtl() throws InterruptedException {
+        // Arrange
+        properties.getCache().setNegativeTtl(Duration.ofMillis(20));
+        FXDealCache cache = new FXDealCache(properties, meterRegistry);
+        UUID id = UUID.randomUUID();
+
+        // Act
+        cache.find(id, loader(Optional.empty()));
+        cache.find(id, loader(Optional.empty()));
+        int loadsWhileCached = loads.get();
+        Thread.sleep(100);
+        cache.find(id, loader(Optional.empty()));
+
+        // Assert
+        assertEquals(1, loadsWhileCached);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void onDealsInserted_shouldReplaceCachedMiss() {
+        // Arrange
+        FXDealCache cache = new FXDealCache(properties, meterRegistry);
+        FxDeals deal = deal();
+        cache.find(deal.getId(), loader(Optional.empty()));
+
+        // Act
+        cache.onDealsInserted(new FXDealsInsertedEvent(List.of(deal)));
+
+        // Assert
+        assertSame(deal, cache.find(deal.getId(), loader(Optional.empty())).orElseThrow());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void find_shouldAlwaysLoad_whenDisabled() {
+        // Arrange
+        properties.getCache().setEnabled(false);
+        FXDealCache cache = new FXDealCache(properties, meterRegistry);
+        FxDeals deal = deal();
+
+        // Act
+        cache.onDealsInserted(new FXDealsInsertedEvent(List.of(deal)));
+        cache.find(deal.getId(), loader(Optional.of(deal)));
+        cache.find(deal.getId(), loader(Optional.of(deal)));
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertNull(meterRegistry.find("cache.gets").meter());
+    }
+
+    private Function<UUID, Optional<FxDeals>> loader(Optional<FxDeals> result) {
+        return id -> {
+            loads.incrementAndGet();
+            return result;
+        };
+    }
+
+    private static FxDeals deal() {
+        return FxDeals.builder()
+                .id(UUID.randomUUID())
+                .orderingCurrencyIsoCode("USD")
+                .toCurrencyIsoCode("EUR")
+                .dealAmount(10_005_000L)
+                .dealTimestamp(LocalDateTime.parse("2024-01-15T10:30:00"))
+                .createdAt(LocalDateTime.parse("2024-01-15T10:30:01"))
+                .build();
+    }
+}
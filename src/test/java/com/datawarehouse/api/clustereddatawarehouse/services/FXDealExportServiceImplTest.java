@@ -0,0 +1,93 @@
+package com.datawarehouse.api.clustereddatawarehouse.services;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsRepository;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsSearchCriteria;
+import com.datawarehouse.api.clustereddatawarehouse.services.implementation.FXDealExportServiceImpl;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BadRequestException;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class FXDealExportServiceImplTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+    private FXDealsRepository fxDealsRepository;
+    private FXDealsProperties properties;
+    private FXDealExportServiceImpl fxDealExportService;
+
+    @BeforeEach
+    public void beforeEach() {
+        fxDealsRepository = mock(FXDealsRepository.class);
+        properties = new FXDealsProperties();
+        fxDealExportService = new FXDealExportServiceImpl(fxDealsRepository, properties);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void exportDeals_shouldWriteEveryDealInBatchesOfConfiguredSize() throws Exception {
+        // Arrange
+        properties.getExport().setBatchSize(2);
+        properties.getExport().setFetchSize(500);
+        doAnswer(invocation -> {
+            Consumer<FxDeals> consumer = invocation.getArgument(2);
+            for (int i = 0; i < 5; i++) {
+                consumer.accept(FxDeals.builder()
+                        .id(UUID.randomUUID())
+                        .orderingCurrencyIsoCode("USD")
+                        .toCurrencyIsoCode("EUR")
+                        .dealAmount(1_000_000L + i)
+                        .dealTimestamp(FROM.plusMinutes(i))
+                        .build());
+            }
+            return null;
+        }).when(fxDealsRepository).forEachDealInRange(any(), eq(500), any(Consumer.class));
+        FXDealsSearchCriteria criteria = fxDealExportService.prepareExport("USD", "EUR", FROM, TO);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        long written = fxDealExportService.exportDeals(criteria, outputStream);
+
+        // Assert
+        assertEquals(5, written);
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(
+                     new ByteArrayInputStream(outputStream.toByteArray()), allocator)) {
+            int batches = 0;
+            int rows = 0;
+            while (reader.loadNextBatch()) {
+                batches++;
+                rows += reader.getVectorSchemaRoot().getRowCount();
+            }
+            assertEquals(3, batches);
+            assertEquals(5, rows);
+        }
+        verify(fxDealsRepository).forEachDealInRange(eq(criteria), eq(500), any());
+    }
+
+    @Test
+    public void prepareExport_shouldRejectInvalidParameters() {
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> fxDealExportService.prepareExport(null, null, null, TO));
+        assertThrows(BadRequestException.class, () -> fxDealExportService.prepareExport(null, null, FROM, null));
+        assertThrows(BadRequestException.class, () -> fxDealExportService.prepareExport(null, null, TO, FROM));
+        assertThrows(BadRequestException.class, () -> fxDealExportService.prepareExport("usd", null, FROM, TO));
+        assertEquals("EUR", fxDealExportService.prepareExport(null, "EUR", FROM, TO).toCurrencyIsoCode());
+    }
+}
@@ -0,0 +1,204 @@
+package com.datawarehouse.api.clustereddatawarehouse.services;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.services.implementation.FXDealImportServiceImpl;
+import com.datawarehouse.api.clustereddatawarehouse.services.importing.FXDealImportFormat;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class FXDealImportServiceImplTest {
+
+    private FXDealsService fxDealsService;
+    private FXDealsProperties properties;
+    private FXDealImportServiceImpl fxDealImportService;
+
+    @BeforeEach
+    public void beforeEach() {
+        fxDealsService = mock(FXDealsService.class);
+        properties = new FXDealsProperties();
+        properties.getImporting().setChunkSize(2);
+        fxDealImportService = new FXDealImportServiceImpl(fxDealsService, properties, new ObjectMapper());
+        when(fxDealsService.createDeals(anyList())).thenAnswer(invocation -> createdOrInvalid(invocation.getArgument(0)));
+    }
+
+    @Test
+    public void importDeals_shouldFlushNdjsonInFixedSizeChunks() {
+        // Arrange
+        String ndjson = ndjsonLine(UUID.randomUUID()) + "\n"
+                + ndjsonLine(UUID.randomUUID()) + "\n"
+                + "\n"
+                + ndjsonLine(UUID.randomUUID()) + "\n";
+
+        // Act
+        FXDealsImportReportDto report = fxDealImportService.importDeals(stream(ndjson), FXDealImportFormat.NDJSON);
+
+        // Assert
+        assertEquals(FXDealImportStatus.COMPLETED, report.getStatus());
+        assertEquals(3, report.getRowsRead());
+        assertEquals(3, report.getRowsCommitted());
+        assertEquals(3, report.getCreated());
+        verify(fxDealsService, times(2)).createDeals(anyList());
+    }
+
+    @Test
+    public void importDeals_shouldReportUnparseableCsvRowsWithTheirRowNumber() {
+        // Arrange
+        String csv = "dealUniqueId,orderingCurrencyIsoCode,toCurrencyIsoCode,dealAmount,dealTimestamp\n"
+                + UUID.randomUUID() + ",USD,EUR,1000.50,2024-01-15T10:30:00\n"
+                + "not-a-uuid,USD,EUR,1000.50,2024-01-15T10:30:00\n"
+                + UUID.randomUUID() + ",USD,EUR\n";
+
+        // Act
+        FXDealsImportReportDto report = fxDealImportService.importDeals(stream(csv), FXDealImportFormat.CSV);
+
+        // Assert
+        assertEquals(FXDealImportStatus.COMPLETED, report.getStatus());
+        assertEquals(3, report.getRowsRead());
+        assertEquals(1, report.getCreated());
+        assertEquals(2, report.getInvalid());
+        assertEquals(2, report.getErrors().get(0).getIndex());
+        assertEquals("Deal Unique Id must be a valid UUID", report.getErrors().get(0).getErrors().get("dealUniqueId"));
+        assertEquals(3, report.getErrors().get(1).getIndex());
+        assertNotNull(report.getErrors().get(1).getErrors().get("row"));
+    }
+
+    @Test
+    public void importDeals_shouldParseQuotedCsvFields() {
+        // Arrange
+        String csv = "\"" + UUID.randomUUID() + "\", \"USD\" ,EUR,\"1000.50\",2024-01-15T10:30:00\n"
+                + UUID.randomUUID() + ",USD,EUR,\"1,000.50\",2024-01-15T10:30:00\n"
+                + UUID.randomUUID() + ",\"USD,EUR,1000.50,2024-01-15T10:30:00\n"
+                + UUID.randomUUID() + ",US\"D,EUR,1000.50,2024-01-15T10:30:00\n";
+
+        // Act
+        FXDealsImportReportDto report = fxDealImportService.importDeals(stream(csv), FXDealImportFormat.CSV);
+
+        // Assert
+        assertEquals(4, report.getRowsRead());
+        assertEquals(1, report.getCreated());
+        assertEquals(3, report.getInvalid());
+        assertEquals("Deal Amount must be a number", report.getErrors().get(0).getErrors().get("dealAmount"));
+        assertEquals("Column 2 has an unterminated quote", report.getErrors().get(1).getErrors().get("row"));
+        assertEquals("Column 2 has a quote inside an unquoted field", report.getErrors().get(2).getErrors().get("row"));
+    }
+
+    @Test
+    public void importDeals_shouldReportProgress_whenImportStopsPartway() {
+        // Arrange
+        when(fxDealsService.createDeals(anyList()))
+                .thenAnswer(invocation -> createdOrInvalid(invocation.getArgument(0)))
+                .thenThrow(new IllegalStateException("database unavailable"));
+        String ndjson = ndjsonLine(UUID.randomUUID()) + "\n"
+                + ndjsonLine(UUID.randomUUID()) + "\n"
+                + ndjsonLine(UUID.randomUUID()) + "\n"
+                + ndjsonLine(UUID.randomUUID()) + "\n";
+
+        // Act
+        FXDealsImportReportDto report = fxDealImportService.importDeals(stream(ndjson), FXDealImportFormat.NDJSON);
+
+        // Assert
+        assertEquals(FXDealImportStatus.ABORTED, report.getStatus());
+        assertEquals(4, report.getRowsRead());
+        assertEquals(2, report.getRowsCommitted());
+        assertEquals("database unavailable", report.getFailureMessage());
+    }
+
+    @Test
+    public void importDeals_shouldReportRejected_whenTheBodyCannotBeReadToTheEnd() {
+        // Arrange
+        String ndjson = ndjsonLine(UUID.randomUUID()) + "\n" + ndjsonLine(UUID.randomUUID()) + "\n";
+        InputStream truncated = new SequenceInputStream(stream(ndjson), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new EOFException("Unexpected EOF read on the socket");
+            }
+        });
+
+        // Act
+        FXDealsImportReportDto report = fxDealImportService.importDeals(truncated, FXDealImportFormat.NDJSON);
+
+        // Assert
+        assertEquals(FXDealImportStatus.REJECTED, report.getStatus());
+        assertEquals(2, report.getRowsCommitted());
+        assertEquals("Unexpected EOF read on the socket", report.getFailureMessage());
+    }
+
+    @Test
+    public void importDeals_shouldCapReportedErrors() {
+        // Arrange
+        properties.getImporting().setMaxReportedErrors(1);
+        String ndjson = "{broken\n{broken\n";
+
+        // Act
+        FXDealsImportReportDto report = fxDealImportService.importDeals(stream(ndjson), FXDealImportFormat.NDJSON);
+
+        // Assert
+        assertEquals(2, report.getInvalid());
+        assertEquals(1, report.getErrors().size());
+        assertTrue(report.isErrorsTruncated());
+    }
+
+    @Test
+    public void importDeals_shouldRejectOverlongLinesAsUnparseableRows() {
+        // Arrange
+        String csv = "dealUniqueId,orderingCurrencyIsoCode,toCurrencyIsoCode,dealAmount,dealTimestamp\r\n"
+                + UUID.randomUUID() + ",USD,EUR,1000.50,2024-01-15T10:30:00\r\n"
+                + "x".repeat(200_000) + "\r\n"
+                + UUID.randomUUID() + ",USD,EUR,1000.50,2024-01-15T10:30:00\r\n";
+
+        // Act
+        FXDealsImportReportDto report = fxDealImportService.importDeals(stream(csv), FXDealImportFormat.CSV);
+
+        // Assert
+        assertEquals(FXDealImportStatus.COMPLETED, report.getStatus());
+        assertEquals(3, report.getRowsRead());
+        assertEquals(2, report.getCreated());
+        assertEquals(1, report.getInvalid());
+        assertEquals(2, report.getErrors().get(0).getIndex());
+        assertEquals("Line is longer than 4096 characters", report.getErrors().get(0).getErrors().get("row"));
+    }
+
+    private static FXDealsBatchResponseDto createdOrInvalid(List<FXDealsRequestDto> deals) {
+        List<FXDealBatchItemResultDto> results = new ArrayList<>();
+        int created = 0;
+        for (int i = 0; i < deals.size(); i++) {
+            FXDealsRequestDto deal = deals.get(i);
+            FXDealBatchItemStatus status = deal != null ? FXDealBatchItemStatus.CREATED : FXDealBatchItemStatus.INVALID;
+            if (deal != null) {
+                created++;
+            }
+            results.add(FXDealBatchItemResultDto.builder().index(i).status(status).build());
+        }
+        return FXDealsBatchResponseDto.builder()
+                .total(deals.size())
+                .created(created)
+                .invalid(deals.size() - created)
+                .results(results)
+                .build();
+    }
+
+    private static String ndjsonLine(UUID dealId) {
+        return "{\"dealUniqueId\":\"" + dealId + "\",\"orderingCurrencyIsoCode\":\"USD\",\"toCurrencyIsoCode\":\"EUR\","
+                + "\"dealAmount\":1000.50,\"dealTimestamp\":\"2024-01-15T10:30:00\"}";
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
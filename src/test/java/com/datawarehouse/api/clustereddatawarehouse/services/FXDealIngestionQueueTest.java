@@ -0,0 +1,353 @@
+package com.datawarehouse.api.clustereddatawarehouse.services;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.services.ingestion.FXDealIngestionQueue;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.*;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.IngestionQueueFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.util.unit.DataSize;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class FXDealIngestionQueueTest {
+
+    private FXDealsService fxDealsService;
+    private FXDealsProperties properties;
+    private FXDealIngestionQueue ingestionQueue;
+    private SimpleMeterRegistry meterRegistry;
+
+    @TempDir
+    Path walDirectory;
+
+    @BeforeEach
+    public void beforeEach() {
+        fxDealsService = mock(FXDealsService.class);
+        properties = new FXDealsProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        properties.getIngestion().setMode(FXDealsProperties.IngestionMode.ASYNC);
+        properties.getIngestion().setWriterThreads(1);
+        when(fxDealsService.createDeals(anyList())).thenAnswer(invocation -> allCreated(invocation.getArgument(0)));
+    }
+
+    @AfterEach
+    public void afterEach() {
+        if (ingestionQueue != null) {
+            ingestionQueue.stop();
+        }
+    }
+
+    @Test
+    public void submit_shouldReturnQueuedStatusAndPersistInBackground() throws Exception {
+        // Arrange
+        ingestionQueue = new FXDealIngestionQueue(fxDealsService, properties, new StandardEnvironment(), meterRegistry);
+        ingestionQueue.start();
+        UUID dealId = UUID.randomUUID();
+
+        // Act
+        FXDealIngestionStatusDto accepted = ingestionQueue.submit(validRequest(dealId));
+
+        // Assert
+        assertEquals(FXDealIngestionState.QUEUED, accepted.getStatus());
+        assertEquals(dealId, accepted.getDealUniqueId());
+        assertEquals(FXDealIngestionState.CREATED, awaitFinalStatus(accepted.getTrackingId()));
+    }
+
+    @Test
+    public void submit_shouldReject_whenQueueIsFull() throws Exception {
+        // Arrange
+        properties.getIngestion().setQueueCapacity(1);
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(fxDealsService.createDeals(anyList())).thenAnswer(invocation -> {
+            writerBlocked.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return allCreated(invocation.getArgument(0));
+        });
+        ingestionQueue = new FXDealIngestionQueue(fxDealsService, properties, new StandardEnvironment(), meterRegistry);
+        ingestionQueue.start();
+
+        // Act
+        ingestionQueue.submit(validRequest(UUID.randomUUID()));
+        assertTrue(writerBlocked.await(5, TimeUnit.SECONDS));
+        ingestionQueue.submit(validRequest(UUID.randomUUID()));
+
+        // Assert
+        assertThrows(IngestionQueueFullException.class, () -> ingestionQueue.submit(validRequest(UUID.randomUUID())));
+        release.countDown();
+    }
+
+    @Test
+    public void stop_shouldDrainQueuedDeals() {
+        // Arrange
+        properties.getIngestion().setMicroBatchSize(2);
+        when(fxDealsService.createDeals(anyList())).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            return allCreated(invocation.getArgument(0));
+        });
+        ingestionQueue = new FXDealIngestionQueue(fxDealsService, properties, new StandardEnvironment(), meterRegistry);
+        ingestionQueue.start();
+        List<UUID> trackingIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            trackingIds.add(ingestionQueue.submit(validRequest(UUID.randomUUID())).getTrackingId());
+        }
+
+        // Act
+        ingestionQueue.stop();
+
+        // Assert
+        assertEquals(0, ingestionQueue.queuedCount());
+        trackingIds.forEach(id -> assertEquals(FXDealIngestionState.CREATED, ingestionQueue.findStatus(id).orElseThrow().getStatus()));
+        assertThrows(IngestionQueueFullException.class, () -> ingestionQueue.submit(validRequest(UUID.randomUUID())));
+    }
+
+    @Test
+    public void write_shouldRetryTransientFailures_untilTheBatchIsPersisted() throws Exception {
+        // Arrange
+        properties.getIngestion().setWriteRetryBackoff(Duration.ofMillis(10));
+        when(fxDealsService.createDeals(anyList()))
+                .thenThrow(new QueryTimeoutException("canceling statement due to statement timeout"))
+                .thenThrow(new QueryTimeoutException("canceling statement due to statement timeout"))
+                .thenAnswer(invocation -> allCreated(invocation.getArgument(0)));
+        ingestionQueue = new FXDealIngestionQueue(fxDealsService, properties, new StandardEnvironment(), meterRegistry);
+        ingestionQueue.start();
+
+        // Act
+        FXDealIngestionStatusDto accepted = ingestionQueue.submit(validRequest(UUID.randomUUID()));
+
+        // Assert
+        assertEquals(FXDealIngestionState.CREATED, awaitFinalStatus(accepted.getTrackingId()));
+        verify(fxDealsService, times(3)).createDeals(anyList());
+        assertEquals(0, meterRegistry.counter(FXDealIngestionQueue.DROPPED_COUNTER).count());
+    }
+
+    @Test
+    public void write_shouldFailAndCountDeals_whenRetriesAreExhausted() throws Exception {
+        // Arrange
+        properties.getIngestion().setWriteRetries(2);
+        properties.getIngestion().setWriteRetryBackoff(Duration.ofMillis(10));
+        when(fxDealsService.createDeals(anyList()))
+                .thenThrow(new QueryTimeoutException("canceling statement due to statement timeout"));
+        ingestionQueue = new FXDealIngestionQueue(fxDealsService, properties, new StandardEnvironment(), meterRegistry);
+        ingestionQueue.start();
+
+        // Act
+        FXDealIngestionStatusDto accepted = ingestionQueue.submit(validRequest(UUID.randomUUID()));
+
+        // Assert
+        assertEquals(FXDealIngestionState.FAILED, awaitFinalStatus(accepted.getTrackingId()));
+        verify(fxDealsService, times(3)).createDeals(anyList());
+        assertEquals(1, meterRegistry.counter(FXDealIngestionQueue.DROPPED_COUNTER).count());
+    }
+
+    @Test
+    public void write_shouldNotRetry_whenFailureIsNotTransient() throws Exception {
+        // Arrange
+        when(fxDealsService.createDeals(anyList()))
+                .thenThrow(new DataIntegrityViolationException("value too long for type character varying(3)"));
+        ingestionQueue = new FXDealIngestionQueue(fxDealsService, properties, new StandardEnvironment(), meterRegistry);
+        ingestionQueue.start();
+
+        // Act
+        FXDealIngestionStatusDto accepted = ingestionQueue.submit(validRequest(UUID.randomUUID()));
+
+        // Assert
+        assertEquals(FXDealIngestionState.FAILED, awaitFinalStatus(accepted.getTrackingId()));
+        verify(fxDealsService, times(1)).createDeals(anyList());
+        assertEquals(1, meterRegistry.counter(FXDealIngestionQueue.DROPPED_COUNTER).count());
+    }
+
+    @Test
+    public void submit_shouldAcknowledgeAndReplay_whenDurable() throws Exception {
+        // Arrange
+        useWriteAheadLog();
+        ingestionQueue = new FXDealIngestionQueue(fxDealsService, properties, new StandardEnvironment(), meterRegistry);
+        ingestionQueue.start();
+
+        // Act
+        FXDealIngestionStatusDto accepted = ingestionQueue.submit(validRequest(UUID.randomUUID()));
+
+        // Assert
+        assertEquals(FXDealIngestionState.QUEUED, accepted.getStatus());
+        assertEquals(FXDealIngestionState.CREATED, awaitFinalStatus(accepted.getTrackingId()));
+    }
+
+    @Test
+    public void replay_shouldRetryUntilTheDatabaseIsBack_whenDurable() throws Exception {
+        // Arrange
+        useWriteAheadLog();
+        when(fxDealsService.createDeals(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+                .thenAnswer(invocation -> allCreated(invocation.getArgument(0)));
+        ingestionQueue = new FXDealIngestionQueue(fxDealsService, properties, new StandardEnvironment(), meterRegistry);
+        ingestionQueue.start();
+
+        // Act
+        FXDealIngestionStatusDto accepted = ingestionQueue.submit(validRequest(UUID.randomUUID()));
+
+        // Assert
+        assertEquals(FXDealIngestionState.CREATED, awaitFinalStatus(accepted.getTrackingId()));
+        verify(fxDealsService, times(3)).createDeals(anyList());
+    }
+
+    @Test
+    public void start_shouldReplayDealsAcceptedBeforeACrash_whenDurable() throws Exception {
+        // Arrange
+        useWriteAheadLog();
+        when(fxDealsService.createDeals(anyList())).thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        FXDealIngestionQueue beforeCrash = new FXDealIngestionQueue(fxDealsService, properties, new StandardEnvironment(),
+                meterRegistry);
+        beforeCrash.start();
+        List<UUID> dealIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        dealIds.forEach(id -> beforeCrash.submit(validRequest(id)));
+        properties.getIngestion().setShutdownTimeout(Duration.ofMillis(50));
+        beforeCrash.stop();
+        List<UUID> replayed = new ArrayList<>();
+        CountDownLatch allReplayed = new CountDownLatch(dealIds.size());
+        reset(fxDealsService);
+        when(fxDealsService.createDeals(anyList())).thenAnswer(invocation -> {
+            List<FXDealsRequestDto> deals = invocation.getArgument(0);
+            deals.forEach(deal -> {
+                replayed.add(deal.getDealUniqueId());
+                allReplayed.countDown();
+            });
+            return allCreated(deals);
+        });
+
+        // Act
+        ingestionQueue = new FXDealIngestionQueue(fxDealsService, properties, new StandardEnvironment(), meterRegistry);
+        ingestionQueue.start();
+
+        // Assert
+        assertTrue(allReplayed.await(5, TimeUnit.SECONDS));
+        assertEquals(dealIds, replayed);
+    }
+
+    @Test
+    public void replay_shouldDropTheBatchAndMoveOn_whenFailureIsNotTransient() throws Exception {
+        // Arrange
+        useWriteAheadLog();
+        when(fxDealsService.createDeals(anyList()))
+                .thenThrow(new DataIntegrityViolationException("value too long for type character varying(3)"))
+                .thenAnswer(invocation -> allCreated(invocation.getArgument(0)));
+        ingestionQueue = new FXDealIngestionQueue(fxDealsService, properties, new StandardEnvironment(), meterRegistry);
+        ingestionQueue.start();
+
+        // Act
+        FXDealIngestionStatusDto rejected = ingestionQueue.submit(validRequest(UUID.randomUUID()));
+        FXDealIngestionState rejectedState = awaitFinalStatus(rejected.getTrackingId());
+        FXDealIngestionStatusDto next = ingestionQueue.submit(validRequest(UUID.randomUUID()));
+
+        // Assert
+        assertEquals(FXDealIngestionState.FAILED, rejectedState);
+        assertEquals(FXDealIngestionState.CREATED, awaitFinalStatus(next.getTrackingId()));
+        assertEquals(1, meterRegistry.counter(FXDealIngestionQueue.DROPPED_COUNTER).count());
+    }
+
+    @Test
+    public void start_shouldSkipACorruptRecordAndReplayTheRest_whenDurable() throws Exception {
+        // Arrange
+        useWriteAheadLog();
+        // Two records per segment, so the corrupt one is not in the last segment, which recovery would truncate.
+        properties.getIngestion().getWal().setSegmentSize(DataSize.ofBytes(200));
+        properties.getIngestion().setMicroBatchSize(1);
+        when(fxDealsService.createDeals(anyList())).thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        FXDealIngestionQueue beforeCrash = new FXDealIngestionQueue(fxDealsService, properties, new StandardEnvironment(),
+                meterRegistry);
+        beforeCrash.start();
+        List<UUID> dealIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        dealIds.forEach(id -> beforeCrash.submit(validRequest(id)));
+        properties.getIngestion().setShutdownTimeout(Duration.ofMillis(50));
+        beforeCrash.stop();
+        corruptSecondRecord(walDirectory.resolve(String.format("%020d.log", 0)));
+        List<UUID> replayed = new ArrayList<>();
+        CountDownLatch intactReplayed = new CountDownLatch(2);
+        reset(fxDealsService);
+        when(fxDealsService.createDeals(anyList())).thenAnswer(invocation -> {
+            List<FXDealsRequestDto> deals = invocation.getArgument(0);
+            deals.forEach(deal -> {
+                replayed.add(deal.getDealUniqueId());
+                intactReplayed.countDown();
+            });
+            return allCreated(deals);
+        });
+
+        // Act
+        ingestionQueue = new FXDealIngestionQueue(fxDealsService, properties, new StandardEnvironment(), meterRegistry);
+        ingestionQueue.start();
+
+        // Assert
+        assertTrue(intactReplayed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(dealIds.get(0), dealIds.get(2)), replayed);
+        assertEquals(1, meterRegistry.counter(FXDealIngestionQueue.CORRUPT_COUNTER).count());
+    }
+
+    private void useWriteAheadLog() {
+        properties.getIngestion().setMode(FXDealsProperties.IngestionMode.DURABLE);
+        properties.getIngestion().getWal().setDirectory(walDirectory);
+        properties.getIngestion().getWal().setReplayRetryBackoff(Duration.ofMillis(10));
+    }
+
+    private static void corruptSecondRecord(Path segment) throws Exception {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // An 8-byte segment header, then the first record's 8-byte header and payload.
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(length, 8);
+            int secondRecord = 16 + length.flip().getInt();
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF, (byte) 0xFF}), secondRecord + 20);
+        }
+    }
+
+    private FXDealIngestionState awaitFinalStatus(UUID trackingId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        FXDealIngestionState state = FXDealIngestionState.QUEUED;
+        while (state == FXDealIngestionState.QUEUED && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            state = ingestionQueue.findStatus(trackingId).orElseThrow().getStatus();
+        }
+        return state;
+    }
+
+    private static FXDealsBatchResponseDto allCreated(List<FXDealsRequestDto> deals) {
+        List<FXDealBatchItemResultDto> results = new ArrayList<>();
+        for (int i = 0; i < deals.size(); i++) {
+            results.add(FXDealBatchItemResultDto.builder()
+                    .index(i)
+                    .dealUniqueId(deals.get(i).getDealUniqueId())
+                    .status(FXDealBatchItemStatus.CREATED)
+                    .build());
+        }
+        return FXDealsBatchResponseDto.builder().total(deals.size()).created(deals.size()).results(results).build();
+    }
+
+    private static FXDealsRequestDto validRequest(UUID dealId) {
+        return FXDealsRequestDto.builder()
+                .dealUniqueId(dealId)
+                .orderingCurrencyIsoCode("USD")
+                .toCurrencyIsoCode("EUR")
+                .dealAmount(10_005_000L)
+                .dealTimestamp("2024-01-15T10:30:00")
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.datawarehouse.api.clustereddatawarehouse.services;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.DealShard;
+import com.datawarehouse.api.clustereddatawarehouse.repository.sharding.DealShardRouter;
+import com.datawarehouse.api.clustereddatawarehouse.services.partitioning.FXDealPartitionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.Period;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class FXDealPartitionManagerTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private FXDealsProperties properties;
+    private FXDealPartitionManager partitionManager;
+
+    @BeforeEach
+    public void beforeEach() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        properties = new FXDealsProperties();
+        partitionManager = new FXDealPartitionManager(
+                DealShardRouter.single(new DealShard("primary", null, jdbcTemplate, null)), properties);
+    }
+
+    @Test
+    public void maintain_shouldCreateUpcomingMonthlyPartitions_skippingExistingRanges() throws Exception {
+        // Arrange
+        properties.getPartitioning().setPremake(2);
+        givenPartitions(
+                "fx_deals_default", "DEFAULT",
+                "fx_deals_p202610", monthly("2026-10-01", "2026-11-01"));
+
+        // Act
+        partitionManager.maintain(LocalDate.of(2026, 10, 18));
+
+        // Assert
+        verify(jdbcTemplate).execute("CREATE TABLE \"fx_deals_p202611\" PARTITION OF fx_deals "
+                + "FOR VALUES FROM ('2026-11-01 00:00:00') TO ('2026-12-01 00:00:00')");
+        verify(jdbcTemplate).execute("CREATE TABLE \"fx_deals_p202612\" PARTITION OF fx_deals "
+                + "FOR VALUES FROM ('2026-12-01 00:00:00') TO ('2027-01-01 00:00:00')");
+        verify(jdbcTemplate, never()).execute(contains("fx_deals_p202610"));
+        verify(jdbcTemplate, never()).execute(startsWith("ALTER TABLE"));
+    }
+
+    @Test
+    public void maintain_shouldSkipDailyRangesCoveredByMonthlyPartition() throws Exception {
+        // Arrange
+        properties.getPartitioning().setGranularity(FXDealsProperties.PartitionGranularity.DAILY);
+        properties.getPartitioning().setPremake(1);
+        givenPartitions("fx_deals_p202610", monthly("2026-10-01", "2026-11-01"));
+
+        // Act
+        partitionManager.maintain(LocalDate.of(2026, 10, 31));
+
+        // Assert
+        verify(jdbcTemplate, times(1)).execute(startsWith("CREATE TABLE"));
+        verify(jdbcTemplate).execute("CREATE TABLE \"fx_deals_p20261101\" PARTITION OF fx_deals "
+                + "FOR VALUES FROM ('2026-11-01 00:00:00') TO ('2026-11-02 00:00:00')");
+    }
+
+    @Test
+    public void maintain_shouldArchivePartitionsOlderThanRetention() throws Exception {
+        // Arrange
+        properties.getPartitioning().setPremake(0);
+        properties.getPartitioning().setRetention(Period.ofMonths(3));
+        givenPartitions(
+                "fx_deals_p202605", monthly("2026-05-01", "2026-06-01"),
+                "fx_deals_p202606", monthly("2026-06-01", "2026-07-01"),
+                "fx_deals_p202607", monthly("2026-07-01", "2026-08-01"),
+                "fx_deals_p202610", monthly("2026-10-01", "2026-11-01"));
+
+        // Act
+        partitionManager.maintain(LocalDate.of(2026, 10, 18));
+
+        // Assert
+        verify(jdbcTemplate).execute("ALTER TABLE fx_deals DETACH PARTITION \"fx_deals_p202605\"");
+        verify(jdbcTemplate).execute("ALTER TABLE \"fx_deals_p202605\" SET SCHEMA \"fx_deals_archive\"");
+        verify(jdbcTemplate).execute("ALTER TABLE fx_deals DETACH PARTITION \"fx_deals_p202606\"");
+        verify(jdbcTemplate).execute("ALTER TABLE \"fx_deals_p202606\" SET SCHEMA \"fx_deals_archive\"");
+        verify(jdbcTemplate, never()).execute(contains("fx_deals_p202607"));
+        verify(jdbcTemplate, never()).execute(startsWith("DROP"));
+    }
+
+    private static String monthly(String from, String to) {
+        return "FOR VALUES FROM ('" + from + " 00:00:00') TO ('" + to + " 00:00:00')";
+    }
+
+    private void givenPartitions(String... nameAndBound) throws Exception {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (int i = 0; i < nameAndBound.length; i += 2) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(1)).thenReturn(nameAndBound[i]);
+                when(rs.getString(2)).thenReturn(nameAndBound[i + 1]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+    }
+}
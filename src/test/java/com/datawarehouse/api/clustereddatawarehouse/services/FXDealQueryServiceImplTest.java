@@ -0,0 +1,167 @@
+package com.datawarehouse.api.clustereddatawarehouse.services;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsRepository;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsSearchCriteria;
+import com.datawarehouse.api.clustereddatawarehouse.services.implementation.FXDealQueryServiceImpl;
+import com.datawarehouse.api.clustereddatawarehouse.services.query.DealPageCursor;
+import com.datawarehouse.api.clustereddatawarehouse.services.query.FXDealCache;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsResponseDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BadRequestException;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.FXDealsMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+public class FXDealQueryServiceImplTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private FXDealsRepository fxDealsRepository;
+    private FXDealQueryServiceImpl fxDealQueryService;
+
+    @BeforeEach
+    public void beforeEach() {
+        fxDealsRepository = mock(FXDealsRepository.class);
+        FXDealsProperties properties = new FXDealsProperties();
+        fxDealQueryService = new FXDealQueryServiceImpl(fxDealsRepository, Mappers.getMapper(FXDealsMapper.class),
+                properties, objectMapper, new FXDealCache(properties, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    public void writeDeals_shouldStreamPageAndReturnCursorOfLastDeal_whenMoreDealsFollow() throws Exception {
+        // Arrange
+        List<FxDeals> deals = deals(3);
+        givenRepositoryReturns(deals);
+        FXDealsSearchCriteria criteria = fxDealQueryService.prepareSearch("USD", "EUR", null, null, 2, null);
+
+        // Act
+        JsonNode page = write(criteria);
+
+        // Assert
+        assertEquals(2, page.get("deals").size());
+        assertEquals(deals.get(0).getId().toString(), page.get("deals").get(0).get("id").asText());
+        assertEquals("2024-01-15T10:31:00", page.get("deals").get(1).get("dealTimestamp").asText());
+        DealPageCursor next = DealPageCursor.decode(page.get("nextCursor").asText());
+        assertEquals(deals.get(1).getDealTimestamp(), next.dealTimestamp());
+        assertEquals(deals.get(1).getId(), next.id());
+        verify(fxDealsRepository, times(1)).forEachDeal(argThat(c -> c.limit() == 3
+                && "USD".equals(c.orderingCurrencyIsoCode()) && "EUR".equals(c.toCurrencyIsoCode())), any());
+    }
+
+    @Test
+    public void writeDeals_shouldReturnNullCursor_onLastPage() throws Exception {
+        // Arrange
+        givenRepositoryReturns(deals(2));
+        FXDealsSearchCriteria criteria = fxDealQueryService.prepareSearch(null, null, null, null, 2, null);
+
+        // Act
+        JsonNode page = write(criteria);
+
+        // Assert
+        assertEquals(2, page.get("deals").size());
+        assertTrue(page.get("nextCursor").isNull());
+    }
+
+    @Test
+    public void findDeal_shouldReadEachIdFromDatabaseOnce() {
+        // Arrange
+        FxDeals deal = deals(1).get(0);
+        UUID unknown = UUID.randomUUID();
+        when(fxDealsRepository.findDealById(deal.getId())).thenReturn(Optional.of(deal));
+        when(fxDealsRepository.findDealById(unknown)).thenReturn(Optional.empty());
+
+        // Act
+        fxDealQueryService.findDeal(deal.getId());
+        fxDealQueryService.findDeal(unknown);
+        Optional<FXDealsResponseDto> found = fxDealQueryService.findDeal(deal.getId());
+        Optional<FXDealsResponseDto> missing = fxDealQueryService.findDeal(unknown);
+
+        // Assert
+        assertEquals(deal.getId(), found.orElseThrow().getId());
+        assertTrue(missing.isEmpty());
+        verify(fxDealsRepository, times(1)).findDealById(deal.getId());
+        verify(fxDealsRepository, times(1)).findDealById(unknown);
+    }
+
+    @Test
+    public void prepareSearch_shouldSeekPastCursorKey() {
+        // Arrange
+        UUID lastId = UUID.randomUUID();
+        LocalDateTime lastTimestamp = LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123_000_000);
+        String cursor = new DealPageCursor(lastTimestamp, lastId).encode();
+
+        // Act
+        FXDealsSearchCriteria criteria = fxDealQueryService.prepareSearch(null, null,
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0), null, cursor);
+
+        // Assert
+        assertEquals(lastTimestamp, criteria.afterTimestamp());
+        assertEquals(lastId, criteria.afterId());
+        assertEquals(100, criteria.limit());
+    }
+
+    @Test
+    public void prepareSearch_shouldRejectInvalidParameters() {
+        // Act & Assert
+        assertThrows(BadRequestException.class,
+                () -> fxDealQueryService.prepareSearch("usd", null, null, null, null, null));
+        assertThrows(BadRequestException.class,
+                () -> fxDealQueryService.prepareSearch(null, null, null, null, 1_001, null));
+        assertThrows(BadRequestException.class,
+                () -> fxDealQueryService.prepareSearch(null, null, null, null, null, "not-a-cursor"));
+        assertThrows(BadRequestException.class, () -> fxDealQueryService.prepareSearch(null, null,
+                LocalDateTime.of(2024, 2, 1, 0, 0), LocalDateTime.of(2024, 1, 1, 0, 0), null, null));
+    }
+
+    private JsonNode write(FXDealsSearchCriteria criteria) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        fxDealQueryService.writeDeals(criteria, outputStream);
+        return objectMapper.readTree(outputStream.toByteArray());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenRepositoryReturns(List<FxDeals> deals) {
+        doAnswer(invocation -> {
+            FXDealsSearchCriteria criteria = invocation.getArgument(0);
+            Consumer<FxDeals> consumer = invocation.getArgument(1);
+            deals.stream().limit(criteria.limit()).forEach(consumer);
+            return null;
+        }).when(fxDealsRepository).forEachDeal(any(), any(Consumer.class));
+    }
+
+    private static List<FxDeals> deals(int count) {
+        List<FxDeals> deals = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            deals.add(FxDeals.builder()
+                    .id(UUID.randomUUID())
+                    .orderingCurrencyIsoCode("USD")
+                    .toCurrencyIsoCode("EUR")
+                    .dealAmount(1_000_000L + i)
+                    .dealTimestamp(LocalDateTime.of(2024, 1, 15, 10, 30 + i))
+                    .createdAt(LocalDateTime.of(2024, 1, 15, 11, 0))
+                    .build());
+        }
+        return deals;
+    }
+}
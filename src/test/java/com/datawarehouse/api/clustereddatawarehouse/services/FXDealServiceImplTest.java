@@ -1,32 +1,61 @@
 package com.datawarehouse.api.clustereddatawarehouse.services;
 
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
 import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.DealLogSampler;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.FXDealMetrics;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.IngestionOutcome;
 import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsRepository;
+import com.datawarehouse.api.clustereddatawarehouse.services.dedup.DealIdFilter;
 import com.datawarehouse.api.clustereddatawarehouse.services.implementation.FXDealServiceImpl;
-import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsRequestDto;
-import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsResponseDto;
+import com.datawarehouse.api.clustereddatawarehouse.services.stream.FXDealsInsertedEvent;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.*;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BatchSizeExceededException;
 import com.datawarehouse.api.clustereddatawarehouse.web.exception.RequestAlreadyExistException;
 import com.datawarehouse.api.clustereddatawarehouse.web.mapper.FXDealsMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 public class FXDealServiceImplTest {
 
     private FXDealsRepository fxDealsRepository;
     private FXDealsMapper fxDealsMapper;
+    private FXDealsProperties properties;
+    private DealIdFilter dealIdFilter;
+    private FXDealMetrics metrics;
+    private ApplicationEventPublisher eventPublisher;
     private FXDealServiceImpl fxDealService;
 
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @BeforeEach
     public void beforeEach() {
         fxDealsRepository = mock(FXDealsRepository.class);
         fxDealsMapper = mock(FXDealsMapper.class);
-        fxDealService = new FXDealServiceImpl(fxDealsRepository, fxDealsMapper);
+        properties = new FXDealsProperties();
+        properties.getDedupFilter().setEnabled(true);
+        properties.getDedupFilter().setExpectedInsertions(1_000);
+        dealIdFilter = new DealIdFilter(fxDealsRepository, mock(PlatformTransactionManager.class), properties);
+        metrics = new FXDealMetrics(new SimpleMeterRegistry());
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        fxDealService = new FXDealServiceImpl(fxDealsRepository, fxDealsMapper, validator, properties, dealIdFilter, metrics, new DealLogSampler(properties), eventPublisher);
     }
 
     @Test
@@ -37,7 +66,7 @@ public class FXDealServiceImplTest {
                 .dealUniqueId(dealId)
                 .orderingCurrencyIsoCode("USD")
                 .toCurrencyIsoCode("EUR")
-                .dealAmount(1000.50)
+                .dealAmount(10_005_000L)
                 .dealTimestamp("2024-01-15T10:30:00")
                 .build();
 
@@ -45,32 +74,22 @@ public class FXDealServiceImplTest {
                 .id(dealId)
                 .orderingCurrencyIsoCode("USD")
                 .toCurrencyIsoCode("EUR")
-                .dealAmount(1000.50)
-                .dealTimestamp(LocalDateTime.parse("2024-01-15T10:30:00"))
-                .build();
-
-        FxDeals savedDeal = FxDeals.builder()
-                .id(dealId)
-                .orderingCurrencyIsoCode("USD")
-                .toCurrencyIsoCode("EUR")
-                .dealAmount(1000.50)
+                .dealAmount(10_005_000L)
                 .dealTimestamp(LocalDateTime.parse("2024-01-15T10:30:00"))
-                .createdAt(LocalDateTime.now())
                 .build();
 
         FXDealsResponseDto responseDto = FXDealsResponseDto.builder()
                 .id(dealId)
                 .orderingCurrencyIsoCode("USD")
                 .toCurrencyIsoCode("EUR")
-                .dealAmount(1000.50)
+                .dealAmount(10_005_000L)
                 .dealTimestamp(LocalDateTime.parse("2024-01-15T10:30:00"))
-                .createdAt(savedDeal.getCreatedAt())
+                .createdAt(LocalDateTime.now())
                 .build();
 
-        when(fxDealsRepository.existsById(dealId)).thenReturn(false);
         when(fxDealsMapper.toEntity(requestDto)).thenReturn(dealEntity);
-        when(fxDealsRepository.save(dealEntity)).thenReturn(savedDeal);
-        when(fxDealsMapper.toDto(savedDeal)).thenReturn(responseDto);
+        when(fxDealsRepository.insertIfAbsent(dealEntity)).thenReturn(true);
+        when(fxDealsMapper.toDto(dealEntity)).thenReturn(responseDto);
 
         // Act
         FXDealsResponseDto result = fxDealService.createDeal(requestDto);
@@ -80,13 +99,14 @@ public class FXDealServiceImplTest {
         assertEquals(dealId, result.getId());
         assertEquals("USD", result.getOrderingCurrencyIsoCode());
         assertEquals("EUR", result.getToCurrencyIsoCode());
-        assertEquals(1000.50, result.getDealAmount());
+        assertEquals(10_005_000L, result.getDealAmount());
         assertNotNull(result.getCreatedAt());
 
-        verify(fxDealsRepository, times(1)).existsById(dealId);
         verify(fxDealsMapper, times(1)).toEntity(requestDto);
-        verify(fxDealsRepository, times(1)).save(dealEntity);
-        verify(fxDealsMapper, times(1)).toDto(savedDeal);
+        verify(fxDealsRepository, times(1)).insertIfAbsent(dealEntity);
+        verify(fxDealsRepository, never()).existsById(any(UUID.class));
+        verify(fxDealsRepository, never()).save(any(FxDeals.class));
+        verify(fxDealsMapper, times(1)).toDto(dealEntity);
     }
 
     @Test
@@ -97,11 +117,20 @@ public class FXDealServiceImplTest {
                 .dealUniqueId(dealId)
                 .orderingCurrencyIsoCode("USD")
                 .toCurrencyIsoCode("EUR")
-                .dealAmount(1000.50)
+                .dealAmount(10_005_000L)
                 .dealTimestamp("2024-01-15T10:30:00")
                 .build();
 
-        when(fxDealsRepository.existsById(dealId)).thenReturn(true);
+        FxDeals dealEntity = FxDeals.builder()
+                .id(dealId)
+                .orderingCurrencyIsoCode("USD")
+                .toCurrencyIsoCode("EUR")
+                .dealAmount(10_005_000L)
+                .dealTimestamp(LocalDateTime.parse("2024-01-15T10:30:00"))
+                .build();
+
+        when(fxDealsMapper.toEntity(requestDto)).thenReturn(dealEntity);
+        when(fxDealsRepository.insertIfAbsent(dealEntity)).thenReturn(false);
 
         // Act & Assert
         RequestAlreadyExistException exception = assertThrows(
@@ -111,8 +140,9 @@ public class FXDealServiceImplTest {
         );
 
         assertEquals("Deal with ID " + dealId + " already exists", exception.getMessage());
-        verify(fxDealsRepository, times(1)).existsById(dealId);
-        verify(fxDealsMapper, never()).toEntity(any(FXDealsRequestDto.class));
+        assertEquals(1.0, metrics.outcomeCount(IngestionOutcome.DUPLICATE));
+        assertEquals(0.0, metrics.outcomeCount(IngestionOutcome.CREATED));
+        verify(fxDealsRepository, times(1)).insertIfAbsent(dealEntity);
         verify(fxDealsRepository, never()).save(any(FxDeals.class));
         verify(fxDealsMapper, never()).toDto(any(FxDeals.class));
     }
@@ -125,7 +155,7 @@ public class FXDealServiceImplTest {
                 .dealUniqueId(dealId)
                 .orderingCurrencyIsoCode("GBP")
                 .toCurrencyIsoCode("JPY")
-                .dealAmount(5000.75)
+                .dealAmount(50_007_500L)
                 .dealTimestamp("2024-01-20T14:25:00")
                 .build();
 
@@ -133,32 +163,22 @@ public class FXDealServiceImplTest {
                 .id(dealId)
                 .orderingCurrencyIsoCode("GBP")
                 .toCurrencyIsoCode("JPY")
-                .dealAmount(5000.75)
+                .dealAmount(50_007_500L)
                 .dealTimestamp(LocalDateTime.parse("2024-01-20T14:25:00"))
                 .build();
 
-        FxDeals savedDeal = FxDeals.builder()
-                .id(dealId)
-                .orderingCurrencyIsoCode("GBP")
-                .toCurrencyIsoCode("JPY")
-                .dealAmount(5000.75)
-                .dealTimestamp(LocalDateTime.parse("2024-01-20T14:25:00"))
-                .createdAt(LocalDateTime.now())
-                .build();
-
         FXDealsResponseDto responseDto = FXDealsResponseDto.builder()
                 .id(dealId)
                 .orderingCurrencyIsoCode("GBP")
                 .toCurrencyIsoCode("JPY")
-                .dealAmount(5000.75)
+                .dealAmount(50_007_500L)
                 .dealTimestamp(LocalDateTime.parse("2024-01-20T14:25:00"))
-                .createdAt(savedDeal.getCreatedAt())
+                .createdAt(LocalDateTime.now())
                 .build();
 
-        when(fxDealsRepository.existsById(dealId)).thenReturn(false);
         when(fxDealsMapper.toEntity(requestDto)).thenReturn(dealEntity);
-        when(fxDealsRepository.save(dealEntity)).thenReturn(savedDeal);
-        when(fxDealsMapper.toDto(savedDeal)).thenReturn(responseDto);
+        when(fxDealsRepository.insertIfAbsent(dealEntity)).thenReturn(true);
+        when(fxDealsMapper.toDto(dealEntity)).thenReturn(responseDto);
 
         // Act
         FXDealsResponseDto result = fxDealService.createDeal(requestDto);
@@ -167,17 +187,16 @@ public class FXDealServiceImplTest {
         assertNotNull(result);
         assertEquals("GBP", result.getOrderingCurrencyIsoCode());
         assertEquals("JPY", result.getToCurrencyIsoCode());
-        assertEquals(5000.75, result.getDealAmount());
+        assertEquals(50_007_500L, result.getDealAmount());
 
-        verify(fxDealsRepository, times(1)).existsById(dealId);
-        verify(fxDealsRepository, times(1)).save(dealEntity);
+        verify(fxDealsRepository, times(1)).insertIfAbsent(dealEntity);
     }
 
     @Test
     public void createDeal_shouldHandleLargeAmounts() {
         // Arrange
         UUID dealId = UUID.randomUUID();
-        Double largeAmount = 999999.99;
+        long largeAmount = 9_999_999_900L;
         FXDealsRequestDto requestDto = FXDealsRequestDto.builder()
                 .dealUniqueId(dealId)
                 .orderingCurrencyIsoCode("USD")
@@ -194,7 +213,7 @@ public class FXDealServiceImplTest {
                 .dealTimestamp(LocalDateTime.parse("2024-01-22T16:45:00"))
                 .build();
 
-        FxDeals savedDeal = FxDeals.builder()
+        FXDealsResponseDto responseDto = FXDealsResponseDto.builder()
                 .id(dealId)
                 .orderingCurrencyIsoCode("USD")
                 .toCurrencyIsoCode("CHF")
@@ -203,26 +222,138 @@ public class FXDealServiceImplTest {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        FXDealsResponseDto responseDto = FXDealsResponseDto.builder()
+        when(fxDealsMapper.toEntity(requestDto)).thenReturn(dealEntity);
+        when(fxDealsRepository.insertIfAbsent(dealEntity)).thenReturn(true);
+        when(fxDealsMapper.toDto(dealEntity)).thenReturn(responseDto);
+
+        // Act
+        FXDealsResponseDto result = fxDealService.createDeal(requestDto);
+
+        // Assert
+        assertNotNull(result);
+        assertEquals(largeAmount, result.getDealAmount());
+        verify(fxDealsRepository, times(1)).insertIfAbsent(dealEntity);
+    }
+
+    @Test
+    public void createDeal_shouldSkipConflictCheck_whenFilterSaysDealIsNew() {
+        // Arrange
+        dealIdFilter.warmUp();
+        UUID dealId = UUID.randomUUID();
+        FXDealsRequestDto requestDto = validRequest(dealId);
+        FxDeals dealEntity = FxDeals.builder()
                 .id(dealId)
                 .orderingCurrencyIsoCode("USD")
-                .toCurrencyIsoCode("CHF")
-                .dealAmount(largeAmount)
-                .dealTimestamp(LocalDateTime.parse("2024-01-22T16:45:00"))
-                .createdAt(savedDeal.getCreatedAt())
+                .toCurrencyIsoCode("EUR")
+                .dealAmount(10_005_000L)
+                .dealTimestamp(LocalDateTime.parse("2024-01-15T10:30:00"))
                 .build();
 
-        when(fxDealsRepository.existsById(dealId)).thenReturn(false);
         when(fxDealsMapper.toEntity(requestDto)).thenReturn(dealEntity);
-        when(fxDealsRepository.save(dealEntity)).thenReturn(savedDeal);
-        when(fxDealsMapper.toDto(savedDeal)).thenReturn(responseDto);
 
         // Act
-        FXDealsResponseDto result = fxDealService.createDeal(requestDto);
+        fxDealService.createDeal(requestDto);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(largeAmount, result.getDealAmount());
-        verify(fxDealsRepository, times(1)).save(dealEntity);
+        verify(fxDealsRepository, times(1)).insertNew(dealEntity);
+        verify(fxDealsRepository, never()).insertIfAbsent(any(FxDeals.class));
+        assertTrue(dealIdFilter.getBloomFilter().mightContain(dealId));
+    }
+
+    @Test
+    public void createDeal_shouldThrowRequestAlreadyExistException_whenConcurrentInsertWinsAfterFilterCheck() {
+        // Arrange
+        dealIdFilter.warmUp();
+        UUID dealId = UUID.randomUUID();
+        FXDealsRequestDto requestDto = validRequest(dealId);
+        FxDeals dealEntity = FxDeals.builder()
+                .id(dealId)
+                .orderingCurrencyIsoCode("USD")
+                .toCurrencyIsoCode("EUR")
+                .dealAmount(10_005_000L)
+                .dealTimestamp(LocalDateTime.parse("2024-01-15T10:30:00"))
+                .build();
+
+        when(fxDealsMapper.toEntity(requestDto)).thenReturn(dealEntity);
+        doThrow(new DuplicateKeyException("duplicate key")).when(fxDealsRepository).insertNew(dealEntity);
+
+        // Act & Assert
+        assertThrows(RequestAlreadyExistException.class, () -> fxDealService.createDeal(requestDto));
+    }
+
+    @Test
+    public void createDeals_shouldReportCreatedDuplicateAndInvalidItems() {
+        // Arrange
+        fxDealService = new FXDealServiceImpl(fxDealsRepository, Mappers.getMapper(FXDealsMapper.class), validator, properties, dealIdFilter, metrics, new DealLogSampler(properties), eventPublisher);
+        UUID newId = UUID.randomUUID();
+        UUID existingId = UUID.randomUUID();
+        List<FXDealsRequestDto> requestDtos = List.of(
+                validRequest(newId),
+                validRequest(existingId),
+                validRequest(newId),
+                FXDealsRequestDto.builder()
+                        .dealUniqueId(UUID.randomUUID())
+                        .orderingCurrencyIsoCode("usd")
+                        .toCurrencyIsoCode("EUR")
+                        .dealAmount(100_000L)
+                        .dealTimestamp("2024-01-15T10:30:00")
+                        .build(),
+                FXDealsRequestDto.builder()
+                        .dealUniqueId(UUID.randomUUID())
+                        .orderingCurrencyIsoCode("USD")
+                        .toCurrencyIsoCode("EUR")
+                        .dealAmount(100_000L)
+                        .dealTimestamp("not-a-timestamp")
+                        .build()
+        );
+
+        when(fxDealsRepository.insertAllIgnoringDuplicates(anyList())).thenReturn(Set.of(newId));
+
+        // Act
+        FXDealsBatchResponseDto result = fxDealService.createDeals(requestDtos);
+
+        // Assert
+        assertEquals(5, result.getTotal());
+        assertEquals(1, result.getCreated());
+        assertEquals(2, result.getDuplicates());
+        assertEquals(2, result.getInvalid());
+        assertEquals(FXDealBatchItemStatus.CREATED, result.getResults().get(0).getStatus());
+        assertEquals(FXDealBatchItemStatus.DUPLICATE, result.getResults().get(1).getStatus());
+        assertEquals(FXDealBatchItemStatus.DUPLICATE, result.getResults().get(2).getStatus());
+        assertEquals(FXDealBatchItemStatus.INVALID, result.getResults().get(3).getStatus());
+        assertEquals("Currency ISO Code must be 3 uppercase letters",
+                result.getResults().get(3).getErrors().get("orderingCurrencyIsoCode"));
+        assertEquals(FXDealBatchItemStatus.INVALID, result.getResults().get(4).getStatus());
+        assertNotNull(result.getResults().get(4).getErrors().get("dealTimestamp"));
+        assertEquals(1.0, metrics.outcomeCount(IngestionOutcome.CREATED));
+        assertEquals(2.0, metrics.outcomeCount(IngestionOutcome.DUPLICATE));
+        assertEquals(1.0, metrics.outcomeCount(IngestionOutcome.VALIDATION_FAILURE));
+        assertEquals(1.0, metrics.outcomeCount(IngestionOutcome.PARSE_FAILURE));
+
+        verify(fxDealsRepository, times(1)).insertAllIgnoringDuplicates(argThat(deals -> deals.size() == 2));
+        verify(fxDealsRepository, never()).save(any(FxDeals.class));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof FXDealsInsertedEvent inserted
+                && inserted.deals().size() == 1 && inserted.deals().get(0).getId().equals(newId)));
+    }
+
+    @Test
+    public void createDeals_shouldThrowBatchSizeExceededException_whenBatchTooLarge() {
+        // Arrange
+        properties.getBatch().setMaxSize(1);
+        List<FXDealsRequestDto> requestDtos = List.of(validRequest(UUID.randomUUID()), validRequest(UUID.randomUUID()));
+
+        // Act & Assert
+        assertThrows(BatchSizeExceededException.class, () -> fxDealService.createDeals(requestDtos));
+        verify(fxDealsRepository, never()).insertAllIgnoringDuplicates(anyList());
+    }
+
+    private static FXDealsRequestDto validRequest(UUID dealId) {
+        return FXDealsRequestDto.builder()
+                .dealUniqueId(dealId)
+                .orderingCurrencyIsoCode("USD")
+                .toCurrencyIsoCode("EUR")
+                .dealAmount(10_005_000L)
+                .dealTimestamp("2024-01-15T10:30:00")
+                .build();
     }
 }
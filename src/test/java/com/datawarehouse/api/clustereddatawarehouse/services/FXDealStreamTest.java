@@ -0,0 +1,153 @@
+package com.datawarehouse.api.clustereddatawarehouse.services;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import com.datawarehouse.api.clustereddatawarehouse.services.stream.DealRingBuffer;
+import com.datawarehouse.api.clustereddatawarehouse.services.stream.DealStreamEvent;
+import com.datawarehouse.api.clustereddatawarehouse.services.stream.DealStreamSubscription;
+import com.datawarehouse.api.clustereddatawarehouse.services.stream.FXDealStream;
+import com.datawarehouse.api.clustereddatawarehouse.services.stream.FXDealsInsertedEvent;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.FXDealsResponseDto;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.BadRequestException;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.StreamPositionUnavailableException;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.StreamSubscriberLimitException;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.FXDealsMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FXDealStreamTest {
+
+    private FXDealStream stream;
+
+    @AfterEach
+    public void afterEach() {
+        if (stream != null) {
+            stream.stop();
+        }
+    }
+
+    @Test
+    public void poll_shouldReturnPublishedDealsOfTheSubscribedPair() {
+        // Arrange
+        DealRingBuffer ring = new DealRingBuffer(8);
+        DealStreamSubscription subscription = new DealStreamSubscription(ring, "USD", "EUR", 0);
+        ring.publish(deal("USD", "EUR"));
+        ring.publish(deal("GBP", "EUR"));
+        ring.publish(deal("USD", "EUR"));
+        List<DealStreamEvent> matches = new ArrayList<>();
+
+        // Act
+        int read = subscription.poll(matches, 10);
+
+        // Assert
+        assertEquals(3, read);
+        assertEquals(List.of(0L, 2L), matches.stream().map(DealStreamEvent::sequence).toList());
+        assertEquals(3, subscription.position());
+        assertEquals(0, subscription.lag());
+        assertEquals(0, subscription.poll(matches, 10));
+    }
+
+    @Test
+    public void poll_shouldReportLag_whenUnreadDealsWereOverwritten() {
+        // Arrange
+        DealRingBuffer ring = new DealRingBuffer(5);
+        DealStreamSubscription behind = new DealStreamSubscription(ring, null, null, 0);
+        for (int i = 0; i < 9; i++) {
+            ring.publish(deal("USD", "EUR"));
+        }
+        DealStreamSubscription resumed = new DealStreamSubscription(ring, null, null, ring.oldestSequence());
+        List<DealStreamEvent> matches = new ArrayList<>();
+
+        // Act & Assert
+        assertEquals(8, ring.capacity());
+        assertEquals(1, ring.oldestSequence());
+        assertEquals(9, behind.lag());
+        assertEquals(-1, behind.poll(matches, 10));
+        assertEquals(8, resumed.poll(matches, 10));
+        assertEquals(1, matches.get(0).sequence());
+    }
+
+    @Test
+    public void poll_shouldSeeEveryDealOnce_whenPublishedConcurrently() throws Exception {
+        // Arrange
+        int publishers = 4;
+        int perPublisher = 20_000;
+        DealRingBuffer ring = new DealRingBuffer(publishers * perPublisher);
+        DealStreamSubscription subscription = new DealStreamSubscription(ring, null, null, 0);
+        FXDealsResponseDto deal = deal("USD", "EUR");
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < publishers; p++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perPublisher; i++) {
+                    ring.publish(deal);
+                }
+            }));
+        }
+
+        // Act
+        threads.forEach(Thread::start);
+        List<DealStreamEvent> received = new ArrayList<>();
+        while (received.size() < publishers * perPublisher) {
+            assertTrue(subscription.poll(received, 1_000) >= 0);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        for (int i = 0; i < received.size(); i++) {
+            assertEquals(i, received.get(i).sequence());
+        }
+        assertEquals(0, subscription.poll(received, 1_000));
+    }
+
+    @Test
+    public void subscribe_shouldRejectPositionsOutsideTheRetainedWindow() {
+        // Arrange
+        FXDealsProperties properties = new FXDealsProperties();
+        properties.getStream().setCapacity(4);
+        properties.getStream().setMaxSubscribers(1);
+        stream = new FXDealStream(Mappers.getMapper(FXDealsMapper.class), properties, new SimpleMeterRegistry(),
+                new MockEnvironment());
+        stream.start();
+        List<FxDeals> deals = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            deals.add(FxDeals.builder()
+                    .id(UUID.randomUUID())
+                    .orderingCurrencyIsoCode("USD")
+                    .toCurrencyIsoCode("EUR")
+                    .dealAmount(10_000L)
+                    .dealTimestamp(LocalDateTime.parse("2024-01-15T10:30:00"))
+                    .build());
+        }
+        stream.onDealsInserted(new FXDealsInsertedEvent(deals));
+
+        // Act & Assert
+        assertThrows(StreamPositionUnavailableException.class, () -> stream.subscribe(null, null, "0:3"));
+        assertThrows(BadRequestException.class, () -> stream.subscribe("usd", null, null));
+        assertThrows(BadRequestException.class, () -> stream.subscribe(null, null, "not-an-id"));
+        assertNotNull(stream.subscribe("USD", "EUR", null));
+        assertThrows(StreamSubscriberLimitException.class, () -> stream.subscribe(null, null, null));
+        assertEquals(1, stream.subscriberCount());
+    }
+
+    private static FXDealsResponseDto deal(String ordering, String to) {
+        return FXDealsResponseDto.builder()
+                .id(UUID.randomUUID())
+                .orderingCurrencyIsoCode(ordering)
+                .toCurrencyIsoCode(to)
+                .dealAmount(10_000L)
+                .dealTimestamp(LocalDateTime.parse("2024-01-15T10:30:00"))
+                .build();
+    }
+}
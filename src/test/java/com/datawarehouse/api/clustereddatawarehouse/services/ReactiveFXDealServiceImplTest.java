@@ -0,0 +1,134 @@
+package com.datawarehouse.api.clustereddatawarehouse.services;
+
+import com.datawarehouse.api.clustereddatawarehouse.config.FXDealsProperties;
+import com.datawarehouse.api.clustereddatawarehouse.domain.FxDeals;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.DealLogSampler;
+import com.datawarehouse.api.clustereddatawarehouse.metrics.FXDealMetrics;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsReactiveRepository;
+import com.datawarehouse.api.clustereddatawarehouse.repository.FXDealsRepository;
+import com.datawarehouse.api.clustereddatawarehouse.services.dedup.DealIdFilter;
+import com.datawarehouse.api.clustereddatawarehouse.services.implementation.ReactiveFXDealServiceImpl;
+import com.datawarehouse.api.clustereddatawarehouse.services.importing.FXDealImportFormat;
+import com.datawarehouse.api.clustereddatawarehouse.web.dto.fxDeals.*;
+import com.datawarehouse.api.clustereddatawarehouse.web.exception.RequestAlreadyExistException;
+import com.datawarehouse.api.clustereddatawarehouse.web.mapper.FXDealsMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class ReactiveFXDealServiceImplTest {
+
+    private FXDealsReactiveRepository fxDealsRepository;
+    private FXDealsProperties properties;
+    private ReactiveFXDealServiceImpl fxDealService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void beforeEach() {
+        fxDealsRepository = mock(FXDealsReactiveRepository.class);
+        TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+        when(transactionalOperator.transactional(any(Flux.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        properties = new FXDealsProperties();
+        properties.getImporting().setChunkSize(2);
+        properties.getDedupFilter().setExpectedInsertions(1_000);
+        DealIdFilter dealIdFilter = new DealIdFilter(mock(FXDealsRepository.class), mock(PlatformTransactionManager.class), properties);
+        fxDealService = new ReactiveFXDealServiceImpl(fxDealsRepository, transactionalOperator,
+                Mappers.getMapper(FXDealsMapper.class), Validation.buildDefaultValidatorFactory().getValidator(),
+                properties, dealIdFilter, new FXDealMetrics(new SimpleMeterRegistry()), new DealLogSampler(properties),
+                new ObjectMapper());
+    }
+
+    @Test
+    public void createDeal_shouldSignalRequestAlreadyExistException_whenDealIdExists() {
+        // Arrange
+        when(fxDealsRepository.insertIfAbsent(any(FxDeals.class))).thenReturn(Mono.just(false));
+
+        // Act & Assert
+        assertThrows(RequestAlreadyExistException.class,
+                () -> fxDealService.createDeal(deal(UUID.randomUUID())).block());
+    }
+
+    @Test
+    public void importDeals_shouldWriteOneChunkAtATime() {
+        // Arrange
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(fxDealsRepository.insertAllIgnoringDuplicates(anyList())).thenAnswer(invocation -> {
+            List<FxDeals> deals = invocation.getArgument(0);
+            return Flux.fromIterable(deals)
+                    .map(FxDeals::getId)
+                    .doOnSubscribe(subscription -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                    .doFinally(signal -> inFlight.decrementAndGet());
+        });
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            lines.add(ndjsonLine(UUID.randomUUID()));
+        }
+        lines.add("");
+        lines.add("{not json");
+
+        // Act
+        FXDealsImportReportDto report = fxDealService.importDeals(Flux.fromIterable(lines), FXDealImportFormat.NDJSON).block();
+
+        // Assert
+        assertNotNull(report);
+        assertEquals(FXDealImportStatus.COMPLETED, report.getStatus());
+        assertEquals(6, report.getRowsRead());
+        assertEquals(5, report.getCreated());
+        assertEquals(1, report.getInvalid());
+        assertEquals(6, report.getErrors().get(0).getIndex());
+        assertNotNull(report.getErrors().get(0).getErrors().get("row"));
+        assertEquals(1, maxInFlight.get());
+        verify(fxDealsRepository, times(3)).insertAllIgnoringDuplicates(anyList());
+    }
+
+    @Test
+    public void importDeals_shouldReportProgress_whenUploadFailsPartway() {
+        // Arrange
+        when(fxDealsRepository.insertAllIgnoringDuplicates(anyList()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<FxDeals>>getArgument(0)).map(FxDeals::getId));
+        Flux<String> lines = Flux.just(ndjsonLine(UUID.randomUUID()), ndjsonLine(UUID.randomUUID()))
+                .concatWith(Flux.error(new IllegalStateException("Connection reset")));
+
+        // Act
+        FXDealsImportReportDto report = fxDealService.importDeals(lines, FXDealImportFormat.NDJSON).block();
+
+        // Assert
+        assertNotNull(report);
+        assertEquals(FXDealImportStatus.ABORTED, report.getStatus());
+        assertEquals(2, report.getRowsCommitted());
+        assertEquals("Connection reset", report.getFailureMessage());
+    }
+
+    private static FXDealsRequestDto deal(UUID id) {
+        return FXDealsRequestDto.builder()
+                .dealUniqueId(id)
+                .orderingCurrencyIsoCode("USD")
+                .toCurrencyIsoCode("EUR")
+                .dealAmount(10_005_000L)
+                .dealTimestamp("2024-01-15T10:30:00")
+                .build();
+    }
+
+    private static String ndjsonLine(UUID id) {
+        return "{\"dealUniqueId\":\"" + id + "\",\"orderingCurrencyIsoCode\":\"USD\",\"toCurrencyIsoCode\":\"EUR\","
+                + "\"dealAmount\":1000.50,\"dealTimestamp\":\"2024-01-15T10:30:00\"}";
+    }
+}